@@ -352,4 +352,18 @@ public @interface JSFComponent
      * @since 1.0.5
      */
     boolean composite() default false;
+
+    /**
+     * How the generated component class stores the properties it keeps in
+     * its StateHelper: "stateHelper" or "array". With "array", the values
+     * are kept in an array indexed by property instead of a map, which
+     * is faster to access and smaller, and the component saves them in its
+     * own saveState. Only used by the JSF 2.0 component template, the
+     * default is the stateStorage of the make-components goal.
+     * <p>
+     * This attribute is not inheritable.
+     * 
+     * @since 1.0.10
+     */
+    String stateStorage() default "";
 }
@@ -0,0 +1,227 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Generates the abstract classes of the synthetic 200 property components,
+ * whose concrete classes the builder plugin then generates from their
+ * annotations. It is run as a single source file program by the
+ * generate-wide-components execution of the pom, before build-metadata:
+ *
+ *   java src/build/GenerateWideComponents.java target/generated-sources/wide-components
+ *
+ * Every component has the same properties, twenty of each of ten kinds in
+ * turn, so that the benchmarks of the templates compare the same model.
+ */
+public class GenerateWideComponents
+{
+    private static final int PROPERTIES = 200;
+
+    private static final String PACKAGE = "org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark";
+
+    private static final String LICENSE =
+        "/*\n" +
+        " *  Licensed to the Apache Software Foundation (ASF) under one\n" +
+        " *  or more contributor license agreements.  See the NOTICE file\n" +
+        " *  distributed with this work for additional information\n" +
+        " *  regarding copyright ownership.  The ASF licenses this file\n" +
+        " *  to you under the Apache License, Version 2.0 (the\n" +
+        " *  \"License\"); you may not use this file except in compliance\n" +
+        " *  with the License.  You may obtain a copy of the License at\n" +
+        " * \n" +
+        " *  http://www.apache.org/licenses/LICENSE-2.0\n" +
+        " * \n" +
+        " *  Unless required by applicable law or agreed to in writing,\n" +
+        " *  software distributed under the License is distributed on an\n" +
+        " *  \"AS IS\" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY\n" +
+        " *  KIND, either express or implied.  See the License for the\n" +
+        " *  specific language governing permissions and limitations\n" +
+        " *  under the License.\n" +
+        " */\n";
+
+    /**
+     * The type, getter prefix and literal only, partial state holder and
+     * default value attributes of each kind of property, in turn. A default
+     * of "#" is the index of the property.
+     */
+    private static final String[][] KINDS = {
+        {"String", "get", "false", "false", null},
+        {"boolean", "is", "false", "false", null},
+        {"int", "get", "false", "false", "#"},
+        {"Object", "get", "false", "true", null},
+        {"String", "get", "true", "false", null},
+        {"boolean", "is", "true", "false", "true"},
+        {"double", "get", "false", "false", "1.5"},
+        {"Integer", "get", "false", "false", null},
+        {"int", "get", "true", "false", "#"},
+        {"long", "get", "false", "false", null},
+    };
+
+    public static void main(String[] args) throws IOException
+    {
+        File outputDirectory = new File(args[0]);
+
+        _generate(outputDirectory, "component", "AbstractWideComponent",
+            "jakarta.faces.component.UIOutput",
+            "/**\n" +
+            " * A synthetic component with 200 properties, twenty of each of ten kinds\n" +
+            " * in turn: String, boolean, int with a default, partial state holder\n" +
+            " * Object, literal only String, literal only boolean with a default,\n" +
+            " * double with a default, Integer, literal only int with a default and\n" +
+            " * long.\n" +
+            " */\n" +
+            "@JSFComponent(\n" +
+            "        name = \"bench:wide\",\n" +
+            "        clazz = \"" + PACKAGE + ".component.WideComponent\",\n" +
+            "        tagClass = \"" + PACKAGE + ".component.WideComponentTag\")\n" +
+            "public abstract class AbstractWideComponent extends UIOutput\n" +
+            "{\n" +
+            "    public static final String COMPONENT_TYPE = \"org.apache.myfaces.buildtools.benchmark.WideComponent\";\n" +
+            "    public static final String COMPONENT_FAMILY = \"jakarta.faces.Output\";\n",
+            true);
+
+        _generate(outputDirectory, "jsf12", "AbstractWide12Component",
+            "jakarta.faces.component.UIOutput",
+            "/**\n" +
+            " * The synthetic 200 property component of the benchmark.component package,\n" +
+            " * generated with componentClass12.vm.\n" +
+            " */\n" +
+            "@JSFComponent(\n" +
+            "        name = \"bench:wide12\",\n" +
+            "        clazz = \"" + PACKAGE + ".jsf12.Wide12Component\")\n" +
+            "public abstract class AbstractWide12Component extends UIOutput\n" +
+            "{\n" +
+            "    public static final String COMPONENT_TYPE = \"org.apache.myfaces.buildtools.benchmark.Wide12Component\";\n" +
+            "    public static final String COMPONENT_FAMILY = \"jakarta.faces.Output\";\n",
+            true);
+
+        // As trinidadComponentClass20.vm keeps every property in the FacesBean,
+        // the literal only and partial state holder attributes are left out
+        _generate(outputDirectory, "trinidad", "AbstractWideTrinidadComponent",
+            "org.apache.myfaces.trinidad.component.UIXComponentBase",
+            "/**\n" +
+            " * The synthetic 200 property component of the benchmark.component package,\n" +
+            " * generated with trinidadComponentClass20.vm.\n" +
+            " */\n" +
+            "@JSFComponent(\n" +
+            "        name = \"bench:wideTrinidad\",\n" +
+            "        clazz = \"" + PACKAGE + ".trinidad.WideTrinidadComponent\",\n" +
+            "        family = \"org.apache.myfaces.buildtools.benchmark.Wide\",\n" +
+            "        type = \"org.apache.myfaces.buildtools.benchmark.WideTrinidadComponent\")\n" +
+            "public abstract class AbstractWideTrinidadComponent extends UIXComponentBase\n" +
+            "{\n" +
+            "    protected AbstractWideTrinidadComponent(String rendererType)\n" +
+            "    {\n" +
+            "        super(rendererType);\n" +
+            "    }\n",
+            false);
+    }
+
+    private static void _generate(
+        File outputDirectory,
+        String subpackage,
+        String className,
+        String superclass,
+        String declaration,
+        boolean attributes) throws IOException
+    {
+        String packageName = PACKAGE + "." + subpackage;
+        File file = new File(outputDirectory,
+            packageName.replace('.', File.separatorChar) + File.separator + className + ".java");
+        file.getParentFile().mkdirs();
+
+        PrintWriter out = new PrintWriter(file, "UTF-8");
+        try
+        {
+            out.print(LICENSE);
+            out.print("package " + packageName + ";\n\n");
+            out.print("// Generated by src/build/GenerateWideComponents.java of the benchmarks module\n\n");
+            SortedSet<String> imports = new TreeSet<String>(Arrays.asList(new String[] {
+                superclass,
+                "org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFComponent",
+                "org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFProperty"}));
+            String group = null;
+            for (String imported : imports)
+            {
+                String importGroup = imported.substring(0, imported.indexOf('.'));
+                if (group != null && !group.equals(importGroup))
+                {
+                    out.print("\n");
+                }
+                group = importGroup;
+                out.print("import " + imported + ";\n");
+            }
+            out.print("\n");
+            out.print(declaration);
+            for (int i = 0; i < PROPERTIES; i++)
+            {
+                String[] kind = KINDS[i % KINDS.length];
+                out.print("\n");
+                out.print("    /**\n");
+                out.print("     * Synthetic " + kind[0] + " property " + i + ".\n");
+                out.print("     */\n");
+                out.print("    @JSFProperty" + _propertyAttributes(kind, i, attributes) + "\n");
+                out.print("    public abstract " + kind[0] + " " + kind[1] + _name(i) + "();\n");
+            }
+            out.print("}\n");
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    private static String _propertyAttributes(String[] kind, int index, boolean attributes)
+    {
+        StringBuilder values = new StringBuilder();
+        if (attributes && Boolean.parseBoolean(kind[2]))
+        {
+            values.append("literalOnly = true");
+        }
+        if (attributes && Boolean.parseBoolean(kind[3]))
+        {
+            values.append("partialStateHolder = true");
+        }
+        if (kind[4] != null)
+        {
+            if (values.length() > 0)
+            {
+                values.append(", ");
+            }
+            String defaultValue = "#".equals(kind[4]) ? Integer.toString(index) : kind[4];
+            values.append("defaultValue = \"").append(defaultValue).append('"');
+        }
+        return values.length() == 0 ? "" : "(" + values + ")";
+    }
+
+    /**
+     * The name of a property after its getter prefix, as in
+     * BenchmarkSupport.wideName.
+     */
+    private static String _name(int index)
+    {
+        String digits = Integer.toString(index);
+        return "Prop000".substring(0, 7 - digits.length()) + digits;
+    }
+}
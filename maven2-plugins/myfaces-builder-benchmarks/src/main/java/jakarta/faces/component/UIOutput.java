@@ -0,0 +1,74 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jakarta.faces.component;
+
+import jakarta.faces.convert.Converter;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFComponent;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFProperty;
+
+/**
+ * Stand-in of the JSF output component. Its properties are annotated, as
+ * in the MyFaces API, so the generated tags of its subclasses set them.
+ */
+@JSFComponent(configExcluded = true)
+public abstract class UIOutput extends UIComponent
+{
+    public static final String COMPONENT_FAMILY = "jakarta.faces.Output";
+
+    private Converter converter;
+
+    enum PropertyKeys
+    {
+        value
+    }
+
+    public String getFamily()
+    {
+        return COMPONENT_FAMILY;
+    }
+
+    /**
+     * The value of the component.
+     */
+    @JSFProperty
+    public Object getValue()
+    {
+        return getStateHelper().eval(PropertyKeys.value);
+    }
+
+    public void setValue(Object value)
+    {
+        getStateHelper().put(PropertyKeys.value, value);
+    }
+
+    /**
+     * The converter of the value.
+     */
+    @JSFProperty
+    public Converter getConverter()
+    {
+        return converter;
+    }
+
+    public void setConverter(Converter converter)
+    {
+        this.converter = converter;
+    }
+}
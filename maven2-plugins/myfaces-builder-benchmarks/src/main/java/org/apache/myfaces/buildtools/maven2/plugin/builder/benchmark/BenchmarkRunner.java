@@ -0,0 +1,66 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and archives their results as JSON, in a file
+ * named after the time of the run, so the runs before and after a
+ * template change can be compared.
+ * <p>
+ * Arguments: the result directory, and optionally a regular expression
+ * of the benchmarks to run.
+ */
+public class BenchmarkRunner
+{
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Usage: BenchmarkRunner <result directory> [<benchmark regexp>]");
+            System.exit(1);
+        }
+
+        File resultDirectory = new File(args[0]);
+        if (!resultDirectory.isDirectory() && !resultDirectory.mkdirs())
+        {
+            throw new IllegalStateException("Cannot create " + resultDirectory);
+        }
+        String include = args.length > 1 ? args[1] : ".*";
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File resultFile = new File(resultDirectory, "jmh-result-" + timestamp + ".json");
+
+        Options options = new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile.getPath())
+            .build();
+        new Runner(options).run();
+
+        System.out.println("Results written to " + resultFile);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.util.Map;
+
+import jakarta.el.ValueExpression;
+import jakarta.faces.application.Application;
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * Shared setup of the benchmarks: the faces context of the benchmark
+ * thread, and the values of the synthetic component properties.
+ */
+public final class BenchmarkSupport
+{
+    /**
+     * The number of properties of the synthetic components.
+     */
+    public static final int WIDE_PROPERTIES = 200;
+
+    private BenchmarkSupport()
+    {
+    }
+
+    /**
+     * Creates a faces context with the benchmark converter registered, and
+     * makes it the current instance of the calling thread.
+     */
+    public static FacesContext createFacesContext()
+    {
+        Application application = new Application();
+        application.addConverter(NumberConverter.CONVERTER_ID, NumberConverter.class);
+        FacesContext context = new FacesContext(application, new ExternalContext());
+        FacesContext.setCurrentInstance(context);
+        return context;
+    }
+
+    public static ValueExpression literal(String text)
+    {
+        return new BenchmarkValueExpression(text, text, true);
+    }
+
+    public static ValueExpression expression(String expressionString, Object value)
+    {
+        return new BenchmarkValueExpression(expressionString, value, false);
+    }
+
+    /**
+     * The name of a property of the synthetic components.
+     */
+    public static String wideName(int index)
+    {
+        String digits = Integer.toString(index);
+        return "prop000".substring(0, 7 - digits.length()) + digits;
+    }
+
+    /**
+     * Whether a property of the synthetic components is literal only, and
+     * cannot be bound to an expression.
+     */
+    public static boolean isWideLiteralOnly(int index)
+    {
+        int kind = index % 10;
+        return kind == 4 || kind == 5 || kind == 8;
+    }
+
+    /**
+     * A value of a property of the synthetic components, of the type of
+     * its kind, as generated by src/build/GenerateWideComponents.java. The
+     * variant changes the value, so that setting it again with another
+     * variant is a change of the property.
+     */
+    public static Object wideValue(int index, int variant)
+    {
+        switch (index % 10)
+        {
+            case 0:
+            case 4:
+                return "value" + index + "_" + variant;
+            case 1:
+            case 5:
+                return Boolean.valueOf((index + variant) % 2 == 0);
+            case 2:
+            case 7:
+            case 8:
+                return Integer.valueOf(index + variant);
+            case 3:
+                return new BenchmarkHolder("holder" + index + "_" + variant);
+            case 6:
+                return Double.valueOf(index + variant + 0.5);
+            default:
+                return Long.valueOf(index * 1000L + variant);
+        }
+    }
+
+    /**
+     * Sets the first properties of a synthetic component through its
+     * attributes, which call the property setters.
+     */
+    public static void setWideProperties(UIComponent component, int count, int variant)
+    {
+        Map<String, Object> attributes = component.getAttributes();
+        for (int i = 0; i < count; i++)
+        {
+            attributes.put(wideName(i), wideValue(i, variant));
+        }
+    }
+}
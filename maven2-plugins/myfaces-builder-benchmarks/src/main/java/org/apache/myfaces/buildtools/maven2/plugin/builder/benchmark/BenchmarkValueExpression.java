@@ -0,0 +1,57 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import jakarta.el.ELContext;
+import jakarta.el.ValueExpression;
+
+/**
+ * A value expression with a fixed value, either literal text or an
+ * expression whose evaluation returns the value.
+ */
+public class BenchmarkValueExpression extends ValueExpression
+{
+    private final String expressionString;
+
+    private final Object value;
+
+    private final boolean literalText;
+
+    public BenchmarkValueExpression(String expressionString, Object value, boolean literalText)
+    {
+        this.expressionString = expressionString;
+        this.value = value;
+        this.literalText = literalText;
+    }
+
+    public Object getValue(ELContext context)
+    {
+        return value;
+    }
+
+    public String getExpressionString()
+    {
+        return expressionString;
+    }
+
+    public boolean isLiteralText()
+    {
+        return literalText;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.myfaces.buildtools.maven2.plugin.xrts.ListRTSWriter;
+import org.apache.myfaces.buildtools.maven2.plugin.xrts.RTSWriter;
+import org.apache.myfaces.buildtools.maven2.plugin.xrts.SortedRTSWriter;
+import org.apache.myfaces.buildtools.maven2.plugin.xrts.XRTSGenerator;
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+import org.xml.sax.InputSource;
+
+/**
+ * Load time and retained heap of 200 resource bundles of 250 strings each,
+ * generated by the myfaces-xrts-plugin with the "list" writer, as
+ * ListResourceBundles, or with the "sorted" one.
+ * <p>
+ * The bundles are generated and compiled once. Each invocation loads all
+ * of them through a new class loader and looks one string up in each, as
+ * an application does at startup. The retained heap, reported as the
+ * secondary result of retainedHeap, is everything reachable from the
+ * loaded bundles and the static fields of their classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BundleLoadBenchmark
+{
+    private static final int BUNDLES = 200;
+
+    private static final int KEYS_PER_BUNDLE = 250;
+
+    private static final String PACKAGE = "org.apache.myfaces.buildtools.benchmark.bundle";
+
+    @Param({"list", "sorted"})
+    private String writer;
+
+    private File directory;
+
+    private URL[] classpath;
+
+    /**
+     * The size in bytes of the last measurement.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint
+    {
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void clean()
+        {
+            retainedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws Throwable
+    {
+        directory = File.createTempFile("bundle-load", "");
+        directory.delete();
+        File sourceDir = new File(directory, "src");
+        File classesDir = new File(directory, "classes");
+        classesDir.mkdirs();
+
+        RTSWriter rtsWriter = "sorted".equals(writer) ? new SortedRTSWriter() : new ListRTSWriter();
+        List sources = new ArrayList();
+        for (int i = 0; i < BUNDLES; i++)
+        {
+            sources.add(_generate(rtsWriter, sourceDir, i));
+        }
+        _compile(sources, classesDir);
+        classpath = new URL[] {classesDir.toURI().toURL()};
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public ResourceBundle[] loadBundles() throws IOException
+    {
+        URLClassLoader loader = new URLClassLoader(classpath, null);
+        try
+        {
+            return _load(loader);
+        }
+        finally
+        {
+            loader.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public void retainedHeap(Footprint footprint) throws Exception
+    {
+        URLClassLoader loader = new URLClassLoader(classpath, null);
+        try
+        {
+            ResourceBundle[] bundles = _load(loader);
+            List roots = new ArrayList(Arrays.asList(bundles));
+            for (int i = 0; i < bundles.length; i++)
+            {
+                Field[] fields = bundles[i].getClass().getDeclaredFields();
+                for (int j = 0; j < fields.length; j++)
+                {
+                    if (Modifier.isStatic(fields[j].getModifiers()) && !fields[j].getType().isPrimitive())
+                    {
+                        fields[j].setAccessible(true);
+                        roots.add(fields[j].get(null));
+                    }
+                }
+            }
+            footprint.retainedBytes = GraphLayout.parseInstance(roots.toArray()).totalSize();
+        }
+        finally
+        {
+            loader.close();
+        }
+    }
+
+    private static ResourceBundle[] _load(ClassLoader loader)
+    {
+        ResourceBundle.Control control = ResourceBundle.Control.getNoFallbackControl(
+                ResourceBundle.Control.FORMAT_CLASS);
+        ResourceBundle[] bundles = new ResourceBundle[BUNDLES];
+        for (int i = 0; i < BUNDLES; i++)
+        {
+            bundles[i] = ResourceBundle.getBundle(PACKAGE + ".Bundle" + i, Locale.ROOT, loader, control);
+            bundles[i].getString(_key(i, KEYS_PER_BUNDLE / 2));
+        }
+        return bundles;
+    }
+
+    private static File _generate(RTSWriter rtsWriter, File sourceDir, int bundle) throws Throwable
+    {
+        StringBuffer xrts = new StringBuffer();
+        xrts.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xrts.append("<resources package=\"").append(PACKAGE).append("\">\n");
+        for (int i = 0; i < KEYS_PER_BUNDLE; i++)
+        {
+            xrts.append("  <resource key=\"").append(_key(bundle, i)).append("\">");
+            xrts.append("Message ").append(i).append(" of bundle ").append(bundle);
+            xrts.append(", about as long as a validation message</resource>\n");
+        }
+        xrts.append("</resources>\n");
+
+        String name = "Bundle" + bundle;
+        File outFile = new File(sourceDir, (PACKAGE + "." + name).replace('.', '/') + ".java");
+        outFile.getParentFile().mkdirs();
+
+        Map params = new HashMap();
+        params.put("outFile", outFile);
+        params.put("outName", name);
+        params.put("srcName", name);
+        params.put("quietMode", Boolean.TRUE);
+
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setValidating(false);
+        XRTSGenerator.generate(factory.newSAXParser(),
+                new InputSource(new StringReader(xrts.toString())), rtsWriter, params);
+        return outFile;
+    }
+
+    private static void _compile(List sources, File classesDir) throws IOException
+    {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+        {
+            throw new IllegalStateException("The benchmark must run on a JDK");
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+        try
+        {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sources);
+            List<String> options = Arrays.asList(new String[] {
+                "-nowarn", "-encoding", "UTF-8", "-d", classesDir.getPath()});
+            if (!compiler.getTask(null, fileManager, diagnostics, options, null, units).call().booleanValue())
+            {
+                StringBuffer message = new StringBuffer("Bundles do not compile:");
+                for (Diagnostic diagnostic : diagnostics.getDiagnostics())
+                {
+                    message.append('\n').append(diagnostic);
+                }
+                throw new IllegalStateException(message.toString());
+            }
+        }
+        finally
+        {
+            fileManager.close();
+        }
+    }
+
+    private static String _key(int bundle, int i)
+    {
+        return "component" + bundle + ".MESSAGE_" + i;
+    }
+}
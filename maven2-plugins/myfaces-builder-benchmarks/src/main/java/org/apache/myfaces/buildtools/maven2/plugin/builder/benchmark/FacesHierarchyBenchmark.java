@@ -0,0 +1,174 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.ComponentBean;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.EventRefBean;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.FacesConfigBean;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.FacetBean;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.PropertyBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lookups of the myfaces-faces-plugin generators over a component
+ * hierarchy of 10 levels of 80 components, each of which extends the one
+ * of the level above and adds 10 properties, 2 facets and an event.
+ * <p>
+ * Unless the faces config is flattened, every lookup walks the
+ * supertypes of the component.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FacesHierarchyBenchmark
+{
+    private static final int LEVELS = 10;
+
+    private static final int COMPONENTS_PER_LEVEL = 80;
+
+    private static final int PROPERTIES_PER_COMPONENT = 10;
+
+    private static final int FACETS_PER_COMPONENT = 2;
+
+    @Param({"false", "true"})
+    private boolean flattened;
+
+    private FacesConfigBean facesConfig;
+
+    private ComponentBean[] components;
+
+    private String[] propertyNames;
+
+    @Setup
+    public void setUp()
+    {
+        facesConfig = new FacesConfigBean();
+        components = new ComponentBean[LEVELS * COMPONENTS_PER_LEVEL];
+        propertyNames = new String[LEVELS];
+        for (int level = 0; level < LEVELS; level++)
+        {
+            propertyNames[level] = _propertyName(level, 0);
+            for (int i = 0; i < COMPONENTS_PER_LEVEL; i++)
+            {
+                ComponentBean component = new ComponentBean();
+                component.setComponentType(_componentType(level, i));
+                if (level == 0)
+                {
+                    component.setComponentFamily("family" + i);
+                }
+                else
+                {
+                    component.setComponentSupertype(_componentType(level - 1, i));
+                }
+
+                for (int j = 0; j < PROPERTIES_PER_COMPONENT; j++)
+                {
+                    PropertyBean property = new PropertyBean();
+                    property.setPropertyName(_propertyName(level, j));
+                    property.setPropertyClass("java.lang.String");
+                    component.addProperty(property);
+                }
+                for (int j = 0; j < FACETS_PER_COMPONENT; j++)
+                {
+                    FacetBean facet = new FacetBean();
+                    facet.setFacetName("facet" + level + "_" + j);
+                    component.addFacet(facet);
+                }
+                EventRefBean event = new EventRefBean();
+                event.setEventType("event" + level);
+                component.addEvent(event);
+
+                facesConfig.addComponent(component);
+                components[level * COMPONENTS_PER_LEVEL + i] = component;
+            }
+        }
+
+        if (flattened)
+        {
+            facesConfig.flatten();
+        }
+    }
+
+    /**
+     * What the generators of a component class do: iterate its flattened
+     * properties, facets and events, and find its family.
+     */
+    @Benchmark
+    public void iterate(Blackhole blackhole)
+    {
+        for (int i = 0; i < components.length; i++)
+        {
+            ComponentBean component = components[i];
+            _consume(blackhole, component.properties(true));
+            _consume(blackhole, component.facets(true));
+            _consume(blackhole, component.events(true));
+            blackhole.consume(component.findComponentFamily());
+        }
+    }
+
+    /**
+     * Finds a property of the root of the hierarchy and one of the
+     * component itself.
+     */
+    @Benchmark
+    public void findProperty(Blackhole blackhole)
+    {
+        for (int i = 0; i < components.length; i++)
+        {
+            ComponentBean component = components[i];
+            blackhole.consume(component.findProperty(propertyNames[0], true));
+            blackhole.consume(component.findProperty(propertyNames[i / COMPONENTS_PER_LEVEL], true));
+        }
+    }
+
+    private static void _consume(Blackhole blackhole, Iterator<?> iterator)
+    {
+        while (iterator.hasNext())
+        {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    private static String _componentType(int level, int i)
+    {
+        return "component" + level + "_" + i;
+    }
+
+    private static String _propertyName(int level, int j)
+    {
+        return "property" + level + "_" + j;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.component.UIComponent;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark.component.BenchmarkFacesRegistry;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark.component.SayHello;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark.component.WideComponent;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark.trinidad.WideTrinidadComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creation of a component by its type through the registry generated with
+ * faces-registry20.vm, against the reflection an application does with the
+ * class name of a faces-config entry: loading the class by name each time,
+ * or once and then only creating the instance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FacesRegistryBenchmark
+{
+    @Param({"org.apache.myfaces.buildtools.benchmark.SayHello",
+            "org.apache.myfaces.buildtools.benchmark.WideComponent",
+            "org.apache.myfaces.buildtools.benchmark.WideTrinidadComponent"})
+    private String componentType;
+
+    private BenchmarkFacesRegistry registry;
+
+    private Map<String, String> classNames;
+
+    private Map<String, Class<?>> classes;
+
+    private ClassLoader classLoader;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        registry = new BenchmarkFacesRegistry();
+
+        // What the faces-config entries of the components say
+        classNames = new HashMap<String, String>();
+        classNames.put(SayHello.COMPONENT_TYPE, SayHello.class.getName());
+        classNames.put(WideComponent.COMPONENT_TYPE, WideComponent.class.getName());
+        classNames.put(WideTrinidadComponent.COMPONENT_TYPE, WideTrinidadComponent.class.getName());
+
+        classLoader = Thread.currentThread().getContextClassLoader();
+        classes = new HashMap<String, Class<?>>();
+        for (Map.Entry<String, String> entry : classNames.entrySet())
+        {
+            classes.put(entry.getKey(), Class.forName(entry.getValue(), true, classLoader));
+        }
+
+        if (!registry.getComponentTypes().contains(componentType))
+        {
+            throw new IllegalStateException(componentType + " is not in the generated registry");
+        }
+    }
+
+    @Benchmark
+    public UIComponent registry()
+    {
+        return registry.createComponent(componentType);
+    }
+
+    @Benchmark
+    public UIComponent reflectionByName() throws Exception
+    {
+        return (UIComponent) Class.forName(classNames.get(componentType), true, classLoader).newInstance();
+    }
+
+    @Benchmark
+    public UIComponent reflectionCachedClass() throws Exception
+    {
+        return (UIComponent) classes.get(componentType).newInstance();
+    }
+}
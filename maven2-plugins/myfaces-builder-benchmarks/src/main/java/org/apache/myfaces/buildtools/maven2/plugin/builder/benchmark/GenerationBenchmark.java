@@ -0,0 +1,186 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.Flattener;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.GenerationPipeline;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.log.NullLogChute;
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput, in generated classes per second, of make-components merging
+ * componentClass20.vm through the GenerationPipeline on one or more
+ * generator threads.
+ * <p>
+ * The model is the one build-metadata scans from a synthetic tree of 200
+ * components with 24 properties each. The files are written into an empty
+ * directory on each invocation, so none is skipped as unchanged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark
+{
+    private static final int PACKAGES = 4;
+
+    private static final int COMPONENTS_PER_PACKAGE = 50;
+
+    private static final int COMPONENTS = PACKAGES * COMPONENTS_PER_PACKAGE;
+
+    private static final int CHAIN_LENGTH = 5;
+
+    private static final int PROPERTIES_PER_COMPONENT = 24;
+
+    private static final String TEMPLATE = "componentClass20.vm";
+
+    @Param({"1", "2", "4", "8"})
+    private int generatorThreads;
+
+    private File directory;
+
+    private File generatedSourceDirectory;
+
+    private List components;
+
+    private VelocityEngine velocityEngine;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        directory = File.createTempFile("generation", "");
+        directory.delete();
+        File sourceDir = new File(directory, "src");
+        SyntheticSources.write(sourceDir, PACKAGES, COMPONENTS_PER_PACKAGE,
+                CHAIN_LENGTH, PROPERTIES_PER_COMPONENT);
+        Model model = SyntheticSources.scan(sourceDir, 1);
+        new Flattener(model).flatten();
+        components = model.getComponents();
+        if (components.size() != COMPONENTS)
+        {
+            throw new IllegalStateException("Scanned " + components.size() + " components");
+        }
+        generatedSourceDirectory = new File(directory, "generated-sources");
+
+        // The class loader configuration of MakeComponentsMojo, without the
+        // project template directory
+        velocityEngine = new VelocityEngine();
+        velocityEngine.setProperty("resource.loader", "class");
+        velocityEngine.setProperty("class.resource.loader.class",
+                "org.apache.myfaces.buildtools.maven2.plugin.builder.utils.RelativeClasspathResourceLoader");
+        velocityEngine.setProperty("class.resource.loader.path", "META-INF");
+        velocityEngine.setProperty("velocimacro.library", "componentClassMacros11.vm");
+        velocityEngine.setProperty("velocimacro.permissions.allow.inline", "true");
+        velocityEngine.setProperty("velocimacro.permissions.allow.inline.local.scope", "true");
+        velocityEngine.setProperty("directive.foreach.counter.initial.value", "0");
+        velocityEngine.setProperty(RuntimeConstants.RUNTIME_LOG_LOGSYSTEM_CLASS,
+                NullLogChute.class.getName());
+        velocityEngine.init();
+    }
+
+    @Setup(Level.Invocation)
+    public void cleanGeneratedSources() throws IOException
+    {
+        FileUtils.deleteDirectory(generatedSourceDirectory);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMPONENTS)
+    public void generateComponents() throws MojoExecutionException
+    {
+        GenerationPipeline pipeline = new GenerationPipeline(
+                velocityEngine, TEMPLATE, generatorThreads, false, new QuietLog());
+
+        VelocityContext baseContext = new VelocityContext();
+        baseContext.put("utils", new MyfacesUtils());
+        baseContext.put("valueExpressionFields", Boolean.FALSE);
+        baseContext.put("compactState", Boolean.FALSE);
+
+        for (Iterator it = components.iterator(); it.hasNext();)
+        {
+            ComponentMeta component = (ComponentMeta) it.next();
+            VelocityContext context = new VelocityContext(baseContext);
+            context.put("component", component);
+            context.put("arrayStateStorage", Boolean.FALSE);
+            File outFile = new File(generatedSourceDirectory,
+                    component.getClassName().replace('.', '/') + ".java");
+            pipeline.add("Generating component class:" + component.getClassName(),
+                    outFile, context, null);
+        }
+        pipeline.finish(new Properties());
+
+        if (pipeline.getGeneratedFiles().getChangedCount() != COMPONENTS)
+        {
+            throw new IllegalStateException("Generated "
+                    + pipeline.getGeneratedFiles().getChangedCount() + " components");
+        }
+    }
+
+    /**
+     * Drops the line the goals log per generated file.
+     */
+    private static class QuietLog extends SystemStreamLog
+    {
+        public boolean isInfoEnabled()
+        {
+            return false;
+        }
+
+        public void info(CharSequence content)
+        {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Wall time of the scan of build-metadata over a synthetic source tree of
+ * 2,000 annotated classes, with the parsing strategies of QdoxModelBuilder
+ * run serially (one thread) or on a fork-join pool.
+ * <p>
+ * The tree has 20 packages of 100 components, each with 8 properties.
+ * Every component extends the one before it in its package, in chains of
+ * 5, so the classes are parsed in 5 waves as in a real component library.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelBuildBenchmark
+{
+    private static final int PACKAGES = 20;
+
+    private static final int COMPONENTS_PER_PACKAGE = 100;
+
+    private static final int CHAIN_LENGTH = 5;
+
+    private static final int PROPERTIES_PER_COMPONENT = 8;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private File sourceDir;
+
+    private SyntheticSources sources;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        sourceDir = File.createTempFile("model-build", "");
+        sourceDir.delete();
+        sources = SyntheticSources.write(sourceDir, PACKAGES, COMPONENTS_PER_PACKAGE,
+                CHAIN_LENGTH, PROPERTIES_PER_COMPONENT);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        FileUtils.deleteDirectory(sourceDir);
+    }
+
+    @Benchmark
+    public Model buildModel() throws MojoExecutionException
+    {
+        Model model = SyntheticSources.scan(sourceDir, threads);
+        if (model.getComponents().size() != sources.getComponents())
+        {
+            throw new IllegalStateException("Scanned " + model.getComponents().size() + " components");
+        }
+        return model;
+    }
+}
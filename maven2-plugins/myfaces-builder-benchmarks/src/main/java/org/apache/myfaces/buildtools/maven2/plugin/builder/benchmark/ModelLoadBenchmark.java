@@ -0,0 +1,173 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.IOUtils;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.io.BinaryModelCache;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ConverterMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.PropertyMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ValidatorMeta;
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load time of a myfaces-metadata.xml of the size of the Tomahawk one:
+ * 200 components of 40 properties each, 30 converters and 30 validators.
+ * <p>
+ * The xml is parsed with the Digester, as every goal did before, or read
+ * by IOUtils.loadModel from the binary copy saveModel writes next to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelLoadBenchmark
+{
+    private static final int COMPONENTS = 200;
+
+    private static final int PROPERTIES_PER_COMPONENT = 40;
+
+    private static final int CONVERTERS = 30;
+
+    private static final int VALIDATORS = 30;
+
+    private static final String PACKAGE = "org.apache.myfaces.buildtools.benchmark.load";
+
+    private static final String DESCRIPTION =
+        "A description of the kind found in the javadoc of a Tomahawk property, "
+        + "which is copied into the metadata and the tag library descriptors.";
+
+    private File directory;
+
+    private File xmlFile;
+
+    @Setup
+    public void setUp() throws IOException, MojoExecutionException
+    {
+        directory = File.createTempFile("model-load", "");
+        directory.delete();
+        xmlFile = new File(directory, "META-INF/myfaces-metadata.xml");
+        IOUtils.saveModel(_createModel(), xmlFile);
+        if (!BinaryModelCache.getCacheFile(xmlFile).isFile())
+        {
+            throw new IllegalStateException("No binary copy of " + xmlFile);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public Model parseXml() throws IOException, MojoExecutionException
+    {
+        Reader reader = new InputStreamReader(new FileInputStream(xmlFile));
+        try
+        {
+            return IOUtils.readModel(reader);
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public Model loadBinary() throws MojoExecutionException
+    {
+        return IOUtils.loadModel(xmlFile);
+    }
+
+    private static Model _createModel()
+    {
+        Model model = new Model();
+        model.setModelId("benchmark");
+        for (int i = 0; i < COMPONENTS; i++)
+        {
+            ComponentMeta component = new ComponentMeta();
+            component.setModelId("benchmark");
+            component.setName("load:component" + i);
+            component.setClassName(PACKAGE + ".Component" + i);
+            component.setParentClassName("jakarta.faces.component.UIComponentBase");
+            component.setSourceClassName(PACKAGE + ".AbstractComponent" + i);
+            component.setType(PACKAGE + ".Component" + i);
+            component.setFamily(PACKAGE + ".Family" + (i % 20));
+            component.setRendererType(PACKAGE + ".Renderer" + i);
+            component.setTagClass(PACKAGE + ".Component" + i + "Tag");
+            component.setDescription(DESCRIPTION);
+            for (int j = 0; j < PROPERTIES_PER_COMPONENT; j++)
+            {
+                PropertyMeta property = new PropertyMeta();
+                property.setName("property" + j);
+                property.setClassName(j % 4 == 0 ? "boolean" : "java.lang.String");
+                property.setDescription(DESCRIPTION);
+                property.setInherited(Boolean.valueOf(j >= PROPERTIES_PER_COMPONENT / 2));
+                if (j % 4 == 0)
+                {
+                    property.setDefaultValue("false");
+                }
+                component.addProperty(property);
+            }
+            model.addComponent(component);
+        }
+        for (int i = 0; i < CONVERTERS; i++)
+        {
+            ConverterMeta converter = new ConverterMeta();
+            converter.setModelId("benchmark");
+            converter.setClassName(PACKAGE + ".Converter" + i);
+            converter.setConverterId(PACKAGE + ".Converter" + i);
+            converter.setDescription(DESCRIPTION);
+            model.addConverter(converter);
+        }
+        for (int i = 0; i < VALIDATORS; i++)
+        {
+            ValidatorMeta validator = new ValidatorMeta();
+            validator.setModelId("benchmark");
+            validator.setClassName(PACKAGE + ".Validator" + i);
+            validator.setValidatorId(PACKAGE + ".Validator" + i);
+            validator.setDescription(DESCRIPTION);
+            model.addValidator(validator);
+        }
+        return model;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.convert.Converter;
+
+/**
+ * A stateless converter, registered under {@link #CONVERTER_ID} for the
+ * converter attribute of the benchmarked tags.
+ */
+public class NumberConverter implements Converter
+{
+    public static final String CONVERTER_ID = "org.apache.myfaces.buildtools.benchmark.Number";
+
+    public Object getAsObject(FacesContext context, UIComponent component, String value)
+    {
+        return value == null ? null : Long.valueOf(value);
+    }
+
+    public String getAsString(FacesContext context, UIComponent component, Object value)
+    {
+        return value == null ? null : value.toString();
+    }
+}
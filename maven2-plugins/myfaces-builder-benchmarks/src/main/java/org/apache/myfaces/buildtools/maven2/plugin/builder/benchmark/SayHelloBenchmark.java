@@ -0,0 +1,156 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark.component.SayHello;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark.component.SayHelloTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runtime of the sayHello component of the archetype sample, generated
+ * with componentClass20.vm, and of its tag, generated with tagClass12.vm.
+ * <p>
+ * The state benchmarks run on a component whose initial state is marked
+ * (partial state saving) or not (full state saving).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SayHelloBenchmark
+{
+    @Param({"false", "true"})
+    private boolean initialStateMarked;
+
+    private FacesContext context;
+
+    private SayHello component;
+
+    private Object state;
+
+    private SayHelloTag tag;
+
+    @Setup
+    public void setUp()
+    {
+        context = BenchmarkSupport.createFacesContext();
+
+        component = new SayHello();
+        component.setFirstName("John");
+        component.setValueExpression("lastName", BenchmarkSupport.expression("#{user.lastName}", "Doe"));
+        component.setValue("Hello");
+        if (initialStateMarked)
+        {
+            component.markInitialState();
+            component.setFirstName("Jane");
+        }
+        state = component.saveState(context);
+
+        tag = new SayHelloTag();
+        tag.setFirstName(BenchmarkSupport.literal("John"));
+        tag.setLastName(BenchmarkSupport.expression("#{user.lastName}", "Doe"));
+        tag.setRendered(BenchmarkSupport.expression("#{user.loggedIn}", Boolean.TRUE));
+        tag.setValue(BenchmarkSupport.literal("Hello"));
+        tag.setConverter(BenchmarkSupport.literal(NumberConverter.CONVERTER_ID));
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        FacesContext.setCurrentInstance(null);
+    }
+
+    @Benchmark
+    public void getters(Blackhole blackhole)
+    {
+        blackhole.consume(component.getFirstName());
+        blackhole.consume(component.getLastName());
+        blackhole.consume(component.isRendered());
+        blackhole.consume(component.getValue());
+    }
+
+    @Benchmark
+    public void setters()
+    {
+        component.setFirstName("John");
+        component.setLastName("Doe");
+        component.setRendered(true);
+    }
+
+    @Benchmark
+    public Object saveState()
+    {
+        return component.saveState(context);
+    }
+
+    @Benchmark
+    public SayHello restoreState()
+    {
+        SayHello restored = new SayHello();
+        if (initialStateMarked)
+        {
+            restored.markInitialState();
+        }
+        restored.restoreState(context, state);
+        return restored;
+    }
+
+    @Benchmark
+    public SayHello markInitialState()
+    {
+        // Leave the component in the mode of the parameter
+        if (initialStateMarked)
+        {
+            component.clearInitialState();
+            component.markInitialState();
+        }
+        else
+        {
+            component.markInitialState();
+            component.clearInitialState();
+        }
+        return component;
+    }
+
+    @Benchmark
+    public SayHello tagSetProperties()
+    {
+        SayHello created = new SayHello();
+        tag.applyProperties(created);
+        return created;
+    }
+}
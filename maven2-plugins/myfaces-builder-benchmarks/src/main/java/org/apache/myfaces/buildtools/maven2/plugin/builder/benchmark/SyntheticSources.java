@@ -0,0 +1,139 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collections;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.ModelParams;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.qdox.QdoxModelBuilder;
+
+/**
+ * A source tree of annotated components written into a temporary
+ * directory, for the benchmarks of the goals that scan it or generate
+ * classes from its model.
+ * <p>
+ * Every component extends the one before it in its package, in chains of
+ * the given length, and its properties are Strings, booleans with a
+ * default, ints and partial state holder Objects in turn.
+ */
+class SyntheticSources
+{
+    private static final String PACKAGE = "org.apache.myfaces.buildtools.benchmark.synthetic";
+
+    private static final String[][] KINDS = {
+        {"String", "get", ""},
+        {"boolean", "is", "(defaultValue = \"true\")"},
+        {"int", "get", "(defaultValue = \"1\")"},
+        {"Object", "get", "(partialStateHolder = true)"},
+    };
+
+    private final int components;
+
+    private SyntheticSources(int components)
+    {
+        this.components = components;
+    }
+
+    /**
+     * Write the sources of packages * componentsPerPackage components.
+     */
+    static SyntheticSources write(File sourceDir, int packages, int componentsPerPackage,
+            int chainLength, int properties) throws IOException
+    {
+        for (int p = 0; p < packages; p++)
+        {
+            File packageDir = new File(sourceDir, (PACKAGE + ".package" + p).replace('.', '/'));
+            packageDir.mkdirs();
+            for (int i = 0; i < componentsPerPackage; i++)
+            {
+                _writeComponent(packageDir, p, i, chainLength, properties);
+            }
+        }
+        return new SyntheticSources(packages * componentsPerPackage);
+    }
+
+    /**
+     * Scan the sources as build-metadata does.
+     */
+    static Model scan(File sourceDir, int threads) throws MojoExecutionException
+    {
+        Model model = new Model();
+        model.setModelId("benchmark");
+        ModelParams parameters = new ModelParams();
+        parameters.setSourceDirs(Collections.singletonList(sourceDir.getAbsolutePath()));
+        parameters.setThreads(threads);
+        new QdoxModelBuilder().buildModel(model, parameters);
+        return model;
+    }
+
+    int getComponents()
+    {
+        return components;
+    }
+
+    private static void _writeComponent(File packageDir, int p, int i, int chainLength,
+            int properties) throws IOException
+    {
+        String packageName = PACKAGE + ".package" + p;
+        String name = "AbstractSynthetic" + i;
+        String parent = i % chainLength == 0
+            ? "jakarta.faces.component.UIComponentBase" : "AbstractSynthetic" + (i - 1);
+        PrintWriter out = new PrintWriter(new FileWriter(new File(packageDir, name + ".java")));
+        try
+        {
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFComponent;");
+            out.println("import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFProperty;");
+            out.println();
+            out.println("/**");
+            out.println(" * Synthetic component " + i + " of package " + p + ".");
+            out.println(" */");
+            out.println("@JSFComponent(");
+            out.println("        name = \"synthetic:component" + p + "_" + i + "\",");
+            out.println("        clazz = \"" + packageName + ".Synthetic" + i + "\",");
+            out.println("        tagClass = \"" + packageName + ".Synthetic" + i + "Tag\")");
+            out.println("public abstract class " + name + " extends " + parent);
+            out.println("{");
+            out.println("    public static final String COMPONENT_TYPE = \"" + PACKAGE + ".Synthetic" + p + "_" + i + "\";");
+            out.println("    public static final String COMPONENT_FAMILY = \"" + PACKAGE + ".Synthetic\";");
+            for (int j = 0; j < properties; j++)
+            {
+                String[] kind = KINDS[j % KINDS.length];
+                out.println();
+                out.println("    /**");
+                out.println("     * Property " + j + " of component " + i + ".");
+                out.println("     */");
+                out.println("    @JSFProperty" + kind[2]);
+                out.println("    public abstract " + kind[0] + " " + kind[1] + "Prop" + i + "_" + j + "();");
+            }
+            out.println("}");
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+}
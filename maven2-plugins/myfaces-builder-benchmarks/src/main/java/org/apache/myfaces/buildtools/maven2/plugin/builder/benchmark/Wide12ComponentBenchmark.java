@@ -0,0 +1,121 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark.jsf12.Wide12Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Getters of the synthetic 200 property component generated with
+ * componentClass12.vm, whose first 20 properties are bound to literal
+ * text or to expressions, except the literal only ones, which are set.
+ * <p>
+ * To compare the value expression fields of the generator, run it once
+ * per build of the module:
+ *
+ *   mvn -Prun-benchmarks verify -Dbenchmark.include=Wide12
+ *   mvn -Prun-benchmarks verify -Dbenchmark.include=Wide12 -Dbenchmark.valueExpressionFields=true
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Wide12ComponentBenchmark
+{
+    private static final int BOUND_PROPERTIES = 20;
+
+    @Param({"true", "false"})
+    private boolean literalText;
+
+    private Wide12Component component;
+
+    @Setup
+    public void setUp()
+    {
+        BenchmarkSupport.createFacesContext();
+
+        component = new Wide12Component();
+        for (int i = 0; i < BOUND_PROPERTIES; i++)
+        {
+            String name = BenchmarkSupport.wideName(i);
+            Object value = BenchmarkSupport.wideValue(i, 0);
+            if (BenchmarkSupport.isWideLiteralOnly(i))
+            {
+                component.getAttributes().put(name, value);
+            }
+            else if (literalText)
+            {
+                component.setValueExpression(name, new BenchmarkValueExpression(value.toString(), value, true));
+            }
+            else
+            {
+                component.setValueExpression(name, BenchmarkSupport.expression("#{bean." + name + "}", value));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        FacesContext.setCurrentInstance(null);
+    }
+
+    @Benchmark
+    public void getters(Blackhole blackhole)
+    {
+        blackhole.consume(component.getProp000());
+        blackhole.consume(component.isProp001());
+        blackhole.consume(component.getProp002());
+        blackhole.consume(component.getProp003());
+        blackhole.consume(component.getProp004());
+        blackhole.consume(component.isProp005());
+        blackhole.consume(component.getProp006());
+        blackhole.consume(component.getProp007());
+        blackhole.consume(component.getProp008());
+        blackhole.consume(component.getProp009());
+        blackhole.consume(component.getProp010());
+        blackhole.consume(component.isProp011());
+        blackhole.consume(component.getProp012());
+        blackhole.consume(component.getProp013());
+        blackhole.consume(component.getProp014());
+        blackhole.consume(component.isProp015());
+        blackhole.consume(component.getProp016());
+        blackhole.consume(component.getProp017());
+        blackhole.consume(component.getProp018());
+        blackhole.consume(component.getProp019());
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark.component.WideComponent;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Memory footprint of the synthetic 200 property component, generated
+ * with componentClass20.vm. The sizes are reported as the secondary
+ * results of the benchmark; its time only measures the walk of the heap.
+ * <p>
+ * The retained heap is everything reachable from the component, with
+ * none, the first 20 or all of its properties set. The serialized state
+ * is the full state of that component, and the delta of a component with
+ * all its properties set whose first 0, 20 or 200 properties change after
+ * its initial state is marked.
+ * <p>
+ * To compare the state storage and the compact state of the generator,
+ * run it once per build of the module:
+ *
+ *   mvn -Prun-benchmarks verify -Dbenchmark.include=Footprint
+ *   mvn -Prun-benchmarks verify -Dbenchmark.include=Footprint -Dbenchmark.stateStorage=array
+ *   mvn -Prun-benchmarks verify -Dbenchmark.include=Footprint -Dbenchmark.compactState=true
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(1)
+public class WideComponentFootprintBenchmark
+{
+    @Param({"0", "20", "200"})
+    private int setProperties;
+
+    private FacesContext context;
+
+    private WideComponent component;
+
+    private WideComponent changedComponent;
+
+    /**
+     * The sizes in bytes of the last measurement.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint
+    {
+        public long retainedBytes;
+
+        public long fullStateBytes;
+
+        public long deltaStateBytes;
+
+        @Setup(Level.Iteration)
+        public void clean()
+        {
+            retainedBytes = 0;
+            fullStateBytes = 0;
+            deltaStateBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp()
+    {
+        context = BenchmarkSupport.createFacesContext();
+
+        component = new WideComponent();
+        BenchmarkSupport.setWideProperties(component, setProperties, 0);
+
+        changedComponent = new WideComponent();
+        BenchmarkSupport.setWideProperties(changedComponent, BenchmarkSupport.WIDE_PROPERTIES, 0);
+        changedComponent.markInitialState();
+        BenchmarkSupport.setWideProperties(changedComponent, setProperties, 1);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        FacesContext.setCurrentInstance(null);
+    }
+
+    @Benchmark
+    public void retainedHeap(Footprint footprint)
+    {
+        footprint.retainedBytes = GraphLayout.parseInstance(component).totalSize();
+    }
+
+    @Benchmark
+    public void serializedState(Footprint footprint) throws IOException
+    {
+        footprint.fullStateBytes = _serializedSize(component.saveState(context));
+        footprint.deltaStateBytes = _serializedSize(changedComponent.saveState(context));
+    }
+
+    private static long _serializedSize(Object state) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(state);
+        out.close();
+        return bytes.size();
+    }
+}
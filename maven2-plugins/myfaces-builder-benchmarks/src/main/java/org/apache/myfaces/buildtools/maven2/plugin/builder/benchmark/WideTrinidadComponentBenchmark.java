@@ -0,0 +1,161 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.benchmark.trinidad.WideTrinidadComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runtime of the synthetic 200 property component generated with
+ * trinidadComponentClass20.vm, set up as in {@link WideComponentBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WideTrinidadComponentBenchmark
+{
+    private static final int CHANGED_PROPERTIES = 20;
+
+    @Param({"false", "true"})
+    private boolean initialStateMarked;
+
+    private FacesContext context;
+
+    private WideTrinidadComponent component;
+
+    private Object state;
+
+    private final BenchmarkHolder holder = new BenchmarkHolder("holder");
+
+    @Setup
+    public void setUp()
+    {
+        context = BenchmarkSupport.createFacesContext();
+
+        component = new WideTrinidadComponent();
+        BenchmarkSupport.setWideProperties(component, BenchmarkSupport.WIDE_PROPERTIES, 0);
+        if (initialStateMarked)
+        {
+            component.markInitialState();
+            BenchmarkSupport.setWideProperties(component, CHANGED_PROPERTIES, 1);
+        }
+        state = component.saveState(context);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        FacesContext.setCurrentInstance(null);
+    }
+
+    @Benchmark
+    public void getters(Blackhole blackhole)
+    {
+        blackhole.consume(component.getProp000());
+        blackhole.consume(component.isProp001());
+        blackhole.consume(component.getProp002());
+        blackhole.consume(component.getProp003());
+        blackhole.consume(component.getProp004());
+        blackhole.consume(component.isProp005());
+        blackhole.consume(component.getProp006());
+        blackhole.consume(component.getProp007());
+        blackhole.consume(component.getProp008());
+        blackhole.consume(component.getProp009());
+        blackhole.consume(component.getProp010());
+        blackhole.consume(component.isProp011());
+        blackhole.consume(component.getProp012());
+        blackhole.consume(component.getProp013());
+        blackhole.consume(component.getProp014());
+        blackhole.consume(component.isProp015());
+        blackhole.consume(component.getProp016());
+        blackhole.consume(component.getProp017());
+        blackhole.consume(component.getProp018());
+        blackhole.consume(component.getProp019());
+    }
+
+    @Benchmark
+    public void setters()
+    {
+        component.setProp000("value0");
+        component.setProp001(true);
+        component.setProp002(2);
+        component.setProp003(holder);
+        component.setProp004("value4");
+        component.setProp005(true);
+        component.setProp006(6.5);
+        component.setProp007(Integer.valueOf(7));
+        component.setProp008(8);
+        component.setProp009(9L);
+        component.setProp010("value10");
+        component.setProp011(true);
+        component.setProp012(12);
+        component.setProp013(holder);
+        component.setProp014("value14");
+        component.setProp015(true);
+        component.setProp016(16.5);
+        component.setProp017(Integer.valueOf(17));
+        component.setProp018(18);
+        component.setProp019(19L);
+    }
+
+    @Benchmark
+    public Object saveState()
+    {
+        return component.saveState(context);
+    }
+
+    @Benchmark
+    public WideTrinidadComponent restoreState()
+    {
+        WideTrinidadComponent restored = new WideTrinidadComponent();
+        if (initialStateMarked)
+        {
+            restored.markInitialState();
+        }
+        restored.restoreState(context, state);
+        return restored;
+    }
+
+    @Benchmark
+    public WideTrinidadComponent markInitialState()
+    {
+        WideTrinidadComponent marked = new WideTrinidadComponent();
+        marked.markInitialState();
+        return marked;
+    }
+}
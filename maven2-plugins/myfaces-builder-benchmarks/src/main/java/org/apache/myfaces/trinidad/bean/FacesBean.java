@@ -0,0 +1,143 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.trinidad.bean;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.el.ValueExpression;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * Stand-in of the Trinidad property bean, with the property type
+ * registry the generated components fill in their static initializers.
+ */
+public interface FacesBean
+{
+    Type getType();
+
+    Object getProperty(PropertyKey key);
+
+    Object getLocalProperty(PropertyKey key);
+
+    void setProperty(PropertyKey key, Object value);
+
+    ValueExpression getValueExpression(PropertyKey key);
+
+    void setValueExpression(PropertyKey key, ValueExpression expression);
+
+    void markInitialState();
+
+    boolean initialStateMarked();
+
+    Object saveState(FacesContext context);
+
+    void restoreState(FacesContext context, Object state);
+
+    /**
+     * The set of property keys of a component class, which inherits those
+     * of the type of its superclass.
+     */
+    public static class Type
+    {
+        private final Map<String, PropertyKey> keyMap = new HashMap<String, PropertyKey>();
+
+        private final List<PropertyKey> keyList = new ArrayList<PropertyKey>();
+
+        private boolean locked;
+
+        public Type()
+        {
+        }
+
+        public Type(Type superType)
+        {
+            if (superType != null)
+            {
+                keyMap.putAll(superType.keyMap);
+                keyList.addAll(superType.keyList);
+            }
+        }
+
+        public PropertyKey findKey(String name)
+        {
+            return keyMap.get(name);
+        }
+
+        public PropertyKey getKey(int index)
+        {
+            return keyList.get(index);
+        }
+
+        public int getKeyCount()
+        {
+            return keyList.size();
+        }
+
+        public PropertyKey registerKey(String name)
+        {
+            return registerKey(name, Object.class, null, 0);
+        }
+
+        public PropertyKey registerKey(String name, Class<?> type)
+        {
+            return registerKey(name, type, null, 0);
+        }
+
+        public PropertyKey registerKey(String name, Class<?> type, Object defaultValue)
+        {
+            return registerKey(name, type, defaultValue, 0);
+        }
+
+        public PropertyKey registerKey(String name, Class<?> type, int capabilities)
+        {
+            return registerKey(name, type, null, capabilities);
+        }
+
+        public PropertyKey registerKey(String name, Class<?> type, Object defaultValue,
+                int capabilities)
+        {
+            if (locked)
+            {
+                throw new IllegalStateException("Type is locked");
+            }
+            if (keyMap.containsKey(name))
+            {
+                throw new IllegalStateException("Name " + name + " already registered");
+            }
+            PropertyKey key = new PropertyKey(name, type, defaultValue, capabilities,
+                    keyList.size());
+            keyMap.put(name, key);
+            keyList.add(key);
+            return key;
+        }
+
+        public void lock()
+        {
+            locked = true;
+        }
+
+        public void lockAndRegister(String componentFamily, String rendererType)
+        {
+            lock();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.trinidad.bean;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import jakarta.el.ValueExpression;
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * Map based bean in the manner of the Trinidad one: the local values and
+ * value expressions are kept by key, and once the initial state is marked
+ * the changed properties are tracked so that saveState returns only those.
+ */
+public class FacesBeanImpl implements FacesBean
+{
+    private final Type type;
+
+    private final Map<PropertyKey, Object> properties = new HashMap<PropertyKey, Object>();
+
+    private Map<PropertyKey, ValueExpression> bindings;
+
+    private Map<PropertyKey, Object> deltas;
+
+    public FacesBeanImpl(Type type)
+    {
+        this.type = type;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public Object getProperty(PropertyKey key)
+    {
+        Object value = properties.get(key);
+        if (value == null && bindings != null)
+        {
+            ValueExpression expression = bindings.get(key);
+            if (expression != null)
+            {
+                value = expression.getValue(FacesContext.getCurrentInstance().getELContext());
+            }
+        }
+        return value != null ? value : key.getDefault();
+    }
+
+    public Object getLocalProperty(PropertyKey key)
+    {
+        return properties.get(key);
+    }
+
+    public void setProperty(PropertyKey key, Object value)
+    {
+        if (deltas != null && !key.isTransient())
+        {
+            deltas.put(key, value);
+        }
+        if (value == null)
+        {
+            properties.remove(key);
+        }
+        else
+        {
+            properties.put(key, value);
+        }
+    }
+
+    public ValueExpression getValueExpression(PropertyKey key)
+    {
+        return bindings == null ? null : bindings.get(key);
+    }
+
+    public void setValueExpression(PropertyKey key, ValueExpression expression)
+    {
+        if (!key.getSupportsBinding())
+        {
+            throw new IllegalArgumentException(key + " cannot be bound");
+        }
+        if (bindings == null)
+        {
+            bindings = new HashMap<PropertyKey, ValueExpression>();
+        }
+        bindings.put(key, expression);
+    }
+
+    public void markInitialState()
+    {
+        deltas = new HashMap<PropertyKey, Object>();
+    }
+
+    public boolean initialStateMarked()
+    {
+        return deltas != null;
+    }
+
+    public Object saveState(FacesContext context)
+    {
+        Map<PropertyKey, Object> state = deltas != null ? deltas : properties;
+        if (state.isEmpty())
+        {
+            return null;
+        }
+        Object[] values = new Object[state.size() * 2];
+        int i = 0;
+        for (Iterator<Map.Entry<PropertyKey, Object>> it = state.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry<PropertyKey, Object> entry = it.next();
+            values[i++] = Integer.valueOf(entry.getKey().getIndex());
+            values[i++] = UIComponent.saveAttachedState(context, entry.getValue());
+        }
+        return values;
+    }
+
+    public void restoreState(FacesContext context, Object state)
+    {
+        if (state == null)
+        {
+            return;
+        }
+        Object[] values = (Object[]) state;
+        for (int i = 0; i < values.length; i += 2)
+        {
+            PropertyKey key = type.getKey(((Integer) values[i]).intValue());
+            setProperty(key, UIComponent.restoreAttachedState(context, values[i + 1]));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.trinidad.bean;
+
+/**
+ * Stand-in of the Trinidad property key: a named, typed and indexed
+ * property of a {@link FacesBean.Type}, with an optional default.
+ */
+public class PropertyKey
+{
+    public static final int CAP_NOT_BOUND = 1;
+    public static final int CAP_TRANSIENT = 2;
+    public static final int CAP_LIST = 4;
+    public static final int CAP_STATE_HOLDER = 8;
+
+    private final String name;
+
+    private final Class<?> type;
+
+    private final Object defaultValue;
+
+    private final int capabilities;
+
+    private final int index;
+
+    PropertyKey(String name, Class<?> type, Object defaultValue, int capabilities, int index)
+    {
+        this.name = name;
+        this.type = type;
+        this.defaultValue = defaultValue;
+        this.capabilities = capabilities;
+        this.index = index;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public Class<?> getType()
+    {
+        return type;
+    }
+
+    public Object getDefault()
+    {
+        return defaultValue;
+    }
+
+    public int getIndex()
+    {
+        return index;
+    }
+
+    public boolean getSupportsBinding()
+    {
+        return (capabilities & CAP_NOT_BOUND) == 0;
+    }
+
+    public boolean isTransient()
+    {
+        return (capabilities & CAP_TRANSIENT) != 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
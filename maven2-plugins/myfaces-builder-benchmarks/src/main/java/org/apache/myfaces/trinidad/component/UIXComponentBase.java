@@ -0,0 +1,111 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.trinidad.component;
+
+import jakarta.el.ValueExpression;
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.context.FacesContext;
+
+import org.apache.myfaces.trinidad.bean.FacesBean;
+import org.apache.myfaces.trinidad.bean.FacesBeanImpl;
+import org.apache.myfaces.trinidad.bean.PropertyKey;
+
+/**
+ * Stand-in of the Trinidad component base class, which keeps all of its
+ * properties in a {@link FacesBean} of the type of the component class.
+ */
+public abstract class UIXComponentBase extends UIComponent
+{
+    public static final FacesBean.Type TYPE = new FacesBean.Type();
+
+    private FacesBean facesBean;
+
+    public UIXComponentBase()
+    {
+    }
+
+    public UIXComponentBase(String rendererType)
+    {
+        setRendererType(rendererType);
+    }
+
+    protected FacesBean.Type getBeanType()
+    {
+        return TYPE;
+    }
+
+    public FacesBean getFacesBean()
+    {
+        if (facesBean == null)
+        {
+            facesBean = new FacesBeanImpl(getBeanType());
+        }
+        return facesBean;
+    }
+
+    protected Object getProperty(PropertyKey key)
+    {
+        return getFacesBean().getProperty(key);
+    }
+
+    protected void setProperty(PropertyKey key, Object value)
+    {
+        getFacesBean().setProperty(key, value);
+    }
+
+    @Override
+    public ValueExpression getValueExpression(String name)
+    {
+        PropertyKey key = getBeanType().findKey(name);
+        return key == null ? null : getFacesBean().getValueExpression(key);
+    }
+
+    @Override
+    public void setValueExpression(String name, ValueExpression expression)
+    {
+        PropertyKey key = getBeanType().findKey(name);
+        if (key == null)
+        {
+            super.setValueExpression(name, expression);
+        }
+        else
+        {
+            getFacesBean().setValueExpression(key, expression);
+        }
+    }
+
+    @Override
+    public void markInitialState()
+    {
+        super.markInitialState();
+        getFacesBean().markInitialState();
+    }
+
+    @Override
+    public Object saveState(FacesContext context)
+    {
+        return getFacesBean().saveState(context);
+    }
+
+    @Override
+    public void restoreState(FacesContext context, Object state)
+    {
+        getFacesBean().restoreState(context, state);
+    }
+}
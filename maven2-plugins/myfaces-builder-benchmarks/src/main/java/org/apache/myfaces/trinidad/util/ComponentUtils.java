@@ -0,0 +1,152 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.trinidad.util;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Stand-in of the Trinidad utilities that coerce property values, which
+ * the generated getters call for values that are not of the property
+ * type.
+ */
+public final class ComponentUtils
+{
+    private ComponentUtils()
+    {
+    }
+
+    public static boolean resolveBoolean(Object value)
+    {
+        return resolveBoolean(value, false);
+    }
+
+    public static boolean resolveBoolean(Object value, boolean defaultValue)
+    {
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        if (value instanceof Boolean)
+        {
+            return ((Boolean) value).booleanValue();
+        }
+        return Boolean.valueOf(value.toString()).booleanValue();
+    }
+
+    public static int resolveInteger(Object value)
+    {
+        return resolveInteger(value, 0);
+    }
+
+    public static int resolveInteger(Object value, int defaultValue)
+    {
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        if (value instanceof Number)
+        {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt(value.toString());
+    }
+
+    public static long resolveLong(Object value)
+    {
+        return resolveLong(value, 0L);
+    }
+
+    public static long resolveLong(Object value, long defaultValue)
+    {
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        if (value instanceof Number)
+        {
+            return ((Number) value).longValue();
+        }
+        return Long.parseLong(value.toString());
+    }
+
+    public static double resolveDouble(Object value)
+    {
+        return resolveDouble(value, 0.0d);
+    }
+
+    public static double resolveDouble(Object value, double defaultValue)
+    {
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        if (value instanceof Number)
+        {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(value.toString());
+    }
+
+    public static float resolveFloat(Object value)
+    {
+        return resolveFloat(value, 0.0f);
+    }
+
+    public static float resolveFloat(Object value, float defaultValue)
+    {
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        if (value instanceof Number)
+        {
+            return ((Number) value).floatValue();
+        }
+        return Float.parseFloat(value.toString());
+    }
+
+    public static char resolveCharacter(Character value)
+    {
+        return value == null ? '\u0000' : value.charValue();
+    }
+
+    public static String resolveString(Object value)
+    {
+        return value == null ? null : value.toString();
+    }
+
+    public static Locale resolveLocale(Object value)
+    {
+        if (value == null || value instanceof Locale)
+        {
+            return (Locale) value;
+        }
+        return new Locale(value.toString());
+    }
+
+    public static TimeZone resolveTimeZone(Object value)
+    {
+        if (value == null || value instanceof TimeZone)
+        {
+            return (TimeZone) value;
+        }
+        return TimeZone.getTimeZone(value.toString());
+    }
+}
@@ -24,10 +24,16 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.Properties;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ClassMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.InputDigest;
 
 /**
  * 
@@ -49,6 +55,29 @@ public abstract class AbstractBuilderMojo extends AbstractMojo
      */
     private String noCache;
 
+    /**
+     * Version of this plugin. It is part of the digest of the inputs of every
+     * generated file, so files are generated again after a plugin upgrade.
+     * 
+     * @parameter expression="${plugin.version}"
+     * @readonly
+     */
+    private String pluginVersion;
+
+    /**
+     * Number of threads used to merge the templates of the generated files.
+     * The files are still written, logged and reported in the same order.
+     * 
+     * @parameter expression="${myfaces.builder.generatorThreads}"
+     * @since 1.0.12
+     */
+    private int generatorThreads = 1;
+
+    protected int getGeneratorThreads()
+    {
+        return generatorThreads;
+    }
+
     protected boolean isCachingEnabled()
     {
         return (!Boolean.valueOf(noCache)) && cacheFile != null;
@@ -86,35 +115,75 @@ public abstract class AbstractBuilderMojo extends AbstractMojo
         }
     }
     
-    protected boolean isFileUpToDate(Properties cachedInfo, File outFile)
-    {
-        return isFileUpToDate(cachedInfo, outFile.lastModified(), outFile);
-    }
-    
-    protected boolean isFileUpToDate(Properties cachedInfo, long lastModifiedMetadata, File outFile)
+    /**
+     * Compute a digest of the templates a goal generates files with: the
+     * name of the main template and the content of every template found in
+     * the template directory, which includes the velocimacro libraries.
+     * Templates loaded from this plugin are covered by the plugin version.
+     */
+    protected String getTemplatesDigest(File templateDirectory, String templateName)
+        throws IOException
     {
-        boolean upToDate = true;
-        if (!outFile.exists())
-        {
-            return false;
-        }
-        String lastModifiedString = cachedInfo.getProperty(outFile.getAbsolutePath());
-        if (lastModifiedString == null)
-        {
-            upToDate = false;
-        }
-        else if (!outFile.exists())
+        InputDigest digest = new InputDigest();
+        digest.add(pluginVersion);
+        digest.add(templateName);
+        File[] templates = templateDirectory == null ? null : templateDirectory.listFiles();
+        if (templates != null)
         {
-            upToDate = false;
+            Arrays.sort(templates);
+            for (int i = 0; i < templates.length; i++)
+            {
+                if (templates[i].getName().endsWith(".vm"))
+                {
+                    digest.add(templates[i].getName());
+                    digest.add(templates[i]);
+                }
+            }
         }
-        else
+        return digest.getValue();
+    }
+
+    /**
+     * Compute a digest of everything a file generated for a single model
+     * item depends on: the templates, the metadata of the item and the
+     * content of any other input files (eg the source of a template class).
+     */
+    protected String getInputDigest(String templatesDigest, ClassMeta item, File[] inputFiles)
+        throws IOException
+    {
+        StringWriter writer = new StringWriter();
+        ClassMeta.writeXml(new XmlWriter(new PrintWriter(writer)), item);
+        return getInputDigest(templatesDigest, writer.toString(), inputFiles);
+    }
+
+    protected String getInputDigest(String templatesDigest, ClassMeta item)
+        throws IOException
+    {
+        return getInputDigest(templatesDigest, item, null);
+    }
+
+    protected String getInputDigest(String templatesDigest, String metadata, File[] inputFiles)
+        throws IOException
+    {
+        InputDigest digest = new InputDigest();
+        digest.add(templatesDigest);
+        digest.add(metadata);
+        if (inputFiles != null)
         {
-            Long lastModified = Long.valueOf(lastModifiedString);
-            if (lastModified != null && lastModifiedMetadata > lastModified.longValue())
+            for (int i = 0; i < inputFiles.length; i++)
             {
-                upToDate = false;
+                digest.add(inputFiles[i]);
             }
         }
-        return upToDate;
+        return digest.getValue();
+    }
+
+    /**
+     * Check if a generated file exists and was generated from inputs with
+     * the given digest.
+     */
+    protected boolean isFileUpToDate(Properties cachedInfo, File outFile, String inputDigest)
+    {
+        return outFile.exists() && inputDigest.equals(cachedInfo.getProperty(outFile.getAbsolutePath()));
     }
 }
@@ -27,10 +27,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -48,13 +45,17 @@ import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.IOUtils.SourceVisitor;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.io.BinaryModelCache;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.qdox.QdoxModelBuilder;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.trinidad.parse.FacesConfigBean;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.trinidad.parse.FacesConfigParser;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.trinidad.util.XIncludeFilter;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.ArtifactIndex;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.BuildException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.DigesterPool;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.InputDigest;
 import org.apache.myfaces.buildtools.maven2.plugin.tagdoc.TagdocContentMojo.URLCreationFactory;
 import org.codehaus.plexus.util.StringUtils;
 import org.xml.sax.SAXException;
@@ -332,6 +333,16 @@ public class BuildMetaDataMojo extends AbstractMojo
      */
     private String noCache;
     
+    /**
+     * Number of threads used to parse the annotated classes found in the source
+     * directories. The parsing results are merged in the same order as a single
+     * threaded run, so the generated metadata file does not depend on this value.
+     * 
+     * @since 1.0.12
+     * @parameter expression="${myfaces.builder.threads}"
+     */
+    private int threads = 1;
+    
     private File localResource;
     
     private FacesConfigBean _facesConfig;
@@ -390,6 +401,8 @@ public class BuildMetaDataMojo extends AbstractMojo
         
         parameters.setCompositeComponentFileExtensions(compositeComponentFileExtensions);
         
+        parameters.setThreads(threads);
+        
         //Trinidad maven faces plugin integration
         if (isReadMavenFacesPluginMetadata())
         {
@@ -438,7 +451,7 @@ public class BuildMetaDataMojo extends AbstractMojo
             }
         }
         
-        List models = IOUtils.getModelsFromArtifacts(project); 
+        List models = IOUtils.getModelsFromArtifacts(project, getLog());
         models = sortModels(models);
 
         Model model = new Model();
@@ -473,31 +486,29 @@ public class BuildMetaDataMojo extends AbstractMojo
         
         final Properties p = new Properties();
         
-        if (!isReadMavenFacesPluginMetadata() && isCachingEnabled() && cacheFile != null)
-        {
-            p.put(outputFile, Long.toString(metadataFile.lastModified()));
-            if (inputFile != null && inputFile.exists())
-            {
-                p.put(outputFile, Long.toString(inputFile.lastModified()));
-            }
-        }
-        
-        IOUtils.visitSources(parameters, new IOUtils.SourceVisitor()
-        {
-            public void processSource(File file) throws IOException
-            {
-                p.put(file.getAbsolutePath(), Long.toString(file.lastModified()));                 
-            }
-        });
-        
-        if (cacheFile.exists())
-        {
-            cacheFile.delete();
-        }
         if (!isReadMavenFacesPluginMetadata() && isCachingEnabled() && cacheFile != null)
         {
             try
             {
+                // Keep the digests stored by the goals generating files from
+                // the model, so they only generate again what has changed.
+                if (cacheFile.exists())
+                {
+                    p.load(new BufferedInputStream(new FileInputStream(cacheFile)));
+                }
+                if (inputFile != null && inputFile.exists())
+                {
+                    p.put(inputFile.getAbsolutePath(), InputDigest.of(inputFile));
+                }
+                
+                IOUtils.visitSources(parameters, new IOUtils.SourceVisitor()
+                {
+                    public void processSource(File file) throws IOException
+                    {
+                        p.put(file.getAbsolutePath(), InputDigest.of(file));
+                    }
+                });
+
                 p.store(new BufferedOutputStream(new FileOutputStream(cacheFile)), "Created: "+ Long.toString(System.currentTimeMillis()));
             }
             catch (IOException e)
@@ -505,6 +516,10 @@ public class BuildMetaDataMojo extends AbstractMojo
                 throw new MojoExecutionException("Error during saving cache information", e);
             }
         }
+        else if (cacheFile != null && cacheFile.exists())
+        {
+            cacheFile.delete();
+        }
     }
     
     protected boolean isCachingEnabled()
@@ -530,16 +545,8 @@ public class BuildMetaDataMojo extends AbstractMojo
             {
                 return;
             }
-            String lastModifiedString = cachedInfo.getProperty(file.getAbsolutePath());
-            if (lastModifiedString != null)
-            {
-                Long lastModified = Long.valueOf(lastModifiedString);
-                if (lastModified != null && file.lastModified() > lastModified.longValue())
-                {
-                    upToDate = false;
-                }
-            }
-            else
+            String digest = cachedInfo.getProperty(file.getAbsolutePath());
+            if (digest == null || !digest.equals(InputDigest.of(file)))
             {
                 upToDate = false;
             }
@@ -660,6 +667,8 @@ public class BuildMetaDataMojo extends AbstractMojo
         List resources = project.getBuild().getResources();
         Resource resource = new Resource();
         resource.setDirectory(resourceRoot);
+        // The binary copy of the metadata is only used by later goals of this build
+        resource.addExclude("**/*" + BinaryModelCache.SUFFIX);
         resources.add(resource);
     }
     
@@ -817,27 +826,37 @@ public class BuildMetaDataMojo extends AbstractMojo
             {
                 List entries = new LinkedList();
 
-                SAXParserFactory spf = SAXParserFactory.newInstance();
-                spf.setNamespaceAware(true);
-                // requires JAXP 1.3, in JavaSE 5.0
-                // spf.setXIncludeAware(false);
+                // One digester, with its rules, reads every master
+                DigesterPool digesters = new DigesterPool()
+                {
+                    protected Digester createDigester()
+                            throws ParserConfigurationException, SAXException
+                    {
+                        SAXParserFactory spf = SAXParserFactory.newInstance();
+                        spf.setNamespaceAware(true);
+                        // requires JAXP 1.3, in JavaSE 5.0
+                        // spf.setXIncludeAware(false);
+                        Digester digester = new Digester(spf.newSAXParser());
+                        digester.setNamespaceAware(true);
+
+                        // XInclude
+                        digester.setRuleNamespaceURI(XIncludeFilter.XINCLUDE_NAMESPACE);
+                        digester.addCallMethod("faces-config/include", "add", 1);
+                        digester.addFactoryCreate("faces-config/include",
+                                URLCreationFactory.class);
+                        digester.addCallParam("faces-config/include", 0, 0);
+                        return digester;
+                    }
+                };
 
                 for (Iterator<URL> i = masters.iterator(); i.hasNext();)
                 {
                     URL url = i.next();
-                    Digester digester = new Digester(spf.newSAXParser());
-                    digester.setNamespaceAware(true);
-
-                    // XInclude
-                    digester.setRuleNamespaceURI(XIncludeFilter.XINCLUDE_NAMESPACE);
-                    digester.addCallMethod("faces-config/include", "add", 1);
-                    digester.addFactoryCreate("faces-config/include",
-                            URLCreationFactory.class);
-                    digester.addCallParam("faces-config/include", 0, 0);
-
+                    Digester digester = digesters.acquire();
                     digester.push(url);
                     digester.push(entries);
                     digester.parse(url.openStream());
+                    digesters.release(digester);
                 }
 
                 return (URL[]) entries.toArray(new URL[0]);
@@ -883,59 +902,29 @@ public class BuildMetaDataMojo extends AbstractMojo
     private List getCompileDependencyResources(MavenProject project,
             String resourcePath) throws MojoExecutionException
     {
+        ArtifactIndex index = ArtifactIndex.getInstance();
+        File indexFile = ArtifactIndex.getIndexFile(
+                project.getBuild().getDirectory());
         try
         {
-            ClassLoader cl = createCompileClassLoader(project);
-            Enumeration e = cl.getResources(resourcePath);
-            List urls = new ArrayList();
-            while (e.hasMoreElements())
-            {
-                URL url = (URL) e.nextElement();
-                urls.add(url);
-            }
-            return Collections.unmodifiableList(urls);
-        }
-        catch (IOException e)
-        {
-            throw new MojoExecutionException(
-                    "Unable to get resources for path " + "\"" + resourcePath
-                            + "\"", e);
-        }
-
-    }
-
-    private ClassLoader createCompileClassLoader(MavenProject project)
-            throws MojoExecutionException
-    {
-        Thread current = Thread.currentThread();
-        ClassLoader cl = current.getContextClassLoader();
-
-        try
-        {
+            index.load(indexFile);
             List classpathElements = project.getCompileClasspathElements();
-            if (!classpathElements.isEmpty())
-            {
-                String[] entries = (String[]) classpathElements
-                        .toArray(new String[0]);
-                URL[] urls = new URL[entries.length];
-                for (int i = 0; i < urls.length; i++)
-                {
-                    urls[i] = new File(entries[i]).toURL();
-                }
-                cl = new URLClassLoader(urls, cl);
-            }
+            List urls = index.getResources(
+                    Thread.currentThread().getContextClassLoader(),
+                    classpathElements, resourcePath);
+            index.save(indexFile, classpathElements);
+            return urls;
         }
         catch (DependencyResolutionRequiredException e)
         {
             throw new MojoExecutionException(
                     "Error calculating scope classpath", e);
         }
-        catch (MalformedURLException e)
+        catch (IOException e)
         {
             throw new MojoExecutionException(
-                    "Error calculating scope classpath", e);
+                    "Unable to get resources for path " + "\"" + resourcePath
+                            + "\"", e);
         }
-
-        return cl;
     }
 }
@@ -18,22 +18,23 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.builder;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.io.Writer;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.zip.ZipFile;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
@@ -45,8 +46,11 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.io.BinaryModelCache;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.ArtifactIndex;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.DigesterPool;
 import org.codehaus.plexus.components.io.fileselectors.FileInfo;
 import org.codehaus.plexus.components.io.fileselectors.FileSelector;
 import org.codehaus.plexus.components.io.fileselectors.IncludeExcludeFileSelector;
@@ -63,21 +67,49 @@ public class IOUtils
 {
     
     private final static String MYFACES_METADATA = "META-INF/myfaces-metadata.xml";
+
+    /**
+     * Digesters with the metadata rules, shared by every model read.
+     */
+    private final static DigesterPool MODEL_DIGESTERS = new DigesterPool()
+    {
+        protected Digester createDigester()
+                throws ParserConfigurationException, SAXException
+        {
+            SAXParserFactory spf = SAXParserFactory.newInstance();
+            spf.setNamespaceAware(true);
+            // requires JAXP 1.3, in JavaSE 5.0
+            // spf.setXIncludeAware(true);
+            Digester d = new Digester(spf.newSAXParser());
+            d.setNamespaceAware(true);
+
+            Model.addXmlRules(d);
+            return d;
+        }
+    };
     
     /**
      * Write the contents of the model to an xml file.
+     * <p>
+     * A binary copy of the model is written next to the xml file, so that
+     * loadModel can skip parsing the xml while it has not changed.
      */
     public static void saveModel(Model model, File outfile)
             throws MojoExecutionException
     {
-        FileWriter writer = null;
+        FileOutputStream out = null;
+        byte[] content;
 
         try
         {
             outfile.getParentFile().mkdirs();
 
-            writer = new FileWriter(outfile);
+            StringWriter writer = new StringWriter();
             writeModel(model, writer);
+            content = writer.toString().getBytes();
+
+            out = new FileOutputStream(outfile);
+            out.write(content);
         }
         catch (IOException e)
         {
@@ -87,9 +119,9 @@ public class IOUtils
         {
             try
             {
-                if (writer != null)
+                if (out != null)
                 {
-                    writer.close();
+                    out.close();
                 }
             }
             catch (IOException e)
@@ -97,6 +129,19 @@ public class IOUtils
                 // ignore
             }
         }
+
+        File cacheFile = BinaryModelCache.getCacheFile(outfile);
+        try
+        {
+            BinaryModelCache.write(model, BinaryModelCache.digest(content), cacheFile);
+        }
+        catch (IOException e)
+        {
+            // The binary copy is only an optimization, the xml file is enough
+            LogFactory.getLog(IOUtils.class).warn(
+                    "Unable to save binary metadata " + cacheFile, e);
+            cacheFile.delete();
+        }
     }
 
     /**
@@ -120,32 +165,45 @@ public class IOUtils
 
     /**
      * Read the contents of the model from an xml file.
+     * <p>
+     * When the binary copy written by saveModel is still up to date with
+     * the xml content, the model is read from it instead of parsing the xml.
      */
     public static Model loadModel(File infile) throws MojoExecutionException
     {
-        FileReader reader = null;
+        byte[] content = readFile(infile);
+
+        File cacheFile = BinaryModelCache.getCacheFile(infile);
         try
         {
-            reader = new FileReader(infile);
-            return readModel(reader);
+            Model model = BinaryModelCache.read(cacheFile, BinaryModelCache.digest(content));
+            if (model != null)
+            {
+                return model;
+            }
+        }
+        catch (IOException e)
+        {
+            LogFactory.getLog(IOUtils.class).warn(
+                    "Unable to read binary metadata " + cacheFile, e);
         }
-        catch (FileNotFoundException e)
+
+        return readModel(new InputStreamReader(new ByteArrayInputStream(content)));
+    }
+
+    private static byte[] readFile(File infile) throws MojoExecutionException
+    {
+        if (!infile.isFile())
         {
             throw new MojoExecutionException("No metadata file:" + infile);
         }
-        finally
+        try
         {
-            if (reader != null)
-            {
-                try
-                {
-                    reader.close();
-                }
-                catch (IOException e)
-                {
-                    // ignore
-                }
-            }
+            return Files.readAllBytes(infile.toPath());
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Unable to load metadata", e);
         }
     }
     
@@ -175,80 +233,24 @@ public class IOUtils
         return existsFile;
     }
     
-    public static Model getModelFromArtifact(Artifact artifact) 
-        throws MojoExecutionException
+    public static Model getModelFromArtifact(Artifact artifact,
+            org.apache.maven.plugin.logging.Log log) throws MojoExecutionException
     {
-        Model model = null;
         File jarFile = artifact.getFile();
-
-        URLClassLoader archetypeJarLoader;
-
-        InputStream is = null;
         try
         {
-            URL[] urls = new URL[1];
-            urls[0] = jarFile.toURI().toURL();
-            archetypeJarLoader = new URLClassLoader(urls);
-
-            is = getStream(MYFACES_METADATA, archetypeJarLoader);
-
-            if (is != null)
+            if (ArtifactIndex.getInstance().contains(jarFile, MYFACES_METADATA))
             {
-                Reader r = null;
-                try
-                {
-                    r = new InputStreamReader(is);
-                    model = readModel(r);
-                    r.close();
-                }
-                catch (IOException e)
-                {
-                    throw new MojoExecutionException(
-                            "Error reading myfaces-metadata.xml form "
-                                    + artifact.getFile().getName(), e);
-                }
-                finally
-                {
-                    if (r != null)
-                    {
-                        try
-                        {
-                            r.close();
-                        }
-                        catch (IOException e)
-                        {
-                            //ignore
-                        }
-                    }
-                }
-
-                System.out.println("Artifact: "
-                        + artifact.getFile().getName()
-                        + " have META-INF/myfaces-metadata.xml");
+                return readModelFromJar(jarFile, log);
             }
+            return null;
         }
         catch (IOException e)
         {
             throw new MojoExecutionException(
                     "Error reading myfaces-metadata.xml form "
-                            + artifact.getFile().getName(), e);
-        }
-        finally
-        {
-            if (is != null)
-            {
-                try
-                {
-                    is.close();
-                }
-                catch (IOException ex)
-                {
-                    //ignore
-                }
-            }
+                            + jarFile.getName(), e);
         }
-
-        return model;
     }
 
     /**
@@ -256,10 +258,22 @@ public class IOUtils
      * <p>
      * Each file found is loaded into memory as a Model object and added to the list.
      */
-    public static List getModelsFromArtifacts(MavenProject project)
-            throws MojoExecutionException
+    public static List getModelsFromArtifacts(MavenProject project,
+            org.apache.maven.plugin.logging.Log log) throws MojoExecutionException
     {
         List models = new ArrayList();
+        List jarPaths = new ArrayList();
+        ArtifactIndex index = ArtifactIndex.getInstance();
+        File indexFile = ArtifactIndex.getIndexFile(
+                project.getBuild().getDirectory());
+        try
+        {
+            index.load(indexFile);
+        }
+        catch (IOException e)
+        {
+            log.warn("Unable to read " + indexFile, e);
+        }
         
         for (Iterator it = project.getArtifacts().iterator(); it.hasNext();)
         {
@@ -273,52 +287,13 @@ public class IOUtils
                 //This is safe since we have all depencencies on the
                 //pom, so they are downloaded first by maven.
                 File jarFile = artifact.getFile();
+                jarPaths.add(jarFile.getPath());
 
-                URLClassLoader archetypeJarLoader;
-
-                InputStream is = null;
                 try
                 {
-                    URL[] urls = new URL[1];
-                    urls[0] = jarFile.toURL();
-                    archetypeJarLoader = new URLClassLoader(urls);
-
-                    is = getStream(MYFACES_METADATA, archetypeJarLoader);
-
-                    if (is != null)
+                    if (index.contains(jarFile, MYFACES_METADATA))
                     {
-                        Reader r = null;
-                        try
-                        {
-                            r = new InputStreamReader(is);
-                            Model m = readModel(r);
-                            models.add(m);
-                            r.close();
-                        }
-                        catch (IOException e)
-                        {
-                            throw new MojoExecutionException(
-                                    "Error reading myfaces-metadata.xml form "
-                                            + artifact.getFile().getName(), e);
-                        }
-                        finally
-                        {
-                            if (r != null)
-                            {
-                                try
-                                {
-                                    r.close();
-                                }
-                                catch (IOException e)
-                                {
-                                    //ignore
-                                }
-                            }
-                        }
-
-                        System.out.println("Artifact: "
-                                + artifact.getFile().getName()
-                                + " have META-INF/myfaces-metadata.xml");
+                        models.add(readModelFromJar(jarFile, log));
                     }
                 }
                 catch (IOException e)
@@ -327,33 +302,38 @@ public class IOUtils
                             "Error reading myfaces-metadata.xml form "
                                     + artifact.getFile().getName(), e);
                 }
-                finally
-                {
-                    if (is != null)
-                    {
-                        try
-                        {
-                            is.close();
-                        }
-                        catch (IOException ex)
-                        {
-                            //ignore
-                        }
-                    }
-                }
             }
         }
+
+        try
+        {
+            index.save(indexFile, jarPaths);
+        }
+        catch (IOException e)
+        {
+            log.warn("Unable to write " + indexFile, e);
+        }
         return models;
     }
-        
-    private static InputStream getStream( String name,
-            ClassLoader loader )
+
+    private static Model readModelFromJar(File jarFile,
+            org.apache.maven.plugin.logging.Log log)
+            throws IOException, MojoExecutionException
     {
-        if ( loader == null )
+        ZipFile zip = new ZipFile(jarFile);
+        try
         {
-            return Thread.currentThread().getContextClassLoader().getResourceAsStream( name );
+            Reader r = new InputStreamReader(zip.getInputStream(
+                    zip.getEntry(MYFACES_METADATA)));
+            Model model = readModel(r);
+            log.info("Artifact: " + jarFile.getName()
+                    + " have META-INF/myfaces-metadata.xml");
+            return model;
+        }
+        finally
+        {
+            zip.close();
         }
-        return loader.getResourceAsStream( name );
     }
     
     /**
@@ -363,19 +343,12 @@ public class IOUtils
     {
         try
         {
-            //Digester d = new Digester();
-            SAXParserFactory spf = SAXParserFactory.newInstance();
-            spf.setNamespaceAware(true);
-            // requires JAXP 1.3, in JavaSE 5.0
-            // spf.setXIncludeAware(true);
-            Digester d = new Digester(spf.newSAXParser());
-            d.setNamespaceAware(true);            
-
-            Model.addXmlRules(d);
+            Digester d = MODEL_DIGESTERS.acquire();
 
             d.parse(reader);
 
             Model model = (Model) d.getRoot();
+            MODEL_DIGESTERS.release(d);
             return model;
         }
         catch (IOException e)
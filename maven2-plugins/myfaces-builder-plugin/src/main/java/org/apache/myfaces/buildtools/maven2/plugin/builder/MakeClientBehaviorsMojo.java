@@ -19,10 +19,7 @@
 package org.apache.myfaces.buildtools.maven2.plugin.builder;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -33,14 +30,13 @@ import org.apache.maven.project.MavenProject;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.BehaviorMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.BuildException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.GenerationPipeline;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MavenPluginConsoleLogSystem;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
-import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.context.Context;
 import org.apache.velocity.runtime.RuntimeConstants;
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
 
 import com.thoughtworks.qdox.JavaDocBuilder;
@@ -192,7 +188,7 @@ public class MakeClientBehaviorsMojo extends AbstractBuilderMojo
             
             Properties cacheInfo = new Properties();
             loadCache(cacheInfo);
-            generateBehaviors(model, cacheInfo, mdFile.lastModified() );
+            generateBehaviors(model, cacheInfo);
             storeCache(cacheInfo);
         }
         catch (IOException e)
@@ -253,13 +249,13 @@ public class MakeClientBehaviorsMojo extends AbstractBuilderMojo
     /**
      * Generates parsed behaviors.
      */
-    private void generateBehaviors(Model model, Properties cachedInfo, long lastModifiedMetadata) throws IOException,
+    private void generateBehaviors(Model model, Properties cachedInfo) throws IOException,
             MojoExecutionException
     {
         // Make sure generated source directory 
         // is added to compilation source path 
         //project.addCompileSourceRoot(generatedSourceDirectory.getCanonicalPath());
-        File tf = new File(templateSourceDirectory, _getTemplateName());
+        String templatesDigest = getTemplatesDigest(templateSourceDirectory, _getTemplateName());
         
         if (isCachingEnabled())
         {
@@ -289,33 +285,14 @@ public class MakeClientBehaviorsMojo extends AbstractBuilderMojo
                         File outFile = new File(generatedSourceDirectory, StringUtils.replace(
                                 behavior.getClassName(), ".", "/")+".java");
     
-                        String lastModifiedString = cachedInfo.getProperty(outFile.getAbsolutePath());
-                        if (lastModifiedString == null)
+                        if (!isFileUpToDate(cachedInfo, outFile, getInputDigest(templatesDigest, behavior)))
                         {
                             upToDate = false;
                             break;
                         }
-                        else if (!outFile.exists())
-                        {
-                            upToDate = false;
-                            break;
-                        }
-                        else
-                        {
-                            Long lastModified = Long.valueOf(lastModifiedString);
-                            if (lastModified != null && lastModifiedMetadata > lastModified.longValue())
-                            {
-                                upToDate = false;
-                                break;
-                            }
-                        }
                     }
                 }
             }
-            if (upToDate && tf != null && tf.exists())
-            {
-                upToDate = isFileUpToDate(cachedInfo, tf);
-            }
             if (upToDate)
             {
                 getLog().info("generated converter files are up to date");
@@ -338,6 +315,8 @@ public class MakeClientBehaviorsMojo extends AbstractBuilderMojo
         
         //Init velocity
         VelocityEngine velocityEngine = initVelocity();
+        GenerationPipeline pipeline = new GenerationPipeline(
+                velocityEngine, _getTemplateName(), getGeneratorThreads(), force, getLog());
 
         VelocityContext baseContext = new VelocityContext();
         baseContext.put("utils", new MyfacesUtils());
@@ -363,34 +342,21 @@ public class MakeClientBehaviorsMojo extends AbstractBuilderMojo
                             continue;
                         }
                     }
-                    getLog().info("Generating client behavior class:"+behavior.getClassName());
-                    try
+                    String inputDigest = null;
+                    if (isCachingEnabled())
                     {
-                        _generateBehavior(velocityEngine, builder,behavior,baseContext,
-                                cachedInfo, lastModifiedMetadata);
-                    }
-                    catch(MojoExecutionException e)
-                    {
-                        if (force)
+                        inputDigest = getInputDigest(templatesDigest, behavior);
+                        if (isFileUpToDate(cachedInfo, new File(generatedSourceDirectory, StringUtils.replace(
+                                behavior.getClassName(), ".", "/")+".java"), inputDigest))
                         {
-                            getLog().error(e.getMessage());
-                        }
-                        else
-                        {
-                            //Stop execution throwing exception
-                            throw e;
+                            continue;
                         }
                     }
+                    _generateBehavior(pipeline, builder, behavior, baseContext, inputDigest);
                 }
             }
         }
-        if (isCachingEnabled())
-        {
-            if (tf != null && tf.exists())
-            {
-                cachedInfo.put(tf.getAbsolutePath(), Long.toString(tf.lastModified()));
-            }
-        }
+        pipeline.finish(cachedInfo);
     }
     
     public boolean canGenerateBehavior(BehaviorMeta behavior)
@@ -439,51 +405,18 @@ public class MakeClientBehaviorsMojo extends AbstractBuilderMojo
      * @param behavior
      *            the parsed behavior metadata
      */
-    private void _generateBehavior(VelocityEngine velocityEngine,
+    private void _generateBehavior(GenerationPipeline pipeline,
             JavaDocBuilder builder,
             BehaviorMeta behavior, VelocityContext baseContext,
-            Properties cachedInfo, long lastModifiedMetadata)
-            throws MojoExecutionException
+            String inputDigest)
     {
         Context context = new VelocityContext(baseContext);
         context.put("clientBehavior", behavior);
-        
-        Writer writer = null;
-        File outFile = null;
-
-        try
-        {
-            outFile = new File(generatedSourceDirectory, StringUtils.replace(
-                    behavior.getClassName(), ".", "/")+".java");
-
-            if ( !outFile.getParentFile().exists() )
-            {
-                outFile.getParentFile().mkdirs();
-            }
-
-            writer = new OutputStreamWriter(new FileOutputStream(outFile));
 
-            Template template = velocityEngine.getTemplate(_getTemplateName());
-                        
-            template.merge(context, writer);
+        File outFile = new File(generatedSourceDirectory, StringUtils.replace(
+                behavior.getClassName(), ".", "/")+".java");
 
-            writer.flush();
-            
-            if (isCachingEnabled())
-            {
-                cachedInfo.put(outFile.getAbsolutePath(), Long.toString(lastModifiedMetadata));
-            }
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(writer);
-            writer = null;
-        }
+        pipeline.add("Generating client behavior class:"+behavior.getClassName(), outFile, context, inputDigest);
     }
                 
     private String _getTemplateName()
@@ -19,11 +19,8 @@
 package org.apache.myfaces.buildtools.maven2.plugin.builder;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.StringWriter;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -34,14 +31,13 @@ import org.apache.maven.project.MavenProject;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.BuildException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.GenerationPipeline;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MavenPluginConsoleLogSystem;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
-import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.context.Context;
 import org.apache.velocity.runtime.RuntimeConstants;
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
 
 import com.thoughtworks.qdox.JavaDocBuilder;
@@ -65,6 +61,12 @@ import com.thoughtworks.qdox.model.JavaMethod;
  *   org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta</li>
  *  <li>innersource : code to be injected from the template class when template
  *  mode is used</li>  
+ *  <li>arrayStateStorage : true if the properties kept in the StateHelper should be
+ *  stored in an array instead (see stateStorage)</li>
+ *  <li>valueExpressionFields : true if properties should keep their ValueExpression in
+ *  a field (see valueExpressionFields)</li>
+ *  <li>compactState : true if saveState should only save the values that are present,
+ *  behind a bit mask (see compactState)</li>
  * </ul>
  * 
  * @version $Id$
@@ -74,6 +76,10 @@ import com.thoughtworks.qdox.model.JavaMethod;
  */
 public class MakeComponentsMojo extends AbstractBuilderMojo
 {
+    private static final String STATE_STORAGE_STATE_HELPER = "stateHelper";
+
+    private static final String STATE_STORAGE_ARRAY = "array";
+
     /**
      * Injected Maven project.
      * 
@@ -147,6 +153,46 @@ public class MakeComponentsMojo extends AbstractBuilderMojo
      * @parameter
      */
     private String jsfVersion;
+
+    /**
+     * Defines how the classes generated with the 2.0 template store the properties
+     * they keep in their StateHelper, unless the component defines its own stateStorage.
+     * <p>
+     * With 'stateHelper' (default), the properties are kept in the map of the StateHelper.
+     * With 'array', each generated class keeps them in an array indexed by property, and
+     * tracks the properties changed after the initial state was marked to save them in
+     * its own saveState. This avoids hashing and map entries on each access.
+     * </p>
+     * 
+     * @parameter default-value="stateHelper"
+     * @since 1.0.12
+     */
+    private String stateStorage = STATE_STORAGE_STATE_HELPER;
+
+    /**
+     * Generate classes with the 1.2 template that keep the ValueExpression of each property
+     * in a field of its own, so getters do not look it up in the map of bindings. The
+     * value of a literal expression is cached by the getter, apart from the local value of
+     * the property, until setValueExpression replaces the expression.
+     * 
+     * @parameter
+     * @since 1.0.12
+     */
+    private boolean valueExpressionFields;
+
+    /**
+     * Generate saveState and restoreState methods that save a bit mask of the values
+     * present, followed by those values only, instead of an array with an entry for
+     * every value. Nothing is saved when no value changed since the initial state
+     * was marked, and restoreState dispatches each value present through a switch.
+     * <p>
+     * Components with more than 63 values to save keep the usual encoding.
+     * </p>
+     * 
+     * @parameter
+     * @since 1.0.12
+     */
+    private boolean compactState;
     
     /**
      * Define the models that should be included when generate component classes. If not set, the
@@ -220,7 +266,7 @@ public class MakeComponentsMojo extends AbstractBuilderMojo
             
             Properties cacheInfo = new Properties();
             loadCache(cacheInfo);
-            generateComponents(model, cacheInfo, mdFile.lastModified() );
+            generateComponents(model, cacheInfo);
             storeCache(cacheInfo);
         }
         catch (IOException e)
@@ -280,13 +326,14 @@ public class MakeComponentsMojo extends AbstractBuilderMojo
     /**
      * Generates parsed components.
      */
-    private void generateComponents(Model model, Properties cachedInfo, long lastModifiedMetadata) throws IOException,
+    private void generateComponents(Model model, Properties cachedInfo) throws IOException,
             MojoExecutionException
     {
         // Make sure generated source directory 
         // is added to compilation source path 
         //project.addCompileSourceRoot(generatedSourceDirectory.getCanonicalPath());
-        File tf = new File(templateSourceDirectory, _getTemplateName());
+        String templatesDigest = getTemplatesDigest(templateSourceDirectory, _getTemplateName())
+                + ":" + stateStorage + ":" + valueExpressionFields + ":" + compactState;
         
         if (isCachingEnabled())
         {
@@ -316,33 +363,14 @@ public class MakeComponentsMojo extends AbstractBuilderMojo
                         File outFile = new File(generatedSourceDirectory, StringUtils.replace(
                                 component.getClassName(), ".", "/")+".java");
     
-                        String lastModifiedString = cachedInfo.getProperty(outFile.getAbsolutePath());
-                        if (lastModifiedString == null)
-                        {
-                            upToDate = false;
-                            break;
-                        }
-                        else if (!outFile.exists())
+                        if (!isFileUpToDate(cachedInfo, outFile, getComponentInputDigest(templatesDigest, component)))
                         {
                             upToDate = false;
                             break;
                         }
-                        else
-                        {
-                            Long lastModified = Long.valueOf(lastModifiedString);
-                            if (lastModified != null && lastModifiedMetadata > lastModified.longValue())
-                            {
-                                upToDate = false;
-                                break;
-                            }
-                        }
                     }
                 }
             }
-            if (upToDate && tf != null && tf.exists())
-            {
-                upToDate = isFileUpToDate(cachedInfo, tf);
-            }
             if (upToDate)
             {
                 getLog().info("generated component files are up to date");
@@ -365,9 +393,13 @@ public class MakeComponentsMojo extends AbstractBuilderMojo
         
         //Init velocity
         VelocityEngine velocityEngine = initVelocity();
+        GenerationPipeline pipeline = new GenerationPipeline(
+                velocityEngine, _getTemplateName(), getGeneratorThreads(), force, getLog());
 
         VelocityContext baseContext = new VelocityContext();
         baseContext.put("utils", new MyfacesUtils());
+        baseContext.put("valueExpressionFields", Boolean.valueOf(valueExpressionFields));
+        baseContext.put("compactState", Boolean.valueOf(compactState));
         
         for (Iterator it = model.getComponents().iterator(); it.hasNext();)
         {
@@ -390,37 +422,46 @@ public class MakeComponentsMojo extends AbstractBuilderMojo
                             continue;
                         }
                     }
-                    getLog().info("Generating component class:"+component.getClassName());
-                    
-                    try 
-                    {
-                        _generateComponent(velocityEngine, builder,component,baseContext,
-                                cachedInfo, lastModifiedMetadata);
-                    }
-                    catch(MojoExecutionException e)
+                    String inputDigest = null;
+                    if (isCachingEnabled())
                     {
-                        if (force)
-                        {
-                            getLog().error(e.getMessage());
-                        }
-                        else
+                        inputDigest = getComponentInputDigest(templatesDigest, component);
+                        if (isFileUpToDate(cachedInfo, new File(generatedSourceDirectory, StringUtils.replace(
+                                component.getClassName(), ".", "/")+".java"), inputDigest))
                         {
-                            //Stop execution throwing exception
-                            throw e;
+                            continue;
                         }
                     }
+                    _generateComponent(pipeline, builder, component, baseContext, inputDigest);
                 }
             }
         }
-        if (isCachingEnabled())
+        pipeline.finish(cachedInfo);
+    }
+    
+    /**
+     * The class generated for a template component also includes code
+     * copied from its source class, so the source file is an input too.
+     */
+    private String getComponentInputDigest(String templatesDigest, ComponentMeta component)
+        throws IOException
+    {
+        if (!Boolean.TRUE.equals(component.isTemplate()) || component.getSourceClassName() == null)
+        {
+            return getInputDigest(templatesDigest, component);
+        }
+        String sourcePath = StringUtils.replace(component.getSourceClassName(), ".", "/")+".java";
+        for (Iterator i = project.getCompileSourceRoots().iterator(); i.hasNext();)
         {
-            if (tf != null && tf.exists())
+            File sourceFile = new File((String) i.next(), sourcePath);
+            if (sourceFile.exists())
             {
-                cachedInfo.put(tf.getAbsolutePath(), Long.toString(tf.lastModified()));
+                return getInputDigest(templatesDigest, component, new File[]{sourceFile});
             }
         }
+        return getInputDigest(templatesDigest, component);
     }
-    
+
     public boolean canGenerateComponent(ComponentMeta component)
     {
         if ( modelIds.contains(component.getModelId())
@@ -480,14 +521,14 @@ public class MakeComponentsMojo extends AbstractBuilderMojo
      * @param component
      *            the parsed component metadata
      */
-    private void _generateComponent(VelocityEngine velocityEngine,
+    private void _generateComponent(GenerationPipeline pipeline,
             JavaDocBuilder builder,
             ComponentMeta component, VelocityContext baseContext,
-            Properties cachedInfo, long lastModifiedMetadata)
-            throws MojoExecutionException
+            String inputDigest) throws MojoExecutionException
     {
         Context context = new VelocityContext(baseContext);
         context.put("component", component);
+        context.put("arrayStateStorage", Boolean.valueOf(_isArrayStateStorage(component)));
 
         if (Boolean.TRUE.equals(component.isTemplate()))
         {
@@ -497,44 +538,12 @@ public class MakeComponentsMojo extends AbstractBuilderMojo
             {
                 context.put("innersource", source);
             }
-        }        
-        
-        Writer writer = null;
-        File outFile = null;
-
-        try
-        {
-            outFile = new File(generatedSourceDirectory, StringUtils.replace(
-                    component.getClassName(), ".", "/")+".java");
-
-            if ( !outFile.getParentFile().exists() )
-            {
-                outFile.getParentFile().mkdirs();
-            }
-
-            writer = new OutputStreamWriter(new FileOutputStream(outFile));
+        }
 
-            Template template = velocityEngine.getTemplate(_getTemplateName());
-                        
-            template.merge(context, writer);
+        File outFile = new File(generatedSourceDirectory, StringUtils.replace(
+                component.getClassName(), ".", "/")+".java");
 
-            writer.flush();
-            
-            if (isCachingEnabled())
-            {
-                cachedInfo.put(outFile.getAbsolutePath(), Long.toString(lastModifiedMetadata));
-            }
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(writer);
-            writer = null;
-        }
+        pipeline.add("Generating component class:"+component.getClassName(), outFile, context, inputDigest);
     }
         
     /**
@@ -741,6 +750,22 @@ public class MakeComponentsMojo extends AbstractBuilderMojo
         return null;
     }    
 
+    private boolean _isArrayStateStorage(ComponentMeta component) throws MojoExecutionException
+    {
+        String value = component.getStateStorage() != null ? component.getStateStorage() : stateStorage;
+        if (STATE_STORAGE_ARRAY.equals(value))
+        {
+            return true;
+        }
+        else if (STATE_STORAGE_STATE_HELPER.equals(value))
+        {
+            return false;
+        }
+        throw new MojoExecutionException("Invalid stateStorage '" + value + "' for component "
+                + component.getClassName() + ", expected '" + STATE_STORAGE_STATE_HELPER
+                + "' or '" + STATE_STORAGE_ARRAY + "'");
+    }
+
     private String _getTemplateName()
     {
         if (templateComponentName == null)
@@ -19,23 +19,22 @@
 package org.apache.myfaces.buildtools.maven2.plugin.builder;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringWriter;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.BuildException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.GeneratedFiles;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MavenPluginConsoleLogSystem;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
 import org.apache.velocity.Template;
@@ -78,6 +77,26 @@ import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
  * of this mojo.</li>
  * </ul>
  * </p>
+ * <p>
+ * Besides the config files, the bundled faces-registry20.vm template generates a class
+ * that creates the components, converters and validators of the library without
+ * reflection, and faces-registry-service.vm its ServiceLoader provider file. Both take
+ * the registryClass and registryInterface params.
+ * </p>
+ * <p>
+ * When the output file is a java source (its name ends with ".java"), it is created in
+ * generatedSourceDirectory instead of outputDirectory, and that directory is added as a
+ * compile source root, so the generated class is compiled with the project. For example:
+ * <pre>
+ * &lt;configuration&gt;
+ *   &lt;templateFile&gt;faces-registry20.vm&lt;/templateFile&gt;
+ *   &lt;xmlFile&gt;org/example/FacesRegistry.java&lt;/xmlFile&gt;
+ *   &lt;params&gt;
+ *     &lt;registryClass&gt;org.example.FacesRegistry&lt;/registryClass&gt;
+ *   &lt;/params&gt;
+ * &lt;/configuration&gt;
+ * </pre>
+ * </p>
  * 
  * @requiresDependencyResolution compile
  * @goal make-config
@@ -108,6 +127,14 @@ public class MakeConfigMojo extends AbstractBuilderMojo
      * @parameter expression="${project.build.directory}/generated-resources/myfaces-builder-plugin"
      */
     private File outputDirectory;
+
+    /**
+     * Defines the directory where the output file is created when it is a java source.
+     * This directory is added as a compile source root automatically like src/main/java is.
+     * 
+     * @parameter expression="${project.build.directory}/generated-sources/myfaces-builder-plugin"
+     */
+    private File generatedSourceDirectory;
     
     /**
      * Name of the file from which the metadata model passed to the
@@ -222,7 +249,7 @@ public class MakeConfigMojo extends AbstractBuilderMojo
             
             Properties cacheInfo = new Properties();
             loadCache(cacheInfo);
-            generateConfigFromVelocity(model, cacheInfo, mdFile.lastModified() );
+            generateConfigFromVelocity(model, cacheInfo, mdFile);
             storeCache(cacheInfo);
         }
         catch (IOException e)
@@ -236,36 +263,40 @@ public class MakeConfigMojo extends AbstractBuilderMojo
     }
     
     private void generateConfigFromVelocity(Model model,
-        Properties cachedInfo, long lastModifiedMetadata) throws IOException,
+        Properties cachedInfo, File mdFile) throws IOException,
         MojoExecutionException
     {    
-        Writer writer = null;
+        StringWriter writer = null;
         File outFile = null;
-        File tf = new File(templateSourceDirectory, templateFile);
+        String inputDigest = null;
         
         try
         {
-            outFile = new File(outputDirectory, xmlFile);
+            if (xmlFile.endsWith(".java"))
+            {
+                project.addCompileSourceRoot(generatedSourceDirectory.getCanonicalPath());
+                outFile = new File(generatedSourceDirectory, xmlFile);
+            }
+            else
+            {
+                outFile = new File(outputDirectory, xmlFile);
+            }
 
             if ( !outFile.getParentFile().exists() )
             {
                 outFile.getParentFile().mkdirs();
             }
             
-            if (isCachingEnabled() && outFile.exists())
+            if (isCachingEnabled())
             {
-                boolean upToDate = isFileUpToDate(cachedInfo, lastModifiedMetadata, outFile); 
-                
-                if (upToDate && xmlBaseFile != null && xmlBaseFile.exists())
-                {
-                    upToDate = isFileUpToDate(cachedInfo, xmlBaseFile);
-                }
-                if (upToDate && tf != null && tf.exists())
-                {
-                    upToDate = isFileUpToDate(cachedInfo, tf);
-                }
+                // The whole model is available to the template, so the
+                // metadata file is an input as a whole.
+                String settings = modelIds + "|" + (params == null ? null : new TreeMap(params));
+                inputDigest = getInputDigest(
+                        getTemplatesDigest(templateSourceDirectory, templateFile),
+                        settings, new File[]{mdFile, xmlBaseFile});
                 
-                if (upToDate)
+                if (isFileUpToDate(cachedInfo, outFile, inputDigest))
                 {
                     getLog().info("generated file " +outFile.getName()+ " is up to date");
                     return;
@@ -331,25 +362,21 @@ public class MakeConfigMojo extends AbstractBuilderMojo
                 }
             }
             
-            writer = new OutputStreamWriter(new FileOutputStream(outFile));
+            writer = new StringWriter();
             
             Template template = velocityEngine.getTemplate(templateFile);
             
             template.merge(baseContext, writer);
 
-            writer.flush();
+            // Leave the file alone when its content did not change
+            if (!new GeneratedFiles().write(outFile, writer.toString()))
+            {
+                getLog().info("generated file " +outFile.getName()+ " is unchanged");
+            }
             
             if (isCachingEnabled())
             {
-                cachedInfo.put(outFile.getAbsolutePath(), Long.toString(lastModifiedMetadata));
-                if (xmlBaseFile != null && xmlBaseFile.exists())
-                {
-                    cachedInfo.put(xmlBaseFile.getAbsolutePath(), Long.toString(xmlBaseFile.lastModified()));
-                }
-                if (tf != null && tf.exists())
-                {
-                    cachedInfo.put(tf.getAbsolutePath(), Long.toString(tf.lastModified()));
-                }
+                cachedInfo.put(outFile.getAbsolutePath(), inputDigest);
             }
         }
         catch (ResourceNotFoundException e)
@@ -22,10 +22,7 @@ import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -37,14 +34,13 @@ import org.apache.maven.project.MavenProject;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ConverterMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.BuildException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.GenerationPipeline;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MavenPluginConsoleLogSystem;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
-import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.context.Context;
 import org.apache.velocity.runtime.RuntimeConstants;
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -212,7 +208,7 @@ public class MakeConverterTagsMojo extends AbstractBuilderMojo
             
             Properties cacheInfo = new Properties();
             loadCache(cacheInfo);
-            generateConverters(model, cacheInfo, mdFile.lastModified() );
+            generateConverters(model, cacheInfo);
             storeCache(cacheInfo);
         }
         catch (IOException e)
@@ -273,10 +269,10 @@ public class MakeConverterTagsMojo extends AbstractBuilderMojo
     /**
      * Generates parsed components.
      */
-    private void generateConverters(Model model, Properties cachedInfo, long lastModifiedMetadata) throws IOException,
+    private void generateConverters(Model model, Properties cachedInfo) throws IOException,
             MojoExecutionException
     {
-        File tf = new File(templateSourceDirectory, _getTemplateTagName());
+        String templatesDigest = getTemplatesDigest(templateSourceDirectory, _getTemplateTagName());
         
         if (isCachingEnabled())
         {
@@ -306,33 +302,14 @@ public class MakeConverterTagsMojo extends AbstractBuilderMojo
                         File outFile = new File(generatedSourceDirectory, StringUtils.replace(
                                 converter.getTagClass(), ".", "/")+".java");
     
-                        String lastModifiedString = cachedInfo.getProperty(outFile.getAbsolutePath());
-                        if (lastModifiedString == null)
+                        if (!isFileUpToDate(cachedInfo, outFile, getInputDigest(templatesDigest, converter)))
                         {
                             upToDate = false;
                             break;
                         }
-                        else if (!outFile.exists())
-                        {
-                            upToDate = false;
-                            break;
-                        }
-                        else
-                        {
-                            Long lastModified = Long.valueOf(lastModifiedString);
-                            if (lastModified != null && lastModifiedMetadata > lastModified.longValue())
-                            {
-                                upToDate = false;
-                                break;
-                            }
-                        }
                     }
                 }
             }
-            if (upToDate && tf != null && tf.exists())
-            {
-                upToDate = isFileUpToDate(cachedInfo, tf);
-            }
             if (upToDate)
             {
                 getLog().info("generated component tag files are up to date");
@@ -341,6 +318,8 @@ public class MakeConverterTagsMojo extends AbstractBuilderMojo
         }
 
         VelocityEngine velocityEngine = initVelocity();
+        GenerationPipeline pipeline = new GenerationPipeline(
+                velocityEngine, _getTemplateTagName(), getGeneratorThreads(), force, getLog());
 
         VelocityContext baseContext = new VelocityContext();
         baseContext.put("utils", new MyfacesUtils());
@@ -366,34 +345,21 @@ public class MakeConverterTagsMojo extends AbstractBuilderMojo
                             continue;
                         }
                     }
-                    getLog().info("Generating tag class:"+converter.getTagClass());
-                    try
+                    String inputDigest = null;
+                    if (isCachingEnabled())
                     {
-                        _generateConverter(velocityEngine, converter,baseContext, 
-                                cachedInfo, lastModifiedMetadata);
-                    }
-                    catch(MojoExecutionException e)
-                    {
-                        if (force)
+                        inputDigest = getInputDigest(templatesDigest, converter);
+                        if (isFileUpToDate(cachedInfo, new File(generatedSourceDirectory, StringUtils.replace(
+                                converter.getTagClass(), ".", "/")+".java"), inputDigest))
                         {
-                            getLog().error(e.getMessage());
-                        }
-                        else
-                        {
-                            //Stop execution throwing exception
-                            throw e;
+                            continue;
                         }
                     }
+                    _generateConverter(pipeline, converter, baseContext, inputDigest);
                 }
             }
         }
-        if (isCachingEnabled())
-        {
-            if (tf != null && tf.exists())
-            {
-                cachedInfo.put(tf.getAbsolutePath(), Long.toString(tf.lastModified()));
-            }
-        }
+        pipeline.finish(cachedInfo);
     }
     
     public boolean canGenerateConverterTag(ConverterMeta component)
@@ -455,50 +421,17 @@ public class MakeConverterTagsMojo extends AbstractBuilderMojo
      * @param converter
      *            the parsed component metadata
      */
-    private void _generateConverter(VelocityEngine velocityEngine, ConverterMeta converter, VelocityContext baseContext,
-            Properties cachedInfo, long lastModifiedMetadata)
-            throws MojoExecutionException
+    private void _generateConverter(GenerationPipeline pipeline,
+            ConverterMeta converter, VelocityContext baseContext,
+            String inputDigest)
     {
-
         Context context = new VelocityContext(baseContext);
         context.put("converter", converter);
 
-        Writer writer = null;
-        File outFile = null;
-
-        try
-        {
-            outFile = new File(generatedSourceDirectory, StringUtils.replace(
-                    converter.getTagClass(), ".", "/")+".java");
-
-            if ( !outFile.getParentFile().exists() )
-            {
-                outFile.getParentFile().mkdirs();
-            }
-
-            writer = new OutputStreamWriter(new FileOutputStream(outFile));
-
-            Template template = velocityEngine.getTemplate(_getTemplateTagName());
-                        
-            template.merge(context, writer);
+        File outFile = new File(generatedSourceDirectory, StringUtils.replace(
+                converter.getTagClass(), ".", "/")+".java");
 
-            writer.flush();
-            
-            if (isCachingEnabled())
-            {
-                cachedInfo.put(outFile.getAbsolutePath(), Long.toString(lastModifiedMetadata));
-            }
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(writer);
-            writer = null;
-        }
+        pipeline.add("Generating tag class:"+converter.getTagClass(), outFile, context, inputDigest);
     }
     
     private String _getTemplateTagName()
@@ -19,10 +19,7 @@
 package org.apache.myfaces.buildtools.maven2.plugin.builder;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -33,14 +30,13 @@ import org.apache.maven.project.MavenProject;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ConverterMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.BuildException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.GenerationPipeline;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MavenPluginConsoleLogSystem;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
-import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.context.Context;
 import org.apache.velocity.runtime.RuntimeConstants;
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
 
 import com.thoughtworks.qdox.JavaDocBuilder;
@@ -206,7 +202,7 @@ public class MakeConvertersMojo extends AbstractBuilderMojo
             
             Properties cacheInfo = new Properties();
             loadCache(cacheInfo);
-            generateConverters(model, cacheInfo, mdFile.lastModified() );
+            generateConverters(model, cacheInfo);
             storeCache(cacheInfo);
         }
         catch (IOException e)
@@ -267,13 +263,13 @@ public class MakeConvertersMojo extends AbstractBuilderMojo
     /**
      * Generates parsed converters.
      */
-    private void generateConverters(Model model, Properties cachedInfo, long lastModifiedMetadata) throws IOException,
+    private void generateConverters(Model model, Properties cachedInfo) throws IOException,
             MojoExecutionException
     {
         // Make sure generated source directory 
         // is added to compilation source path 
         //project.addCompileSourceRoot(generatedSourceDirectory.getCanonicalPath());
-        File tf = new File(templateSourceDirectory, _getTemplateName());
+        String templatesDigest = getTemplatesDigest(templateSourceDirectory, _getTemplateName());
         
         if (isCachingEnabled())
         {
@@ -303,33 +299,14 @@ public class MakeConvertersMojo extends AbstractBuilderMojo
                         File outFile = new File(generatedSourceDirectory, StringUtils.replace(
                                 converter.getClassName(), ".", "/")+".java");
     
-                        String lastModifiedString = cachedInfo.getProperty(outFile.getAbsolutePath());
-                        if (lastModifiedString == null)
+                        if (!isFileUpToDate(cachedInfo, outFile, getInputDigest(templatesDigest, converter)))
                         {
                             upToDate = false;
                             break;
                         }
-                        else if (!outFile.exists())
-                        {
-                            upToDate = false;
-                            break;
-                        }
-                        else
-                        {
-                            Long lastModified = Long.valueOf(lastModifiedString);
-                            if (lastModified != null && lastModifiedMetadata > lastModified.longValue())
-                            {
-                                upToDate = false;
-                                break;
-                            }
-                        }
                     }
                 }
             }
-            if (upToDate && tf != null && tf.exists())
-            {
-                upToDate = isFileUpToDate(cachedInfo, tf);
-            }
             if (upToDate)
             {
                 getLog().info("generated converter files are up to date");
@@ -352,6 +329,8 @@ public class MakeConvertersMojo extends AbstractBuilderMojo
         
         //Init velocity
         VelocityEngine velocityEngine = initVelocity();
+        GenerationPipeline pipeline = new GenerationPipeline(
+                velocityEngine, _getTemplateName(), getGeneratorThreads(), force, getLog());
 
         VelocityContext baseContext = new VelocityContext();
         baseContext.put("utils", new MyfacesUtils());
@@ -377,34 +356,21 @@ public class MakeConvertersMojo extends AbstractBuilderMojo
                             continue;
                         }
                     }
-                    getLog().info("Generating converter class:"+converter.getClassName());
-                    try
+                    String inputDigest = null;
+                    if (isCachingEnabled())
                     {
-                        _generateConverter(velocityEngine, builder,converter,baseContext,
-                                cachedInfo, lastModifiedMetadata);
-                    }
-                    catch(MojoExecutionException e)
-                    {
-                        if (force)
+                        inputDigest = getInputDigest(templatesDigest, converter);
+                        if (isFileUpToDate(cachedInfo, new File(generatedSourceDirectory, StringUtils.replace(
+                                converter.getClassName(), ".", "/")+".java"), inputDigest))
                         {
-                            getLog().error(e.getMessage());
-                        }
-                        else
-                        {
-                            //Stop execution throwing exception
-                            throw e;
+                            continue;
                         }
                     }
+                    _generateConverter(pipeline, builder, converter, baseContext, inputDigest);
                 }
             }
         }
-        if (isCachingEnabled())
-        {
-            if (tf != null && tf.exists())
-            {
-                cachedInfo.put(tf.getAbsolutePath(), Long.toString(tf.lastModified()));
-            }
-        }
+        pipeline.finish(cachedInfo);
     }
     
     public boolean canGenerateConverter(ConverterMeta converter)
@@ -446,51 +412,18 @@ public class MakeConvertersMojo extends AbstractBuilderMojo
      * @param converter
      *            the parsed converter metadata
      */
-    private void _generateConverter(VelocityEngine velocityEngine,
+    private void _generateConverter(GenerationPipeline pipeline,
             JavaDocBuilder builder,
             ConverterMeta converter, VelocityContext baseContext,
-            Properties cachedInfo, long lastModifiedMetadata)
-            throws MojoExecutionException
+            String inputDigest)
     {
         Context context = new VelocityContext(baseContext);
         context.put("converter", converter);
-        
-        Writer writer = null;
-        File outFile = null;
-
-        try
-        {
-            outFile = new File(generatedSourceDirectory, StringUtils.replace(
-                    converter.getClassName(), ".", "/")+".java");
-
-            if ( !outFile.getParentFile().exists() )
-            {
-                outFile.getParentFile().mkdirs();
-            }
-
-            writer = new OutputStreamWriter(new FileOutputStream(outFile));
 
-            Template template = velocityEngine.getTemplate(_getTemplateName());
-                        
-            template.merge(context, writer);
+        File outFile = new File(generatedSourceDirectory, StringUtils.replace(
+                converter.getClassName(), ".", "/")+".java");
 
-            writer.flush();
-            
-            if (isCachingEnabled())
-            {
-                cachedInfo.put(outFile.getAbsolutePath(), Long.toString(lastModifiedMetadata));
-            }
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(writer);
-            writer = null;
-        }
+        pipeline.add("Generating converter class:"+converter.getClassName(), outFile, context, inputDigest);
     }
                 
     private String _getTemplateName()
@@ -19,10 +19,7 @@
 package org.apache.myfaces.buildtools.maven2.plugin.builder;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -33,14 +30,13 @@ import org.apache.maven.project.MavenProject;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.BuildException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.GenerationPipeline;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MavenPluginConsoleLogSystem;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
-import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.context.Context;
 import org.apache.velocity.runtime.RuntimeConstants;
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -54,6 +50,8 @@ import org.codehaus.plexus.util.StringUtils;
  *  it contains some useful methods.</li>
  *  <li>component : Returns the current instance of
  *   org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta</li>
+ *  <li>optimizeSetProperties : true if the generated setProperties should cache the
+ *  converters and call typed setters (see optimizeSetProperties)</li>
  * </ul>
  * 
  * @version $Id$
@@ -161,6 +159,23 @@ public class MakeTagsMojo extends AbstractBuilderMojo
      * @parameter
      */
     private String jsfVersion;
+
+    /**
+     * Generate 1.2 tag classes whose setProperties shares the stateless converters of
+     * literal converter ids, and sets literal-only boolean properties through the typed
+     * setter of the generated component instead of its attributes map.
+     * <p>
+     * The converter of an id is always created by Application.createConverter the first
+     * time. When it is not a StateHolder and has no instance fields, it is stateless, and
+     * that instance is shared by every component of the tag class in the application.
+     * Any other converter is created by Application.createConverter for every component,
+     * as without this option.
+     * </p>
+     * 
+     * @parameter
+     * @since 1.0.12
+     */
+    private boolean optimizeSetProperties;
     
     /**
      * Define the models that should be included when generate component tag classes. If not set, the
@@ -208,7 +223,7 @@ public class MakeTagsMojo extends AbstractBuilderMojo
             
             Properties cacheInfo = new Properties();
             loadCache(cacheInfo);
-            generateComponents(model, cacheInfo, mdFile.lastModified() );
+            generateComponents(model, cacheInfo);
             storeCache(cacheInfo);
         }
         catch (IOException e)
@@ -268,10 +283,11 @@ public class MakeTagsMojo extends AbstractBuilderMojo
     /**
      * Generates parsed components.
      */
-    private void generateComponents(Model model, Properties cachedInfo, long lastModifiedMetadata) throws IOException,
+    private void generateComponents(Model model, Properties cachedInfo) throws IOException,
             MojoExecutionException
     {
-        File tf = new File(templateSourceDirectory, _getTemplateTagName());
+        String templatesDigest = getTemplatesDigest(templateSourceDirectory, _getTemplateTagName())
+                + ":" + optimizeSetProperties;
         
         if (isCachingEnabled())
         {
@@ -301,33 +317,14 @@ public class MakeTagsMojo extends AbstractBuilderMojo
                         File outFile = new File(generatedSourceDirectory, StringUtils.replace(
                                 component.getTagClass(), ".", "/")+".java");
     
-                        String lastModifiedString = cachedInfo.getProperty(outFile.getAbsolutePath());
-                        if (lastModifiedString == null)
-                        {
-                            upToDate = false;
-                            break;
-                        }
-                        else if (!outFile.exists())
+                        if (!isFileUpToDate(cachedInfo, outFile, getInputDigest(templatesDigest, component)))
                         {
                             upToDate = false;
                             break;
                         }
-                        else
-                        {
-                            Long lastModified = Long.valueOf(lastModifiedString);
-                            if (lastModified != null && lastModifiedMetadata > lastModified.longValue())
-                            {
-                                upToDate = false;
-                                break;
-                            }
-                        }
                     }
                 }
             }
-            if (upToDate && tf != null && tf.exists())
-            {
-                upToDate = isFileUpToDate(cachedInfo, tf);
-            }
             if (upToDate)
             {
                 getLog().info("generated component tag files are up to date");
@@ -336,9 +333,12 @@ public class MakeTagsMojo extends AbstractBuilderMojo
         }
 
         VelocityEngine velocityEngine = initVelocity();
+        GenerationPipeline pipeline = new GenerationPipeline(
+                velocityEngine, _getTemplateTagName(), getGeneratorThreads(), force, getLog());
 
         VelocityContext baseContext = new VelocityContext();
         baseContext.put("utils", new MyfacesUtils());
+        baseContext.put("optimizeSetProperties", Boolean.valueOf(optimizeSetProperties));
         
         for (Iterator it = model.getComponents().iterator(); it.hasNext();)
         {
@@ -361,34 +361,21 @@ public class MakeTagsMojo extends AbstractBuilderMojo
                             continue;
                         }
                     }
-                    getLog().info("Generating tag class:"+component.getTagClass());
-                    try 
+                    String inputDigest = null;
+                    if (isCachingEnabled())
                     {
-                        _generateComponent(velocityEngine, component,baseContext, 
-                                cachedInfo, lastModifiedMetadata);
-                    }
-                    catch(MojoExecutionException e)
-                    {
-                        if (force)
-                        {
-                            getLog().error(e.getMessage());
-                        }
-                        else
+                        inputDigest = getInputDigest(templatesDigest, component);
+                        if (isFileUpToDate(cachedInfo, new File(generatedSourceDirectory, StringUtils.replace(
+                                component.getTagClass(), ".", "/")+".java"), inputDigest))
                         {
-                            //Stop execution throwing exception
-                            throw e;
+                            continue;
                         }
                     }
+                    _generateComponent(pipeline, component, baseContext, inputDigest);
                 }
             }
         }
-        if (isCachingEnabled())
-        {
-            if (tf != null && tf.exists())
-            {
-                cachedInfo.put(tf.getAbsolutePath(), Long.toString(tf.lastModified()));
-            }
-        }
+        pipeline.finish(cachedInfo);
     }
     
     public boolean canGenerateComponentTag(ComponentMeta component)
@@ -450,50 +437,17 @@ public class MakeTagsMojo extends AbstractBuilderMojo
      * @param component
      *            the parsed component metadata
      */
-    private void _generateComponent(VelocityEngine velocityEngine, ComponentMeta component, VelocityContext baseContext,
-            Properties cachedInfo, long lastModifiedMetadata)
-            throws MojoExecutionException
+    private void _generateComponent(GenerationPipeline pipeline,
+            ComponentMeta component, VelocityContext baseContext,
+            String inputDigest)
     {
-
         Context context = new VelocityContext(baseContext);
         context.put("component", component);
 
-        Writer writer = null;
-        File outFile = null;
-
-        try
-        {
-            outFile = new File(generatedSourceDirectory, StringUtils.replace(
-                    component.getTagClass(), ".", "/")+".java");
-
-            if ( !outFile.getParentFile().exists() )
-            {
-                outFile.getParentFile().mkdirs();
-            }
+        File outFile = new File(generatedSourceDirectory, StringUtils.replace(
+                component.getTagClass(), ".", "/")+".java");
 
-            writer = new OutputStreamWriter(new FileOutputStream(outFile));
-
-            Template template = velocityEngine.getTemplate(_getTemplateTagName());
-                        
-            template.merge(context, writer);
-
-            writer.flush();
-            
-            if (isCachingEnabled())
-            {
-                cachedInfo.put(outFile.getAbsolutePath(), Long.toString(lastModifiedMetadata));
-            }
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(writer);
-            writer = null;
-        }
+        pipeline.add("Generating tag class:"+component.getTagClass(), outFile, context, inputDigest);
     }
     
     private String _getTemplateTagName()
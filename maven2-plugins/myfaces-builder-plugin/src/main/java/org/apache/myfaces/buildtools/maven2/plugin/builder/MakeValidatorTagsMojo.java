@@ -19,10 +19,7 @@
 package org.apache.myfaces.buildtools.maven2.plugin.builder;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -33,14 +30,13 @@ import org.apache.maven.project.MavenProject;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ValidatorMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.BuildException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.GenerationPipeline;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MavenPluginConsoleLogSystem;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
-import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.context.Context;
 import org.apache.velocity.runtime.RuntimeConstants;
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -208,7 +204,7 @@ public class MakeValidatorTagsMojo extends AbstractBuilderMojo
             
             Properties cacheInfo = new Properties();
             loadCache(cacheInfo);
-            generateValidators(model, cacheInfo, mdFile.lastModified() );
+            generateValidators(model, cacheInfo);
             storeCache(cacheInfo);
         }
         catch (IOException e)
@@ -269,10 +265,10 @@ public class MakeValidatorTagsMojo extends AbstractBuilderMojo
     /**
      * Generates parsed components.
      */
-    private void generateValidators(Model model, Properties cachedInfo, long lastModifiedMetadata) throws IOException,
+    private void generateValidators(Model model, Properties cachedInfo) throws IOException,
             MojoExecutionException
     {
-        File tf = new File(templateSourceDirectory, _getTemplateTagName());
+        String templatesDigest = getTemplatesDigest(templateSourceDirectory, _getTemplateTagName());
         
         if (isCachingEnabled())
         {
@@ -302,33 +298,14 @@ public class MakeValidatorTagsMojo extends AbstractBuilderMojo
                         File outFile = new File(generatedSourceDirectory, StringUtils.replace(
                                 validator.getTagClass(), ".", "/")+".java");
     
-                        String lastModifiedString = cachedInfo.getProperty(outFile.getAbsolutePath());
-                        if (lastModifiedString == null)
+                        if (!isFileUpToDate(cachedInfo, outFile, getInputDigest(templatesDigest, validator)))
                         {
                             upToDate = false;
                             break;
                         }
-                        else if (!outFile.exists())
-                        {
-                            upToDate = false;
-                            break;
-                        }
-                        else
-                        {
-                            Long lastModified = Long.valueOf(lastModifiedString);
-                            if (lastModified != null && lastModifiedMetadata > lastModified.longValue())
-                            {
-                                upToDate = false;
-                                break;
-                            }
-                        }
                     }
                 }
             }
-            if (upToDate && tf != null && tf.exists())
-            {
-                upToDate = isFileUpToDate(cachedInfo, tf);
-            }
             if (upToDate)
             {
                 getLog().info("generated component tag files are up to date");
@@ -337,6 +314,8 @@ public class MakeValidatorTagsMojo extends AbstractBuilderMojo
         }
 
         VelocityEngine velocityEngine = initVelocity();
+        GenerationPipeline pipeline = new GenerationPipeline(
+                velocityEngine, _getTemplateTagName(), getGeneratorThreads(), force, getLog());
 
         VelocityContext baseContext = new VelocityContext();
         baseContext.put("utils", new MyfacesUtils());
@@ -362,34 +341,21 @@ public class MakeValidatorTagsMojo extends AbstractBuilderMojo
                             continue;
                         }
                     }
-                    getLog().info("Generating tag class:"+validator.getTagClass());
-                    try
+                    String inputDigest = null;
+                    if (isCachingEnabled())
                     {
-                        _generateValidator(velocityEngine, validator,baseContext, 
-                                cachedInfo, lastModifiedMetadata);
-                    }
-                    catch(MojoExecutionException e)
-                    {
-                        if (force)
+                        inputDigest = getInputDigest(templatesDigest, validator);
+                        if (isFileUpToDate(cachedInfo, new File(generatedSourceDirectory, StringUtils.replace(
+                                validator.getTagClass(), ".", "/")+".java"), inputDigest))
                         {
-                            getLog().error(e.getMessage());
-                        }
-                        else
-                        {
-                            //Stop execution throwing exception
-                            throw e;
+                            continue;
                         }
                     }
+                    _generateValidator(pipeline, validator, baseContext, inputDigest);
                 }
             }
         }
-        if (isCachingEnabled())
-        {
-            if (tf != null && tf.exists())
-            {
-                cachedInfo.put(tf.getAbsolutePath(), Long.toString(tf.lastModified()));
-            }
-        }
+        pipeline.finish(cachedInfo);
     }
     
     public boolean canGenerateValidatorTag(ValidatorMeta component)
@@ -451,50 +417,17 @@ public class MakeValidatorTagsMojo extends AbstractBuilderMojo
      * @param validator
      *            the parsed component metadata
      */
-    private void _generateValidator(VelocityEngine velocityEngine, ValidatorMeta validator, VelocityContext baseContext,
-            Properties cachedInfo, long lastModifiedMetadata)
-            throws MojoExecutionException
+    private void _generateValidator(GenerationPipeline pipeline,
+            ValidatorMeta validator, VelocityContext baseContext,
+            String inputDigest)
     {
-
         Context context = new VelocityContext(baseContext);
         context.put("validator", validator);
 
-        Writer writer = null;
-        File outFile = null;
-
-        try
-        {
-            outFile = new File(generatedSourceDirectory, StringUtils.replace(
-                    validator.getTagClass(), ".", "/")+".java");
-
-            if ( !outFile.getParentFile().exists() )
-            {
-                outFile.getParentFile().mkdirs();
-            }
-
-            writer = new OutputStreamWriter(new FileOutputStream(outFile));
-
-            Template template = velocityEngine.getTemplate(_getTemplateTagName());
-                        
-            template.merge(context, writer);
+        File outFile = new File(generatedSourceDirectory, StringUtils.replace(
+                validator.getTagClass(), ".", "/")+".java");
 
-            writer.flush();
-            
-            if (isCachingEnabled())
-            {
-                cachedInfo.put(outFile.getAbsolutePath(), Long.toString(lastModifiedMetadata));
-            }
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(writer);
-            writer = null;
-        }
+        pipeline.add("Generating tag class:"+validator.getTagClass(), outFile, context, inputDigest);
     }
     
     private String _getTemplateTagName()
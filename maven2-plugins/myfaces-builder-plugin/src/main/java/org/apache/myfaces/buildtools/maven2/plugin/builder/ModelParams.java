@@ -38,6 +38,8 @@ public class ModelParams
     private String compositeComponentFileExtensions;
     
     private FacesConfigBean facesConfigBean;
+    
+    private int threads = 1;
 
     public ModelParams()
     {
@@ -98,4 +100,12 @@ public class ModelParams
             String compositeComponentFileExtensions) {
         this.compositeComponentFileExtensions = compositeComponentFileExtensions;
     }
+    public int getThreads()
+    {
+        return threads;
+    }
+    public void setThreads(int threads)
+    {
+        this.threads = threads;
+    }
 }
@@ -0,0 +1,286 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.ObjectStreamException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.AttributeMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.BehaviorMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ClassMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ClientBehaviorMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ClientBehaviorRendererMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ConverterMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.FaceletFunctionMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.FaceletTagMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.FacetMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ListenerMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.MethodSignatureMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.PropertyMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.RenderKitMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.RendererMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.TagMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ValidatorMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ViewEntityMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.WebConfigMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.WebConfigParamMeta;
+
+/**
+ * Binary copy of a Model, stored next to the myfaces-metadata.xml file it
+ * was created from.
+ * <p>
+ * The xml file is still the format exchanged between projects. The binary
+ * copy only saves the goals that run later in the same build from parsing
+ * the xml again. It is keyed by a digest of the xml content, so it is
+ * silently ignored once the xml changes, and by the serialized form of the
+ * model classes, so it is ignored as well after a plugin upgrade.
+ * </p>
+ *
+ * @since 1.0.12
+ */
+public class BinaryModelCache
+{
+    /**
+     * Suffix appended to the name of the xml file to get the binary file.
+     */
+    public static final String SUFFIX = ".bin";
+
+    private static final int MAGIC = 0x4D464D44;
+
+    private static final int VERSION = 1;
+
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+
+    /**
+     * The classes of the serialized model. They declare a fixed
+     * serialVersionUID, so a binary copy written by an older plugin would
+     * still be read after one of them changed its fields; their layout is
+     * part of the digest instead.
+     */
+    private static final Class[] MODEL_CLASSES = {
+        AttributeMeta.class,
+        BehaviorMeta.class,
+        ClassMeta.class,
+        ClientBehaviorMeta.class,
+        ClientBehaviorRendererMeta.class,
+        ComponentMeta.class,
+        ConverterMeta.class,
+        FaceletFunctionMeta.class,
+        FaceletTagMeta.class,
+        FacetMeta.class,
+        ListenerMeta.class,
+        MethodSignatureMeta.class,
+        Model.class,
+        PropertyMeta.class,
+        RenderKitMeta.class,
+        RendererMeta.class,
+        TagMeta.class,
+        ValidatorMeta.class,
+        ViewEntityMeta.class,
+        WebConfigMeta.class,
+        WebConfigParamMeta.class
+    };
+
+    private static final byte[] MODEL_LAYOUT = describeModelClasses();
+
+    public static File getCacheFile(File xmlFile)
+    {
+        return new File(xmlFile.getParentFile(), xmlFile.getName() + SUFFIX);
+    }
+
+    /**
+     * Compute the digest of the xml content and of the serialized fields of
+     * the model classes the binary copy is keyed by.
+     */
+    public static byte[] digest(byte[] content)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            digest.update(MODEL_LAYOUT);
+            return digest.digest(content);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // Every java platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] describeModelClasses()
+    {
+        StringBuffer layout = new StringBuffer();
+        for (int i = 0; i < MODEL_CLASSES.length; i++)
+        {
+            ObjectStreamClass streamClass = ObjectStreamClass.lookup(MODEL_CLASSES[i]);
+            layout.append(streamClass.getName()).append('{');
+            ObjectStreamField[] fields = streamClass.getFields();
+            for (int j = 0; j < fields.length; j++)
+            {
+                layout.append(fields[j].getType().getName()).append(' ')
+                        .append(fields[j].getName()).append(';');
+            }
+            layout.append('}');
+        }
+        try
+        {
+            return layout.toString().getBytes("UTF-8");
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            // Every java platform is required to support UTF-8
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Write the model to the binary file, keyed by the digest of the xml
+     * it was saved as.
+     */
+    public static void write(Model model, byte[] digest, File cacheFile)
+        throws IOException
+    {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(cacheFile)));
+        try
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(digest.length);
+            out.write(digest);
+            ObjectOutputStream oos = new ObjectOutputStream(out);
+            oos.writeObject(model);
+            oos.flush();
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Read the model from the binary file through a memory mapped buffer.
+     *
+     * @return the model, or null when the file does not exist, was written
+     *  for different xml content or by an incompatible version of the model
+     *  classes.
+     */
+    public static Model read(File cacheFile, byte[] digest)
+        throws IOException
+    {
+        if (!cacheFile.isFile())
+        {
+            return null;
+        }
+        RandomAccessFile file = new RandomAccessFile(cacheFile, "r");
+        try
+        {
+            FileChannel channel = file.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC
+                    || buffer.getInt() != VERSION)
+            {
+                return null;
+            }
+            int digestLength = buffer.getInt();
+            if (digestLength != digest.length || buffer.remaining() < digestLength)
+            {
+                return null;
+            }
+            byte[] storedDigest = new byte[digestLength];
+            buffer.get(storedDigest);
+            if (!Arrays.equals(digest, storedDigest))
+            {
+                return null;
+            }
+            ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(buffer));
+            return (Model) in.readObject();
+        }
+        catch (ObjectStreamException e)
+        {
+            // Written by a version of the plugin with different model classes
+            return null;
+        }
+        catch (ClassNotFoundException e)
+        {
+            return null;
+        }
+        finally
+        {
+            file.close();
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream
+    {
+        private final ByteBuffer buffer;
+
+        public ByteBufferInputStream(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        public int read()
+        {
+            if (!buffer.hasRemaining())
+            {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        public int read(byte[] b, int off, int len)
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            if (!buffer.hasRemaining())
+            {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        public int available()
+        {
+            return buffer.remaining();
+        }
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.builder.model;
 
+import java.io.Serializable;
+
 import org.apache.commons.digester.Digester;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
 
@@ -30,8 +32,10 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  * another class (Maybe PropertyMeta must AttributeMeta but I'm not sure, since
  * there are different concepts (a property is for jsf, an attribute is for jsp)).
  */
-public class AttributeMeta
+public class AttributeMeta implements Serializable
 {
+    private static final long serialVersionUID = 1L;
+
     private String _name;
     private String _className;
     private Boolean _required;
@@ -43,7 +47,7 @@ public class AttributeMeta
     private Boolean _exclude;
     
     //Set on facelet merge
-    private transient Boolean _faceletsOnly;
+    private Boolean _faceletsOnly;
 
     public AttributeMeta()
     {
@@ -40,6 +40,8 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  */
 public class BehaviorMeta extends ViewEntityMeta implements PropertyHolder
 {
+    private static final long serialVersionUID = 1L;
+
     private String _behaviorId;
     private int _behaviorClassModifiers;
     
@@ -281,7 +283,7 @@ public class BehaviorMeta extends ViewEntityMeta implements PropertyHolder
 
     //THIS METHODS ARE USED FOR VELOCITY TO GET DATA AND GENERATE CLASSES
     
-    private List _propertyTagList = null; 
+    private transient List _propertyTagList = null; 
     
     public Collection getPropertyTagList()
     {
@@ -302,7 +304,7 @@ public class BehaviorMeta extends ViewEntityMeta implements PropertyHolder
         return _propertyTagList;
     }
 
-    private List _propertyBehaviorList = null; 
+    private transient List _propertyBehaviorList = null; 
 
     public Collection getPropertyBehaviorList()
     {
@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.builder.model;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -54,8 +55,10 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  * any classes in the hierarchy that are not annotated, as they are not relevant
  * for the purposes of metadata inheritance.
  */
-public class ClassMeta
+public class ClassMeta implements Serializable
 {
+    private static final long serialVersionUID = 1L;
+
     private String _xmlElementName;
 
     private String _className;
@@ -93,6 +96,16 @@ public class ClassMeta
         _xmlElementName = xmlElementName;
     }
 
+    /**
+     * Write the properties of the given instance out as xml.
+     * 
+     * @since 1.0.12
+     */
+    public static void writeXml(XmlWriter out, ClassMeta cm)
+    {
+        cm.writeXml(out);
+    }
+
     /**
      * Write the properties of this instance out as xml.
      * <p>
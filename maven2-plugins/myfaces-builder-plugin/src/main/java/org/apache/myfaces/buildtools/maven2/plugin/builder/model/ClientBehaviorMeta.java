@@ -26,6 +26,8 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  */
 public class ClientBehaviorMeta extends BehaviorMeta
 {
+    private static final long serialVersionUID = 1L;
+
     private String _rendererType;
 
 
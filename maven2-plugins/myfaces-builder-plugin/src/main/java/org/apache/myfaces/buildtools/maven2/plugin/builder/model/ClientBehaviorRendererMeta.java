@@ -28,6 +28,8 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  */
 public class ClientBehaviorRendererMeta extends ClassMeta
 {
+    private static final long serialVersionUID = 1L;
+
     private String _description;
     private String _rendererType;
 
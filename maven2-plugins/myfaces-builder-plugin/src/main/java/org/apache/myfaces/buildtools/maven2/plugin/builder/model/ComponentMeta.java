@@ -36,6 +36,8 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
 public class ComponentMeta extends ViewEntityMeta implements 
     PropertyHolder, FacetHolder, ListenerHolder
 {
+    private static final long serialVersionUID = 1L;
+
     private String _bodyContent;
 
     private String _type;
@@ -49,6 +51,7 @@ public class ComponentMeta extends ViewEntityMeta implements
     private Boolean _children;
     private Boolean _configExcluded;
     private String _serialuid;
+    private String _stateStorage;
     private String _implements;
     private String _defaultEventName;
     private Boolean _overrideDefaultEventName;
@@ -85,6 +88,7 @@ public class ComponentMeta extends ViewEntityMeta implements
         out.writeElement("defaultEventName", _defaultEventName);
         out.writeElement("overrideDefaultEventName", _overrideDefaultEventName);
         out.writeElement("serialuid", _serialuid);
+        out.writeElement("stateStorage", _stateStorage);
         out.writeElement("implements", _implements);
         out.writeElement("generatedComponentClass", _generatedComponentClass);
         out.writeElement("generatedTagClass", _generatedTagClass);
@@ -144,6 +148,7 @@ public class ComponentMeta extends ViewEntityMeta implements
         digester.addBeanPropertySetter(newPrefix + "/faceletRendererType");
         digester.addBeanPropertySetter(newPrefix + "/configExcluded");
         digester.addBeanPropertySetter(newPrefix + "/serialuid");
+        digester.addBeanPropertySetter(newPrefix + "/stateStorage");
         digester.addBeanPropertySetter(newPrefix + "/implements");
         digester.addBeanPropertySetter(newPrefix + "/generatedComponentClass");
         digester.addBeanPropertySetter(newPrefix + "/generatedTagClass");
@@ -375,6 +380,23 @@ public class ComponentMeta extends ViewEntityMeta implements
     {
         return _serialuid;
     }
+
+    public void setStateStorage(String stateStorage)
+    {
+        _stateStorage = stateStorage;
+    }
+
+    /**
+     * How the generated class stores the properties kept in its StateHelper,
+     * "stateHelper" or "array", or null to use the default of the
+     * make-components goal.
+     * 
+     * @since 1.0.12
+     */
+    public String getStateStorage()
+    {
+        return _stateStorage;
+    }
     
 
     public void setImplements(String implementsValue)
@@ -615,7 +637,7 @@ public class ComponentMeta extends ViewEntityMeta implements
         return _facets.values();
     }
     
-    private List _propertyTagList = null; 
+    private transient List _propertyTagList = null; 
     
     public Collection getPropertyTagList()
     {
@@ -636,7 +658,7 @@ public class ComponentMeta extends ViewEntityMeta implements
         return _propertyTagList;
     }
     
-    private List _propertyComponentList = null; 
+    private transient List _propertyComponentList = null; 
     
     public Collection getPropertyComponentList()
     {
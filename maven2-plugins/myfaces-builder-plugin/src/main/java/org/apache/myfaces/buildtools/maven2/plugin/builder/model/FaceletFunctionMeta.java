@@ -18,6 +18,8 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.builder.model;
 
+import java.io.Serializable;
+
 import org.apache.commons.digester.Digester;
 import org.apache.commons.lang.StringUtils;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
@@ -28,8 +30,10 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  * @author Leonardo Uribe (latest modification by $Author: lu4242 $)
  * @version $Revision: 796607 $ $Date: 2009-07-21 22:00:30 -0500 (mar, 21 jul 2009) $
  */
-public class FaceletFunctionMeta
+public class FaceletFunctionMeta implements Serializable
 {
+    private static final long serialVersionUID = 1L;
+
     private String _modelId;
     private String _longDescription;
     private String _description;
@@ -36,6 +36,8 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  */
 public class FaceletTagMeta extends ClassMeta implements AttributeHolder
 {
+    private static final long serialVersionUID = 1L;
+
     private String _name;
     private String _bodyContent;
     private String _description;
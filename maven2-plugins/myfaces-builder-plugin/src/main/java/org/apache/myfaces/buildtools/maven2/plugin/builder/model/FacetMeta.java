@@ -18,6 +18,8 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.builder.model;
 
+import java.io.Serializable;
+
 import org.apache.commons.digester.Digester;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
 
@@ -25,8 +27,10 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  * FacetBean is a Java representation of the faces-config component or
  * renderer facet XML element.
  */
-public class FacetMeta
+public class FacetMeta implements Serializable
 {
+    private static final long serialVersionUID = 1L;
+
     private String _longDescription;
     private String _description;
     private String _name;
@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.builder.model;
 
+import java.io.Serializable;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -29,8 +30,10 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  * MethodSignatureMeta is a Java representation of the faces-config component
  * property-extension method-signature XML element.
  */
-public class MethodSignatureMeta extends Object
+public class MethodSignatureMeta extends Object implements Serializable
 {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Creates a new MethodSignatureBean.
      */
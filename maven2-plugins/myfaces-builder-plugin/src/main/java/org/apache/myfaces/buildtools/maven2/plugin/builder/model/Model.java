@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.builder.model;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -32,8 +33,9 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
 /**
  * Stores info about all of the jsf artifacts in the system being processed.
  */
-public class Model
+public class Model implements Serializable
 {
+    private static final long serialVersionUID = 1L;
 
     private List _components = new ArrayList(100);
     private List _converters = new ArrayList(100);
@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.builder.model;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
@@ -29,8 +30,10 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
 /**
  * Store metadata about a JSF RenderKit.
  */
-public class RenderKitMeta
+public class RenderKitMeta implements Serializable
 {
+    private static final long serialVersionUID = 1L;
+
     private String _className;
 
     private String _renderKitId = "";
@@ -180,6 +183,23 @@ public class RenderKitMeta
         return _renderers.values();
     }
 
+    /**
+     * Merge the renderers declared by another instance with the same
+     * render kit id into this one. The class name is only taken from the
+     * other instance when it has one.
+     * 
+     * @since 1.0.12
+     */
+    public void merge(RenderKitMeta renderKit)
+    {
+        if (renderKit.getClassName() != null)
+        {
+            setClassName(renderKit.getClassName());
+        }
+        addAllRenderers(renderKit);
+        addAllClientBehaviorRenderers(renderKit);
+    }
+
     void addAllRenderers(RenderKitMeta renderKit)
     {
         for (Iterator i = renderKit._renderers.values().iterator(); i.hasNext();)
@@ -33,6 +33,8 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  */
 public class ValidatorMeta extends ViewEntityMeta implements PropertyHolder
 {
+    private static final long serialVersionUID = 1L;
+
     private String _validatorId;
     private int _validatorClassModifiers;
     
@@ -341,7 +343,7 @@ public class ValidatorMeta extends ViewEntityMeta implements PropertyHolder
     // on the tag class. This is a subset of the properties available on
     // this component itself, and depends upon what the parent class
     // of the generated tag already supports.
-    private List _propertyTagList = null; 
+    private transient List _propertyTagList = null; 
     
     public Collection getPropertyTagList()
     {
@@ -362,7 +364,7 @@ public class ValidatorMeta extends ViewEntityMeta implements PropertyHolder
         return _propertyTagList;
     }
 
-    private List _propertyValidatorList = null; 
+    private transient List _propertyValidatorList = null; 
 
     public Collection getPropertyValidatorList()
     {
@@ -35,6 +35,8 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  */
 public abstract class ViewEntityMeta extends ClassMeta implements PropertyHolder
 {
+    private static final long serialVersionUID = 1L;
+
     private String _name;
     private String _description;
     private String _longDescription;
@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.builder.model;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -32,8 +33,10 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
  * @author Leonardo Uribe (latest modification by $Author: lu4242 $)
  * @version $Revision: 796607 $ $Date: 2009-07-21 22:00:30 -0500 (mar, 21 jul 2009) $
  */
-public class WebConfigMeta implements WebConfigParamHolder
+public class WebConfigMeta implements WebConfigParamHolder, Serializable
 {
+    private static final long serialVersionUID = 1L;
+
     private String _xmlElementName;
     private String _modelId;
     
@@ -20,11 +20,18 @@ package org.apache.myfaces.buildtools.maven2.plugin.builder.qdox;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -37,9 +44,13 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.model.BehaviorMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ConverterMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.FaceletTagMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.FaceletFunctionMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.RenderKitMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.TagMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ValidatorMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.WebConfigMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.WebConfigParamMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.qdox.parse.BehaviorParsingStrategy;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.qdox.parse.ClientBehaviorParsingStrategy;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.qdox.parse.ClientBehaviorRendererParsingStrategy;
@@ -55,7 +66,18 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.qdox.parse.WebConfigP
 import org.apache.myfaces.buildtools.maven2.plugin.builder.trinidad.TrinidadMavenFacesPluginModelBuilder;
 
 import com.thoughtworks.qdox.JavaDocBuilder;
+import com.thoughtworks.qdox.model.AbstractBaseJavaEntity;
+import com.thoughtworks.qdox.model.AbstractJavaEntity;
+import com.thoughtworks.qdox.model.Annotation;
+import com.thoughtworks.qdox.model.DocletTag;
 import com.thoughtworks.qdox.model.JavaClass;
+import com.thoughtworks.qdox.model.JavaField;
+import com.thoughtworks.qdox.model.JavaMethod;
+import com.thoughtworks.qdox.model.JavaParameter;
+import com.thoughtworks.qdox.model.Type;
+import com.thoughtworks.qdox.model.annotation.AnnotationFieldRef;
+import com.thoughtworks.qdox.model.annotation.AnnotationTypeRef;
+import com.thoughtworks.qdox.model.annotation.AnnotationValueList;
 
 /**
  * An implementation of the ModelBuilder interface that uses the Qdox java
@@ -94,7 +116,7 @@ public class QdoxModelBuilder implements ModelBuilder
         });
         JavaClass[] classes = builder.getClasses();
 
-        buildModel(model, parameters.getSourceDirs(), classes);
+        buildModel(model, parameters.getSourceDirs(), classes, parameters.getThreads());
         CompositeComponentModelBuilder qccmb = new CompositeComponentModelBuilder();
         qccmb.buildModel(model, parameters);
         TrinidadMavenFacesPluginModelBuilder tmfpmb = new TrinidadMavenFacesPluginModelBuilder();
@@ -103,6 +125,23 @@ public class QdoxModelBuilder implements ModelBuilder
 
     protected void buildModel(Model model, List sourceDirs, JavaClass[] classes)
         throws MojoExecutionException
+    {
+        buildModel(model, sourceDirs, classes, 1);
+    }
+
+    /**
+     * Build the model from the given classes, running the parsing strategies
+     * on up to <code>threads</code> classes at the same time.
+     * <p>
+     * The source files are still loaded into a single JavaDocBuilder, because
+     * qdox resolves parent classes and interfaces through the class library
+     * of the builder that parsed them. What runs concurrently is the work
+     * done by the ParsingContext for each class.
+     * 
+     * @since 1.0.12
+     */
+    protected void buildModel(Model model, List sourceDirs, JavaClass[] classes, int threads)
+        throws MojoExecutionException
     {
         String currModelId = model.getModelId();
         // Sort the class array so that they are processed in a
@@ -110,10 +149,22 @@ public class QdoxModelBuilder implements ModelBuilder
         // returned them.
         Arrays.sort(classes, new QdoxHelper.JavaClassComparator());
         Map processedClasses = new HashMap();
+        List orderedClasses = new ArrayList(classes.length);
         for (int i = 0; i < classes.length; ++i)
         {
             JavaClass clazz = classes[i];
-            processClass(processedClasses, clazz, model);
+            processClass(processedClasses, orderedClasses, clazz);
+        }
+        if (threads > 1 && orderedClasses.size() > 1)
+        {
+            parseClasses(orderedClasses, model, threads);
+        }
+        else
+        {
+            for (Iterator it = orderedClasses.iterator(); it.hasNext();)
+            {
+                parseClass((JavaClass) it.next(), model);
+            }
         }
         // Post-process the list of components which we added in this run.
         // Note that model has all the inherited components in it too, so
@@ -231,10 +282,11 @@ public class QdoxModelBuilder implements ModelBuilder
     }
 
     /**
-     * Set the parentClassName and interfaceClassNames properties of the
-     * provided modelItem object.
+     * Add the class to the list of classes to parse, after its parent type
+     * and all the interfaces it implements.
      */
-    private void processClass(Map processedClasses, JavaClass clazz, Model model) throws MojoExecutionException
+    private void processClass(Map processedClasses, List orderedClasses, JavaClass clazz)
+        throws MojoExecutionException
     {
         if (processedClasses.containsKey(clazz.getFullyQualifiedName()))
         {
@@ -245,18 +297,22 @@ public class QdoxModelBuilder implements ModelBuilder
         JavaClass parentClazz = clazz.getSuperJavaClass();
         if (parentClazz != null)
         {
-            processClass(processedClasses, parentClazz, model);
+            processClass(processedClasses, orderedClasses, parentClazz);
         }
         JavaClass[] classes = clazz.getImplementedInterfaces();
         for (int i = 0; i < classes.length; ++i)
         {
             JavaClass iclazz = classes[i];
-            processClass(processedClasses, iclazz, model);
+            processClass(processedClasses, orderedClasses, iclazz);
         }
         // ok, now we can mark this class as processed.
         processedClasses.put(clazz.getFullyQualifiedName(), clazz);
+        orderedClasses.add(clazz);
         log.info("processed class:" + clazz.getFullyQualifiedName());
-        
+    }
+
+    private void parseClass(JavaClass clazz, Model model)
+    {
         ParsingContext context = new ParsingContext();
         
         context.addStrategy(new BehaviorParsingStrategy());
@@ -274,4 +330,348 @@ public class QdoxModelBuilder implements ModelBuilder
         
         context.parseClass(clazz, model);
     }
+
+    /**
+     * Parse each class into its own scratch model on a fork-join pool, then
+     * merge the scratch models into the real one in the same order the
+     * classes would have been parsed serially, so the resulting metadata is
+     * identical to a single threaded run.
+     * <p>
+     * Parsing a class may look up what was found in its parent class and
+     * interfaces, so the classes are parsed in waves: a class is only parsed
+     * once all the classes it extends or implements have been.
+     * <p>
+     * qdox resolves types, doclet tag parameters and member arrays lazily,
+     * into caches that are not thread safe, so all of that is resolved on
+     * the calling thread before the parsing starts.
+     */
+    private void parseClasses(List orderedClasses, final Model model, int threads)
+        throws MojoExecutionException
+    {
+        Set resolved = new HashSet();
+        for (Iterator it = orderedClasses.iterator(); it.hasNext();)
+        {
+            resolveClass((JavaClass) it.next(), true, resolved);
+        }
+
+        List<List<Integer>> waves = new ArrayList<List<Integer>>();
+        Map<String, Integer> levels = new HashMap<String, Integer>();
+        for (int i = 0; i < orderedClasses.size(); i++)
+        {
+            JavaClass clazz = (JavaClass) orderedClasses.get(i);
+            int level = 0;
+            List ancestors = new ArrayList(Arrays.asList(clazz.getImplementedInterfaces()));
+            if (clazz.getSuperJavaClass() != null)
+            {
+                ancestors.add(clazz.getSuperJavaClass());
+            }
+            for (Iterator it = ancestors.iterator(); it.hasNext();)
+            {
+                Integer ancestorLevel = levels.get(((JavaClass) it.next()).getFullyQualifiedName());
+                if (ancestorLevel != null)
+                {
+                    level = Math.max(level, ancestorLevel.intValue() + 1);
+                }
+            }
+            levels.put(clazz.getFullyQualifiedName(), Integer.valueOf(level));
+            if (level == waves.size())
+            {
+                waves.add(new ArrayList<Integer>());
+            }
+            waves.get(level).add(Integer.valueOf(i));
+        }
+
+        final Model parsed = new Model();
+        Model[] classModels = new Model[orderedClasses.size()];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try
+        {
+            for (List<Integer> wave : waves)
+            {
+                List<Callable<Model>> tasks = new ArrayList<Callable<Model>>(wave.size());
+                for (Integer index : wave)
+                {
+                    final JavaClass clazz = (JavaClass) orderedClasses.get(index.intValue());
+                    tasks.add(new Callable<Model>()
+                    {
+                        public Model call()
+                        {
+                            Model classModel = new ClassModel(parsed, model);
+                            classModel.setModelId(model.getModelId());
+                            parseClass(clazz, classModel);
+                            return classModel;
+                        }
+                    });
+                }
+                List<Future<Model>> results = pool.invokeAll(tasks);
+                for (int i = 0; i < wave.size(); i++)
+                {
+                    Model classModel = results.get(i).get();
+                    classModels[wave.get(i).intValue()] = classModel;
+                    addClassItems(parsed, classModel);
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while parsing classes", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MojoExecutionException("Unable to parse class", e.getCause());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < classModels.length; i++)
+        {
+            mergeClassModel(model, classModels[i]);
+        }
+    }
+
+    /**
+     * Resolve what qdox would otherwise resolve on first use: the ancestors
+     * of the class, its members, tags and annotations and, for the classes
+     * that are parsed, the types their members refer to.
+     */
+    private void resolveClass(JavaClass clazz, boolean parsed, Set resolved)
+    {
+        if (clazz == null || !resolved.add(clazz.getFullyQualifiedName()))
+        {
+            return;
+        }
+        resolveEntity(clazz);
+        resolveType(clazz.getSuperClass());
+        resolveClass(clazz.getSuperJavaClass(), false, resolved);
+        Type[] interfaces = clazz.getImplements();
+        for (int i = 0; i < interfaces.length; i++)
+        {
+            resolveType(interfaces[i]);
+            resolveClass(interfaces[i].getJavaClass(), false, resolved);
+        }
+        clazz.getImplementedInterfaces();
+
+        JavaMethod[] methods = clazz.getMethods();
+        for (int i = 0; i < methods.length; i++)
+        {
+            resolveEntity(methods[i]);
+            JavaParameter[] parameters = methods[i].getParameters();
+            for (int j = 0; j < parameters.length; j++)
+            {
+                resolveEntity(parameters[j]);
+            }
+            if (parsed)
+            {
+                resolveMemberType(methods[i].getReturns(), resolved);
+                for (int j = 0; j < parameters.length; j++)
+                {
+                    resolveMemberType(parameters[j].getType(), resolved);
+                }
+            }
+        }
+        JavaField[] fields = clazz.getFields();
+        for (int i = 0; i < fields.length; i++)
+        {
+            resolveEntity(fields[i]);
+            if (parsed)
+            {
+                resolveMemberType(fields[i].getType(), resolved);
+            }
+        }
+        JavaClass[] nested = clazz.getNestedClasses();
+        for (int i = 0; i < nested.length; i++)
+        {
+            resolveClass(nested[i], parsed, resolved);
+        }
+    }
+
+    private void resolveMemberType(Type type, Set resolved)
+    {
+        if (type != null)
+        {
+            resolveType(type);
+            resolveClass(type.getJavaClass(), false, resolved);
+        }
+    }
+
+    private void resolveType(Type type)
+    {
+        if (type == null)
+        {
+            return;
+        }
+        type.getFullyQualifiedName();
+        type.getValue();
+        type.getGenericValue();
+        type.getJavaClass();
+        Type[] arguments = type.getActualTypeArguments();
+        if (arguments != null)
+        {
+            for (int i = 0; i < arguments.length; i++)
+            {
+                resolveType(arguments[i]);
+            }
+        }
+    }
+
+    private void resolveEntity(AbstractBaseJavaEntity entity)
+    {
+        if (entity instanceof AbstractJavaEntity)
+        {
+            DocletTag[] tags = ((AbstractJavaEntity) entity).getTags();
+            for (int i = 0; i < tags.length; i++)
+            {
+                tags[i].getParameters();
+                tags[i].getNamedParameterMap();
+            }
+        }
+        Annotation[] annotations = entity.getAnnotations();
+        if (annotations != null)
+        {
+            for (int i = 0; i < annotations.length; i++)
+            {
+                resolveAnnotationValue(annotations[i]);
+            }
+        }
+    }
+
+    private void resolveAnnotationValue(Object value)
+    {
+        if (value instanceof Annotation)
+        {
+            Annotation annotation = (Annotation) value;
+            resolveType(annotation.getType());
+            for (Iterator it = annotation.getPropertyMap().values().iterator(); it.hasNext();)
+            {
+                resolveAnnotationValue(it.next());
+            }
+        }
+        else if (value instanceof AnnotationValueList)
+        {
+            for (Iterator it = ((AnnotationValueList) value).getValueList().iterator(); it.hasNext();)
+            {
+                resolveAnnotationValue(it.next());
+            }
+        }
+        else if (value instanceof AnnotationTypeRef)
+        {
+            resolveType(((AnnotationTypeRef) value).getType());
+        }
+        else if (value instanceof AnnotationFieldRef)
+        {
+            ((AnnotationFieldRef) value).getField();
+        }
+    }
+
+    /**
+     * Add everything the parsing strategies put in the scratch model of one
+     * class to the real model. Render kits and web config data are shared
+     * between classes, so they are folded into the existing entries.
+     */
+    private void mergeClassModel(Model model, Model classModel)
+    {
+        addClassItems(model, classModel);
+        for (Iterator it = classModel.renderKits(); it.hasNext();)
+        {
+            RenderKitMeta renderKit = (RenderKitMeta) it.next();
+            RenderKitMeta existing = model.findRenderKitById(renderKit.getRenderKitId());
+            if (existing == null)
+            {
+                model.addRenderKit(renderKit);
+            }
+            else
+            {
+                existing.merge(renderKit);
+            }
+        }
+        for (Iterator it = classModel.webConfigs(); it.hasNext();)
+        {
+            WebConfigMeta webConfig = (WebConfigMeta) it.next();
+            WebConfigMeta existing = model.findWebConfigsByModelId(webConfig.getModelId());
+            if (existing == null)
+            {
+                model.addWebConfig(webConfig);
+            }
+            else
+            {
+                for (Iterator it2 = webConfig.webConfigParameters(); it2.hasNext();)
+                {
+                    existing.addWebConfigParam((WebConfigParamMeta) it2.next());
+                }
+            }
+        }
+    }
+
+    private void addClassItems(Model model, Model classModel)
+    {
+        for (Iterator it = classModel.components(); it.hasNext();)
+        {
+            model.addComponent((ComponentMeta) it.next());
+        }
+        for (Iterator it = classModel.converters(); it.hasNext();)
+        {
+            model.addConverter((ConverterMeta) it.next());
+        }
+        for (Iterator it = classModel.behaviors(); it.hasNext();)
+        {
+            model.addBehavior((BehaviorMeta) it.next());
+        }
+        for (Iterator it = classModel.validators(); it.hasNext();)
+        {
+            model.addValidator((ValidatorMeta) it.next());
+        }
+        for (Iterator it = classModel.tags(); it.hasNext();)
+        {
+            model.addTag((TagMeta) it.next());
+        }
+        for (Iterator it = classModel.faceletTags(); it.hasNext();)
+        {
+            model.addFaceletTag((FaceletTagMeta) it.next());
+        }
+        for (Iterator it = classModel.faceletFunctions(); it.hasNext();)
+        {
+            model.addFaceletFunction((FaceletFunctionMeta) it.next());
+        }
+    }
+
+    /**
+     * Scratch model a single class is parsed into. Looking up a component
+     * falls back to the classes parsed in earlier waves and then to the
+     * real model, which is what a serial run would find in the real model.
+     */
+    private static class ClassModel extends Model
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Model parsed;
+
+        private final Model model;
+
+        public ClassModel(Model parsed, Model model)
+        {
+            this.parsed = parsed;
+            this.model = model;
+        }
+
+        public ComponentMeta findComponentByClassName(String className)
+        {
+            ComponentMeta component = super.findComponentByClassName(className);
+            if (component == null)
+            {
+                component = parsed.findComponentByClassName(className);
+            }
+            if (component == null)
+            {
+                component = model.findComponentByClassName(className);
+            }
+            return component;
+        }
+    }
 }
@@ -130,6 +130,7 @@ public class ComponentParsingStrategy extends ClassMetaPropertyParsingStrategy
         String tagHandler = QdoxHelper.getString(clazz, "tagHandler", props, null);
         String defaultEventName = QdoxHelper.getString(clazz, "defaultEventName", props, null);
         String serialuid = QdoxHelper.getString(clazz, "serialuid", props, null);
+        String stateStorage = QdoxHelper.getString(clazz, "stateStorage", props, null);
         String implementsValue = QdoxHelper.getString(clazz, "implements", props, null);
         implementsValue = QdoxHelper.getString(clazz, "implementz", props, implementsValue);
         
@@ -147,6 +148,7 @@ public class ComponentParsingStrategy extends ClassMetaPropertyParsingStrategy
         component.setRendererType(rendererType);
         component.setChildren(canHaveChildren);
         component.setSerialuid(serialuid);
+        component.setStateStorage(stateStorage);
         component.setImplements(implementsValue);
         component.setTemplate(template);
         component.setDefaultEventName(defaultEventName);
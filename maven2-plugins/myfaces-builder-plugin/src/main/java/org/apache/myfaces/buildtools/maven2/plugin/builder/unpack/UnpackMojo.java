@@ -235,7 +235,7 @@ public class UnpackMojo extends AbstractFromConfigurationMojo
         
         ArrayList exclusions = new ArrayList();
         
-        Model model = IOUtils.getModelFromArtifact(artifactItem.getArtifact());
+        Model model = IOUtils.getModelFromArtifact(artifactItem.getArtifact(), getLog());
         
         if (model != null)
         {
@@ -0,0 +1,358 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Remembers which metadata resources each dependency jar contains.
+ * <p>
+ * Looking for <code>META-INF/myfaces-metadata.xml</code>, a master
+ * faces-config.xml or a tld used to mean opening a class loader over the
+ * whole compile classpath, and leaving every jar open afterwards. The index
+ * reads the central directory of each jar once with a {@link ZipFile},
+ * closes it, and keeps the xml and tld resources found under META-INF. The
+ * entry of a jar is reused as long as its size and last modified time do not
+ * change.
+ * </p>
+ * <p>
+ * There is a single index per plugin class loader, so it is shared by every
+ * goal of a maven session. Goals load and save it in the build directory of
+ * their project, so the jars are not read again on the next build either.
+ * The file of a project only keeps the jars of its own classpath.
+ * </p>
+ * <p>
+ * The faces plugin, which the tagdoc plugin uses, has a copy of this class
+ * in its own style, as the plugins are released separately and share no
+ * library. A change to one should be made to the other.
+ * </p>
+ *
+ * @since 1.0.12
+ */
+public class ArtifactIndex
+{
+    /**
+     * Name of the file the index is saved to in the build directory.
+     */
+    public static final String INDEX_FILE = "myfaces-artifact-index.properties";
+
+    private static final String META_INF = "META-INF/";
+
+    private static final String MAVEN_METADATA = "META-INF/maven/";
+
+    private static final String SEPARATOR = "|";
+
+    private static final ArtifactIndex INSTANCE = new ArtifactIndex();
+
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    private final Set<File> loadedFiles = new HashSet<File>();
+
+    /**
+     * The content last loaded from or saved to each index file.
+     */
+    private final Map<File, Properties> savedIndexes = new HashMap<File, Properties>();
+
+    ArtifactIndex()
+    {
+    }
+
+    /**
+     * Return the index shared by every goal of the session.
+     */
+    public static ArtifactIndex getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Return the file the index is saved to in a build directory, or null
+     * if the project has no build directory.
+     */
+    public static File getIndexFile(String buildDirectory)
+    {
+        return buildDirectory != null ? new File(buildDirectory, INDEX_FILE) : null;
+    }
+
+    /**
+     * Return true if the resource is one the index keeps track of.
+     */
+    public static boolean isIndexed(String resourcePath)
+    {
+        return resourcePath.startsWith(META_INF)
+                && !resourcePath.startsWith(MAVEN_METADATA)
+                && (resourcePath.endsWith(".xml") || resourcePath.endsWith(".tld"));
+    }
+
+    /**
+     * Add the entries saved by a previous build. Entries already read in
+     * this session are kept, and entries of jars that changed since are
+     * simply never used. A file is only read once per session. Does nothing
+     * if the index file is null.
+     */
+    public synchronized void load(File indexFile) throws IOException
+    {
+        if (indexFile == null || !loadedFiles.add(indexFile.getAbsoluteFile())
+                || !indexFile.isFile())
+        {
+            return;
+        }
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream(indexFile);
+        try
+        {
+            properties.load(in);
+        }
+        finally
+        {
+            in.close();
+        }
+        savedIndexes.put(indexFile.getAbsoluteFile(), properties);
+        for (Iterator it = properties.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry property = (Map.Entry) it.next();
+            String path = (String) property.getKey();
+            if (!entries.containsKey(path))
+            {
+                Entry entry = Entry.parse((String) property.getValue());
+                if (entry != null)
+                {
+                    entries.put(path, entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Save the entries of the jars of a project, if they changed since the
+     * file was loaded or last saved. The entries of jars only other projects
+     * of the session depend on are left out. Does nothing if the index file
+     * is null.
+     *
+     * @param classpathElements the paths of the directories and jars of the
+     *  project
+     */
+    public synchronized void save(File indexFile, List classpathElements) throws IOException
+    {
+        if (indexFile == null)
+        {
+            return;
+        }
+        Properties properties = new Properties();
+        for (Iterator it = classpathElements.iterator(); it.hasNext();)
+        {
+            String path = new File((String) it.next()).getAbsolutePath();
+            Entry entry = entries.get(path);
+            if (entry != null)
+            {
+                properties.setProperty(path, entry.format());
+            }
+        }
+        File file = indexFile.getAbsoluteFile();
+        if (properties.equals(savedIndexes.get(file)) && indexFile.isFile())
+        {
+            return;
+        }
+        indexFile.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(indexFile);
+        try
+        {
+            properties.store(out, "Metadata resources of dependency jars");
+        }
+        finally
+        {
+            out.close();
+        }
+        savedIndexes.put(file, properties);
+    }
+
+    /**
+     * Return true if a jar contains a resource. The jar is only opened when
+     * it is not indexed yet, or when the resource is not one the index keeps
+     * track of.
+     */
+    public boolean contains(File jarFile, String resourcePath) throws IOException
+    {
+        if (!isIndexed(resourcePath))
+        {
+            ZipFile zip = new ZipFile(jarFile);
+            try
+            {
+                return zip.getEntry(resourcePath) != null;
+            }
+            finally
+            {
+                zip.close();
+            }
+        }
+        return Arrays.binarySearch(getEntry(jarFile).resources, resourcePath) >= 0;
+    }
+
+    /**
+     * Find a resource the way a class loader over the classpath elements
+     * would, without opening one. Resources of the parent class loader come
+     * first, then the ones of each directory or jar, in classpath order.
+     *
+     * @param parent the class loader the classpath would be loaded by, or
+     *  null to only look in the classpath elements
+     * @param classpathElements the paths of the directories and jars
+     * @return the urls of the resource
+     */
+    public List getResources(ClassLoader parent, List classpathElements,
+            String resourcePath) throws IOException
+    {
+        List urls = new ArrayList();
+        if (parent != null)
+        {
+            for (Enumeration e = parent.getResources(resourcePath); e.hasMoreElements();)
+            {
+                urls.add(e.nextElement());
+            }
+        }
+        for (Iterator it = classpathElements.iterator(); it.hasNext();)
+        {
+            File element = new File((String) it.next());
+            if (element.isDirectory())
+            {
+                File resource = new File(element, resourcePath);
+                if (resource.isFile())
+                {
+                    urls.add(resource.toURI().toURL());
+                }
+            }
+            else if (element.isFile() && contains(element, resourcePath))
+            {
+                urls.add(new URL("jar:" + element.toURI().toURL() + "!/" + resourcePath));
+            }
+        }
+        return Collections.unmodifiableList(urls);
+    }
+
+    private synchronized Entry getEntry(File jarFile) throws IOException
+    {
+        String path = jarFile.getAbsolutePath();
+        Entry entry = entries.get(path);
+        if (entry == null || entry.size != jarFile.length()
+                || entry.lastModified != jarFile.lastModified())
+        {
+            entry = Entry.read(jarFile);
+            entries.put(path, entry);
+        }
+        return entry;
+    }
+
+    private static class Entry
+    {
+        private final long size;
+
+        private final long lastModified;
+
+        /**
+         * The indexed resources of the jar, sorted.
+         */
+        private final String[] resources;
+
+        Entry(long size, long lastModified, String[] resources)
+        {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.resources = resources;
+        }
+
+        static Entry read(File jarFile) throws IOException
+        {
+            long size = jarFile.length();
+            long lastModified = jarFile.lastModified();
+            List resources = new ArrayList();
+            ZipFile zip = new ZipFile(jarFile);
+            try
+            {
+                for (Enumeration e = zip.entries(); e.hasMoreElements();)
+                {
+                    ZipEntry zipEntry = (ZipEntry) e.nextElement();
+                    if (!zipEntry.isDirectory() && isIndexed(zipEntry.getName()))
+                    {
+                        resources.add(zipEntry.getName());
+                    }
+                }
+            }
+            finally
+            {
+                zip.close();
+            }
+            String[] sorted = (String[]) resources.toArray(new String[resources.size()]);
+            Arrays.sort(sorted);
+            return new Entry(size, lastModified, sorted);
+        }
+
+        /**
+         * Return the entry saved as "size|lastModified|resource|...", or
+         * null if the value is not in that format.
+         */
+        static Entry parse(String value)
+        {
+            String[] parts = value.split("\\" + SEPARATOR);
+            if (parts.length < 2)
+            {
+                return null;
+            }
+            try
+            {
+                String[] resources = new String[parts.length - 2];
+                System.arraycopy(parts, 2, resources, 0, resources.length);
+                Arrays.sort(resources);
+                return new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), resources);
+            }
+            catch (NumberFormatException e)
+            {
+                return null;
+            }
+        }
+
+        String format()
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(size).append(SEPARATOR).append(lastModified);
+            for (int i = 0; i < resources.length; i++)
+            {
+                sb.append(SEPARATOR).append(resources[i]);
+            }
+            return sb.toString();
+        }
+    }
+}
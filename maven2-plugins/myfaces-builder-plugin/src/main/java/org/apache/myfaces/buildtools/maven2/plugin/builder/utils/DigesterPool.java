@@ -0,0 +1,77 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.utils;
+
+import java.util.LinkedList;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.digester.Digester;
+import org.xml.sax.SAXException;
+
+/**
+ * Keeps configured digesters, with their SAX parser and rules, so that they
+ * are built once rather than for every document parsed.
+ * <p>
+ * The rules of a digester keep state while a document is parsed, so a
+ * digester is only used by one parse at a time. A parse started while all
+ * the digesters of the pool are in use gets a new one.
+ * </p>
+ *
+ * @since 1.0.12
+ */
+public abstract class DigesterPool
+{
+    private final LinkedList<Digester> idle = new LinkedList<Digester>();
+
+    /**
+     * Return an idle digester, or a new one if none is idle.
+     */
+    public Digester acquire() throws ParserConfigurationException, SAXException
+    {
+        synchronized (idle)
+        {
+            if (!idle.isEmpty())
+            {
+                return idle.removeLast();
+            }
+        }
+        return createDigester();
+    }
+
+    /**
+     * Give back a digester once it has parsed a document. A digester whose
+     * parse failed is simply not given back.
+     */
+    public void release(Digester digester)
+    {
+        digester.clear();
+        digester.resetRoot();
+        synchronized (idle)
+        {
+            idle.add(digester);
+        }
+    }
+
+    /**
+     * Create a digester, with its parser and all its rules.
+     */
+    protected abstract Digester createDigester()
+            throws ParserConfigurationException, SAXException;
+}
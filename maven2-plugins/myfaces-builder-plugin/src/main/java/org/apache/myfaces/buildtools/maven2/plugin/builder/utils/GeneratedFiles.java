@@ -0,0 +1,114 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Writes generated files only when their content changes.
+ * <p>
+ * Generated content is rendered into memory first and compared with the
+ * existing file. An unchanged file is left alone, so its timestamp does not
+ * make the compiler or the resources plugin process it again.
+ * </p>
+ * <p>
+ * The faces and xrts plugins have their own copy of this class, as the
+ * plugins are released separately and share no library. Theirs also
+ * remember in a stamp file when unchanged files were last generated, and
+ * are not thread safe. A change to the way files are compared or written
+ * should be made to them too.
+ * </p>
+ *
+ * @since 1.0.12
+ */
+public class GeneratedFiles
+{
+    private int changed;
+
+    private int unchanged;
+
+    /**
+     * Write a file in the platform encoding, the encoding generated files
+     * have always been written in.
+     *
+     * @return true if the file was written
+     */
+    public boolean write(File outFile, String content) throws IOException
+    {
+        return write(outFile, content.getBytes(Charset.defaultCharset()));
+    }
+
+    /**
+     * @return true if the file was written
+     */
+    public synchronized boolean write(File outFile, byte[] content) throws IOException
+    {
+        if (outFile.isFile() && outFile.length() == content.length
+                && Arrays.equals(content, Files.readAllBytes(outFile.toPath())))
+        {
+            unchanged++;
+            return false;
+        }
+        if ( !outFile.getParentFile().exists() )
+        {
+            outFile.getParentFile().mkdirs();
+        }
+        OutputStream out = new FileOutputStream(outFile);
+        try
+        {
+            out.write(content);
+        }
+        finally
+        {
+            out.close();
+        }
+        changed++;
+        return true;
+    }
+
+    public synchronized int getChangedCount()
+    {
+        return changed;
+    }
+
+    public synchronized int getUnchangedCount()
+    {
+        return unchanged;
+    }
+
+    /**
+     * Log how many files were written and how many were left unchanged.
+     */
+    public void report(Log log)
+    {
+        if (getChangedCount() + getUnchangedCount() > 0)
+        {
+            log.info(getChangedCount() + " file(s) changed, " + getUnchangedCount()
+                    + " unchanged");
+        }
+    }
+}
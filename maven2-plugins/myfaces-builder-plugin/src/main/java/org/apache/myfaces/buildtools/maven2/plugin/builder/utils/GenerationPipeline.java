@@ -0,0 +1,342 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.utils;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.context.Context;
+
+/**
+ * Merges one velocity template into many files, optionally on several
+ * threads.
+ * <p>
+ * Files are queued with {@link #add}, which starts merging the template
+ * right away when more than one thread is used. {@link #finish} then writes
+ * the files in the order they were queued, so the log, the cache information
+ * and the errors reported are the same whatever the number of threads. When
+ * <code>force</code> is false the first error in that order stops the
+ * generation, otherwise every error is logged and the generation goes on.
+ * </p>
+ * <p>
+ * Files whose content did not change are not written again, see
+ * {@link GeneratedFiles}.
+ * </p>
+ * <p>
+ * A parsed velocity template can be merged by several threads at the same
+ * time, as long as each merge has its own context. A file can also be
+ * queued with a template of its own, eg for the pages of the tag doc.
+ * </p>
+ * <p>
+ * Templates given by name are parsed once, when the first file using them
+ * is queued. A template that cannot be loaded fails each file queued with
+ * it, which is reported like any other error when the files are written.
+ * </p>
+ *
+ * @since 1.0.12
+ */
+public class GenerationPipeline
+{
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+    private final Template template;
+
+    private final VelocityEngine velocityEngine;
+
+    private final String templateName;
+
+    /**
+     * Templates loaded by name, or the exception loading them failed with.
+     */
+    private final Map templates = new HashMap();
+
+    private final boolean force;
+
+    private final Log log;
+
+    private final ExecutorService executor;
+
+    private final List jobs = new ArrayList();
+
+    private final GeneratedFiles generatedFiles = new GeneratedFiles();
+
+    private Charset charset = Charset.defaultCharset();
+
+    /**
+     * Buffer each thread merges the template into, reused between files.
+     */
+    private final ThreadLocal<StringWriter> buffers = new ThreadLocal<StringWriter>()
+    {
+        protected StringWriter initialValue()
+        {
+            return new StringWriter(INITIAL_BUFFER_SIZE);
+        }
+    };
+
+    public GenerationPipeline(Template template, int threads, boolean force, Log log)
+    {
+        this(template, null, null, threads, force, log);
+    }
+
+    /**
+     * Create a pipeline whose template is loaded from a velocity engine.
+     *
+     * @param templateName the template of the files queued without one, or
+     *  null when every file is queued with the name of its own template
+     */
+    public GenerationPipeline(VelocityEngine velocityEngine, String templateName, int threads,
+            boolean force, Log log)
+    {
+        this(null, velocityEngine, templateName, threads, force, log);
+    }
+
+    private GenerationPipeline(Template template, VelocityEngine velocityEngine,
+            String templateName, int threads, boolean force, Log log)
+    {
+        this.template = template;
+        this.velocityEngine = velocityEngine;
+        this.templateName = templateName;
+        this.force = force;
+        this.log = log;
+        this.executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    }
+
+    /**
+     * Queue a file to generate.
+     *
+     * @param message logged when the file is written
+     * @param outFile the file to generate
+     * @param context the context to merge the template with, not shared
+     *  with any other file
+     * @param inputDigest stored in the cache information for the file once
+     *  it is written, or null when caching is disabled
+     */
+    public void add(String message, File outFile, Context context, String inputDigest)
+    {
+        if (templateName != null)
+        {
+            add(message, outFile, templateName, context, inputDigest);
+        }
+        else
+        {
+            add(message, outFile, template, context, inputDigest);
+        }
+    }
+
+    /**
+     * Queue a file to generate with a template loaded from the velocity
+     * engine of the pipeline.
+     *
+     * @param message logged when the file is written, or null
+     * @param templateName the name of the template to merge
+     */
+    public void add(String message, File outFile, String templateName, Context context,
+            String inputDigest)
+    {
+        Object loaded = templates.get(templateName);
+        if (loaded == null)
+        {
+            try
+            {
+                loaded = velocityEngine.getTemplate(templateName);
+            }
+            catch (Exception e)
+            {
+                loaded = e;
+            }
+            templates.put(templateName, loaded);
+        }
+        if (loaded instanceof Exception)
+        {
+            queue(new Job(message, outFile, null, context, inputDigest), (Exception) loaded);
+        }
+        else
+        {
+            add(message, outFile, (Template) loaded, context, inputDigest);
+        }
+    }
+
+    /**
+     * Queue a file to generate with another template than the one of the
+     * pipeline.
+     *
+     * @param message logged when the file is written, or null
+     * @param template the parsed template to merge
+     */
+    public void add(String message, File outFile, Template template, Context context,
+            String inputDigest)
+    {
+        queue(new Job(message, outFile, template, context, inputDigest), null);
+    }
+
+    private void queue(Job job, Exception templateError)
+    {
+        job.templateError = templateError;
+        if (executor != null && templateError == null)
+        {
+            job.result = executor.submit(job);
+        }
+        jobs.add(job);
+    }
+
+    /**
+     * Write every queued file, in the order they were queued.
+     */
+    public void finish(Properties cachedInfo) throws MojoExecutionException
+    {
+        try
+        {
+            for (Iterator it = jobs.iterator(); it.hasNext();)
+            {
+                Job job = (Job) it.next();
+                it.remove();
+                if (job.message != null)
+                {
+                    log.info(job.message);
+                }
+                try
+                {
+                    generatedFiles.write(job.outFile, job.getContent().getBytes(charset));
+                    if (job.inputDigest != null)
+                    {
+                        cachedInfo.put(job.outFile.getAbsolutePath(), job.inputDigest);
+                    }
+                }
+                catch (Exception e)
+                {
+                    MojoExecutionException me = new MojoExecutionException(
+                            "Error merging velocity templates: " + e.getMessage(), e);
+                    if (force)
+                    {
+                        log.error(me.getMessage());
+                    }
+                    else
+                    {
+                        //Stop execution throwing exception
+                        throw me;
+                    }
+                }
+            }
+            generatedFiles.report(log);
+        }
+        finally
+        {
+            jobs.clear();
+            if (executor != null)
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    public GeneratedFiles getGeneratedFiles()
+    {
+        return generatedFiles;
+    }
+
+    /**
+     * Set the encoding the files are written in, the platform encoding by
+     * default.
+     */
+    public void setCharset(Charset charset)
+    {
+        this.charset = charset;
+    }
+
+    private String merge(Template template, Context context) throws Exception
+    {
+        StringWriter writer = buffers.get();
+        writer.getBuffer().setLength(0);
+        template.merge(context, writer);
+        return writer.toString();
+    }
+
+    private class Job implements Callable<String>
+    {
+        private final String message;
+
+        private final File outFile;
+
+        private final Template template;
+
+        private final Context context;
+
+        private final String inputDigest;
+
+        private Exception templateError;
+
+        private Future<String> result;
+
+        Job(String message, File outFile, Template template, Context context,
+                String inputDigest)
+        {
+            this.message = message;
+            this.outFile = outFile;
+            this.template = template;
+            this.context = context;
+            this.inputDigest = inputDigest;
+        }
+
+        public String call() throws Exception
+        {
+            if (templateError != null)
+            {
+                throw templateError;
+            }
+            return merge(template, context);
+        }
+
+        String getContent() throws Exception
+        {
+            if (result == null)
+            {
+                return call();
+            }
+            try
+            {
+                return result.get();
+            }
+            catch (ExecutionException e)
+            {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception)
+                {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Accumulates a SHA-1 digest of the inputs a generated file is made from.
+ * <p>
+ * Goals store the digest of each generated file in the cache file, and only
+ * generate it again when the digest of its inputs changes. Unlike the last
+ * modified time of the inputs, the digest does not change after a fresh
+ * checkout or when the build directory is restored from a CI cache.
+ * </p>
+ *
+ * @since 1.0.12
+ */
+public class InputDigest
+{
+    private final MessageDigest digest;
+
+    public InputDigest()
+    {
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // Every java platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Add a string. Null and empty strings give different digests.
+     */
+    public InputDigest add(String value)
+    {
+        if (value == null)
+        {
+            digest.update((byte) 0);
+            return this;
+        }
+        try
+        {
+            byte[] bytes = value.getBytes("UTF-8");
+            digest.update((byte) 1);
+            digest.update(Integer.toString(bytes.length).getBytes("UTF-8"));
+            digest.update((byte) ':');
+            digest.update(bytes);
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            // UTF-8 is always supported
+            throw new IllegalStateException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Add the content of a file. A missing file is recorded as such, so
+     * creating it later changes the digest.
+     */
+    public InputDigest add(File file) throws IOException
+    {
+        if (file == null || !file.isFile())
+        {
+            digest.update((byte) 0);
+            return this;
+        }
+        add(Long.toString(file.length()));
+        InputStream in = new FileInputStream(file);
+        try
+        {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0)
+            {
+                digest.update(buffer, 0, n);
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+        return this;
+    }
+
+    /**
+     * Return the digest of everything added so far, as a hex string.
+     */
+    public String getValue()
+    {
+        byte[] bytes = digest.digest();
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (int i = 0; i < bytes.length; i++)
+        {
+            String hex = Integer.toHexString(bytes[i] & 0xFF);
+            if (hex.length() == 1)
+            {
+                sb.append('0');
+            }
+            sb.append(hex);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Return the digest of the content of a single file.
+     */
+    public static String of(File file) throws IOException
+    {
+        return new InputDigest().add(file).getValue();
+    }
+}
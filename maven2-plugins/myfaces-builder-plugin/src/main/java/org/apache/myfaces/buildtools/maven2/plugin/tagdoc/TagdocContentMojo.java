@@ -19,36 +19,35 @@
 package org.apache.myfaces.buildtools.maven2.plugin.tagdoc;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.StringWriter;
-import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Enumeration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.commons.digester.AbstractObjectCreationFactory;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
-import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.MavenReportException;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.AbstractBuilderMojo;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.Flattener;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.IOUtils;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.io.XmlWriter;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.BehaviorMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ClassMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta;
@@ -56,17 +55,18 @@ import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ConverterMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.FaceletFunctionMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.FaceletTagMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.RenderKitMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.TagMeta;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ValidatorMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.ArtifactIndex;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.GenerationPipeline;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MavenPluginConsoleLogSystem;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
-import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.context.Context;
 import org.apache.velocity.runtime.RuntimeConstants;
 import org.apache.velocity.runtime.resource.ResourceManagerImpl;
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 import org.codehaus.plexus.util.xml.Xpp3DomWriter;
@@ -83,10 +83,12 @@ import org.xml.sax.Attributes;
  * @goal tagdoc-content
  * @phase generate-resources
  */
-public class TagdocContentMojo extends AbstractMojo
+public class TagdocContentMojo extends AbstractBuilderMojo
 {
     private Model _model;
 
+    private Properties _cacheInfo;
+
     /**
      * Specifies the directory where the report will be generated
      *
@@ -216,7 +218,10 @@ public class TagdocContentMojo extends AbstractMojo
             _model = IOUtils.loadModel(new File(buildDirectory,
                     metadataFile));
             new Flattener(_model).flatten();            
+            _cacheInfo = new Properties();
+            loadCache(_cacheInfo);
             _generateTagDocs();
+            storeCache(_cacheInfo);
         }
         catch (Exception e)
         {
@@ -298,7 +303,7 @@ public class TagdocContentMojo extends AbstractMojo
             return;
         }
         
-        VelocityEngine velocityEngine = initVelocity();
+        PageQueue pages = new PageQueue(initVelocity());
         
         VelocityContext baseContext = new VelocityContext();
         baseContext.put("utils", new MyfacesUtils());
@@ -337,7 +342,7 @@ public class TagdocContentMojo extends AbstractMojo
             ComponentMeta component = (ComponentMeta) components.next();
             if (canGenerate(component))
             {
-                String pageName = _generateComponentDoc(velocityEngine,baseContext,model,component);
+                String pageName = _generateComponentDoc(pages,baseContext,model,component);
                 if (pageName != null)
                 {
                     componentPages.add(pageName);
@@ -350,7 +355,7 @@ public class TagdocContentMojo extends AbstractMojo
             ConverterMeta converter = (ConverterMeta) converters.next();
             if (canGenerate(converter))
             {
-                String pageName = _generateConverterDoc(velocityEngine,baseContext,model,converter);
+                String pageName = _generateConverterDoc(pages,baseContext,model,converter);
                 if (pageName != null)
                 {
                     converterPages.add(pageName);
@@ -364,7 +369,7 @@ public class TagdocContentMojo extends AbstractMojo
 
             if (canGenerate(validator))
             {
-                String pageName = _generateValidatorDoc(velocityEngine,baseContext,model,validator);
+                String pageName = _generateValidatorDoc(pages,baseContext,model,validator);
                 if (pageName != null)
                 {
                     validatorPages.add(pageName);
@@ -377,7 +382,7 @@ public class TagdocContentMojo extends AbstractMojo
             BehaviorMeta behavior = (BehaviorMeta) behaviors.next();
             if (canGenerate(behavior))
             {
-                String pageName = _generateBehaviorDoc(velocityEngine,baseContext,model,behavior);
+                String pageName = _generateBehaviorDoc(pages,baseContext,model,behavior);
                 if (pageName != null)
                 {
                     behaviorPages.add(pageName);
@@ -391,7 +396,7 @@ public class TagdocContentMojo extends AbstractMojo
             
             if (canGenerate(tag))
             {
-                String pageName = _generateTagDoc(velocityEngine,baseContext,model,tag);
+                String pageName = _generateTagDoc(pages,baseContext,model,tag);
                 if (pageName != null)
                 {
                     tagsPages.add(pageName);
@@ -405,7 +410,7 @@ public class TagdocContentMojo extends AbstractMojo
             
             if (canGenerate(faceletTag))
             {
-                String pageName = _generateFaceletTagDoc(velocityEngine,baseContext,model,faceletTag);
+                String pageName = _generateFaceletTagDoc(pages,baseContext,model,faceletTag);
                 if (pageName != null)
                 {
                     faceletTagsPages.add(pageName);
@@ -427,7 +432,7 @@ public class TagdocContentMojo extends AbstractMojo
             
             if (canGenerate(faceletFunction))
             {
-                String pageName = _generateFaceletFunctionDoc(velocityEngine, baseContext, model, faceletFunction);
+                String pageName = _generateFaceletFunctionDoc(pages, baseContext, model, faceletFunction);
                 if (pageName != null)
                 {
                     faceletFunctionPages.add(pageName);
@@ -436,6 +441,8 @@ public class TagdocContentMojo extends AbstractMojo
             }
         }
 
+        pages.finish();
+
         Set otherPages = _gatherOtherTags();
 
         getLog().info("Generated " + count + " page(s)");
@@ -473,7 +480,7 @@ public class TagdocContentMojo extends AbstractMojo
         return MyfacesUtils.getTagPrefix(qName) + "_" + MyfacesUtils.getTagName(qName);
     }
 
-    private String _generateComponentDoc(VelocityEngine velocityEngine, 
+    private String _generateComponentDoc(PageQueue pages, 
             VelocityContext baseContext, Model model, ComponentMeta component)
             throws Exception
     {
@@ -496,87 +503,13 @@ public class TagdocContentMojo extends AbstractMojo
             context.put("faceletTag", faceletTag);
         }
         
-        String baseContent = "";
-        
-        File xmlBaseFile = new File(baseFilesSourceDirectory, 
-                _platformAgnosticPath(pageName + "-base.xml"));
-        
-        if (xmlBaseFile != null && xmlBaseFile.exists())
-        {
-            if (getLog().isDebugEnabled())
-            {
-                getLog().debug("using base content file: "+xmlBaseFile.getPath());
-            }
-            
-            Reader reader = null;
-            try
-            {
-                reader = new FileReader(xmlBaseFile);
-                Xpp3Dom root = Xpp3DomBuilder.build(reader);
-                
-                StringWriter writer = new StringWriter();
-                
-                Xpp3Dom [] children = root.getChild("body").getChildren();
-                
-                for (int i = 0; i< children.length; i++)
-                {
-                    Xpp3Dom dom = children[i];
-                    Xpp3DomWriter.write(writer, dom);
-                }
-                baseContent = writer.toString();
-                writer.close();
-            }
-            catch (XmlPullParserException e)
-            {
-                throw new MojoExecutionException(
-                        "Error parsing base file: " + e.getMessage(), e);
-            }
-            finally
-            {
-                reader.close();
-            }
-        }
-        
-        baseContext.put("baseContent", baseContent);        
-        
-        Writer out = null;
-        
-        try
-        {        
-            File targetDir = new File(outputDirectory.getParentFile(),
-                    _platformAgnosticPath("generated-site/xdoc/"
-                            + _DOC_SUBDIRECTORY));
-            
-            if ( !targetDir.exists() )
-            {
-                targetDir.mkdirs();
-            }
-            File targetFile = new File(targetDir, pageName + ".xml");
-    
-            out = new OutputStreamWriter(new FileOutputStream(targetFile),
-                    "UTF-8");
-            
-            Template template = velocityEngine.getTemplate(getTemplateComponent());
-            
-            template.merge(context, out);
-            
-            out.flush();
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(out);
-            out = null;
-        }
+        context.put("baseContent", _readBaseContent(pageName));
 
+        pages.add(pageName, getTemplateComponent(), context);
         return pageName;
     }
 
-    private String _generateConverterDoc(VelocityEngine velocityEngine, 
+    private String _generateConverterDoc(PageQueue pages, 
             VelocityContext baseContext, Model model, ConverterMeta converter)
             throws Exception
     {
@@ -600,87 +533,13 @@ public class TagdocContentMojo extends AbstractMojo
             context.put("faceletTag", faceletTag);
         }
         
-        String baseContent = "";
-        
-        File xmlBaseFile = new File(baseFilesSourceDirectory, 
-                _platformAgnosticPath(pageName + "-base.xml"));
-        
-        if (xmlBaseFile != null && xmlBaseFile.exists())
-        {
-            if (getLog().isDebugEnabled())
-            {
-                getLog().debug("using base content file: "+xmlBaseFile.getPath());
-            }
-            
-            Reader reader = null;
-            try
-            {
-                reader = new FileReader(xmlBaseFile);
-                Xpp3Dom root = Xpp3DomBuilder.build(reader);
-                
-                StringWriter writer = new StringWriter();
-                
-                Xpp3Dom [] children = root.getChild("body").getChildren();
-                
-                for (int i = 0; i< children.length; i++)
-                {
-                    Xpp3Dom dom = children[i];
-                    Xpp3DomWriter.write(writer, dom);
-                }
-                baseContent = writer.toString();
-                writer.close();
-            }
-            catch (XmlPullParserException e)
-            {
-                throw new MojoExecutionException(
-                        "Error parsing base file: " + e.getMessage(), e);
-            }
-            finally
-            {
-                reader.close();
-            }
-        }
-        
-        baseContext.put("baseContent", baseContent);        
-        
-        Writer out = null;
-        
-        try
-        {        
-            File targetDir = new File(outputDirectory.getParentFile(),
-                    _platformAgnosticPath("generated-site/xdoc/"
-                            + _DOC_SUBDIRECTORY));
-            
-            if ( !targetDir.exists() )
-            {
-                targetDir.mkdirs();
-            }
-            File targetFile = new File(targetDir, pageName + ".xml");
-    
-            out = new OutputStreamWriter(new FileOutputStream(targetFile),
-                    "UTF-8");
-            
-            Template template = velocityEngine.getTemplate(getTemplateConverter());
-            
-            template.merge(context, out);
-            
-            out.flush();
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(out);
-            out = null;
-        }
+        context.put("baseContent", _readBaseContent(pageName));
 
+        pages.add(pageName, getTemplateConverter(), context);
         return pageName;
     }
 
-    private String _generateValidatorDoc(VelocityEngine velocityEngine, 
+    private String _generateValidatorDoc(PageQueue pages, 
             VelocityContext baseContext, Model model, ValidatorMeta validator)
             throws Exception
     {
@@ -704,87 +563,13 @@ public class TagdocContentMojo extends AbstractMojo
             context.put("faceletTag", faceletTag);
         }
         
-        String baseContent = "";
-        
-        File xmlBaseFile = new File(baseFilesSourceDirectory, 
-                _platformAgnosticPath(pageName + "-base.xml"));
-        
-        if (xmlBaseFile != null && xmlBaseFile.exists())
-        {
-            if (getLog().isDebugEnabled())
-            {
-                getLog().debug("using base content file: "+xmlBaseFile.getPath());
-            }
-            
-            Reader reader = null;
-            try
-            {
-                reader = new FileReader(xmlBaseFile);
-                Xpp3Dom root = Xpp3DomBuilder.build(reader);
-                
-                StringWriter writer = new StringWriter();
-                
-                Xpp3Dom [] children = root.getChild("body").getChildren();
-                
-                for (int i = 0; i< children.length; i++)
-                {
-                    Xpp3Dom dom = children[i];
-                    Xpp3DomWriter.write(writer, dom);
-                }
-                baseContent = writer.toString();
-                writer.close();
-            }
-            catch (XmlPullParserException e)
-            {
-                throw new MojoExecutionException(
-                        "Error parsing base file: " + e.getMessage(), e);
-            }
-            finally
-            {
-                reader.close();
-            }
-        }
-        
-        baseContext.put("baseContent", baseContent);        
-        
-        Writer out = null;
-        
-        try
-        {        
-            File targetDir = new File(outputDirectory.getParentFile(),
-                    _platformAgnosticPath("generated-site/xdoc/"
-                            + _DOC_SUBDIRECTORY));
-            
-            if ( !targetDir.exists() )
-            {
-                targetDir.mkdirs();
-            }
-            File targetFile = new File(targetDir, pageName + ".xml");
-    
-            out = new OutputStreamWriter(new FileOutputStream(targetFile),
-                    "UTF-8");
-            
-            Template template = velocityEngine.getTemplate(getTemplateValidator());
-            
-            template.merge(context, out);
-            
-            out.flush();
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(out);
-            out = null;
-        }
+        context.put("baseContent", _readBaseContent(pageName));
 
+        pages.add(pageName, getTemplateValidator(), context);
         return pageName;
     }
     
-    private String _generateBehaviorDoc(VelocityEngine velocityEngine, 
+    private String _generateBehaviorDoc(PageQueue pages, 
             VelocityContext baseContext, Model model, BehaviorMeta behavior)
             throws Exception
     {
@@ -804,87 +589,13 @@ public class TagdocContentMojo extends AbstractMojo
             context.put("faceletTag", faceletTag);
         }
         
-        String baseContent = "";
-        
-        File xmlBaseFile = new File(baseFilesSourceDirectory, 
-                _platformAgnosticPath(pageName + "-base.xml"));
-        
-        if (xmlBaseFile != null && xmlBaseFile.exists())
-        {
-            if (getLog().isDebugEnabled())
-            {
-                getLog().debug("using base content file: "+xmlBaseFile.getPath());
-            }
-            
-            Reader reader = null;
-            try
-            {
-                reader = new FileReader(xmlBaseFile);
-                Xpp3Dom root = Xpp3DomBuilder.build(reader);
-                
-                StringWriter writer = new StringWriter();
-                
-                Xpp3Dom [] children = root.getChild("body").getChildren();
-                
-                for (int i = 0; i< children.length; i++)
-                {
-                    Xpp3Dom dom = children[i];
-                    Xpp3DomWriter.write(writer, dom);
-                }
-                baseContent = writer.toString();
-                writer.close();
-            }
-            catch (XmlPullParserException e)
-            {
-                throw new MojoExecutionException(
-                        "Error parsing base file: " + e.getMessage(), e);
-            }
-            finally
-            {
-                reader.close();
-            }
-        }
-        
-        baseContext.put("baseContent", baseContent);        
-        
-        Writer out = null;
-        
-        try
-        {        
-            File targetDir = new File(outputDirectory.getParentFile(),
-                    _platformAgnosticPath("generated-site/xdoc/"
-                            + _DOC_SUBDIRECTORY));
-            
-            if ( !targetDir.exists() )
-            {
-                targetDir.mkdirs();
-            }
-            File targetFile = new File(targetDir, pageName + ".xml");
-    
-            out = new OutputStreamWriter(new FileOutputStream(targetFile),
-                    "UTF-8");
-            
-            Template template = velocityEngine.getTemplate(getTemplateBehavior());
-            
-            template.merge(context, out);
-            
-            out.flush();
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(out);
-            out = null;
-        }
+        context.put("baseContent", _readBaseContent(pageName));
 
+        pages.add(pageName, getTemplateBehavior(), context);
         return pageName;
     }
     
-    private String _generateTagDoc(VelocityEngine velocityEngine, 
+    private String _generateTagDoc(PageQueue pages, 
             VelocityContext baseContext, Model model, TagMeta tag)
             throws Exception
     {
@@ -908,88 +619,14 @@ public class TagdocContentMojo extends AbstractMojo
             context.put("faceletTag", faceletTag);
         }
         
-        String baseContent = "";
-        
-        File xmlBaseFile = new File(baseFilesSourceDirectory, 
-                _platformAgnosticPath(pageName + "-base.xml"));
-        
-        if (xmlBaseFile != null && xmlBaseFile.exists())
-        {
-            if (getLog().isDebugEnabled())
-            {
-                getLog().debug("using base content file: "+xmlBaseFile.getPath());
-            }
-            
-            Reader reader = null;
-            try
-            {
-                reader = new FileReader(xmlBaseFile);
-                Xpp3Dom root = Xpp3DomBuilder.build(reader);
-                
-                StringWriter writer = new StringWriter();
-                
-                Xpp3Dom [] children = root.getChild("body").getChildren();
-                
-                for (int i = 0; i< children.length; i++)
-                {
-                    Xpp3Dom dom = children[i];
-                    Xpp3DomWriter.write(writer, dom);
-                }
-                baseContent = writer.toString();
-                writer.close();
-            }
-            catch (XmlPullParserException e)
-            {
-                throw new MojoExecutionException(
-                        "Error parsing base file: " + e.getMessage(), e);
-            }
-            finally
-            {
-                reader.close();
-            }
-        }
-        
-        baseContext.put("baseContent", baseContent);        
-        
-        Writer out = null;
-        
-        try
-        {        
-            File targetDir = new File(outputDirectory.getParentFile(),
-                    _platformAgnosticPath("generated-site/xdoc/"
-                            + _DOC_SUBDIRECTORY));
-            
-            if ( !targetDir.exists() )
-            {
-                targetDir.mkdirs();
-            }
-            File targetFile = new File(targetDir, pageName + ".xml");
-    
-            out = new OutputStreamWriter(new FileOutputStream(targetFile),
-                    "UTF-8");
-            
-            Template template = velocityEngine.getTemplate(getTemplateTag());
-            
-            template.merge(context, out);
-            
-            out.flush();
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(out);
-            out = null;
-        }
+        context.put("baseContent", _readBaseContent(pageName));
 
+        pages.add(pageName, getTemplateTag(), context);
         return pageName;
     }
     
     private String _generateFaceletFunctionDoc(
-            VelocityEngine velocityEngine, 
+            PageQueue pages, 
             VelocityContext baseContext, 
             Model model, FaceletFunctionMeta faceletFunction)
     throws Exception
@@ -1000,87 +637,13 @@ public class TagdocContentMojo extends AbstractMojo
         context.put("faceletFunction", faceletFunction);
         context.put("jsf20", new Boolean(_is20()));
         
-        String baseContent = "";
-        
-        File xmlBaseFile = new File(baseFilesSourceDirectory, 
-                _platformAgnosticPath(pageName + "-base.xml"));
-        
-        if (xmlBaseFile != null && xmlBaseFile.exists())
-        {
-            if (getLog().isDebugEnabled())
-            {
-                getLog().debug("using base content file: "+xmlBaseFile.getPath());
-            }
-            
-            Reader reader = null;
-            try
-            {
-                reader = new FileReader(xmlBaseFile);
-                Xpp3Dom root = Xpp3DomBuilder.build(reader);
-                
-                StringWriter writer = new StringWriter();
-                
-                Xpp3Dom [] children = root.getChild("body").getChildren();
-                
-                for (int i = 0; i< children.length; i++)
-                {
-                    Xpp3Dom dom = children[i];
-                    Xpp3DomWriter.write(writer, dom);
-                }
-                baseContent = writer.toString();
-                writer.close();
-            }
-            catch (XmlPullParserException e)
-            {
-                throw new MojoExecutionException(
-                        "Error parsing base file: " + e.getMessage(), e);
-            }
-            finally
-            {
-                reader.close();
-            }
-        }
-        
-        baseContext.put("baseContent", baseContent);        
-        
-        Writer out = null;
-        
-        try
-        {        
-            File targetDir = new File(outputDirectory.getParentFile(),
-                    _platformAgnosticPath("generated-site/xdoc/"
-                            + _DOC_SUBDIRECTORY));
-            
-            if ( !targetDir.exists() )
-            {
-                targetDir.mkdirs();
-            }
-            File targetFile = new File(targetDir, pageName + ".xml");
-    
-            out = new OutputStreamWriter(new FileOutputStream(targetFile),
-                    "UTF-8");
-            
-            Template template = velocityEngine.getTemplate(getTemplateFaceletFunctions());
-            
-            template.merge(context, out);
-            
-            out.flush();
-        }
-        catch (Exception e)
-        {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
-        }
-        finally
-        {
-            IOUtil.close(out);
-            out = null;
-        }
+        context.put("baseContent", _readBaseContent(pageName));
 
+        pages.add(pageName, getTemplateFaceletFunctions(), context);
         return pageName;
     }
     
-    private String _generateFaceletTagDoc(VelocityEngine velocityEngine, 
+    private String _generateFaceletTagDoc(PageQueue pages, 
             VelocityContext baseContext, Model model, FaceletTagMeta faceletTag)
             throws Exception
     {
@@ -1142,6 +705,17 @@ public class TagdocContentMojo extends AbstractMojo
         context.put("faceletTag", faceletTag);
         context.put("jsf20", new Boolean(_is20()));
         
+        context.put("baseContent", _readBaseContent(pageName));
+
+        pages.add(pageName, getTemplateFaceletTag(), context);
+        return pageName;
+    }    
+
+    /**
+     * Read the body of the "-base.xml" file of a page, if there is one.
+     */
+    private String _readBaseContent(String pageName) throws Exception
+    {
         String baseContent = "";
         
         File xmlBaseFile = new File(baseFilesSourceDirectory, 
@@ -1182,45 +756,100 @@ public class TagdocContentMojo extends AbstractMojo
                 reader.close();
             }
         }
-        
-        baseContext.put("baseContent", baseContent);        
-        
-        Writer out = null;
-        
-        try
-        {        
-            File targetDir = new File(outputDirectory.getParentFile(),
-                    _platformAgnosticPath("generated-site/xdoc/"
-                            + _DOC_SUBDIRECTORY));
-            
-            if ( !targetDir.exists() )
+        return baseContent;
+    }
+
+    /**
+     * The metadata a page is generated from: the values of its own context,
+     * and the render kits for the page of a component.
+     */
+    private String _getMetadata(Context context)
+    {
+        StringWriter writer = new StringWriter();
+        XmlWriter out = new XmlWriter(new PrintWriter(writer));
+        Object[] keys = context.getKeys();
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++)
+        {
+            Object value = context.get((String) keys[i]);
+            writer.write(keys[i] + "=");
+            if (value instanceof ClassMeta)
             {
-                targetDir.mkdirs();
+                ClassMeta.writeXml(out, (ClassMeta) value);
             }
-            File targetFile = new File(targetDir, pageName + ".xml");
-    
-            out = new OutputStreamWriter(new FileOutputStream(targetFile),
-                    "UTF-8");
-            
-            Template template = velocityEngine.getTemplate(getTemplateFaceletTag());
-            
-            template.merge(context, out);
-            
-            out.flush();
+            else if (value instanceof FaceletFunctionMeta)
+            {
+                FaceletFunctionMeta.writeXml(out, (FaceletFunctionMeta) value);
+            }
+            else
+            {
+                writer.write(String.valueOf(value));
+            }
+            if (value instanceof ComponentMeta)
+            {
+                for (Iterator it = getModel().getRenderKits().iterator(); it.hasNext();)
+                {
+                    RenderKitMeta.writeXml(out, (RenderKitMeta) it.next());
+                }
+            }
+            writer.write("\n");
         }
-        catch (Exception e)
+        return writer.toString();
+    }
+
+    /**
+     * Queues the pages on a GenerationPipeline, which merges them on
+     * generatorThreads threads and writes them in the order they were
+     * queued. Each template is parsed once and shared by all the threads.
+     * A page whose template, metadata and base content did not change
+     * since the last run is skipped.
+     */
+    private class PageQueue
+    {
+        private final GenerationPipeline pipeline;
+
+        private final File targetDir;
+
+        private final Map templatesDigests = new HashMap();
+
+        PageQueue(VelocityEngine velocityEngine)
         {
-            throw new MojoExecutionException(
-                    "Error merging velocity templates: " + e.getMessage(), e);
+            pipeline = new GenerationPipeline(velocityEngine, null, getGeneratorThreads(), false, getLog());
+            pipeline.setCharset(Charset.forName("UTF-8"));
+            targetDir = new File(outputDirectory.getParentFile(),
+                    _platformAgnosticPath("generated-site/xdoc/"
+                            + _DOC_SUBDIRECTORY));
         }
-        finally
+
+        void add(String pageName, String templateName, Context context)
+            throws Exception
         {
-            IOUtil.close(out);
-            out = null;
+            File targetFile = new File(targetDir, pageName + ".xml");
+
+            String inputDigest = null;
+            if (isCachingEnabled())
+            {
+                String templatesDigest = (String) templatesDigests.get(templateName);
+                if (templatesDigest == null)
+                {
+                    templatesDigest = getTemplatesDigest(templateSourceDirectory, templateName);
+                    templatesDigests.put(templateName, templatesDigest);
+                }
+                inputDigest = getInputDigest(templatesDigest, _getMetadata(context), null);
+                if (isFileUpToDate(_cacheInfo, targetFile, inputDigest))
+                {
+                    return;
+                }
+            }
+
+            pipeline.add(null, targetFile, templateName, context, inputDigest);
         }
 
-        return pageName;
-    }    
+        void finish() throws MojoExecutionException
+        {
+            pipeline.finish(_cacheInfo);
+        }
+    }
 
     static private final String _platformAgnosticPath(String path)
     {
@@ -1267,59 +896,29 @@ public class TagdocContentMojo extends AbstractMojo
     protected List getCompileDependencyResources(MavenProject project,
             String resourcePath) throws MavenReportException
     {
+        ArtifactIndex index = ArtifactIndex.getInstance();
+        File indexFile = ArtifactIndex.getIndexFile(
+                project.getBuild().getDirectory());
         try
         {
-            ClassLoader cl = createCompileClassLoader(project);
-            Enumeration e = cl.getResources(resourcePath);
-            List urls = new ArrayList();
-            while (e.hasMoreElements())
-            {
-                URL url = (URL) e.nextElement();
-                urls.add(url);
-            }
-            return Collections.unmodifiableList(urls);
-        }
-        catch (IOException e)
-        {
-            throw new MavenReportException("Unable to get resources for path "
-                    + "\"" + resourcePath + "\"", e);
-        }
-
-    }
-
-    private ClassLoader createCompileClassLoader(MavenProject project)
-            throws MavenReportException
-    {
-        Thread current = Thread.currentThread();
-        ClassLoader cl = current.getContextClassLoader();
-
-        try
-        {
+            index.load(indexFile);
             List classpathElements = project.getCompileClasspathElements();
-            if (!classpathElements.isEmpty())
-            {
-                String[] entries = (String[]) classpathElements
-                        .toArray(new String[0]);
-                URL[] urls = new URL[entries.length];
-                for (int i = 0; i < urls.length; i++)
-                {
-                    urls[i] = new File(entries[i]).toURL();
-                }
-                cl = new URLClassLoader(urls, cl);
-            }
+            List urls = index.getResources(
+                    Thread.currentThread().getContextClassLoader(),
+                    classpathElements, resourcePath);
+            index.save(indexFile, classpathElements);
+            return urls;
         }
         catch (DependencyResolutionRequiredException e)
         {
             throw new MavenReportException("Error calculating scope classpath",
                     e);
         }
-        catch (MalformedURLException e)
+        catch (IOException e)
         {
-            throw new MavenReportException("Error calculating scope classpath",
-                    e);
+            throw new MavenReportException("Unable to get resources for path "
+                    + "\"" + resourcePath + "\"", e);
         }
-
-        return cl;
     }
 
     static public class URLCreationFactory extends
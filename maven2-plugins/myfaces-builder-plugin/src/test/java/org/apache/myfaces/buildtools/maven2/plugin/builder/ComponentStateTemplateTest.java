@@ -0,0 +1,406 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.PropertyMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+
+/**
+ * Tests that the components generated by componentClass20.vm keep the
+ * same state whatever the storage of their properties, and whether their
+ * saved state is compact or not. The same goes for the components
+ * generated by componentClass12.vm, which must also keep their bindings
+ * with value expression fields.
+ * <p>
+ * The components are generated into target/component-state, compiled
+ * against the stand-ins of the JSF api in builder/jsf and the classes in
+ * builder/state, and run through the StateScenario found there.
+ */
+public class ComponentStateTemplateTest extends TestCase
+{
+    /**
+     * Enough properties for more than 32 state flags, and few enough for
+     * the compact state to apply.
+     */
+    private static final int MID_EXTRA_PROPERTIES = 35;
+
+    /**
+     * Enough properties for more than 64 state flags, where the compact
+     * state falls back to the plain one.
+     */
+    private static final int WIDE_EXTRA_PROPERTIES = 70;
+
+    /**
+     * Enough properties for more than 32 bits in the mask of the compact
+     * state of componentClass12.vm, which has a bit per property.
+     */
+    private static final int MID12_EXTRA_PROPERTIES = 20;
+
+    private GeneratedSources sources;
+
+    private Template template;
+
+    private Template template12;
+
+    protected void setUp() throws Exception
+    {
+        sources = new GeneratedSources(new File("target/component-state"), "state");
+
+        VelocityEngine velocityEngine = GeneratedSources.createVelocityEngine();
+        template = velocityEngine.getTemplate("componentClass20.vm");
+        template12 = velocityEngine.getTemplate("componentClass12.vm");
+    }
+
+    public void testArrayStateStorage() throws Exception
+    {
+        generate("HelperComponent", 0, false, false);
+        generate("ArrayComponent", 0, true, false);
+        generate("WideHelperComponent", WIDE_EXTRA_PROPERTIES, false, false);
+        generate("WideArrayComponent", WIDE_EXTRA_PROPERTIES, true, false);
+        ClassLoader loader = sources.compile();
+
+        assertSameState(loader, "HelperComponent", "ArrayComponent", 0);
+        assertSameState(loader, "WideHelperComponent", "WideArrayComponent",
+                WIDE_EXTRA_PROPERTIES);
+    }
+
+    public void testCompactState() throws Exception
+    {
+        String[] prefixes = new String[] {"", "Mid", "Wide"};
+        int[] extras = new int[] {0, MID_EXTRA_PROPERTIES, WIDE_EXTRA_PROPERTIES};
+        for (int i = 0; i < prefixes.length; i++)
+        {
+            int extraProperties = extras[i];
+            generate(prefixes[i] + "HelperComponent", extraProperties, false, false);
+            generate(prefixes[i] + "ArrayComponent", extraProperties, true, false);
+            generate(prefixes[i] + "CompactHelperComponent", extraProperties, false, true);
+            generate(prefixes[i] + "CompactArrayComponent", extraProperties, true, true);
+        }
+        ClassLoader loader = sources.compile();
+
+        for (int i = 0; i < prefixes.length; i++)
+        {
+            int extraProperties = extras[i];
+            String expected = prefixes[i] + "HelperComponent";
+            assertSameState(loader, expected, prefixes[i] + "ArrayComponent", extraProperties);
+            assertSameState(loader, expected, prefixes[i] + "CompactHelperComponent", extraProperties);
+            assertSameState(loader, expected, prefixes[i] + "CompactArrayComponent", extraProperties);
+        }
+    }
+
+    public void testCompactState12() throws Exception
+    {
+        String[] prefixes = new String[] {"", "Mid", "Wide"};
+        int[] extras = new int[] {0, MID12_EXTRA_PROPERTIES, WIDE_EXTRA_PROPERTIES};
+        for (int i = 0; i < prefixes.length; i++)
+        {
+            int extraProperties = extras[i];
+            generate12(prefixes[i] + "Plain12Component", extraProperties, false, false);
+            generate12(prefixes[i] + "Compact12Component", extraProperties, true, false);
+            generate12(prefixes[i] + "Fields12Component", extraProperties, false, true);
+            generate12(prefixes[i] + "CompactFields12Component", extraProperties, true, true);
+        }
+        ClassLoader loader = sources.compile();
+
+        for (int i = 0; i < prefixes.length; i++)
+        {
+            int extraProperties = extras[i];
+            String expected = prefixes[i] + "Plain12Component";
+            assertSameState(loader, expected, prefixes[i] + "Compact12Component", extraProperties);
+            assertSameState(loader, expected, prefixes[i] + "Fields12Component", extraProperties);
+            assertSameState(loader, expected, prefixes[i] + "CompactFields12Component",
+                    extraProperties);
+        }
+
+        // The wide component has more than 64 bits, and keeps the plain state
+        assertFalse(isCompactState(loader, "WideCompact12Component"));
+        assertTrue(isCompactState(loader, "MidCompact12Component"));
+        assertTrue(isCompactState(loader, "Compact12Component"));
+        assertFalse(isCompactState(loader, "Plain12Component"));
+    }
+
+    /**
+     * The compact state starts with the mask of the values present, the
+     * plain one with the state of the parent.
+     */
+    private static boolean isCompactState(ClassLoader loader, String componentName)
+        throws Exception
+    {
+        Object component = loader.loadClass("statepkg." + componentName).newInstance();
+        Object[] state = (Object[]) invoke(component, "saveState", null);
+        return state[0] instanceof Long;
+    }
+
+    public void testPrimitiveBindingToNull() throws Exception
+    {
+        generate("HelperComponent", 0, false, false);
+        generate("ArrayComponent", 0, true, false);
+        ClassLoader loader = sources.compile();
+
+        String[] names = new String[] {"HelperComponent", "ArrayComponent"};
+        for (int i = 0; i < names.length; i++)
+        {
+            Object component = loader.loadClass("statepkg." + names[i]).newInstance();
+            Class constantClass = loader.loadClass("statepkg.StateScenario$Constant");
+            Object nullExpression = constantClass.getConstructor(new Class[] {Object.class})
+                .newInstance(new Object[] {null});
+            Method setValueExpression = component.getClass().getMethod("setValueExpression",
+                    new Class[] {String.class, loader.loadClass("jakarta.el.ValueExpression")});
+            setValueExpression.invoke(component, new Object[] {"size", nullExpression});
+            setValueExpression.invoke(component, new Object[] {"disabled", nullExpression});
+            setValueExpression.invoke(component, new Object[] {"ratio", nullExpression});
+            setValueExpression.invoke(component, new Object[] {"tabindex", nullExpression});
+            setValueExpression.invoke(component, new Object[] {"weight", nullExpression});
+
+            assertEquals(names[i], new Integer(5), invoke(component, "getSize"));
+            assertEquals(names[i], Boolean.FALSE, invoke(component, "isDisabled"));
+            assertEquals(names[i], new Double(1.5), invoke(component, "getRatio"));
+            assertEquals(names[i], new Integer(0), invoke(component, "getTabindex"));
+            assertEquals(names[i], new Integer(2), invoke(component, "getWeight"));
+            assertEquals(names[i], Boolean.FALSE, invoke(component, "isSetWeight"));
+        }
+    }
+
+    public void testLiteralValueExpressionFields() throws Exception
+    {
+        VelocityContext context = new VelocityContext();
+        context.put("utils", new MyfacesUtils());
+        context.put("component", createComponent("statepkg.FieldsComponent", 0));
+        context.put("valueExpressionFields", Boolean.TRUE);
+        sources.generate(template12, context, "statepkg.FieldsComponent");
+        ClassLoader loader = sources.compile();
+
+        Object component = loader.loadClass("statepkg.FieldsComponent").newInstance();
+        Class expressionClass = loader.loadClass("jakarta.el.ValueExpression");
+        Method setValueExpression = component.getClass().getMethod("setValueExpression",
+                new Class[] {String.class, expressionClass});
+        Method getValueExpression = component.getClass().getMethod("getValueExpression",
+                new Class[] {String.class});
+        Constructor literalConstructor = loader.loadClass("statepkg.StateScenario$Literal")
+            .getConstructor(new Class[] {Object.class});
+
+        Constructor constantConstructor = loader.loadClass("statepkg.StateScenario$Constant")
+            .getConstructor(new Class[] {Object.class});
+
+        // A literal is evaluated once and stays bound, but is not the local value
+        Object literal = literalConstructor.newInstance(new Object[] {new Integer(7)});
+        setValueExpression.invoke(component, new Object[] {"tabindex", literal});
+        assertSame(literal, getValueExpression.invoke(component, new Object[] {"tabindex"}));
+        assertEquals(new Integer(7), invoke(component, "getTabindex"));
+        assertEquals(new Integer(7), invoke(component, "getTabindex"));
+        assertEquals(new Integer(1), invoke(literal, "getEvaluations"));
+        assertEquals(Boolean.FALSE, invoke(component, "isSetTabindex"));
+        assertEquals(new Integer(0), invoke(component, "getLocalTabindex"));
+
+        // and is not saved with the local values
+        Object restored = loader.loadClass("statepkg.FieldsComponent").newInstance();
+        Method restoreState = component.getClass().getMethod("restoreState",
+                new Class[] {loader.loadClass("jakarta.faces.context.FacesContext"), Object.class});
+        restoreState.invoke(restored, new Object[] {null, invoke(component, "saveState", null)});
+        assertEquals(new Integer(0), invoke(restored, "getTabindex"));
+
+        // Rebinding the property to a non literal expression drops the literal
+        setValueExpression.invoke(component, new Object[] {"tabindex",
+            constantConstructor.newInstance(new Object[] {new Integer(9)})});
+        assertEquals(new Integer(9), invoke(component, "getTabindex"));
+
+        // and removing the binding falls back to the default value
+        setValueExpression.invoke(component, new Object[] {"tabindex", null});
+        assertNull(getValueExpression.invoke(component, new Object[] {"tabindex"}));
+        assertEquals(new Integer(0), invoke(component, "getTabindex"));
+
+        setValueExpression.invoke(component, new Object[] {"size",
+            literalConstructor.newInstance(new Object[] {new Integer(7)})});
+        assertEquals(new Integer(7), invoke(component, "getSize"));
+        setValueExpression.invoke(component, new Object[] {"size",
+            literalConstructor.newInstance(new Object[] {new Integer(8)})});
+        assertEquals(new Integer(8), invoke(component, "getSize"));
+        setValueExpression.invoke(component, new Object[] {"size", null});
+        assertEquals(new Integer(5), invoke(component, "getSize"));
+
+        // A null literal reads as the default value of a primitive property
+        setValueExpression.invoke(component, new Object[] {"size",
+            literalConstructor.newInstance(new Object[] {null})});
+        assertEquals(new Integer(5), invoke(component, "getSize"));
+
+        // A literal can be set without a FacesContext
+        Method setFacesContext = component.getClass().getMethod("setFacesContext",
+                new Class[] {loader.loadClass("jakarta.faces.context.FacesContext")});
+        setFacesContext.invoke(component, new Object[] {null});
+        Object title = literalConstructor.newInstance(new Object[] {"literal"});
+        setValueExpression.invoke(component, new Object[] {"title", title});
+        assertSame(title, getValueExpression.invoke(component, new Object[] {"title"}));
+        setFacesContext.invoke(component, new Object[] {loader.loadClass("statepkg.StateScenario")
+            .getMethod("createFacesContext", new Class[0]).invoke(null, new Object[0])});
+        assertEquals("literal", invoke(component, "getTitle"));
+        setValueExpression.invoke(component, new Object[] {"title",
+            constantConstructor.newInstance(new Object[] {"bound"})});
+        assertEquals("bound", invoke(component, "getTitle"));
+    }
+
+    private static Object invoke(Object target, String methodName, Object argument)
+        throws Exception
+    {
+        Method[] methods = target.getClass().getMethods();
+        for (int i = 0; i < methods.length; i++)
+        {
+            if (methods[i].getName().equals(methodName)
+                    && methods[i].getParameterTypes().length == 1)
+            {
+                return methods[i].invoke(target, new Object[] {argument});
+            }
+        }
+        throw new NoSuchMethodException(methodName);
+    }
+
+    private static Object invoke(Object target, String methodName) throws Exception
+    {
+        return target.getClass().getMethod(methodName, new Class[0]).invoke(target, new Object[0]);
+    }
+
+    private void assertSameState(ClassLoader loader, String expectedName, String actualName,
+            int extraProperties) throws Exception
+    {
+        List expected = runScenario(loader, expectedName, extraProperties);
+        List actual = runScenario(loader, actualName, extraProperties);
+        assertEquals(actualName, expected, actual);
+    }
+
+    private List runScenario(ClassLoader loader, String componentName, int extraProperties)
+        throws Exception
+    {
+        Class componentClass = loader.loadClass("statepkg." + componentName);
+        Object scenario = loader.loadClass("statepkg.StateScenario")
+            .getConstructor(new Class[] {Class.class, int.class})
+            .newInstance(new Object[] {componentClass, new Integer(extraProperties)});
+        return (List) scenario.getClass().getMethod("run", new Class[0])
+            .invoke(scenario, new Object[0]);
+    }
+
+    private void generate(String componentName, int extraProperties, boolean arrayStateStorage,
+            boolean compactState) throws Exception
+    {
+        VelocityContext context = new VelocityContext();
+        context.put("utils", new MyfacesUtils());
+        context.put("component", createComponent("statepkg." + componentName, extraProperties));
+        context.put("arrayStateStorage", Boolean.valueOf(arrayStateStorage));
+        context.put("compactState", Boolean.valueOf(compactState));
+        sources.generate(template, context, "statepkg." + componentName);
+    }
+
+    private void generate12(String componentName, int extraProperties, boolean compactState,
+            boolean valueExpressionFields) throws Exception
+    {
+        VelocityContext context = new VelocityContext();
+        context.put("utils", new MyfacesUtils());
+        context.put("component", createComponent("statepkg." + componentName, extraProperties));
+        context.put("compactState", Boolean.valueOf(compactState));
+        context.put("valueExpressionFields", Boolean.valueOf(valueExpressionFields));
+        sources.generate(template12, context, "statepkg." + componentName);
+    }
+
+    /**
+     * A component with a property of each kind the template handles
+     * differently, and optionally more plain and partial state holder
+     * properties.
+     */
+    private static ComponentMeta createComponent(String className, int extraProperties)
+    {
+        ComponentMeta component = new ComponentMeta();
+        component.setClassName(className);
+        component.setSourceClassName("statepkg.ComponentBase");
+        component.setFamily("statepkg.Family");
+        component.setType("statepkg.Component");
+
+        component.addProperty(createProperty("title", "java.lang.String", null));
+        component.addProperty(createProperty("disabled", "boolean", "false"));
+        PropertyMeta tabindex = createProperty("tabindex", "int", null);
+        exposeLocalMethods(tabindex);
+        component.addProperty(tabindex);
+        component.addProperty(createProperty("ratio", "double", "1.5"));
+        PropertyMeta level = createProperty("level", "int", "3");
+        level.setLiteralOnly(Boolean.TRUE);
+        component.addProperty(level);
+        PropertyMeta plain = createProperty("plain", "long", null);
+        plain.setLiteralOnly(Boolean.TRUE);
+        component.addProperty(plain);
+        component.addProperty(createProperty("size", "int", "5"));
+        component.addProperty(createProperty("for", "java.lang.String", null));
+        component.addProperty(createProperty("immediate", "java.lang.Boolean", "true"));
+        PropertyMeta styleClass = createProperty("styleClass", "java.lang.String", "\"default\"");
+        styleClass.setLiteralOnly(Boolean.TRUE);
+        component.addProperty(styleClass);
+        PropertyMeta count = createProperty("count", "java.lang.Integer", null);
+        exposeLocalMethods(count);
+        component.addProperty(count);
+        PropertyMeta holder = createProperty("holder", "java.lang.Object", null);
+        holder.setPartialStateHolder(Boolean.TRUE);
+        component.addProperty(holder);
+        PropertyMeta converter = createProperty("converter", "statepkg.Holder", null);
+        converter.setPartialStateHolder(Boolean.TRUE);
+        component.addProperty(converter);
+        // A primitive partial state holder, with a bit of its own for being set
+        PropertyMeta weight = createProperty("weight", "int", "2");
+        weight.setPartialStateHolder(Boolean.TRUE);
+        exposeLocalMethods(weight);
+        component.addProperty(weight);
+
+        for (int i = 0; i < extraProperties; i++)
+        {
+            component.addProperty(createProperty("extra" + i, "java.lang.String", null));
+            PropertyMeta extraHolder = createProperty("pextra" + i, "java.lang.Object", null);
+            extraHolder.setPartialStateHolder(Boolean.TRUE);
+            component.addProperty(extraHolder);
+        }
+        return component;
+    }
+
+    private static PropertyMeta createProperty(String name, String className, String defaultValue)
+    {
+        PropertyMeta property = new PropertyMeta();
+        property.setName(name);
+        property.setClassName(className);
+        property.setGenerated(Boolean.TRUE);
+        property.setInherited(Boolean.FALSE);
+        if (defaultValue != null)
+        {
+            property.setDefaultValue(defaultValue);
+        }
+        return property;
+    }
+
+    private static void exposeLocalMethods(PropertyMeta property)
+    {
+        property.setSetMethod(Boolean.TRUE);
+        property.setSetMethodScope("public");
+        property.setLocalMethod(Boolean.TRUE);
+        property.setLocalMethodScope("public");
+    }
+}
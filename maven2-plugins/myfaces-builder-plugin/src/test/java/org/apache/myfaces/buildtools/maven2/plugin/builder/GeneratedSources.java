@@ -0,0 +1,151 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import junit.framework.Assert;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.log.NullLogChute;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * The sources of classes generated by the templates of this plugin, for
+ * the tests that compile and run them.
+ * <p>
+ * The sources start with the stand-ins of the JSF api in builder/jsf,
+ * which the benchmark module compiles its generated classes against too,
+ * and the classes of a test found in another directory of builder.
+ * </p>
+ */
+class GeneratedSources
+{
+    private final File baseDir;
+
+    private final File sourceDir;
+
+    /**
+     * @param baseDir the directory, emptied first, of the sources and the
+     *  classes compiled from them
+     * @param testDir the directory of builder with the other classes of the
+     *  test
+     */
+    GeneratedSources(File baseDir, String testDir) throws Exception
+    {
+        this.baseDir = baseDir;
+        FileUtils.deleteDirectory(baseDir);
+        sourceDir = new File(baseDir, "src");
+        FileUtils.copyDirectoryStructure(getBuilderDir("jsf"), sourceDir);
+        FileUtils.copyDirectoryStructure(getBuilderDir(testDir), sourceDir);
+    }
+
+    private static File getBuilderDir(String dir)
+    {
+        URL builderUrl = GeneratedSources.class.getClassLoader().getResource("builder/" + dir);
+        return new File(builderUrl.getFile());
+    }
+
+    /**
+     * A velocity engine loading the templates of this plugin.
+     */
+    static VelocityEngine createVelocityEngine() throws Exception
+    {
+        VelocityEngine velocityEngine = new VelocityEngine();
+        velocityEngine.setProperty("file.resource.loader.path", "src/main/resources/META-INF");
+        velocityEngine.setProperty("velocimacro.library", "componentClassMacros11.vm");
+        velocityEngine.setProperty("directive.foreach.counter.initial.value", "0");
+        velocityEngine.setProperty(RuntimeConstants.RUNTIME_LOG_LOGSYSTEM_CLASS,
+                NullLogChute.class.getName());
+        velocityEngine.init();
+        return velocityEngine;
+    }
+
+    /**
+     * Merge a template into the source of a class.
+     */
+    void generate(Template template, VelocityContext context, String className)
+        throws Exception
+    {
+        File file = new File(sourceDir, className.replace('.', '/') + ".java");
+        file.getParentFile().mkdirs();
+        Writer writer = new FileWriter(file);
+        try
+        {
+            template.merge(context, writer);
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    /**
+     * Compile all the sources, and load them in a class loader of their own.
+     */
+    ClassLoader compile() throws Exception
+    {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assert.assertNotNull("The tests must run on a JDK", compiler);
+
+        File classesDir = new File(baseDir, "classes");
+        FileUtils.deleteDirectory(classesDir);
+        classesDir.mkdirs();
+        List sources = FileUtils.getFiles(sourceDir, "**/*.java", null);
+
+        DiagnosticCollector diagnostics = new DiagnosticCollector();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+        try
+        {
+            Iterable units = fileManager.getJavaFileObjectsFromFiles(sources);
+            List options = Arrays.asList(new String[] {"-nowarn", "-d", classesDir.getPath()});
+            if (!compiler.getTask(null, fileManager, diagnostics, options, null, units).call().booleanValue())
+            {
+                StringBuffer message = new StringBuffer("Generated classes do not compile:");
+                for (Iterator it = diagnostics.getDiagnostics().iterator(); it.hasNext();)
+                {
+                    Diagnostic diagnostic = (Diagnostic) it.next();
+                    message.append('\n').append(diagnostic);
+                }
+                Assert.fail(message.toString());
+            }
+        }
+        finally
+        {
+            fileManager.close();
+        }
+        return new URLClassLoader(new URL[] {classesDir.toURI().toURL()}, null);
+    }
+}
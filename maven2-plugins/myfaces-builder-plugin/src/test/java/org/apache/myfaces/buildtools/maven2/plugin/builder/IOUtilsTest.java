@@ -19,6 +19,7 @@
 package org.apache.myfaces.buildtools.maven2.plugin.builder;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
@@ -29,6 +30,7 @@ import java.io.StringWriter;
 
 import junit.framework.TestCase;
 
+import org.apache.myfaces.buildtools.maven2.plugin.builder.io.BinaryModelCache;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.model.Model;
 
 /**
@@ -62,6 +64,36 @@ public class IOUtilsTest extends TestCase
         compareData(srcReader, dstReader);
     }
 
+    /**
+     * Save the "goodfile.xml" model, then check that loading it again goes
+     * through the binary copy and still produces the same xml.
+     */
+    public void testBinaryCache() throws Exception
+    {
+        ClassLoader classLoader = this.getClass().getClassLoader();
+
+        InputStream is = classLoader
+                .getResourceAsStream("builder/complex/goodfile.xml");
+        String src = readAll(is);
+        is.close();
+
+        Model model = IOUtils.readModel(new StringReader(src));
+        File outfile = new File("target/binary-cache/myfaces-metadata.xml");
+        IOUtils.saveModel(model, outfile);
+
+        File cacheFile = BinaryModelCache.getCacheFile(outfile);
+        assertTrue(cacheFile.exists());
+        assertNull(BinaryModelCache.read(cacheFile,
+                BinaryModelCache.digest("stale".getBytes())));
+
+        Model loaded = IOUtils.loadModel(outfile);
+        assertNotSame(model, loaded);
+
+        StringWriter dstWriter = new StringWriter();
+        IOUtils.writeModel(loaded, dstWriter);
+        compareData(new StringReader(src), new StringReader(dstWriter.toString()));
+    }
+
     /**
      * Read the contents of an input stream into a string.
      */
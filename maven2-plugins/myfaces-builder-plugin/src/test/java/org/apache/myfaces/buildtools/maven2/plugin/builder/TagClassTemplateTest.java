@@ -0,0 +1,121 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.ComponentMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.model.PropertyMeta;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.utils.MyfacesUtils;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+
+/**
+ * Tests which converters the tags generated by tagClass12.vm share
+ * between components when the setProperties are optimized, and how the
+ * tags set literal only primitive attributes.
+ * <p>
+ * The tags are generated into target/tag-class, compiled against the
+ * stand-ins of the JSF api in builder/jsf and the classes in builder/tag,
+ * and run through the TagScenario found there.
+ */
+public class TagClassTemplateTest extends TestCase
+{
+    private GeneratedSources sources;
+
+    private Template template;
+
+    protected void setUp() throws Exception
+    {
+        sources = new GeneratedSources(new File("target/tag-class"), "tag");
+        template = GeneratedSources.createVelocityEngine().getTemplate("tagClass12.vm");
+    }
+
+    public void testOptimizeSetProperties() throws Exception
+    {
+        generate("tagpkg.PlainTag", false);
+        generate("tagpkg.OptimizedTag", true);
+        ClassLoader loader = sources.compile();
+
+        // Only a stateless converter is shared by the components of the tag
+        Object[] stateless = runScenario(loader, "tagpkg.OptimizedTag", "stateless");
+        assertEquals("tagpkg.StatelessConverter", stateless[0].getClass().getName());
+        assertSame(stateless[0], stateless[1]);
+        assertSame(stateless[0], stateless[2]);
+
+        Object[] stateHolder = runScenario(loader, "tagpkg.OptimizedTag", "stateHolder");
+        assertEquals("tagpkg.StateHolderConverter", stateHolder[0].getClass().getName());
+        assertNotSame(stateHolder[0], stateHolder[1]);
+        assertNotSame(stateHolder[1], stateHolder[2]);
+
+        // Without the option, every component has its own converter
+        Object[] plain = runScenario(loader, "tagpkg.PlainTag", "stateless");
+        assertEquals("tagpkg.StatelessConverter", plain[0].getClass().getName());
+        assertNotSame(plain[0], plain[1]);
+    }
+
+    public void testLiteralOnlyPrimitive() throws Exception
+    {
+        generate("tagpkg.PlainTag", false);
+        ClassLoader loader = sources.compile();
+
+        // The tag takes the attribute as text, and sets it as a number
+        Object scenario = loader.loadClass("tagpkg.TagScenario")
+            .getConstructor(new Class[] {Class.class})
+            .newInstance(new Object[] {loader.loadClass("tagpkg.PlainTag")});
+        assertEquals(new Integer(3), scenario.getClass().getMethod("level", new Class[] {String.class})
+            .invoke(scenario, new Object[] {"3"}));
+    }
+
+    private static Object[] runScenario(ClassLoader loader, String tagName, String converterId)
+        throws Exception
+    {
+        Object scenario = loader.loadClass("tagpkg.TagScenario")
+            .getConstructor(new Class[] {Class.class})
+            .newInstance(new Object[] {loader.loadClass(tagName)});
+        return (Object[]) scenario.getClass().getMethod("run", new Class[] {String.class, int.class})
+            .invoke(scenario, new Object[] {converterId, new Integer(3)});
+    }
+
+    private void generate(String tagClass, boolean optimizeSetProperties) throws Exception
+    {
+        ComponentMeta component = new ComponentMeta();
+        component.setClassName("tagpkg.ConverterComponent");
+        component.setSourceClassName("tagpkg.ConverterComponent");
+        component.setType("tagpkg.Component");
+        component.setTagClass(tagClass);
+        PropertyMeta converter = new PropertyMeta();
+        converter.setName("converter");
+        converter.setClassName("jakarta.faces.convert.Converter");
+        component.addProperty(converter);
+        PropertyMeta level = new PropertyMeta();
+        level.setName("level");
+        level.setClassName("int");
+        level.setLiteralOnly(Boolean.TRUE);
+        component.addProperty(level);
+
+        VelocityContext context = new VelocityContext();
+        context.put("utils", new MyfacesUtils());
+        context.put("component", component);
+        context.put("optimizeSetProperties", Boolean.valueOf(optimizeSetProperties));
+        sources.generate(template, context, tagClass);
+    }
+}
@@ -228,6 +228,78 @@ public class QdoxModelBuilderTest extends TestCase
         compareData(outfile, "builder/complex/goodfile.xml");
     }
 
+    /**
+     * Scan the complex source tree using several threads, and check that the
+     * result is the same "known good" file produced by a serial scan.
+     */
+    public void testComplexConcurrent() throws Exception
+    {
+        QdoxModelBuilder builder = new QdoxModelBuilder();
+
+        ClassLoader classLoader = this.getClass().getClassLoader();
+        URL sourceUrl = classLoader
+                .getResource("builder/complex/ComponentBase.java");
+        String parentDirName = new File(sourceUrl.getFile()).getParent();
+        File parentDir = new File(parentDirName);
+        List sourceDirs = new ArrayList();
+        sourceDirs.add(parentDir.getAbsolutePath());
+
+        Model model = new Model();
+        model.setModelId("test");
+        ModelParams parameters = new ModelParams();
+        parameters.setSourceDirs(sourceDirs);
+        parameters.setThreads(4);
+        builder.buildModel(model, parameters);
+
+        File outfile = new File("target/complex-concurrent-out.xml");
+        IOUtils.saveModel(model, outfile);
+
+        compareData(outfile, "builder/complex/goodfile.xml");
+    }
+
+    /**
+     * Scan the same source trees many times with one and with several
+     * threads, and check that every scan gives the same model. qdox resolves
+     * types lazily into caches that are not thread safe, so a race there
+     * would show as a model that differs from run to run.
+     */
+    public void testConcurrentScansAreStable() throws Exception
+    {
+        String[] resources = {"builder/complex/ComponentBase.java",
+                "builder/generation/testpkg/ComponentBase.java"};
+        for (int i = 0; i < resources.length; i++)
+        {
+            File sourceDir = new File(this.getClass().getClassLoader()
+                    .getResource(resources[i]).getFile()).getParentFile();
+            if (resources[i].indexOf("testpkg") != -1)
+            {
+                sourceDir = sourceDir.getParentFile();
+            }
+            String serial = scan(sourceDir, 1);
+            for (int run = 0; run < 25; run++)
+            {
+                assertEquals(resources[i] + ", run " + run, serial, scan(sourceDir, 8));
+            }
+        }
+    }
+
+    private String scan(File sourceDir, int threads) throws Exception
+    {
+        List sourceDirs = new ArrayList();
+        sourceDirs.add(sourceDir.getAbsolutePath());
+
+        Model model = new Model();
+        model.setModelId("test");
+        ModelParams parameters = new ModelParams();
+        parameters.setSourceDirs(sourceDirs);
+        parameters.setThreads(threads);
+        new QdoxModelBuilder().buildModel(model, parameters);
+
+        StringWriter outbuf = new StringWriter();
+        IOUtils.writeModel(model, outbuf);
+        return outbuf.toString();
+    }
+
     /**
      * Compare the contents of two Reader objects line-by-line.
      */
@@ -0,0 +1,180 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Tests that the artifact index finds the same resources as a class loader,
+ * and that a saved index is reused only while the jars do not change and
+ * only keeps the jars of its project.
+ */
+public class ArtifactIndexTest extends TestCase
+{
+    private static final String METADATA = "META-INF/myfaces-metadata.xml";
+
+    private static final String OTHER = "META-INF/other-metadata-x.xml";
+
+    private File baseDir;
+
+    protected void setUp() throws Exception
+    {
+        baseDir = new File("target/artifact-index");
+        FileUtils.deleteDirectory(baseDir);
+        baseDir.mkdirs();
+    }
+
+    public void testGetResources() throws Exception
+    {
+        File withMetadata = createJar("with.jar", new String[] {METADATA, "META-INF/test.tld"});
+        File without = createJar("without.jar", new String[] {"META-INF/maven/pom.xml"});
+        File classes = new File(baseDir, "classes");
+        new File(classes, "META-INF").mkdirs();
+        FileUtils.fileWrite(new File(classes, METADATA).getPath(), METADATA);
+
+        ArtifactIndex index = new ArtifactIndex();
+        List urls = index.getResources(null, Arrays.asList(new String[] {
+                without.getPath(), classes.getPath(), withMetadata.getPath()}), METADATA);
+
+        assertEquals(2, urls.size());
+        assertEquals(new File(classes, METADATA).toURI().toURL(), urls.get(0));
+        assertEquals(METADATA, read((URL) urls.get(1)));
+        assertTrue(index.contains(withMetadata, "META-INF/test.tld"));
+        assertFalse(index.contains(without, METADATA));
+        // Not indexed, read from the jar itself
+        assertTrue(index.contains(without, "META-INF/maven/pom.xml"));
+    }
+
+    public void testSaveAndLoad() throws Exception
+    {
+        File jar = createJar("saved.jar", new String[] {METADATA});
+        File indexFile = new File(baseDir, ArtifactIndex.INDEX_FILE);
+
+        ArtifactIndex index = new ArtifactIndex();
+        assertTrue(index.contains(jar, METADATA));
+        index.save(indexFile, Arrays.asList(new String[] {jar.getPath()}));
+
+        // Same size and time: the saved entry is used and the jar not read
+        long lastModified = jar.lastModified();
+        long length = jar.length();
+        createJar("saved.jar", new String[] {OTHER});
+        jar.setLastModified(lastModified);
+        assertEquals(length, jar.length());
+
+        ArtifactIndex loaded = new ArtifactIndex();
+        loaded.load(indexFile);
+        assertTrue(loaded.contains(jar, METADATA));
+
+        // A changed jar is read again
+        jar.setLastModified(lastModified + 10000);
+        assertFalse(loaded.contains(jar, METADATA));
+        assertTrue(loaded.contains(jar, OTHER));
+    }
+
+    public void testSaveProjectJarsOnly() throws Exception
+    {
+        File ownJar = createJar("own.jar", new String[] {METADATA});
+        File otherJar = createJar("other.jar", new String[] {METADATA});
+        File indexFile = new File(baseDir, ArtifactIndex.INDEX_FILE);
+
+        // The index is shared with the goals of another project
+        ArtifactIndex index = new ArtifactIndex();
+        assertTrue(index.contains(otherJar, METADATA));
+        assertTrue(index.contains(ownJar, METADATA));
+        index.save(indexFile, Arrays.asList(new String[] {ownJar.getPath()}));
+
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream(indexFile);
+        try
+        {
+            properties.load(in);
+        }
+        finally
+        {
+            in.close();
+        }
+        assertEquals(1, properties.size());
+        assertTrue(properties.containsKey(ownJar.getAbsolutePath()));
+
+        // Unchanged entries are not written again
+        indexFile.setLastModified(10000);
+        index.save(indexFile, Arrays.asList(new String[] {ownJar.getPath()}));
+        assertEquals(10000, indexFile.lastModified());
+        index.save(indexFile, Arrays.asList(new String[] {ownJar.getPath(), otherJar.getPath()}));
+        assertTrue(indexFile.lastModified() != 10000);
+    }
+
+    private File createJar(String name, String[] entries) throws IOException
+    {
+        File jar = new File(baseDir, name);
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+        // Stored entries, so jars with names of the same length have the
+        // same size
+        out.setMethod(ZipOutputStream.STORED);
+        try
+        {
+            for (int i = 0; i < entries.length; i++)
+            {
+                byte[] content = entries[i].getBytes("UTF-8");
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                ZipEntry entry = new ZipEntry(entries[i]);
+                entry.setSize(content.length);
+                entry.setCrc(crc.getValue());
+                out.putNextEntry(entry);
+                out.write(content);
+                out.closeEntry();
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+        return jar;
+    }
+
+    private String read(URL url) throws IOException
+    {
+        InputStream in = url.openStream();
+        try
+        {
+            return IOUtil.toString(in, "UTF-8");
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+}
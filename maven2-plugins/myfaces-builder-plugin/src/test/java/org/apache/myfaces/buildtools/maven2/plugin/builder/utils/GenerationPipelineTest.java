@@ -0,0 +1,266 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.builder.utils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.log.NullLogChute;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Tests that merging templates on several threads gives the same files,
+ * log and errors as merging them on a single thread.
+ */
+public class GenerationPipelineTest extends TestCase
+{
+    private static final int FILES = 200;
+
+    private File baseDir;
+
+    private VelocityEngine velocityEngine;
+
+    private Template template;
+
+    protected void setUp() throws Exception
+    {
+        baseDir = new File("target/generation-pipeline");
+        FileUtils.deleteDirectory(baseDir);
+        baseDir.mkdirs();
+
+        FileWriter writer = new FileWriter(new File(baseDir, "test.vm"));
+        writer.write("class $item.name\n{\n#foreach ($i in [1..20])\n"
+                + "    int field$i = $i;\n#end\n}\n");
+        writer.close();
+
+        velocityEngine = new VelocityEngine();
+        velocityEngine.setProperty("file.resource.loader.path", baseDir.getPath());
+        velocityEngine.setProperty(RuntimeConstants.RUNTIME_LOG_LOGSYSTEM_CLASS,
+                NullLogChute.class.getName());
+        velocityEngine.init();
+        template = velocityEngine.getTemplate("test.vm");
+    }
+
+    public void testSameOutputWithThreads() throws Exception
+    {
+        RecordingLog serialLog = new RecordingLog();
+        Properties serialCache = new Properties();
+        generate(new GenerationPipeline(template, 1, false, serialLog), "serial", -1, serialCache);
+
+        RecordingLog parallelLog = new RecordingLog();
+        Properties parallelCache = new Properties();
+        generate(new GenerationPipeline(template, 4, false, parallelLog), "parallel", -1, parallelCache);
+
+        assertEquals(serialLog.messages, parallelLog.messages);
+        assertEquals(FILES, serialCache.size());
+        assertEquals(FILES, parallelCache.size());
+        for (int i = 0; i < FILES; i++)
+        {
+            String serial = FileUtils.fileRead(new File(baseDir, "serial/Item" + i + ".java"));
+            String parallel = FileUtils.fileRead(new File(baseDir, "parallel/Item" + i + ".java"));
+            assertTrue(serial.startsWith("class Item" + i + "\n"));
+            assertEquals(serial, parallel);
+        }
+    }
+
+    public void testUnchangedFilesNotWritten() throws Exception
+    {
+        generate(new GenerationPipeline(template, 4, false, new RecordingLog()), "unchanged", -1,
+                new Properties());
+        File file = new File(baseDir, "unchanged/Item0.java");
+        file.setLastModified(1000L);
+
+        GenerationPipeline pipeline = new GenerationPipeline(template, 4, false, new RecordingLog());
+        generate(pipeline, "unchanged", -1, new Properties());
+        assertEquals(0, pipeline.getGeneratedFiles().getChangedCount());
+        assertEquals(FILES, pipeline.getGeneratedFiles().getUnchangedCount());
+        assertEquals(1000L, file.lastModified());
+    }
+
+    public void testForce() throws Exception
+    {
+        RecordingLog log = new RecordingLog();
+        Properties cache = new Properties();
+        generate(new GenerationPipeline(template, 4, true, log), "force", 10, cache);
+
+        assertEquals(FILES - 1, cache.size());
+        assertEquals(1, log.errors.size());
+        assertFalse(new File(baseDir, "force/Item10.java").exists());
+        assertTrue(new File(baseDir, "force/Item" + (FILES - 1) + ".java").exists());
+    }
+
+    public void testFailure() throws Exception
+    {
+        RecordingLog log = new RecordingLog();
+        Properties cache = new Properties();
+        try
+        {
+            generate(new GenerationPipeline(template, 4, false, log), "failure", 10, cache);
+            fail();
+        }
+        catch (MojoExecutionException e)
+        {
+            // Files queued after the failing one are never written
+            assertEquals(10, cache.size());
+            assertEquals(11, log.messages.size());
+            assertFalse(new File(baseDir, "failure/Item11.java").exists());
+        }
+    }
+
+    public void testMissingTemplateWithForce() throws Exception
+    {
+        RecordingLog log = new RecordingLog();
+        Properties cache = new Properties();
+        generate(new GenerationPipeline(velocityEngine, "missing.vm", 4, true, log),
+                "missing-force", -1, cache);
+
+        // Reported for each file, like an error merging the template
+        assertEquals(0, cache.size());
+        assertEquals(FILES, log.messages.size());
+        assertEquals(FILES, log.errors.size());
+        assertTrue((String) log.errors.get(0),
+                ((String) log.errors.get(0)).startsWith("Error merging velocity templates:"));
+        assertFalse(new File(baseDir, "missing-force/Item0.java").exists());
+    }
+
+    public void testMissingTemplate() throws Exception
+    {
+        RecordingLog log = new RecordingLog();
+        Properties cache = new Properties();
+        try
+        {
+            generate(new GenerationPipeline(velocityEngine, "missing.vm", 4, false, log),
+                    "missing", -1, cache);
+            fail();
+        }
+        catch (MojoExecutionException e)
+        {
+            assertEquals(0, cache.size());
+            assertEquals(1, log.messages.size());
+        }
+    }
+
+    public void testTemplateByName() throws Exception
+    {
+        RecordingLog log = new RecordingLog();
+        Properties cache = new Properties();
+        GenerationPipeline pipeline = new GenerationPipeline(velocityEngine, null, 4, true, log);
+        for (int i = 0; i < FILES; i++)
+        {
+            VelocityContext context = new VelocityContext();
+            context.put("item", new Item("Item" + i));
+            pipeline.add(null, new File(baseDir, "named/Item" + i + ".java"),
+                    i % 2 == 0 ? "test.vm" : "missing.vm", context, "digest" + i);
+        }
+        pipeline.finish(cache);
+
+        assertEquals(FILES / 2, cache.size());
+        assertEquals(FILES / 2, log.errors.size());
+        assertTrue(FileUtils.fileRead(new File(baseDir, "named/Item0.java")).startsWith("class Item0\n"));
+        assertFalse(new File(baseDir, "named/Item1.java").exists());
+    }
+
+    public void testTemplatePerFile() throws Exception
+    {
+        FileUtils.fileWrite(new File(baseDir, "page.vm").getPath(), "UTF-8",
+                "<page>$item.name \u00e9</page>\n");
+        Template page = velocityEngine.getTemplate("page.vm", "UTF-8");
+
+        GenerationPipeline pipeline = new GenerationPipeline(null, 4, false, new RecordingLog());
+        pipeline.setCharset(Charset.forName("UTF-8"));
+        for (int i = 0; i < FILES; i++)
+        {
+            VelocityContext context = new VelocityContext();
+            context.put("item", new Item("Item" + i));
+            pipeline.add(null, new File(baseDir, "pages/Item" + i + ".xml"),
+                    i % 2 == 0 ? page : template, context, null);
+        }
+        pipeline.finish(new Properties());
+
+        assertEquals("<page>Item0 \u00e9</page>\n",
+                FileUtils.fileRead(new File(baseDir, "pages/Item0.xml"), "UTF-8"));
+        assertTrue(FileUtils.fileRead(new File(baseDir, "pages/Item1.xml")).startsWith("class Item1\n"));
+    }
+
+    private void generate(GenerationPipeline pipeline, String dir, int failing,
+            Properties cache) throws MojoExecutionException
+    {
+        for (int i = 0; i < FILES; i++)
+        {
+            VelocityContext context = new VelocityContext();
+            context.put("item", i == failing ? new FailingItem() : new Item("Item" + i));
+            pipeline.add("Generating Item" + i, new File(baseDir, dir + "/Item" + i + ".java"),
+                    context, "digest" + i);
+        }
+        pipeline.finish(cache);
+    }
+
+    public static class Item
+    {
+        private final String name;
+
+        public Item(String name)
+        {
+            this.name = name;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+    }
+
+    public static class FailingItem
+    {
+        public String getName() throws IOException
+        {
+            throw new IOException("failing item");
+        }
+    }
+
+    private static class RecordingLog extends SystemStreamLog
+    {
+        private final List messages = new ArrayList();
+
+        private final List errors = new ArrayList();
+
+        public void info(CharSequence content)
+        {
+            messages.add(content.toString());
+        }
+
+        public void error(CharSequence content)
+        {
+            errors.add(content.toString());
+        }
+    }
+}
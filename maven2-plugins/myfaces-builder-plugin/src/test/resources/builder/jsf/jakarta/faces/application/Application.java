@@ -0,0 +1,57 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jakarta.faces.application;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.faces.FacesException;
+import jakarta.faces.convert.Converter;
+
+/**
+ * Stand-in of the JSF application, which creates converters by id the
+ * same way a faces-config registration would: one reflective instantiation
+ * per call.
+ */
+public class Application
+{
+    private final Map<String, Class<?>> converters = new HashMap<String, Class<?>>();
+
+    public void addConverter(String converterId, Class<?> converterClass)
+    {
+        converters.put(converterId, converterClass);
+    }
+
+    public Converter createConverter(String converterId)
+    {
+        Class<?> converterClass = converters.get(converterId);
+        if (converterClass == null)
+        {
+            throw new FacesException("Unknown converter id " + converterId);
+        }
+        try
+        {
+            return (Converter) converterClass.newInstance();
+        }
+        catch (Exception e)
+        {
+            throw new FacesException(e);
+        }
+    }
+}
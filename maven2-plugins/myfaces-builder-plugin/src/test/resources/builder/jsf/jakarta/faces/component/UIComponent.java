@@ -0,0 +1,231 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jakarta.faces.component;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.el.ValueExpression;
+import jakarta.faces.FacesException;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * Stand-in of the JSF component base class. It keeps its state in a
+ * {@link StateHelper} and its value expressions in a map, as the MyFaces
+ * UIComponentBase does, and has no children, facets or renderers.
+ */
+public abstract class UIComponent implements PartialStateHolder
+{
+    private _DeltaStateHelper stateHelper;
+
+    private Map<String, Object> attributes;
+
+    private Map<String, ValueExpression> bindings;
+
+    private String rendererType;
+
+    private boolean initialState;
+
+    private boolean transientFlag;
+
+    enum PropertyKeys
+    {
+        rendered
+    }
+
+    public abstract String getFamily();
+
+    public FacesContext getFacesContext()
+    {
+        return FacesContext.getCurrentInstance();
+    }
+
+    protected StateHelper getStateHelper()
+    {
+        if (stateHelper == null)
+        {
+            stateHelper = new _DeltaStateHelper(this);
+            if (initialState)
+            {
+                stateHelper.markInitialState();
+            }
+        }
+        return stateHelper;
+    }
+
+    public Map<String, Object> getAttributes()
+    {
+        if (attributes == null)
+        {
+            attributes = new _ComponentAttributesMap(this);
+        }
+        return attributes;
+    }
+
+    public ValueExpression getValueExpression(String name)
+    {
+        return bindings == null ? null : bindings.get(name);
+    }
+
+    public void setValueExpression(String name, ValueExpression expression)
+    {
+        if (expression == null)
+        {
+            if (bindings != null)
+            {
+                bindings.remove(name);
+            }
+        }
+        else if (expression.isLiteralText())
+        {
+            getAttributes().put(name, expression.getValue(getFacesContext().getELContext()));
+        }
+        else
+        {
+            if (bindings == null)
+            {
+                bindings = new HashMap<String, ValueExpression>();
+            }
+            bindings.put(name, expression);
+        }
+    }
+
+    public String getRendererType()
+    {
+        return rendererType;
+    }
+
+    public void setRendererType(String rendererType)
+    {
+        this.rendererType = rendererType;
+    }
+
+    public boolean isRendered()
+    {
+        return (Boolean) getStateHelper().eval(PropertyKeys.rendered, Boolean.TRUE);
+    }
+
+    public void setRendered(boolean rendered)
+    {
+        getStateHelper().put(PropertyKeys.rendered, rendered);
+    }
+
+    public void markInitialState()
+    {
+        initialState = true;
+        if (stateHelper != null)
+        {
+            stateHelper.markInitialState();
+        }
+    }
+
+    public boolean initialStateMarked()
+    {
+        return initialState;
+    }
+
+    public void clearInitialState()
+    {
+        initialState = false;
+        if (stateHelper != null)
+        {
+            stateHelper.clearInitialState();
+        }
+    }
+
+    public Object saveState(FacesContext context)
+    {
+        return stateHelper == null ? null : stateHelper.saveState(context);
+    }
+
+    public void restoreState(FacesContext context, Object state)
+    {
+        if (state != null)
+        {
+            ((_DeltaStateHelper) getStateHelper()).restoreState(context, state);
+        }
+    }
+
+    public boolean isTransient()
+    {
+        return transientFlag;
+    }
+
+    public void setTransient(boolean newTransientValue)
+    {
+        transientFlag = newTransientValue;
+    }
+
+    public static Object saveAttachedState(FacesContext context, Object attachedObject)
+    {
+        if (attachedObject instanceof StateHolder)
+        {
+            StateHolder holder = (StateHolder) attachedObject;
+            if (holder.isTransient())
+            {
+                return null;
+            }
+            return new _AttachedStateWrapper(attachedObject.getClass(), holder.saveState(context));
+        }
+        return attachedObject;
+    }
+
+    public static Object restoreAttachedState(FacesContext context, Object stateObj)
+    {
+        if (stateObj instanceof _AttachedStateWrapper)
+        {
+            _AttachedStateWrapper wrapper = (_AttachedStateWrapper) stateObj;
+            try
+            {
+                StateHolder holder = (StateHolder) wrapper.getAttachedClass().newInstance();
+                holder.restoreState(context, wrapper.getState());
+                return holder;
+            }
+            catch (Exception e)
+            {
+                throw new FacesException(e);
+            }
+        }
+        return stateObj;
+    }
+
+    private static class _AttachedStateWrapper implements Serializable
+    {
+        private final Class<?> attachedClass;
+
+        private final Object state;
+
+        _AttachedStateWrapper(Class<?> attachedClass, Object state)
+        {
+            this.attachedClass = attachedClass;
+            this.state = state;
+        }
+
+        Class<?> getAttachedClass()
+        {
+            return attachedClass;
+        }
+
+        Object getState()
+        {
+            return state;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jakarta.faces.component;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.faces.FacesException;
+
+/**
+ * Attributes map that, like the JSF one, sets a bean property of the
+ * component through its setter when there is one, and otherwise keeps
+ * the value in the map. Tags that put literal values into the
+ * attributes go through this reflective path.
+ */
+class _ComponentAttributesMap extends HashMap<String, Object>
+{
+    private static final Map<Class<?>, Map<String, Method>> SETTERS =
+        new ConcurrentHashMap<Class<?>, Map<String, Method>>();
+
+    private final UIComponent component;
+
+    _ComponentAttributesMap(UIComponent component)
+    {
+        this.component = component;
+    }
+
+    @Override
+    public Object put(String key, Object value)
+    {
+        Method setter = getSetters(component.getClass()).get(key);
+        if (setter == null)
+        {
+            return super.put(key, value);
+        }
+        try
+        {
+            setter.invoke(component, value);
+        }
+        catch (Exception e)
+        {
+            throw new FacesException(e);
+        }
+        return null;
+    }
+
+    private static Map<String, Method> getSetters(Class<?> componentClass)
+    {
+        Map<String, Method> setters = SETTERS.get(componentClass);
+        if (setters == null)
+        {
+            setters = new HashMap<String, Method>();
+            try
+            {
+                BeanInfo info = Introspector.getBeanInfo(componentClass);
+                PropertyDescriptor[] descriptors = info.getPropertyDescriptors();
+                for (int i = 0; i < descriptors.length; i++)
+                {
+                    if (descriptors[i].getWriteMethod() != null)
+                    {
+                        setters.put(descriptors[i].getName(), descriptors[i].getWriteMethod());
+                    }
+                }
+            }
+            catch (IntrospectionException e)
+            {
+                throw new FacesException(e);
+            }
+            SETTERS.put(componentClass, setters);
+        }
+        return setters;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jakarta.faces.component;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import jakarta.el.ValueExpression;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * Map based state helper in the manner of the MyFaces one: it keeps the
+ * full state of the component, and once the initial state is marked also
+ * the changes made since, which are all that saveState returns.
+ */
+class _DeltaStateHelper implements StateHelper
+{
+    private final UIComponent component;
+
+    private final Map<Serializable, Object> fullState = new HashMap<Serializable, Object>();
+
+    private Map<Serializable, Object> deltas;
+
+    private boolean transientFlag;
+
+    _DeltaStateHelper(UIComponent component)
+    {
+        this.component = component;
+    }
+
+    void markInitialState()
+    {
+        deltas = new HashMap<Serializable, Object>();
+    }
+
+    void clearInitialState()
+    {
+        deltas = null;
+    }
+
+    public Object put(Serializable key, Object value)
+    {
+        if (deltas != null)
+        {
+            deltas.put(key, value);
+        }
+        return value == null ? fullState.remove(key) : fullState.put(key, value);
+    }
+
+    public Object remove(Serializable key)
+    {
+        return put(key, null);
+    }
+
+    public Object get(Serializable key)
+    {
+        return fullState.get(key);
+    }
+
+    public Object eval(Serializable key)
+    {
+        Object value = fullState.get(key);
+        if (value != null)
+        {
+            return value;
+        }
+        ValueExpression expression = component.getValueExpression(key.toString());
+        if (expression != null)
+        {
+            return expression.getValue(component.getFacesContext().getELContext());
+        }
+        return null;
+    }
+
+    public Object eval(Serializable key, Object defaultValue)
+    {
+        Object value = eval(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public Object saveState(FacesContext context)
+    {
+        Map<Serializable, Object> state = deltas != null ? deltas : fullState;
+        if (state.isEmpty())
+        {
+            return null;
+        }
+        Object[] values = new Object[state.size() * 2];
+        int i = 0;
+        for (Iterator<Map.Entry<Serializable, Object>> it = state.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry<Serializable, Object> entry = it.next();
+            values[i++] = entry.getKey();
+            values[i++] = UIComponent.saveAttachedState(context, entry.getValue());
+        }
+        return values;
+    }
+
+    public void restoreState(FacesContext context, Object state)
+    {
+        if (state == null)
+        {
+            return;
+        }
+        Object[] values = (Object[]) state;
+        for (int i = 0; i < values.length; i += 2)
+        {
+            put((Serializable) values[i], UIComponent.restoreAttachedState(context, values[i + 1]));
+        }
+    }
+
+    public boolean isTransient()
+    {
+        return transientFlag;
+    }
+
+    public void setTransient(boolean newTransientValue)
+    {
+        transientFlag = newTransientValue;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jakarta.faces.context;
+
+import jakarta.el.ELContext;
+import jakarta.faces.application.Application;
+
+/**
+ * Stand-in of the faces context. The instance of the current thread is
+ * the one returned to the components and tags.
+ */
+public class FacesContext
+{
+    private static final ThreadLocal<FacesContext> CURRENT = new ThreadLocal<FacesContext>();
+
+    private final Application application;
+
+    private final ExternalContext externalContext;
+
+    private final ELContext elContext = new ELContext();
+
+    public FacesContext(Application application, ExternalContext externalContext)
+    {
+        this.application = application;
+        this.externalContext = externalContext;
+    }
+
+    public static FacesContext getCurrentInstance()
+    {
+        return CURRENT.get();
+    }
+
+    public static void setCurrentInstance(FacesContext context)
+    {
+        if (context == null)
+        {
+            CURRENT.remove();
+        }
+        else
+        {
+            CURRENT.set(context);
+        }
+    }
+
+    public Application getApplication()
+    {
+        return application;
+    }
+
+    public ExternalContext getExternalContext()
+    {
+        return externalContext;
+    }
+
+    public ELContext getELContext()
+    {
+        return elContext;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package jakarta.faces.webapp;
+
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * Stand-in of the JSP component tag, reduced to the calls made by the
+ * generated tags.
+ */
+public abstract class UIComponentTag
+{
+    public abstract String getComponentType();
+
+    public abstract String getRendererType();
+
+    protected FacesContext getFacesContext()
+    {
+        return FacesContext.getCurrentInstance();
+    }
+
+    protected void setProperties(UIComponent component)
+    {
+        if (getRendererType() != null)
+        {
+            component.setRendererType(getRendererType());
+        }
+    }
+
+    /**
+     * Applies the attributes of the tag to a component, which the JSP
+     * runtime does when the tag creates or finds its component.
+     */
+    public void applyProperties(UIComponent component)
+    {
+        setProperties(component);
+    }
+
+    public void release()
+    {
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package statepkg;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import jakarta.el.ValueExpression;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * The parent of the generated components: the state helper, value
+ * expressions and partial state saving of UIComponentBase, reduced to
+ * what the generated code calls.
+ */
+public class ComponentBase
+{
+    private final StateHelper stateHelper = new StateHelper();
+
+    private final Map<String, ValueExpression> bindings = new HashMap<String, ValueExpression>();
+
+    private FacesContext facesContext = StateScenario.createFacesContext();
+
+    private boolean initialState;
+
+    public class StateHelper
+    {
+        private final Map<Serializable, Object> fullState = new HashMap<Serializable, Object>();
+
+        private Map<Serializable, Object> deltas;
+
+        public Object get(Serializable key)
+        {
+            return fullState.get(key);
+        }
+
+        public Object put(Serializable key, Object value)
+        {
+            if (initialState)
+            {
+                if (deltas == null)
+                {
+                    deltas = new HashMap<Serializable, Object>();
+                }
+                deltas.put(key, value);
+            }
+            return fullState.put(key, value);
+        }
+
+        public Object eval(Serializable key)
+        {
+            Object value = get(key);
+            if (value != null)
+            {
+                return value;
+            }
+            ValueExpression expression = getValueExpression(key.toString());
+            return expression == null ? null : expression.getValue(getFacesContext().getELContext());
+        }
+
+        public Object eval(Serializable key, Object defaultValue)
+        {
+            Object value = eval(key);
+            return value != null ? value : defaultValue;
+        }
+    }
+
+    public StateHelper getStateHelper()
+    {
+        return stateHelper;
+    }
+
+    public FacesContext getFacesContext()
+    {
+        return facesContext;
+    }
+
+    public void setFacesContext(FacesContext facesContext)
+    {
+        this.facesContext = facesContext;
+    }
+
+    public ValueExpression getValueExpression(String name)
+    {
+        return bindings.get(name);
+    }
+
+    public void setValueExpression(String name, ValueExpression expression)
+    {
+        bindings.put(name, expression);
+    }
+
+    public void setRendererType(String rendererType)
+    {
+    }
+
+    public void markInitialState()
+    {
+        initialState = true;
+    }
+
+    public boolean initialStateMarked()
+    {
+        return initialState;
+    }
+
+    public void clearInitialState()
+    {
+        initialState = false;
+        stateHelper.deltas = null;
+    }
+
+    public Object saveState(FacesContext context)
+    {
+        Map<Serializable, Object> state = initialState ? stateHelper.deltas : stateHelper.fullState;
+        return state == null || state.isEmpty() ? null : new HashMap<Serializable, Object>(state);
+    }
+
+    public void restoreState(FacesContext context, Object state)
+    {
+        if (state == null)
+        {
+            return;
+        }
+        for (Iterator it = ((Map) state).entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry entry = (Map.Entry) it.next();
+            stateHelper.put((Serializable) entry.getKey(), entry.getValue());
+        }
+    }
+
+    public static Object saveAttachedState(FacesContext context, Object attachedObject)
+    {
+        return attachedObject;
+    }
+
+    public static Object restoreAttachedState(FacesContext context, Object stateObj)
+    {
+        return stateObj;
+    }
+}
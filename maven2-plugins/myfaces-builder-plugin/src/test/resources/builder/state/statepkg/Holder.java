@@ -0,0 +1,88 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package statepkg;
+
+import java.io.Serializable;
+
+import jakarta.faces.component.PartialStateHolder;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * An attached object with partial state, like a converter.
+ */
+public class Holder implements PartialStateHolder, Serializable
+{
+    private String value = "init";
+
+    private boolean initialState;
+
+    private boolean changed;
+
+    public void setValue(String value)
+    {
+        this.value = value;
+        if (initialState)
+        {
+            changed = true;
+        }
+    }
+
+    public Object saveState(FacesContext context)
+    {
+        return initialState && !changed ? null : value;
+    }
+
+    public void restoreState(FacesContext context, Object state)
+    {
+        if (state != null)
+        {
+            value = (String) state;
+        }
+    }
+
+    public boolean isTransient()
+    {
+        return false;
+    }
+
+    public void setTransient(boolean newTransientValue)
+    {
+    }
+
+    public void markInitialState()
+    {
+        initialState = true;
+    }
+
+    public boolean initialStateMarked()
+    {
+        return initialState;
+    }
+
+    public void clearInitialState()
+    {
+        initialState = false;
+        changed = false;
+    }
+
+    public String toString()
+    {
+        return "Holder(" + value + ")";
+    }
+}
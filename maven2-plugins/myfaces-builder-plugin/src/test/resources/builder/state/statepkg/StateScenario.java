@@ -0,0 +1,235 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package statepkg;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.el.ELContext;
+import jakarta.el.ValueExpression;
+import jakarta.faces.application.Application;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * Sets, saves and restores the state of a generated component in full
+ * and partial state saving, and records what its getters return at each
+ * step. Components generated from the same model with other generator
+ * options must record the same values. A getter the template does not
+ * generate is recorded as missing.
+ */
+public class StateScenario
+{
+    private static final String[] GETTERS = {
+        "getTitle", "isDisabled", "getTabindex", "isSetTabindex", "getRatio",
+        "getLevel", "getPlain", "getSize", "getFor", "getImmediate",
+        "getStyleClass", "getCount", "isSetCount", "getLocalCount", "getHolder",
+        "getWeight", "isSetWeight", "getLocalWeight"};
+
+    private final Class componentClass;
+
+    private final int extraProperties;
+
+    private final FacesContext context = createFacesContext();
+
+    public StateScenario(Class componentClass, int extraProperties)
+    {
+        this.componentClass = componentClass;
+        this.extraProperties = extraProperties;
+    }
+
+    public static FacesContext createFacesContext()
+    {
+        return new FacesContext(new Application(), new ExternalContext());
+    }
+
+    public List<Object> run() throws Exception
+    {
+        List<Object> steps = new ArrayList<Object>();
+
+        ComponentBase component = _create();
+        steps.add(_snapshot(component));
+
+        // Full state saving
+        ComponentBase full = (ComponentBase) componentClass.newInstance();
+        full.restoreState(context, component.saveState(context));
+        steps.add(_snapshot(full));
+
+        // Partial state saving: nothing changed, then a few changes
+        component.markInitialState();
+        steps.add(Boolean.valueOf(component.saveState(context) == null));
+        _call(component, "setTitle", "changed");
+        _call(component, "setFor", (Object) null);
+        _call(component, "setSize", Integer.valueOf(7));
+        _call(component, "setCount", Integer.valueOf(3));
+        _call(component, "setTabindex", Integer.valueOf(9));
+        _call(component, "setRatio", Double.valueOf(2.5));
+        _call(component, "setLevel", Integer.valueOf(4));
+        _call(component, "setWeight", Integer.valueOf(6));
+        ((Holder) _call(component, "getConverter")).setValue("delta");
+        if (extraProperties > 0)
+        {
+            _call(component, "setExtra" + (extraProperties - 1), "last");
+            _call(component, "setPextra" + (extraProperties - 1), "plast");
+        }
+        steps.add(_snapshot(component));
+
+        ComponentBase delta = _create();
+        delta.markInitialState();
+        delta.restoreState(context, component.saveState(context));
+        steps.add(_snapshot(delta));
+
+        // A restored delta saves the same delta again
+        ComponentBase again = _create();
+        again.markInitialState();
+        again.restoreState(context, delta.saveState(context));
+        steps.add(_snapshot(again));
+
+        // Marking the initial state again forgets the delta
+        component.clearInitialState();
+        component.markInitialState();
+        steps.add(Boolean.valueOf(component.saveState(context) == null));
+
+        // And the full state has every change
+        component.clearInitialState();
+        ComponentBase fullAfter = (ComponentBase) componentClass.newInstance();
+        fullAfter.restoreState(context, component.saveState(context));
+        steps.add(_snapshot(fullAfter));
+        fullAfter.markInitialState();
+        steps.add(Boolean.valueOf(fullAfter.saveState(context) == null));
+
+        return steps;
+    }
+
+    private ComponentBase _create() throws Exception
+    {
+        ComponentBase component = (ComponentBase) componentClass.newInstance();
+        component.setValueExpression("size", new Constant(Integer.valueOf(42)));
+        component.setValueExpression("weight", new Constant(Integer.valueOf(8)));
+        _call(component, "setTitle", "title");
+        _call(component, "setDisabled", Boolean.TRUE);
+        _call(component, "setFor", "for");
+        _call(component, "setConverter", new Holder());
+        if (extraProperties > 0)
+        {
+            _call(component, "setExtra0", "first");
+            _call(component, "setPextra0", "pfirst");
+        }
+        return component;
+    }
+
+    private List<Object> _snapshot(ComponentBase component) throws Exception
+    {
+        List<Object> values = new ArrayList<Object>();
+        for (int i = 0; i < GETTERS.length; i++)
+        {
+            try
+            {
+                values.add(_call(component, GETTERS[i]));
+            }
+            catch (NoSuchMethodException e)
+            {
+                values.add("missing " + GETTERS[i]);
+            }
+        }
+        for (int i = 0; i < extraProperties; i++)
+        {
+            values.add(_call(component, "getExtra" + i));
+            values.add(_call(component, "getPextra" + i));
+        }
+        values.add(String.valueOf(_call(component, "getConverter")));
+        return values;
+    }
+
+    private static Object _call(Object target, String name, Object... args) throws Exception
+    {
+        Method[] methods = target.getClass().getMethods();
+        for (int i = 0; i < methods.length; i++)
+        {
+            if (methods[i].getName().equals(name) && methods[i].getParameterTypes().length == args.length)
+            {
+                return methods[i].invoke(target, args);
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    /**
+     * A value expression of a fixed value.
+     */
+    public static class Constant extends ValueExpression
+    {
+        private final Object value;
+
+        public Constant(Object value)
+        {
+            this.value = value;
+        }
+
+        public Object getValue(ELContext context)
+        {
+            return value;
+        }
+
+        public String getExpressionString()
+        {
+            return "#{" + value + "}";
+        }
+
+        public boolean isLiteralText()
+        {
+            return false;
+        }
+    }
+
+    /**
+     * A literal value expression, which counts how often it is evaluated.
+     */
+    public static class Literal extends Constant
+    {
+        private int evaluations;
+
+        public Literal(Object value)
+        {
+            super(value);
+        }
+
+        public Object getValue(ELContext context)
+        {
+            evaluations++;
+            return super.getValue(context);
+        }
+
+        public int getEvaluations()
+        {
+            return evaluations;
+        }
+
+        public String getExpressionString()
+        {
+            return String.valueOf(super.getValue(null));
+        }
+
+        public boolean isLiteralText()
+        {
+            return true;
+        }
+    }
+}
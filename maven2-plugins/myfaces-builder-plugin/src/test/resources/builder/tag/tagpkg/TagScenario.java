@@ -0,0 +1,124 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package tagpkg;
+
+import jakarta.el.ELContext;
+import jakarta.el.ValueExpression;
+import jakarta.faces.application.Application;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.convert.Converter;
+import jakarta.faces.webapp.UIComponentTag;
+
+/**
+ * Applies a generated tag with a literal converter id to new components,
+ * in an application that knows the converters of this package.
+ */
+public class TagScenario
+{
+    private final Class tagClass;
+
+    private final FacesContext context;
+
+    public TagScenario(Class tagClass)
+    {
+        this.tagClass = tagClass;
+        Application application = new Application();
+        application.addConverter("stateless", StatelessConverter.class);
+        application.addConverter("stateHolder", StateHolderConverter.class);
+        context = new FacesContext(application, new ExternalContext());
+    }
+
+    /**
+     * The converters the tag sets on a number of components.
+     */
+    public Converter[] run(String converterId, int components) throws Exception
+    {
+        Converter[] converters = new Converter[components];
+        FacesContext.setCurrentInstance(context);
+        try
+        {
+            for (int i = 0; i < components; i++)
+            {
+                UIComponentTag tag = (UIComponentTag) tagClass.newInstance();
+                tagClass.getMethod("setConverter", new Class[] {ValueExpression.class})
+                    .invoke(tag, new Object[] {new Literal(converterId)});
+                ConverterComponent component = new ConverterComponent();
+                tag.applyProperties(component);
+                tag.release();
+                converters[i] = component.getConverter();
+            }
+        }
+        finally
+        {
+            FacesContext.setCurrentInstance(null);
+        }
+        return converters;
+    }
+
+    /**
+     * The attribute a tag sets on a component from a literal only int.
+     */
+    public Object level(String text) throws Exception
+    {
+        FacesContext.setCurrentInstance(context);
+        try
+        {
+            UIComponentTag tag = (UIComponentTag) tagClass.newInstance();
+            tagClass.getMethod("setLevel", new Class[] {String.class})
+                .invoke(tag, new Object[] {text});
+            ConverterComponent component = new ConverterComponent();
+            tag.applyProperties(component);
+            return component.getAttributes().get("level");
+        }
+        finally
+        {
+            FacesContext.setCurrentInstance(null);
+        }
+    }
+
+    /**
+     * A literal value expression, as the JSP runtime passes for a tag
+     * attribute without an expression.
+     */
+    private static class Literal extends ValueExpression
+    {
+        private final String text;
+
+        Literal(String text)
+        {
+            this.text = text;
+        }
+
+        public Object getValue(ELContext context)
+        {
+            return text;
+        }
+
+        public String getExpressionString()
+        {
+            return text;
+        }
+
+        public boolean isLiteralText()
+        {
+            return true;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.generator.GeneratorHelper;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.io.GeneratedFiles;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.io.PrettyWriter;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.FacesConfigBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.AttributeBean;
@@ -33,6 +34,7 @@ import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.ComponentBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.ConverterBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.FacesConfigParser;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.ValidatorBean;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.util.ArtifactIndex;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.AttributeFilter;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.ComponentFilter;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.ConverterFilter;
@@ -43,7 +45,6 @@ import org.codehaus.plexus.util.FileUtils;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
-import javax.xml.namespace.QName;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
 import java.io.BufferedReader;
@@ -52,7 +53,6 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.net.URLConnection;
 import java.util.*;
 
@@ -62,24 +62,29 @@ abstract public class AbstractFacesMojo extends AbstractMojo
     MavenProject project,
     String       resourcePath) throws MojoExecutionException
   {
+    ArtifactIndex index = ArtifactIndex.getInstance();
+    File indexFile =
+      ArtifactIndex.getIndexFile(project.getBuild().getDirectory());
     try
     {
-      ClassLoader cl = createCompileClassLoader(project);
-      Enumeration e = cl.getResources(resourcePath);
-      List urls = new ArrayList();
-      while (e.hasMoreElements())
-      {
-        URL url = (URL)e.nextElement();
-        urls.add(url);
-      }
-      return Collections.unmodifiableList(urls);
+      index.load(indexFile);
+      List classpathElements = project.getCompileClasspathElements();
+      List urls = index.getResources(
+                    Thread.currentThread().getContextClassLoader(),
+                    classpathElements,
+                    resourcePath);
+      index.save(indexFile, classpathElements);
+      return urls;
+    }
+    catch (DependencyResolutionRequiredException e)
+    {
+      throw new MojoExecutionException("Error calculating scope classpath", e);
     }
     catch (IOException e)
     {
       throw new MojoExecutionException("Unable to get resources for path " +
                                        "\"" + resourcePath + "\"", e);
     }
-
   }
 
   protected void addResourceRoot(
@@ -278,19 +283,34 @@ abstract public class AbstractFacesMojo extends AbstractMojo
     _facesConfig = new FacesConfigBean();
 
     URL[] index = readIndex(project, resourcePath);
-    for (int i=0; i < index.length; i++)
+    if (parserThreads > 1)
+    {
+      new FacesConfigParser().merge(_facesConfig, index, parserThreads);
+    }
+    else
     {
-      processIndexEntry(index[i]);
+      for (int i=0; i < index.length; i++)
+        processIndexEntry(index[i]);
     }
+
+    // resolve the component hierarchy once everything is merged
+    _facesConfig.flatten();
   }
 
+  /**
+   * Merges one faces config document of the index.  Only called when the
+   * documents are parsed by a single thread.
+   */
   protected void processIndexEntry(
     URL entry) throws MojoExecutionException
   {
+    if (_parser == null)
+      _parser = new FacesConfigParser();
+
     URL old = _facesConfig.setCurrentResource(entry);
     try
     {
-      new FacesConfigParser().merge(_facesConfig, entry);
+      _parser.merge(_facesConfig, entry);
     }
     finally
     {
@@ -303,6 +323,17 @@ abstract public class AbstractFacesMojo extends AbstractMojo
     return _facesConfig;
   }
 
+  /**
+   * Returns the files written by this goal, which are only written again
+   * when their content changes.
+   */
+  protected GeneratedFiles getGeneratedFiles()
+  {
+    if (_generatedFiles == null)
+      _generatedFiles = new GeneratedFiles(stampFile);
+    return _generatedFiles;
+  }
+
   protected void writePreamble(
     PrettyWriter out) throws MojoExecutionException
   {
@@ -347,38 +378,6 @@ abstract public class AbstractFacesMojo extends AbstractMojo
     GeneratorHelper.writeImports(out,packageName,imports);
   }
 
-  private ClassLoader createCompileClassLoader(
-    MavenProject project) throws MojoExecutionException
-  {
-    Thread current = Thread.currentThread();
-    ClassLoader cl = current.getContextClassLoader();
-
-    try
-    {
-      List classpathElements = project.getCompileClasspathElements();
-      if (!classpathElements.isEmpty())
-      {
-        String[] entries = (String[])classpathElements.toArray(new String[0]);
-        URL[] urls = new URL[entries.length];
-        for (int i=0; i < urls.length; i++)
-        {
-          urls[i] = new File(entries[i]).toURL();
-        }
-        cl = new URLClassLoader(urls, cl);
-      }
-    }
-    catch (DependencyResolutionRequiredException e)
-    {
-      throw new MojoExecutionException("Error calculating scope classpath", e);
-    }
-    catch (MalformedURLException e)
-    {
-      throw new MojoExecutionException("Error calculating scope classpath", e);
-    }
-
-    return cl;
-  }
-
   protected class SkipFilter extends ComponentFilter
   {
     protected boolean accept(
@@ -523,105 +522,6 @@ abstract public class AbstractFacesMojo extends AbstractMojo
     }
   }
 
-  static final protected class ComponentTagLibraryFilter extends ComponentFilter
-  {
-    public ComponentTagLibraryFilter(
-      String namespaceURI)
-    {
-      this(namespaceURI, true);
-    }
-
-    public ComponentTagLibraryFilter(
-      String namespaceURI,
-      boolean requireTagClass)
-    {
-      _namespaceURI = namespaceURI;
-      _requireTagClass = requireTagClass;
-    }
-
-    protected boolean accept(
-      ComponentBean component)
-    {
-      QName tagName = component.getTagName();
-      String tagClass = component.getTagClass();
-
-      // accept if tagClass is present
-      // and if tagName is in the desired namespaceURI
-      return ((!_requireTagClass || (tagClass != null)) &&
-              tagName != null &&
-              _namespaceURI.equals(tagName.getNamespaceURI()));
-    }
-
-    private final String _namespaceURI;
-    private final boolean _requireTagClass;
-  }
-
-  static final protected class ValidatorTagLibraryFilter extends ValidatorFilter
-  {
-    public ValidatorTagLibraryFilter(
-      String namespaceURI)
-    {
-      this(namespaceURI, true);
-    }
-
-    public ValidatorTagLibraryFilter(
-      String namespaceURI,
-      boolean requireTagClass)
-    {
-      _namespaceURI = namespaceURI;
-      _requireTagClass = requireTagClass;
-    }
-
-    protected boolean accept(
-      ValidatorBean validator)
-    {
-      QName tagName = validator.getTagName();
-      String tagClass = validator.getTagClass();
-
-      // accept if tagClass is present
-      // and if tagName is in the desired namespaceURI
-      return ((!_requireTagClass || (tagClass != null)) &&
-              tagName != null &&
-              _namespaceURI.equals(tagName.getNamespaceURI()));
-    }
-
-    private final String _namespaceURI;
-    private final boolean _requireTagClass;
-  }
-
-  static final protected class ConverterTagLibraryFilter extends ConverterFilter
-  {
-    public ConverterTagLibraryFilter(
-      String namespaceURI)
-    {
-      this(namespaceURI, true);
-    }
-
-    public ConverterTagLibraryFilter(
-      String namespaceURI,
-      boolean requireTagClass)
-    {
-      _namespaceURI = namespaceURI;
-      _requireTagClass = requireTagClass;
-    }
-
-    protected boolean accept(
-      ConverterBean converter)
-    {
-      QName tagName = converter.getTagName();
-      String tagClass = converter.getTagClass();
-
-      // accept if tagClass is present
-      // and if tagName is in the desired namespaceURI
-      return ((!_requireTagClass || (tagClass != null)) &&
-              tagName != null &&
-              _namespaceURI.equals(tagName.getNamespaceURI()));
-    }
-
-    private final String _namespaceURI;
-    private final boolean _requireTagClass;
-  }
-
   static protected class VirtualAttributeFilter extends AttributeFilter
   {
     protected boolean accept(
@@ -646,10 +546,28 @@ abstract public class AbstractFacesMojo extends AbstractMojo
    */
   private File localResource;
 
+  /**
+   * Number of threads parsing the faces config documents.  They are still
+   * merged in the order of the index.
+   *
+   * @parameter expression="${myfaces.faces.parserThreads}" default-value="1"
+   */
+  private int parserThreads;
+
+  /**
+   * Records when each generated file whose content did not change was last
+   * generated, so that it is not generated again on every build.
+   *
+   * @parameter default-value="${project.build.directory}/myfaces-faces-plugin/generated-files.properties"
+   */
+  private File stampFile;
+
 
 
   private FacesConfigBean _facesConfig;
+  private FacesConfigParser _parser;
   private String _licenseHeader;
+  private GeneratedFiles _generatedFiles;
 
   static final private String _AUTO_GENERATE_WARNING =
 "// WARNING: This file was automatically generated. Do not edit it directly,\n"+
@@ -32,7 +32,6 @@ import org.apache.myfaces.buildtools.maven2.plugin.faces.util.SourceTemplate;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.Util;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.lang.reflect.Modifier;
@@ -110,6 +109,7 @@ public class GenerateComponentsMojo extends AbstractFacesMojo
           }          
         }
         getLog().info("Generated " + count + " component(s)");
+        getGeneratedFiles().finish(getLog());
       }
     }
   }
@@ -251,14 +251,8 @@ public class GenerateComponentsMojo extends AbstractFacesMojo
 
         // delay write in case of error
         // timestamp should not be updated when an error occurs
-        // delete target file first, because it is readonly
-        targetFile.getParentFile().mkdirs();
-        targetFile.delete();
-        FileWriter fw = new FileWriter(targetFile);
-        StringBuffer buf = sw.getBuffer();
-        fw.write(buf.toString());
-        fw.close();
-        targetFile.setReadOnly();
+        // or when the content is unchanged
+        getGeneratedFiles().write(targetFile, sw.toString());
       }
     }
     catch (IOException e)
@@ -279,8 +273,9 @@ public class GenerateComponentsMojo extends AbstractFacesMojo
       File templateFile = new File(templateSourceDirectory, templatePath);
 
       // accept if templateFile is newer or component has been modified
-      return (templateFile.lastModified() > targetFile.lastModified() ||
-              component.isModifiedSince(targetFile.lastModified()));
+      long lastGenerated = getGeneratedFiles().lastGenerated(targetFile);
+      return (templateFile.lastModified() > lastGenerated ||
+              component.isModifiedSince(lastGenerated));
     }
   }
 
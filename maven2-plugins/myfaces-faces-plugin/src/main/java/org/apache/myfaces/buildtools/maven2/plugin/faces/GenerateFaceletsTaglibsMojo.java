@@ -18,49 +18,27 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.faces;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 
 import java.util.Iterator;
 import java.util.Map;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Result;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.sax.SAXSource;
-import javax.xml.transform.stream.StreamResult;
 
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.ComponentBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.ConverterBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.FacesConfigBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.ValidatorBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.FilteredIterator;
-import org.apache.myfaces.buildtools.maven2.plugin.faces.util.XIncludeFilter;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.util.XIncludeWriter;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 
-import org.codehaus.plexus.util.FileUtils;
-
-import org.xml.sax.EntityResolver;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
-
 /**
  * @version $Id$
  * @requiresDependencyResolution compile
@@ -81,6 +59,10 @@ public class GenerateFaceletsTaglibsMojo extends AbstractFacesMojo
 
       processIndex(project, resourcePath);
 
+      // shared by all the tag libraries
+      XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+      XIncludeWriter includes = new XIncludeWriter();
+
       // taglibs map syntax requires distinct shortNames,
       // which is a Good Thing!
       for (Iterator i = taglibs.entrySet().iterator(); i.hasNext(); )
@@ -90,16 +72,11 @@ public class GenerateFaceletsTaglibsMojo extends AbstractFacesMojo
         String namespaceURI = (String)entry.getValue();
 
         FacesConfigBean facesConfig = getFacesConfig();
-        Iterator components = facesConfig.components();
+        Iterator components = facesConfig.components(namespaceURI);
         components = new FilteredIterator(components, new SkipFilter());
-        components = new FilteredIterator(components, new ComponentTagLibraryFilter(namespaceURI, false));
-
-        Iterator validators = facesConfig.validators();
-        validators = new FilteredIterator(validators, new ValidatorTagLibraryFilter(namespaceURI, false));
-
-        Iterator converters = facesConfig.converters();
-        converters = new FilteredIterator(converters, new ConverterTagLibraryFilter(namespaceURI, false));
 
+        Iterator validators = facesConfig.validators(namespaceURI);
+        Iterator converters = facesConfig.converters(namespaceURI);
 
         String targetPath = "META-INF/" + shortName + ".taglib.xml";
         File targetFile = new File(generatedResourcesDirectory, targetPath);
@@ -107,72 +84,25 @@ public class GenerateFaceletsTaglibsMojo extends AbstractFacesMojo
         String configPath = "META-INF/" + shortName + "-base.taglib.xml";
         File configFile = new File(configSourceDirectory, configPath);
 
-        targetFile.delete();
-
         if ((components.hasNext()||validators.hasNext()||converters.hasNext())
             && configFile.exists())
         {
           ByteArrayOutputStream out = new ByteArrayOutputStream();
-          XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
           XMLStreamWriter stream = outputFactory.createXMLStreamWriter(out);
 
-          _writeStartTagLibrary(stream, _XINCLUDE_FACELETS_TAG_LIBRARY_DTD);
-          // base goes first
-          stream.writeStartElement("xi", "include",
-                                   XIncludeFilter.XINCLUDE_NAMESPACE);
-          stream.writeNamespace("xi", XIncludeFilter.XINCLUDE_NAMESPACE);
-          stream.writeAttribute("href", configFile.toURL().toExternalForm());
-          stream.writeAttribute("xpointer", "/facelet-taglib/*");
-          stream.writeEndElement();
+          _writeStartTagLibrary(stream, _FACELETS_TAG_LIBRARY_DTD);
+          // base goes first, expanded as the generated tags are written
+          includes.include(stream, configFile.toURL(), "/facelet-taglib/*");
           _writeTags(components, validators, converters, stream);
 
           _writeEndTagLibrary(stream);
           stream.close();
 
-          InputStream mergedStream = new ByteArrayInputStream(out.toByteArray());
-
-          // expand all the xi:include elements
-          SAXParserFactory saxFactory = SAXParserFactory.newInstance();
-          saxFactory.setNamespaceAware(true);
-          saxFactory.setValidating(false);
-          SAXParser saxParser = saxFactory.newSAXParser();
-          XMLReader mergedReader = saxParser.getXMLReader();
-          mergedReader = new XIncludeFilter(mergedReader, configFile.toURL());
-          // even with validating=false, DTD is still downloaded so that
-          // any entities contained in the document can be expanded.
-          // the following disables that behavior, also saving the time
-          // spent to parse the DTD
-          mergedReader.setEntityResolver(new EntityResolver()
-            {
-              public InputSource resolveEntity(
-                String publicId,
-                String systemId)
-              {
-                return new InputSource(new ByteArrayInputStream(new byte[0]));
-              }
-            });
-          InputSource mergedInput = new InputSource(mergedStream);
-          Source mergedSource = new SAXSource(mergedReader, mergedInput);
-
-          targetFile.delete();
-          targetFile.getParentFile().mkdirs();
-          Result mergedResult = new StreamResult(targetFile);
-
-          TransformerFactory transFactory = TransformerFactory.newInstance();
-          Transformer identity = transFactory.newTransformer();
-          identity.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC,
-                                     _FACELETS_TAG_LIBRARY_DOCTYPE_PUBLIC);
-          identity.setOutputProperty(OutputKeys.DOCTYPE_SYSTEM,
-                                     _FACELETS_TAG_LIBRARY_DOCTYPE_SYSTEM);
-          identity.transform(mergedSource, mergedResult);
-
-          targetFile.setReadOnly();
+          getGeneratedFiles().write(targetFile, out.toByteArray());
         }
         else if (components.hasNext()||validators.hasNext()||converters.hasNext())
         {
-          targetFile.getParentFile().mkdirs();
-          OutputStream out = new FileOutputStream(targetFile);
-          XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
           XMLStreamWriter stream = outputFactory.createXMLStreamWriter(out);
 
           _writeStartTagLibrary(stream, _FACELETS_TAG_LIBRARY_DTD);
@@ -184,38 +114,27 @@ public class GenerateFaceletsTaglibsMojo extends AbstractFacesMojo
           _writeTags(components, validators, converters, stream);
           _writeEndTagLibrary(stream);
           stream.close();
+
+          getGeneratedFiles().write(targetFile, out.toByteArray());
         }
         else if (configFile.exists())
         {
-          // copy if newer
-          if (configFile.lastModified() > targetFile.lastModified())
-          {
-            targetFile.delete();
-            targetFile.getParentFile().mkdirs();
-            FileUtils.copyFile(configFile, targetFile);
-            targetFile.setReadOnly();
-          }
+          // copy if changed
+          getGeneratedFiles().copy(configFile, targetFile);
+        }
+        else
+        {
+          targetFile.delete();
         }
 
         getLog().info("Generated " + targetPath);
       }
+      getGeneratedFiles().finish(getLog());
     }
     catch (XMLStreamException e)
     {
       throw new MojoExecutionException("Error during generation", e);
     }
-    catch (SAXException e)
-    {
-      throw new MojoExecutionException("Error during generation", e);
-    }
-    catch (TransformerException e)
-    {
-      throw new MojoExecutionException("Error during generation", e);
-    }
-    catch (ParserConfigurationException e)
-    {
-      throw new MojoExecutionException("Error during generation", e);
-    }
     catch (IOException e)
     {
       throw new MojoExecutionException("Error during generation", e);
@@ -419,15 +338,4 @@ public class GenerateFaceletsTaglibsMojo extends AbstractFacesMojo
     "<!DOCTYPE facelet-taglib PUBLIC \n" +
     "  \"" + _FACELETS_TAG_LIBRARY_DOCTYPE_PUBLIC + "\"\n" +
     "  \"" + _FACELETS_TAG_LIBRARY_DOCTYPE_SYSTEM + "\" >\n";
-
-  static final private String _XINCLUDE_FACELETS_TAG_LIBRARY_DTD =
-    "<!DOCTYPE taglib PUBLIC\n" +
-    "  \"" + _FACELETS_TAG_LIBRARY_DOCTYPE_PUBLIC + "\"\n" +
-    "  \"" + _FACELETS_TAG_LIBRARY_DOCTYPE_SYSTEM + "\" [\n" +
-    "      <!ELEMENT xi:include EMPTY>\n" +
-    "      <!ATTLIST xi:include\n" +
-    "          xmlns:xi CDATA #FIXED  \"" + XIncludeFilter.XINCLUDE_NAMESPACE + "\"\n" +
-    "          href     CDATA #IMPLIED\n" +
-    "          xpointer CDATA #IMPLIED>\n" +
-    "]>\n";
 }
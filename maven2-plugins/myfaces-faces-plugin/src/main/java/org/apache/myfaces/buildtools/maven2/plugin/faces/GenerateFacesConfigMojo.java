@@ -20,25 +20,19 @@ package org.apache.myfaces.buildtools.maven2.plugin.faces;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
-import org.apache.myfaces.buildtools.maven2.plugin.faces.util.XIncludeFilter;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.xml.sax.EntityResolver;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
-
-import javax.xml.parsers.*;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.util.XIncludeWriter;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.*;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import java.io.*;
 import java.net.URL;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 
 /**
  * @version $Id$
@@ -62,7 +56,8 @@ public class GenerateFacesConfigMojo extends AbstractFacesMojo
 
       URL[] index = readIndex(project);
 
-      if (!force && !isModifiedSince(index, targetFile.lastModified()))
+      if (!force &&
+          !isModifiedSince(index, getGeneratedFiles().lastGenerated(targetFile)))
       {
         getLog().info("Nothing to generate - " + targetPath + " is up to date");
       }
@@ -80,70 +75,44 @@ public class GenerateFacesConfigMojo extends AbstractFacesMojo
 
         if (!configURLs.isEmpty())
         {
-          URL baseURL = GenerateFacesConfigMojo.class.getResource("resources/faces-config.xml");
-          DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-          DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-          Document document = docBuilder.parse(baseURL.openStream());
-          Element root = document.getDocumentElement();
-
-          // embed each <xi:include> element
-          for (Iterator i = configURLs.iterator(); i.hasNext(); )
+          // merge the configs into a single faces-config element,
+          // expanding the xi:include elements as they are copied
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+          XMLStreamWriter stream = outputFactory.createXMLStreamWriter(out);
+          stream.writeStartDocument("1.0");
+          stream.writeStartElement("faces-config");
+          stream.writeDefaultNamespace(_JAVAEE_NAMESPACE);
+          stream.writeNamespace("mfp", _MAVEN_FACES_PLUGIN_NAMESPACE);
+
+          // the configs are merged in reverse order, so that each one
+          // comes ahead of those listed before it
+          XIncludeWriter includes = new XIncludeWriter();
+          for (ListIterator i = configURLs.listIterator(configURLs.size());
+               i.hasPrevious(); )
           {
-            URL url = (URL)i.next();
-            Element include = document.createElementNS("http://www.w3.org/2001/XInclude",
-                                                       "xi:include");
-            include.setAttribute("href", url.toExternalForm());
-            include.setAttribute("xpointer", "/faces-config/*");
-            root.insertBefore(include, root.getFirstChild());
+            URL url = (URL)i.previous();
+            includes.include(stream, url, "/faces-config/*");
           }
 
-          // Note: use a direct DOM->SAX reader
-          //       rather than transforming to string
-          TransformerFactory transFactory = TransformerFactory.newInstance();
-          Transformer identity = transFactory.newTransformer();
-          ByteArrayOutputStream out = new ByteArrayOutputStream();
-          identity.transform(new DOMSource(document), new StreamResult(out));
-
-          InputStream mergedStream = new ByteArrayInputStream(out.toByteArray());
-          // expand all the xi:include elements
-          SAXParserFactory saxFactory = SAXParserFactory.newInstance();
-          saxFactory.setNamespaceAware(true);
-          saxFactory.setValidating(false);
-          SAXParser saxParser = saxFactory.newSAXParser();
-          XMLReader mergedReader = saxParser.getXMLReader();
-          mergedReader = new XIncludeFilter(mergedReader, baseURL);
-          mergedReader.setEntityResolver(new EntityResolver()
-            {
-              public InputSource resolveEntity(
-                String publicId,
-                String systemId)
-              {
-                return new InputSource(new ByteArrayInputStream(new byte[0]));
-              }
-            });
-          InputSource mergedInput = new InputSource(mergedStream);
-          Source mergedSource = new SAXSource(mergedReader, mergedInput);
+          stream.writeEndElement();
+          stream.writeEndDocument();
+          stream.close();
+
+          Source mergedSource =
+            new StreamSource(new ByteArrayInputStream(out.toByteArray()));
 
           // Transform the combined faces-config.xml file to resolve
           // component-supertype, inject the DTD and ensure that
           // metadata is represented compatibly with JSF 1.1 syntax.
-          targetFile.delete();
-          targetFile.getParentFile().mkdirs();
-
-          File tmpFile = null;
-          OutputStream resultStream;
-          if (transformStylesheet != null)
-          {
-            tmpFile = File.createTempFile("generate-faces-config", null);
-            resultStream = new FileOutputStream(tmpFile);
-          }
-          else
-          {
-            resultStream = new FileOutputStream(targetFile);
-          }
+          // The result is kept in memory, so that the target file is
+          // only written when its content changes.
+          ByteArrayOutputStream resultStream = new ByteArrayOutputStream();
 
           Result mergedResult = new StreamResult(resultStream);
 
+          TransformerFactory transFactory = TransformerFactory.newInstance();
+
           URL xslURL;
           if (_is12())
             xslURL = getClass().getResource("resources/transform12.xsl");
@@ -164,7 +133,7 @@ public class GenerateFacesConfigMojo extends AbstractFacesMojo
           resultStream.close();
 
           // OK, if there's a transformSylesheet, we've written
-          // the output to a temporary file, now transform it again.
+          // the output to a temporary buffer, now transform it again.
           // =-=FIXME AdamWiner:  no, this is not the smartest and
           // fastest way to do it.  But after finding out
           // that XMLFilter apparently doesn't support XSL parameters,
@@ -173,36 +142,33 @@ public class GenerateFacesConfigMojo extends AbstractFacesMojo
           // tired of trying to be smart.  This is good enough.
           if (transformStylesheet != null)
           {
-            StreamSource tmpSource = new StreamSource(tmpFile);
+            StreamSource tmpSource = new StreamSource(
+                new ByteArrayInputStream(resultStream.toByteArray()));
             StreamSource transformSource = new StreamSource(
                 new File(configDirectory, transformStylesheet));
             Transformer finalTransform =
               transFactory.newTransformer(transformSource);
-            FileOutputStream finalOut = new FileOutputStream(targetFile);
+            ByteArrayOutputStream finalOut = new ByteArrayOutputStream();
             Result finalResult =
               new StreamResult(finalOut);
 
             finalTransform.transform(tmpSource, finalResult);
-            finalOut.close();
-            tmpFile.delete();
+            resultStream = finalOut;
           }
 
-          
-          targetFile.setReadOnly();
-
-          getLog().info("Generated " + targetPath);
+          if (getGeneratedFiles().write(targetFile, resultStream.toByteArray()))
+            getLog().info("Generated " + targetPath);
+          else
+            getLog().info("Nothing to write - " + targetPath + " is unchanged");
+          getGeneratedFiles().finish(getLog());
         }
       }
     }
-    catch (SAXException e)
-    {
-      throw new MojoExecutionException("Error during generation", e);
-    }
     catch (TransformerException e)
     {
       throw new MojoExecutionException("Error during generation", e);
     }
-    catch (ParserConfigurationException e)
+    catch (XMLStreamException e)
     {
       throw new MojoExecutionException("Error during generation", e);
     }
@@ -232,6 +198,12 @@ public class GenerateFacesConfigMojo extends AbstractFacesMojo
     return param;
   }
 
+  static private final String _JAVAEE_NAMESPACE =
+              "http://java.sun.com/xml/ns/javaee";
+
+  static private final String _MAVEN_FACES_PLUGIN_NAMESPACE =
+              "http://myfaces.apache.org/maven-faces-plugin";
+
   /**
    * @parameter expression="${project}"
    * @readonly
@@ -42,35 +42,14 @@ import org.apache.myfaces.buildtools.maven2.plugin.faces.util.ConverterFilter;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.FilteredIterator;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.Util;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.ValidatorFilter;
-import org.apache.myfaces.buildtools.maven2.plugin.faces.util.XIncludeFilter;
-import org.codehaus.plexus.util.FileUtils;
-import org.xml.sax.EntityResolver;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
-
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.util.XIncludeWriter;
+
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Result;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.sax.SAXSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.StringWriter;
 import java.lang.reflect.Modifier;
 import java.util.HashSet;
@@ -96,6 +75,7 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
       processIndex(project, resourcePath);
       _generateTagHandlers();
       _generateTagLibraryDescriptors();
+      getGeneratedFiles().finish(getLog());
     }
     catch (IOException e)
     {
@@ -136,6 +116,10 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
       // always add resources directory to project resource root
       addResourceRoot(project, generatedResourcesDirectory.getCanonicalPath());
 
+      // shared by all the tag libraries
+      XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+      XIncludeWriter includes = new XIncludeWriter();
+
       // taglibs map syntax requires distinct shortNames,
       // which is a Good Thing!
       for (Iterator i = taglibs.entrySet().iterator(); i.hasNext(); )
@@ -145,15 +129,15 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
         String namespaceURI = (String)entry.getValue();
 
         FacesConfigBean facesConfig = getFacesConfig();
-        Iterator components = facesConfig.components();
+        Iterator components = facesConfig.components(namespaceURI);
         components = new FilteredIterator(components, new SkipFilter());
-        components = new FilteredIterator(components, new ComponentTagLibraryFilter(namespaceURI));
+        components = new FilteredIterator(components, new ComponentTagFilter());
 
-        Iterator validators = facesConfig.validators();
-        validators = new FilteredIterator(validators, new ValidatorTagLibraryFilter(namespaceURI));
+        Iterator validators = facesConfig.validators(namespaceURI);
+        validators = new FilteredIterator(validators, new ValidatorTagFilter());
 
-        Iterator converters = facesConfig.converters();
-        converters = new FilteredIterator(converters, new ConverterTagLibraryFilter(namespaceURI));
+        Iterator converters = facesConfig.converters(namespaceURI);
+        converters = new FilteredIterator(converters, new ConverterTagFilter());
 
         String targetPath = "META-INF/" + shortName + ".tld";
         File targetFile = new File(generatedResourcesDirectory, targetPath);
@@ -161,8 +145,6 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
         String configPath = "META-INF/" + shortName + "-base.tld";
         File configFile = new File(configSourceDirectory, configPath);
 
-        targetFile.delete();
-
         boolean hasGeneratedTags = (components.hasNext() ||
                                     converters.hasNext() ||
                                     validators.hasNext());
@@ -170,17 +152,11 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
         if (hasGeneratedTags && configFile.exists())
         {
           ByteArrayOutputStream out = new ByteArrayOutputStream();
-          XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
           XMLStreamWriter stream = outputFactory.createXMLStreamWriter(out);
 
-          _writeStartTagLibrary(stream, _XINCLUDE_JSP_TAG_LIBRARY_DTD);
-          // base goes first
-          stream.writeStartElement("xi", "include",
-                                   XIncludeFilter.XINCLUDE_NAMESPACE);
-          stream.writeNamespace("xi", XIncludeFilter.XINCLUDE_NAMESPACE);
-          stream.writeAttribute("href", configFile.toURL().toExternalForm());
-          stream.writeAttribute("xpointer", "/taglib/*");
-          stream.writeEndElement();
+          _writeStartTagLibrary(stream, _JSP_TAG_LIBRARY_DTD);
+          // base goes first, expanded as the generated tags are written
+          includes.include(stream, configFile.toURL(), "/taglib/*");
           while (components.hasNext())
           {
             ComponentBean component = (ComponentBean)components.next();
@@ -199,54 +175,11 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
           _writeEndTagLibrary(stream);
           stream.close();
 
-          InputStream mergedStream = new ByteArrayInputStream(out.toByteArray());
-
-          // expand all the xi:include elements
-          SAXParserFactory saxFactory = SAXParserFactory.newInstance();
-          saxFactory.setNamespaceAware(true);
-          saxFactory.setValidating(false);
-          SAXParser saxParser = saxFactory.newSAXParser();
-          XMLReader mergedReader = saxParser.getXMLReader();
-          mergedReader = new XIncludeFilter(mergedReader, configFile.toURL());
-          // even with validating=false, DTD is still downloaded so that
-          // any entities contained in the document can be expanded.
-          // the following disables that behavior, also saving the time
-          // spent to parse the DTD
-          mergedReader.setEntityResolver(new EntityResolver()
-            {
-              public InputSource resolveEntity(
-                String publicId,
-                String systemId)
-              {
-                return new InputSource(new ByteArrayInputStream(new byte[0]));
-              }
-            });
-          InputSource mergedInput = new InputSource(mergedStream);
-          Source mergedSource = new SAXSource(mergedReader, mergedInput);
-
-          targetFile.delete();
-          targetFile.getParentFile().mkdirs();
-          Result mergedResult = new StreamResult(new FileOutputStream(targetFile));
-
-          TransformerFactory transFactory = TransformerFactory.newInstance();
-          Transformer identity = transFactory.newTransformer();
-          if (!_is12())
-          {
-            identity.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC,
-                                       _JSP_TAG_LIBRARY_DOCTYPE_PUBLIC);
-            identity.setOutputProperty(OutputKeys.DOCTYPE_SYSTEM,
-                                       _JSP_TAG_LIBRARY_DOCTYPE_SYSTEM);
-          }
-
-          identity.transform(mergedSource, mergedResult);
-
-          targetFile.setReadOnly();
+          getGeneratedFiles().write(targetFile, out.toByteArray());
         }
         else if (hasGeneratedTags)
         {
-          targetFile.getParentFile().mkdirs();
-          OutputStream out = new FileOutputStream(targetFile);
-          XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
           XMLStreamWriter stream = outputFactory.createXMLStreamWriter(out);
 
           _writeStartTagLibrary(stream, _is12() ? "2.1" : "1.2", shortName, namespaceURI);
@@ -267,32 +200,20 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
           }
           _writeEndTagLibrary(stream);
           stream.close();
+
+          getGeneratedFiles().write(targetFile, out.toByteArray());
         }
         else if (configFile.exists())
         {
-          // copy if newer
-          if (configFile.lastModified() > targetFile.lastModified())
-          {
-            targetFile.delete();
-            targetFile.getParentFile().mkdirs();
-            FileUtils.copyFile(configFile, targetFile);
-            targetFile.setReadOnly();
-          }
+          // copy if changed
+          getGeneratedFiles().copy(configFile, targetFile);
+        }
+        else
+        {
+          targetFile.delete();
         }
       }
     }
-    catch (SAXException e)
-    {
-      throw new MojoExecutionException("Error generating tag library", e);
-    }
-    catch (ParserConfigurationException e)
-    {
-      throw new MojoExecutionException("Error generating tag library", e);
-    }
-    catch (TransformerException e)
-    {
-      throw new MojoExecutionException("Error generating tag library", e);
-    }
     catch (XMLStreamException e)
     {
       throw new MojoExecutionException("Error generating tag library", e);
@@ -802,7 +723,8 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
           ConverterBean converter = (ConverterBean)converters.next();
           if (!converter.isTagClassExcluded())
           {
-              converterGen.generateTagHandler(converter, generatedSourceDirectory);
+              converterGen.generateTagHandler(converter, generatedSourceDirectory,
+                                              getGeneratedFiles());
               count++;
           }
         }
@@ -811,7 +733,8 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
           ValidatorBean validator = (ValidatorBean)validators.next();
           if (!validator.isTagClassExcluded())
           {
-              validatorGen.generateTagHandler(validator, generatedSourceDirectory);
+              validatorGen.generateTagHandler(validator, generatedSourceDirectory,
+                                              getGeneratedFiles());
               count++;    
           }          
         }
@@ -930,13 +853,8 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
         
         // delay write in case of error
         // timestamp should not be updated when an error occurs
-        // delete target file first, because it is readonly
-        targetFile.delete();
-        FileWriter fw = new FileWriter(targetFile);
-        StringBuffer buf = sw.getBuffer();
-        fw.write(buf.toString());
-        fw.close();
-        targetFile.setReadOnly();
+        // or when the content is unchanged
+        getGeneratedFiles().write(targetFile, sw.toString());
       }
       catch (Throwable e)
       {
@@ -967,8 +885,9 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
       File templateFile = new File(templateSourceDirectory, templatePath);
 
       // accept if templateFile is newer or component has been modified
-      return (templateFile.lastModified() > targetFile.lastModified() ||
-              component.isModifiedSince(targetFile.lastModified()));
+      long lastGenerated = getGeneratedFiles().lastGenerated(targetFile);
+      return (templateFile.lastModified() > lastGenerated ||
+              component.isModifiedSince(lastGenerated));
     }
   }
 
@@ -984,8 +903,9 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
       File templateFile = new File(templateSourceDirectory, templatePath);
 
       // accept if templateFile is newer or component has been modified
-      return (templateFile.lastModified() > targetFile.lastModified() ||
-              converter.isModifiedSince(targetFile.lastModified()));
+      long lastGenerated = getGeneratedFiles().lastGenerated(targetFile);
+      return (templateFile.lastModified() > lastGenerated ||
+              converter.isModifiedSince(lastGenerated));
     }
   }
 
@@ -1001,8 +921,9 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
       File templateFile = new File(templateSourceDirectory, templatePath);
 
       // accept if templateFile is newer or component has been modified
-      return (templateFile.lastModified() > targetFile.lastModified() ||
-              validator.isModifiedSince(targetFile.lastModified()));
+      long lastGenerated = getGeneratedFiles().lastGenerated(targetFile);
+      return (templateFile.lastModified() > lastGenerated ||
+              validator.isModifiedSince(lastGenerated));
     }
   }
 
@@ -1095,17 +1016,6 @@ public class GenerateJspTaglibsMojo extends AbstractFacesMojo
     "  \"" + _JSP_TAG_LIBRARY_DOCTYPE_PUBLIC + "\"\n" +
     "  \"" + _JSP_TAG_LIBRARY_DOCTYPE_SYSTEM + "\" >\n";
 
-  static final private String _XINCLUDE_JSP_TAG_LIBRARY_DTD =
-    "<!DOCTYPE taglib PUBLIC\n" +
-    "  \"" + _JSP_TAG_LIBRARY_DOCTYPE_PUBLIC + "\"\n" +
-    "  \"" + _JSP_TAG_LIBRARY_DOCTYPE_SYSTEM + "\" [\n" +
-    "      <!ELEMENT xi:include EMPTY>\n" +
-    "      <!ATTLIST xi:include\n" +
-    "          xmlns:xi CDATA #FIXED  \"" + XIncludeFilter.XINCLUDE_NAMESPACE + "\"\n" +
-    "          href     CDATA #IMPLIED\n" +
-    "          xpointer CDATA #IMPLIED>\n" +
-    "]>\n";
-
   static final private Set _CAN_COERCE = new HashSet();
   static
   {
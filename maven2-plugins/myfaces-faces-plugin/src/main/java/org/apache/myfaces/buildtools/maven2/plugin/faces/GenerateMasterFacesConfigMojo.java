@@ -18,11 +18,9 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.faces;
 
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.util.HashSet;
 
 import javax.xml.stream.XMLOutputFactory;
@@ -117,7 +115,7 @@ public class GenerateMasterFacesConfigMojo extends AbstractFacesMojo
 
       File targetFile = new File(targetDirectory, targetPath);
 
-      if (!force && targetFile.lastModified() > lastModified)
+      if (!force && getGeneratedFiles().lastGenerated(targetFile) > lastModified)
       {
         getLog().info("Nothing to generate - " + targetPath + " is up to date");
       }
@@ -125,10 +123,7 @@ public class GenerateMasterFacesConfigMojo extends AbstractFacesMojo
       {
         getLog().info("Generating " + targetPath);
 
-        targetFile.delete();
-        targetFile.getParentFile().mkdirs();
-
-        OutputStream out = new BufferedOutputStream(new FileOutputStream(targetFile));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
         XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
         XMLStreamWriter writer =  outputFactory.createXMLStreamWriter(out);
         writer.writeStartDocument("1.0");
@@ -154,7 +149,8 @@ public class GenerateMasterFacesConfigMojo extends AbstractFacesMojo
         writer.writeEndDocument();
         writer.close();
 
-        targetFile.setReadOnly();
+        getGeneratedFiles().write(targetFile, out.toByteArray());
+        getGeneratedFiles().finish(getLog());
       }
     }
     catch (XMLStreamException e)
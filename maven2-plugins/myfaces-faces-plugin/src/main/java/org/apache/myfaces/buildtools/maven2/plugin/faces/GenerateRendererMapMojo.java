@@ -19,9 +19,9 @@
 package org.apache.myfaces.buildtools.maven2.plugin.faces;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.Iterator;
 
 import org.apache.maven.plugin.MojoExecutionException;
@@ -47,6 +47,7 @@ public class GenerateRendererMapMojo extends AbstractFacesMojo
     {
       processIndex(project, resourcePath);
       _generateRendererMap();
+      getGeneratedFiles().finish(getLog());
     }
     catch (IOException e)
     {
@@ -89,8 +90,8 @@ public class GenerateRendererMapMojo extends AbstractFacesMojo
   {
     File outFile = new File(generatedSourceDirectory,
                             "/META-INF/" + rk.getRenderKitId() + ".renderkit");
-    FileWriter fw = new FileWriter(outFile);
-    PrintWriter pw = new PrintWriter(fw);
+    StringWriter sw = new StringWriter();
+    PrintWriter pw = new PrintWriter(sw);
     try
     {
       Iterator renderers = rk.renderers();
@@ -108,6 +109,7 @@ public class GenerateRendererMapMojo extends AbstractFacesMojo
     {
       pw.close();
     }
+    getGeneratedFiles().write(outFile, sw.toString());
   }
 
   /**
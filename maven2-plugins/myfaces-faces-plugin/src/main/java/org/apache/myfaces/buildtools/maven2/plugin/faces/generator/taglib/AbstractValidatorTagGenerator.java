@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.faces.generator.taglib;
 
+import org.apache.myfaces.buildtools.maven2.plugin.faces.io.GeneratedFiles;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.io.PrettyWriter;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.AbstractTagBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.PropertyBean;
@@ -28,7 +29,6 @@ import org.apache.maven.plugin.logging.Log;
 
 import java.io.File;
 import java.io.StringWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Set;
 import java.util.Iterator;
@@ -40,7 +40,8 @@ public abstract class AbstractValidatorTagGenerator extends AbstractTagGenerator
   }
 
    public void generateTagHandler(
-    ValidatorBean validator, File generatedSourceDirectory)
+    ValidatorBean validator, File generatedSourceDirectory,
+    GeneratedFiles generatedFiles)
   {
 
     try
@@ -66,14 +67,9 @@ public abstract class AbstractValidatorTagGenerator extends AbstractTagGenerator
 
       // delay write in case of error
       // timestamp should not be updated when an error occurs
-      // delete target file first, because it is readonly
+      // or when the content is unchanged
       File targetFile = createFile(generatedSourceDirectory, validator.getTagClass());
-      targetFile.delete();
-      FileWriter fw = new FileWriter(targetFile);
-      StringBuffer buf = sw.getBuffer();
-      fw.write(buf.toString());
-      fw.close();
-      targetFile.setReadOnly();
+      generatedFiles.write(targetFile, sw.toString());
     }
     catch (Throwable e)
     {
@@ -0,0 +1,263 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.faces.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Writes generated files only when their content changes.
+ * <p>
+ * Generated content is rendered into memory first and compared with the
+ * existing file. An unchanged file is left alone, so its timestamp does not
+ * make the compiler or the resources plugin process it again.
+ * <p>
+ * The plugins are released separately and share no library, so the xrts
+ * plugin has a copy of this class, identical but for its package, and the
+ * builder plugin a thread safe variant without the stamp file, whose goals
+ * keep their own cache of inputs. A change to one should be made to the
+ * others.
+ */
+public class GeneratedFiles
+{
+  /**
+   * Creates an instance that does not remember when unchanged files were
+   * last generated.
+   */
+  public GeneratedFiles()
+  {
+    this(null);
+  }
+
+  /**
+   * Creates an instance that records in a stamp file when each unchanged
+   * file was last generated, as its timestamp no longer tells.
+   *
+   * @param stampFile  the stamp file, or null
+   */
+  public GeneratedFiles(
+    File stampFile)
+  {
+    _stampFile = stampFile;
+  }
+
+  /**
+   * Returns when a file was last generated: when it was last written, or
+   * when its content was last found unchanged.  Use this instead of the
+   * timestamp of the file to tell whether it is older than its inputs.
+   *
+   * @return the time, or 0 if the file does not exist
+   */
+  public long lastGenerated(
+    File targetFile)
+  {
+    if (!targetFile.exists())
+      return 0L;
+
+    long lastGenerated = targetFile.lastModified();
+    String stamp = _getStamps().getProperty(targetFile.getAbsolutePath());
+    if (stamp != null)
+      lastGenerated = Math.max(lastGenerated, Long.parseLong(stamp));
+    return lastGenerated;
+  }
+
+  /**
+   * Writes a file in the platform encoding, like <code>FileWriter</code>.
+   *
+   * @return true if the file was written
+   */
+  public boolean write(
+    File   targetFile,
+    String content) throws IOException
+  {
+    return write(targetFile, content.getBytes());
+  }
+
+  /**
+   * Writes a file and makes it read only.
+   *
+   * @return true if the file was written
+   */
+  public boolean write(
+    File   targetFile,
+    byte[] content) throws IOException
+  {
+    if (_isUnchanged(targetFile, content))
+    {
+      _getStamps().setProperty(targetFile.getAbsolutePath(),
+                               String.valueOf(System.currentTimeMillis()));
+      _unchanged++;
+      return false;
+    }
+
+    _getStamps().remove(targetFile.getAbsolutePath());
+
+    // delete target file first, because it is readonly
+    targetFile.delete();
+    targetFile.getParentFile().mkdirs();
+    OutputStream out = new FileOutputStream(targetFile);
+    try
+    {
+      out.write(content);
+    }
+    finally
+    {
+      out.close();
+    }
+    targetFile.setReadOnly();
+    _changed++;
+    return true;
+  }
+
+  /**
+   * Copies a file and makes the copy read only.
+   *
+   * @return true if the file was written
+   */
+  public boolean copy(
+    File sourceFile,
+    File targetFile) throws IOException
+  {
+    byte[] content = new byte[(int)sourceFile.length()];
+    InputStream in = new FileInputStream(sourceFile);
+    try
+    {
+      _readFully(in, content);
+    }
+    finally
+    {
+      in.close();
+    }
+    return write(targetFile, content);
+  }
+
+  public int getChangedCount()
+  {
+    return _changed;
+  }
+
+  public int getUnchangedCount()
+  {
+    return _unchanged;
+  }
+
+  /**
+   * Saves the stamps of the unchanged files, and logs how many files were
+   * written and how many were left unchanged.
+   */
+  public void finish(
+    Log log) throws IOException
+  {
+    if (_stamps != null && _stampFile != null)
+    {
+      _stampFile.getParentFile().mkdirs();
+      OutputStream out = new FileOutputStream(_stampFile);
+      try
+      {
+        _stamps.store(out, null);
+      }
+      finally
+      {
+        out.close();
+      }
+    }
+
+    if (_changed + _unchanged > 0)
+    {
+      log.info(_changed + " file(s) changed, " + _unchanged + " unchanged");
+    }
+  }
+
+  private Properties _getStamps()
+  {
+    if (_stamps == null)
+    {
+      _stamps = new Properties();
+      if (_stampFile != null && _stampFile.exists())
+      {
+        try
+        {
+          InputStream in = new FileInputStream(_stampFile);
+          try
+          {
+            _stamps.load(in);
+          }
+          finally
+          {
+            in.close();
+          }
+        }
+        catch (IOException e)
+        {
+          // without the stamps, unchanged files are only generated again
+          _stamps.clear();
+        }
+      }
+    }
+    return _stamps;
+  }
+
+  private static boolean _isUnchanged(
+    File   targetFile,
+    byte[] content) throws IOException
+  {
+    if (!targetFile.isFile() || targetFile.length() != content.length)
+      return false;
+
+    byte[] existing = new byte[content.length];
+    InputStream in = new FileInputStream(targetFile);
+    try
+    {
+      _readFully(in, existing);
+    }
+    finally
+    {
+      in.close();
+    }
+    return Arrays.equals(existing, content);
+  }
+
+  private static void _readFully(
+    InputStream in,
+    byte[]      buffer) throws IOException
+  {
+    int offset = 0;
+    while (offset < buffer.length)
+    {
+      int read = in.read(buffer, offset, buffer.length - offset);
+      if (read < 0)
+        throw new EOFException();
+      offset += read;
+    }
+  }
+
+  private final File _stampFile;
+  private Properties _stamps;
+  private int _changed;
+  private int _unchanged;
+}
@@ -22,8 +22,12 @@ import org.apache.myfaces.buildtools.maven2.plugin.faces.util.CompoundIterator;
 
 import javax.xml.namespace.QName;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
@@ -119,6 +123,7 @@ public class ComponentBean extends ObjectBean
     String componentFamily)
   {
     _componentFamily = componentFamily;
+    _unflatten();
   }
 
   /**
@@ -344,6 +349,7 @@ public class ComponentBean extends ObjectBean
     String componentSupertype)
   {
     _componentSupertype = componentSupertype;
+    _unflatten();
   }
 
   /**
@@ -429,6 +435,7 @@ public class ComponentBean extends ObjectBean
     PropertyBean property)
   {
     _properties.put(property.getPropertyName(), property);
+    _unflatten();
   }
 
   /**
@@ -451,6 +458,9 @@ public class ComponentBean extends ObjectBean
     String propertyName,
     boolean flatten)
   {
+    if (flatten && _flattened != null)
+      return (PropertyBean)_flattened.propertyMap.get(propertyName);
+
     PropertyBean prop = findProperty(propertyName);
     if (prop == null && flatten)
     {
@@ -484,6 +494,9 @@ public class ComponentBean extends ObjectBean
   public boolean hasProperties(
     boolean flatten)
   {
+    if (flatten && _flattened != null)
+      return (_flattened.properties.length > 0);
+
     boolean hasProperties = !_properties.isEmpty();
 
     if (!hasProperties && flatten)
@@ -518,6 +531,9 @@ public class ComponentBean extends ObjectBean
   public Iterator properties(
     boolean flatten)
   {
+    if (flatten && _flattened != null)
+      return Arrays.asList(_flattened.properties).iterator();
+
     Iterator properties = properties();
     if (flatten)
     {
@@ -546,6 +562,7 @@ public class ComponentBean extends ObjectBean
     FacetBean facet)
   {
     _facets.put(facet.getFacetName(), facet);
+    _unflatten();
   }
 
   /**
@@ -564,6 +581,9 @@ public class ComponentBean extends ObjectBean
     String facetName,
     boolean flatten)
   {
+    if (flatten && _flattened != null)
+      return (FacetBean)_flattened.facetMap.get(facetName);
+
     FacetBean facet = findFacet(facetName);
     if (facet == null && flatten)
     {
@@ -596,6 +616,9 @@ public class ComponentBean extends ObjectBean
   public boolean hasFacets(
     boolean flatten)
   {
+    if (flatten && _flattened != null)
+      return (_flattened.facets.length > 0);
+
     boolean hasFacets = !_facets.isEmpty();
 
     if (!hasFacets && flatten)
@@ -630,6 +653,9 @@ public class ComponentBean extends ObjectBean
   public Iterator facets(
    boolean flatten)
   {
+    if (flatten && _flattened != null)
+      return Arrays.asList(_flattened.facets).iterator();
+
     Iterator facets = facets();
     if (flatten)
     {
@@ -783,6 +809,7 @@ public class ComponentBean extends ObjectBean
     else
     {
       _events.put(eventRef.getEventType(), eventRef);
+      _unflatten();
     }
   }
 
@@ -807,6 +834,9 @@ public class ComponentBean extends ObjectBean
   public boolean hasEvents(
     boolean flatten)
   {
+    if (flatten && _flattened != null)
+      return (_flattened.events.length > 0);
+
     boolean hasEvents = !_events.isEmpty();
 
     if (!hasEvents && flatten)
@@ -868,6 +898,9 @@ public class ComponentBean extends ObjectBean
   public Iterator events(
    boolean flatten)
   {
+    if (flatten && _flattened != null)
+      return Arrays.asList(_flattened.events).iterator();
+
     Iterator events = events();
     if (flatten)
     {
@@ -889,6 +922,9 @@ public class ComponentBean extends ObjectBean
     if (_componentFamily != null)
       return _componentFamily;
 
+    if (_flattened != null)
+      return _flattened.componentFamily;
+
     ComponentBean parent = resolveSupertype();
     return (parent != null) ? parent.findComponentFamily() : null;
   }
@@ -1027,6 +1063,92 @@ public class ComponentBean extends ObjectBean
     return (parent != null) ? parent.findJspTagClass() : null;
   }
 
+  /**
+   * Flattens the properties, facets and events of this component with
+   * those of its supertypes, so that the flattened lookups no longer walk
+   * the component hierarchy.  The supertypes are flattened first.
+   */
+  void flatten()
+  {
+    if (_flattened != null)
+      return;
+
+    if (_flattening)
+      throw new IllegalStateException("Component \"" + _componentType + "\" " +
+                                      "inherits from itself");
+
+    ComponentBean parent = resolveSupertype();
+    Flattened inherited = null;
+    if (parent != null)
+    {
+      _flattening = true;
+      try
+      {
+        parent.flatten();
+      }
+      finally
+      {
+        _flattening = false;
+      }
+      inherited = parent._flattened;
+    }
+
+    Flattened flattened = new Flattened();
+
+    // supertype properties come first
+    List properties = new ArrayList();
+    if (inherited != null)
+    {
+      properties.addAll(Arrays.asList(inherited.properties));
+      flattened.propertyMap.putAll(inherited.propertyMap);
+    }
+    properties.addAll(_properties.values());
+    flattened.propertyMap.putAll(_properties);
+    flattened.properties =
+      (PropertyBean[])properties.toArray(new PropertyBean[properties.size()]);
+
+    // own facets and events come first
+    List facets = new ArrayList(_facets.values());
+    if (inherited != null)
+    {
+      facets.addAll(Arrays.asList(inherited.facets));
+      flattened.facetMap.putAll(inherited.facetMap);
+    }
+    flattened.facetMap.putAll(_facets);
+    flattened.facets = (FacetBean[])facets.toArray(new FacetBean[facets.size()]);
+
+    List events = new ArrayList(_events.values());
+    if (inherited != null)
+      events.addAll(Arrays.asList(inherited.events));
+    flattened.events =
+      (EventRefBean[])events.toArray(new EventRefBean[events.size()]);
+
+    if (_componentFamily != null)
+      flattened.componentFamily = _componentFamily;
+    else if (inherited != null)
+      flattened.componentFamily = inherited.componentFamily;
+
+    _flattened = flattened;
+  }
+
+  /**
+   * Drops the flattened lookups.
+   */
+  void unflatten()
+  {
+    _flattened = null;
+  }
+
+  private void _unflatten()
+  {
+    // the flattened lookups of subtypes include those of this component
+    FacesConfigBean owner = getOwner();
+    if (owner != null)
+      owner.unflatten();
+    else
+      unflatten();
+  }
+
   /**
    * Attaches the component and all event references.
    *
@@ -1111,6 +1233,21 @@ public class ComponentBean extends ObjectBean
   private int     _componentClassModifiers;
   private int     _tagClassModifiers;
   private String[] _unsupportedAgents = new String[0];
+  private Flattened _flattened;
+  private boolean _flattening;
+
+  /**
+   * The properties, facets and events of a component and its supertypes.
+   */
+  static private class Flattened
+  {
+    public PropertyBean[] properties;
+    public final Map propertyMap = new HashMap();
+    public FacetBean[] facets;
+    public final Map facetMap = new HashMap();
+    public EventRefBean[] events;
+    public String componentFamily;
+  }
 
   static private final String _TRINIDAD_COMPONENT_BASE =
                          "org.apache.myfaces.trinidad.component.UIXComponentBase";
@@ -0,0 +1,81 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.faces.parse;
+
+import java.util.LinkedList;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.digester.Digester;
+import org.xml.sax.SAXException;
+
+/**
+ * DigesterPool keeps configured digesters, with their SAX parser and
+ * rules, so that they are built once rather than for every document.
+ * <p>
+ * The rules of a digester keep state while a document is parsed, so a
+ * digester is only used by one parse at a time.  A parse that starts
+ * while all the digesters of the pool are in use, on another thread or
+ * for a nested document, gets a new digester.
+ */
+abstract public class DigesterPool
+{
+  /**
+   * Returns an idle digester, or a new one if none is idle.
+   *
+   * @return  the digester, with an empty stack
+   */
+  public Digester acquire()
+    throws ParserConfigurationException, SAXException
+  {
+    synchronized (_idle)
+    {
+      if (!_idle.isEmpty())
+        return (Digester)_idle.removeLast();
+    }
+
+    return createDigester();
+  }
+
+  /**
+   * Returns a digester to the pool once it has parsed a document.  A
+   * digester whose parse failed is simply dropped.
+   *
+   * @param digester  the digester to return
+   */
+  public void release(
+    Digester digester)
+  {
+    digester.clear();
+    digester.resetRoot();
+
+    synchronized (_idle)
+    {
+      _idle.add(digester);
+    }
+  }
+
+  /**
+   * Creates a digester, with its parser and all its rules.
+   */
+  abstract protected Digester createDigester()
+    throws ParserConfigurationException, SAXException;
+
+  private final LinkedList _idle = new LinkedList();
+}
@@ -19,11 +19,17 @@
 package org.apache.myfaces.buildtools.maven2.plugin.faces.parse;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.logging.Logger;
 
+import javax.xml.namespace.QName;
+
 /**
  * FacesConfigBean is a Java representation of the faces-config XML element.
  */
@@ -39,7 +45,10 @@ public class FacesConfigBean extends ObjectBean
   {
     converter.attach(this);
     if (converter.hasConverterId())
+    {
       _converters.put(converter.getConverterId(), converter);
+      _tagNamespaces = null;
+    }
   }
 
   /**
@@ -75,6 +84,21 @@ public class FacesConfigBean extends ObjectBean
     return _converters.values().iterator();
   }
 
+  /**
+   * Returns an iterator for the converters in this faces config
+   * whose tag is in a namespace, in the same order as converters().
+   *
+   * @param namespaceURI  the namespace of the converter tags
+   *
+   * @return  the converter iterator
+   */
+  public Iterator converters(
+    String namespaceURI)
+  {
+    return Collections.unmodifiableList(
+      _getTagNamespace(namespaceURI).converters).iterator();
+  }
+
   /**
    * Adds a validator to this faces config document.
    *
@@ -85,7 +109,10 @@ public class FacesConfigBean extends ObjectBean
   {
     validator.attach(this);
     if (validator.hasValidatorId())
+    {
       _validators.put(validator.getValidatorId(), validator);
+      _tagNamespaces = null;
+    }
   }
 
   /**
@@ -121,6 +148,21 @@ public class FacesConfigBean extends ObjectBean
     return _validators.values().iterator();
   }
 
+  /**
+   * Returns an iterator for the validators in this faces config
+   * whose tag is in a namespace, in the same order as validators().
+   *
+   * @param namespaceURI  the namespace of the validator tags
+   *
+   * @return  the validator iterator
+   */
+  public Iterator validators(
+    String namespaceURI)
+  {
+    return Collections.unmodifiableList(
+      _getTagNamespace(namespaceURI).validators).iterator();
+  }
+
   /**
    * Adds a component to this faces config document.
    *
@@ -134,6 +176,8 @@ public class FacesConfigBean extends ObjectBean
     {
       component.attach(this);
       _components.put(component.getComponentType(), component);
+      _tagNamespaces = null;
+      unflatten();
     }
   }
 
@@ -170,6 +214,56 @@ public class FacesConfigBean extends ObjectBean
     return _components.values().iterator();
   }
 
+  /**
+   * Returns an iterator for the components in this faces config
+   * whose tag is in a namespace, in the same order as components().
+   *
+   * @param namespaceURI  the namespace of the component tags
+   *
+   * @return  the component iterator
+   */
+  public Iterator components(
+    String namespaceURI)
+  {
+    return Collections.unmodifiableList(
+      _getTagNamespace(namespaceURI).components).iterator();
+  }
+
+  /**
+   * Resolves the supertypes of all components, once all faces config
+   * documents have been merged, so that the flattened properties, facets
+   * and events of each component are computed once rather than on every
+   * lookup.  Adding a component or changing one drops them again.
+   *
+   * @throws IllegalStateException  if a component is its own supertype
+   */
+  public void flatten()
+  {
+    if (_flattened)
+      return;
+
+    _flattened = true;
+    for (Iterator i = _components.values().iterator(); i.hasNext();)
+    {
+      ((ComponentBean)i.next()).flatten();
+    }
+  }
+
+  /**
+   * Drops the flattened properties, facets and events of all components.
+   */
+  void unflatten()
+  {
+    if (!_flattened)
+      return;
+
+    for (Iterator i = _components.values().iterator(); i.hasNext();)
+    {
+      ((ComponentBean)i.next()).unflatten();
+    }
+    _flattened = false;
+  }
+
   /**
    * Adds an event to this faces config document.
    *
@@ -199,6 +293,30 @@ public class FacesConfigBean extends ObjectBean
     }
   }
 
+  /**
+   * Adds the converters, validators, components, events and render kits
+   * of another faces config document, as though it had been parsed into
+   * this one.
+   *
+   * @param config  the faces config to add
+   */
+  void addAll(
+    FacesConfigBean config)
+  {
+    touch(config.getLastModified());
+
+    for (Iterator i = config.converters(); i.hasNext();)
+      addConverter((ConverterBean)i.next());
+    for (Iterator i = config.validators(); i.hasNext();)
+      addValidator((ValidatorBean)i.next());
+    for (Iterator i = config.components(); i.hasNext();)
+      addComponent((ComponentBean)i.next());
+    for (Iterator i = config.events(); i.hasNext();)
+      addEvent((EventBean)i.next());
+    for (Iterator i = config.renderKits(); i.hasNext();)
+      addRenderKit((RenderKitBean)i.next());
+  }
+
   private void _warning(String s)
   {
     _LOG.warning(s+"\n  parsing resource:"+getCurrentResource());
@@ -304,12 +422,82 @@ public class FacesConfigBean extends ObjectBean
     return _cur;
   }
 
+  private TagNamespace _getTagNamespace(
+    String namespaceURI)
+  {
+    // the tag libraries of every goal look their tags up by namespace,
+    // so the tags are grouped once rather than filtered for each of them
+    if (_tagNamespaces == null)
+    {
+      Map tagNamespaces = new HashMap();
+
+      for (Iterator i = _components.values().iterator(); i.hasNext(); )
+      {
+        ComponentBean component = (ComponentBean)i.next();
+        QName tagName = component.getTagName();
+        if (tagName != null)
+          _getTagNamespace(tagNamespaces, tagName).components.add(component);
+      }
+
+      for (Iterator i = _converters.values().iterator(); i.hasNext(); )
+      {
+        ConverterBean converter = (ConverterBean)i.next();
+        QName tagName = converter.getTagName();
+        if (tagName != null)
+          _getTagNamespace(tagNamespaces, tagName).converters.add(converter);
+      }
+
+      for (Iterator i = _validators.values().iterator(); i.hasNext(); )
+      {
+        ValidatorBean validator = (ValidatorBean)i.next();
+        QName tagName = validator.getTagName();
+        if (tagName != null)
+          _getTagNamespace(tagNamespaces, tagName).validators.add(validator);
+      }
+
+      _tagNamespaces = tagNamespaces;
+    }
+
+    TagNamespace tagNamespace = (TagNamespace)_tagNamespaces.get(namespaceURI);
+    return (tagNamespace != null) ? tagNamespace : _EMPTY_TAG_NAMESPACE;
+  }
+
+  static private TagNamespace _getTagNamespace(
+    Map   tagNamespaces,
+    QName tagName)
+  {
+    String namespaceURI = tagName.getNamespaceURI();
+    TagNamespace tagNamespace = (TagNamespace)tagNamespaces.get(namespaceURI);
+    if (tagNamespace == null)
+    {
+      tagNamespace = new TagNamespace();
+      tagNamespaces.put(namespaceURI, tagNamespace);
+    }
+
+    return tagNamespace;
+  }
+
+  /**
+   * The components, converters and validators with tags in one namespace.
+   */
+  static private class TagNamespace
+  {
+    public final List components = new ArrayList();
+    public final List converters = new ArrayList();
+    public final List validators = new ArrayList();
+  }
+
   private Map _converters = new TreeMap();
   private Map _validators = new TreeMap();
   private Map _components = new TreeMap();
   private Map _events = new TreeMap();
   private Map _renderKits = new TreeMap();
   private URL _currentResource = null;
+  // lazily grouped by tag namespace, and dropped when tags are added
+  private Map _tagNamespaces;
+  private boolean _flattened;
+
+  static private final TagNamespace _EMPTY_TAG_NAMESPACE = new TagNamespace();
 
   static private final Logger _LOG = Logger.getLogger(FacesConfigBean.class.getName());
 }
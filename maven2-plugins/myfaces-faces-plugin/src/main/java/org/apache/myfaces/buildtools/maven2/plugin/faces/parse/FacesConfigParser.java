@@ -32,9 +32,98 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * FacesConfigParser merges faces config documents into a FacesConfigBean.
+ * <p>
+ * The digesters, with their parser and rules, are kept in a pool and
+ * reused for every document merged by the same parser, and for every
+ * included document.
+ */
 public class FacesConfigParser
 {
+  /**
+   * Merges faces config documents into a faces config, in order.
+   * <p>
+   * With more than one thread the documents are parsed concurrently, each
+   * into its own faces config, which are then added to the owner in the
+   * order of the documents.  The owner ends up the same as if the documents
+   * had been merged one after another, and the first failure in that order
+   * is the one reported.
+   *
+   * @param owner    the faces config to merge into
+   * @param urls     the faces config documents
+   * @param threads  the number of threads parsing the documents
+   */
+  public void merge(
+    FacesConfigBean owner,
+    URL[]           urls,
+    int             threads) throws MojoExecutionException
+  {
+    if (threads <= 1 || urls.length <= 1)
+    {
+      for (int i=0; i < urls.length; i++)
+      {
+        URL old = owner.setCurrentResource(urls[i]);
+        try
+        {
+          merge(owner, urls[i]);
+        }
+        finally
+        {
+          owner.setCurrentResource(old);
+        }
+      }
+      return;
+    }
+
+    ExecutorService executor =
+      Executors.newFixedThreadPool(Math.min(threads, urls.length));
+    try
+    {
+      List parsed = new ArrayList(urls.length);
+      for (int i=0; i < urls.length; i++)
+      {
+        final URL url = urls[i];
+        parsed.add(executor.submit(new Callable()
+        {
+          public Object call() throws MojoExecutionException
+          {
+            FacesConfigBean config = new FacesConfigBean();
+            config.setCurrentResource(url);
+            merge(config, url);
+            return config;
+          }
+        }));
+      }
+
+      for (int i=0; i < urls.length; i++)
+      {
+        FacesConfigBean config = _get((Future)parsed.get(i), urls[i]);
+        URL old = owner.setCurrentResource(urls[i]);
+        try
+        {
+          owner.addAll(config);
+        }
+        finally
+        {
+          owner.setCurrentResource(old);
+        }
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
   public void merge(
     FacesConfigBean owner,
     URL             url) throws MojoExecutionException
@@ -52,11 +141,12 @@ public class FacesConfigParser
         // this current value as their own last-modified
         owner.touch(lastModified);
 
-        Digester digester = createDigester();
+        Digester digester = _digesters.acquire();
         digester.push(url);
         digester.push(owner);
         digester.parse(is);
         is.close();
+        _digesters.release(digester);
       }
     }
     catch (IOException e)
@@ -408,8 +498,7 @@ public class FacesConfigParser
       URL master = (URL)digester.getRoot();
       URL included = new URL(master, href);
 
-      Digester includedDigester = createEmptyDigester();
-      addComponentDigesterRules(includedDigester, false);
+      Digester includedDigester = _INCLUDE_DIGESTERS.acquire();
       includedDigester.push(included);
       includedDigester.push(digester.peek());
 
@@ -417,9 +506,57 @@ public class FacesConfigParser
       InputStream is = conn.getInputStream();
       includedDigester.parse(is);
       is.close();
+      _INCLUDE_DIGESTERS.release(includedDigester);
 
       // We don't really want the included object - but return it anyway
       return included;
     }
   }
+
+  static private FacesConfigBean _get(
+    Future parsed,
+    URL    url) throws MojoExecutionException
+  {
+    try
+    {
+      return (FacesConfigBean)parsed.get();
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted parsing " + url, e);
+    }
+    catch (ExecutionException e)
+    {
+      Throwable cause = e.getCause();
+      if (cause instanceof MojoExecutionException)
+        throw (MojoExecutionException)cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException)cause;
+      if (cause instanceof Error)
+        throw (Error)cause;
+      throw new MojoExecutionException("Failed to parse " + url, cause);
+    }
+  }
+
+  private final DigesterPool _digesters = new DigesterPool()
+  {
+    protected Digester createDigester()
+      throws ParserConfigurationException, SAXException
+    {
+      return FacesConfigParser.this.createDigester();
+    }
+  };
+
+  // Included documents only have the component rules
+  static private final DigesterPool _INCLUDE_DIGESTERS = new DigesterPool()
+  {
+    protected Digester createDigester()
+      throws ParserConfigurationException, SAXException
+    {
+      Digester digester = createEmptyDigester();
+      addComponentDigesterRules(digester, false);
+      return digester;
+    }
+  };
 }
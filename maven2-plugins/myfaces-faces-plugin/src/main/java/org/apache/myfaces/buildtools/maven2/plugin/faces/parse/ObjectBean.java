@@ -75,6 +75,16 @@ public class ObjectBean
     _lastModified = Math.max(_lastModified, lastModified);
   }
 
+  /**
+   * Returns the last modified timestamp of the parsed faces config document.
+   *
+   * @return  the last modified time in UTC millis
+   */
+  long getLastModified()
+  {
+    return _lastModified;
+  }
+
   private long _lastModified;
   private FacesConfigBean _owner;
 }
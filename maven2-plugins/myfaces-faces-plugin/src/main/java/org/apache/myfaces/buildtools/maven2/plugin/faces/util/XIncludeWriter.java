@@ -0,0 +1,336 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.faces.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Expands XIncludes while a document is being written, by copying the
+ * included content straight from an XMLStreamReader into the XMLStreamWriter
+ * of the including document.  Unlike the XIncludeFilter, this needs neither
+ * the including document to be serialized and parsed again, nor a
+ * Transformer to serialize the result.
+ * <p>
+ * Like the XPointerFilter, only the rudimentary XPointer syntax
+ * /element/otherelement/* is supported.  Prefixed names are resolved against
+ * the namespaces of the including document, while unprefixed names match the
+ * local name in any namespace, so that a base document may use either the
+ * DTD or the schema flavour of its vocabulary.  The included documents may
+ * themselves contain xi:include elements, which are expanded relative to
+ * their URL.  Comments of the included documents are not copied.
+ * <p>
+ * An XIncludeWriter can be reused for any number of documents, but not
+ * concurrently.
+ */
+public final class XIncludeWriter
+{
+  public XIncludeWriter()
+  {
+    _inputFactory = XMLInputFactory.newInstance();
+    _inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE,
+                              Boolean.TRUE);
+    // the DTDs of the included documents are neither needed nor downloaded
+    _inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    _inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                              Boolean.FALSE);
+  }
+
+  /**
+   * Writes the nodes of a document selected by an XPointer.
+   *
+   * @param out       the writer of the including document
+   * @param href      the URL of the included document
+   * @param xpointer  the XPointer of the nodes to include, or null to
+   *                  include the whole document element
+   */
+  public void include(
+    XMLStreamWriter out,
+    URL             href,
+    String          xpointer) throws XMLStreamException, IOException
+  {
+    String[] namespaceURIs;
+    String[] localNames;
+
+    if (xpointer == null)
+    {
+      namespaceURIs = new String[0];
+      localNames = new String[0];
+    }
+    else
+    {
+      if (!xpointer.startsWith("/") || !xpointer.endsWith("/*"))
+        throw new IllegalArgumentException("Unsupported xpointer syntax: " +
+                                           xpointer);
+
+      xpointer = xpointer.substring(0, xpointer.length() - 2).substring(1);
+      String[] elements = xpointer.split("/");
+      int count = elements.length;
+
+      namespaceURIs = new String[count];
+      localNames = new String[count];
+
+      NamespaceContext namespaces = out.getNamespaceContext();
+      for (int i = 0; i < count; i++)
+      {
+        String[] parts = elements[i].split(":");
+        if (parts.length == 1)
+        {
+          localNames[i] = parts[0];
+        }
+        else
+        {
+          String namespaceURI = namespaces.getNamespaceURI(parts[0]);
+          namespaceURIs[i] = (namespaceURI != null) ? namespaceURI : "";
+          localNames[i] = parts[1];
+        }
+      }
+    }
+
+    InputStream in = href.openStream();
+    try
+    {
+      XMLStreamReader reader =
+        _inputFactory.createXMLStreamReader(href.toExternalForm(), in);
+      try
+      {
+        _copy(reader, out, href, namespaceURIs, localNames);
+      }
+      finally
+      {
+        reader.close();
+      }
+    }
+    finally
+    {
+      in.close();
+    }
+  }
+
+  private void _copy(
+    XMLStreamReader reader,
+    XMLStreamWriter out,
+    URL             base,
+    String[]        namespaceURIs,
+    String[]        localNames) throws XMLStreamException, IOException
+  {
+    int count = localNames.length;
+    // the number of leading path elements matched by the open elements
+    int matched = 0;
+    int depth = 0;
+    // the depth of an expanded xi:include, whose fallback content is skipped
+    int skipDepth = -1;
+
+    while (reader.hasNext())
+    {
+      int event = reader.next();
+      boolean accepting = (matched == count) && (skipDepth < 0);
+
+      switch (event)
+      {
+        case XMLStreamConstants.START_ELEMENT:
+          if (depth < count)
+          {
+            if (matched == depth && _matches(reader,
+                                             namespaceURIs[depth],
+                                             localNames[depth]))
+              matched++;
+          }
+          else if (accepting)
+          {
+            if (_isInclude(reader))
+            {
+              String href = reader.getAttributeValue(null, "href");
+              if (href == null)
+                throw new XMLStreamException("Missing href attribute",
+                                             reader.getLocation());
+
+              include(out, _resolveURL(base, href),
+                      reader.getAttributeValue(null, "xpointer"));
+              skipDepth = depth;
+            }
+            else
+            {
+              _writeStartElement(reader, out);
+            }
+          }
+          depth++;
+          break;
+
+        case XMLStreamConstants.END_ELEMENT:
+          depth--;
+          if (depth < count)
+          {
+            if (matched > depth)
+              matched = depth;
+          }
+          else if (skipDepth == depth)
+          {
+            skipDepth = -1;
+          }
+          else if (accepting)
+          {
+            out.writeEndElement();
+          }
+          break;
+
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+          if (accepting && depth >= count)
+            out.writeCharacters(reader.getText());
+          break;
+
+        case XMLStreamConstants.CDATA:
+          if (accepting && depth >= count)
+            out.writeCData(reader.getText());
+          break;
+
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+          if (accepting && depth >= count)
+            out.writeProcessingInstruction(reader.getPITarget(),
+                                           reader.getPIData());
+          break;
+
+        default:
+          // comments, the DTD and the document events are not copied
+          break;
+      }
+    }
+  }
+
+  private void _writeStartElement(
+    XMLStreamReader reader,
+    XMLStreamWriter out) throws XMLStreamException
+  {
+    String prefix = _nonNull(reader.getPrefix());
+    String namespaceURI = _nonNull(reader.getNamespaceURI());
+
+    // the namespaces declared on the element itself are kept, as attribute
+    // values may depend on them, but not the XInclude namespace
+    Map declarations = new LinkedHashMap();
+    int namespaceCount = reader.getNamespaceCount();
+    for (int i = 0; i < namespaceCount; i++)
+    {
+      String namespace = _nonNull(reader.getNamespaceURI(i));
+      if (!XIncludeFilter.XINCLUDE_NAMESPACE.equals(namespace))
+        declarations.put(_nonNull(reader.getNamespacePrefix(i)), namespace);
+    }
+
+    // the top level elements of an include also need the namespaces
+    // they inherited from their excluded ancestors
+    NamespaceContext namespaces = out.getNamespaceContext();
+    _addDeclaration(declarations, namespaces, prefix, namespaceURI);
+    int attributeCount = reader.getAttributeCount();
+    for (int i = 0; i < attributeCount; i++)
+    {
+      String attributePrefix = _nonNull(reader.getAttributePrefix(i));
+      if (attributePrefix.length() > 0)
+        _addDeclaration(declarations, namespaces, attributePrefix,
+                        _nonNull(reader.getAttributeNamespace(i)));
+    }
+
+    out.writeStartElement(prefix, reader.getLocalName(), namespaceURI);
+
+    for (Iterator i = declarations.entrySet().iterator(); i.hasNext(); )
+    {
+      Map.Entry entry = (Map.Entry)i.next();
+      String declarationPrefix = (String)entry.getKey();
+      String declarationURI = (String)entry.getValue();
+      if (declarationPrefix.length() == 0)
+        out.writeDefaultNamespace(declarationURI);
+      else
+        out.writeNamespace(declarationPrefix, declarationURI);
+    }
+
+    for (int i = 0; i < attributeCount; i++)
+    {
+      out.writeAttribute(_nonNull(reader.getAttributePrefix(i)),
+                         _nonNull(reader.getAttributeNamespace(i)),
+                         reader.getAttributeLocalName(i),
+                         reader.getAttributeValue(i));
+    }
+  }
+
+  static private void _addDeclaration(
+    Map              declarations,
+    NamespaceContext namespaces,
+    String           prefix,
+    String           namespaceURI)
+  {
+    if (!declarations.containsKey(prefix) &&
+        !namespaceURI.equals(_nonNull(namespaces.getNamespaceURI(prefix))))
+    {
+      declarations.put(prefix, namespaceURI);
+    }
+  }
+
+  static private boolean _matches(
+    XMLStreamReader reader,
+    String          namespaceURI,
+    String          localName)
+  {
+    return (localName.equals(reader.getLocalName()) &&
+            (namespaceURI == null ||
+             namespaceURI.equals(_nonNull(reader.getNamespaceURI()))));
+  }
+
+  static private boolean _isInclude(
+    XMLStreamReader reader)
+  {
+    return ("include".equals(reader.getLocalName()) &&
+            XIncludeFilter.XINCLUDE_NAMESPACE.equals(reader.getNamespaceURI()));
+  }
+
+  static private URL _resolveURL(
+    URL    base,
+    String href) throws XMLStreamException
+  {
+    try
+    {
+      return new URL(base, href);
+    }
+    catch (MalformedURLException e)
+    {
+      throw new XMLStreamException("Error resolving href \"" + href + "\" " +
+                                   "at base \"" + base + "\"", e);
+    }
+  }
+
+  static private String _nonNull(
+    String value)
+  {
+    return (value != null) ? value : "";
+  }
+
+  private final XMLInputFactory _inputFactory;
+}
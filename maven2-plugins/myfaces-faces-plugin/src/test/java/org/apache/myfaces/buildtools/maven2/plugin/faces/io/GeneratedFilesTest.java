@@ -0,0 +1,99 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.faces.io;
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+/**
+ * Tests that a file whose content did not change keeps its timestamp, but
+ * is still known to be up to date.
+ */
+public class GeneratedFilesTest extends TestCase
+{
+  /**
+   * Creates a new GeneratedFilesTest.
+   *
+   * @param testName  the test to execute
+   */
+  public GeneratedFilesTest(
+    String testName)
+  {
+    super(testName);
+  }
+
+  public void setUp()
+  {
+    _dir = new File("target/mojo-test-output/generated-files");
+    _targetFile = new File(_dir, "Generated.java");
+    _stampFile = new File(_dir, "stamps.properties");
+    _targetFile.delete();
+    _stampFile.delete();
+  }
+
+  public void tearDown()
+  {
+    _targetFile.delete();
+    _stampFile.delete();
+  }
+
+  public void testUnchangedFileIsStamped() throws IOException
+  {
+    new GeneratedFiles(_stampFile).write(_targetFile, "class Generated {}");
+    _targetFile.setLastModified(1000L);
+    long start = System.currentTimeMillis();
+
+    GeneratedFiles generatedFiles = new GeneratedFiles(_stampFile);
+    assertEquals(1000L, generatedFiles.lastGenerated(_targetFile));
+    assertFalse(generatedFiles.write(_targetFile, "class Generated {}"));
+    generatedFiles.finish(new SystemStreamLog());
+
+    assertEquals(1000L, _targetFile.lastModified());
+    assertTrue(new GeneratedFiles(_stampFile).lastGenerated(_targetFile) >= start);
+    assertEquals(1000L, new GeneratedFiles().lastGenerated(_targetFile));
+  }
+
+  public void testChangedFileDropsStamp() throws IOException
+  {
+    GeneratedFiles generatedFiles = new GeneratedFiles(_stampFile);
+    generatedFiles.write(_targetFile, "class Generated {}");
+    generatedFiles.write(_targetFile, "class Generated {}");
+    generatedFiles.finish(new SystemStreamLog());
+
+    generatedFiles = new GeneratedFiles(_stampFile);
+    assertTrue(generatedFiles.write(_targetFile, "class Generated { int i; }"));
+    _targetFile.setLastModified(1000L);
+    generatedFiles.finish(new SystemStreamLog());
+
+    assertEquals(1000L, new GeneratedFiles(_stampFile).lastGenerated(_targetFile));
+  }
+
+  public void testMissingFile()
+  {
+    assertEquals(0L, new GeneratedFiles(_stampFile).lastGenerated(_targetFile));
+  }
+
+  private File _dir;
+  private File _targetFile;
+  private File _stampFile;
+}
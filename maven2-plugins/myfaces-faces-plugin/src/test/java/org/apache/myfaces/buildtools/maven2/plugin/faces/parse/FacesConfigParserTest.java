@@ -0,0 +1,214 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.faces.parse;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that faces config documents parsed by several threads are merged
+ * the same as when they are parsed one after another.
+ */
+public class FacesConfigParserTest extends TestCase
+{
+  /**
+   * Creates a new FacesConfigParserTest.
+   *
+   * @param testName  the test to execute
+   */
+  public FacesConfigParserTest(
+    String testName)
+  {
+    super(testName);
+  }
+
+  public void setUp() throws IOException
+  {
+    _dir = new File("target/mojo-test-output/faces-config-parser");
+    _dir.mkdirs();
+
+    // the timestamps are not in the order of the documents, so that an
+    // older document merged after a newer one shows up in the stamps
+    _urls = new URL[]
+    {
+      _write("first.xml", 3000000L,
+             _renderKit("Basic", "Button", "ButtonRenderer") +
+             _component("Button", "First") +
+             _converter("Date")),
+      _write("second.xml", 1000000L,
+             _renderKit("Basic", "Link", "LinkRenderer") +
+             _renderKit("Rich", "Button", "RichButtonRenderer") +
+             _component("Link", "Second") +
+             _component("Button", "Second")),
+      _write("third.xml", 5000000L,
+             _renderKit("Basic", "Button", "OverriddenRenderer") +
+             _component("Table", "Third") +
+             _converter("Number")),
+      _write("fourth.xml", 2000000L,
+             _renderKit("Rich", "Tree", "TreeRenderer") +
+             _component("Tree", "Fourth") +
+             _converter("Date")),
+    };
+  }
+
+  public void testMergeInParallel() throws Exception
+  {
+    FacesConfigBean sequential = new FacesConfigBean();
+    new FacesConfigParser().merge(sequential, _urls, 1);
+    String expected = _describe(sequential);
+
+    assertEquals(5000000L, sequential.getLastModified());
+    assertEquals("Second",
+                 sequential.findComponent("Button").getComponentClass());
+    assertEquals("OverriddenRenderer",
+                 sequential.findRenderKit("Basic").findRenderer(
+                   "Family", "Button").getRendererClass());
+    assertEquals(3000000L, sequential.findRenderKit("Rich").findRenderer(
+                   "Family", "Button").getLastModified());
+
+    for (int threads = 2; threads <= _urls.length + 1; threads++)
+    {
+      FacesConfigBean parallel = new FacesConfigBean();
+      new FacesConfigParser().merge(parallel, _urls, threads);
+      assertEquals(threads + " threads", expected, _describe(parallel));
+    }
+  }
+
+  public void testFailureInParallel() throws Exception
+  {
+    URL[] urls = new URL[_urls.length + 1];
+    System.arraycopy(_urls, 0, urls, 0, _urls.length);
+    urls[_urls.length] = new File(_dir, "missing.xml").toURI().toURL();
+
+    try
+    {
+      new FacesConfigParser().merge(new FacesConfigBean(), urls, 3);
+      fail("Merged a missing document");
+    }
+    catch (Exception e)
+    {
+      assertTrue(e.getMessage(), e.getMessage().indexOf("missing.xml") != -1);
+    }
+  }
+
+  /**
+   * Everything the goals read from a merged faces config, with the
+   * last-modified stamps.
+   */
+  private String _describe(
+    FacesConfigBean config)
+  {
+    List lines = new ArrayList();
+    lines.add("config " + config.getLastModified());
+    for (Iterator i = config.components(); i.hasNext();)
+    {
+      ComponentBean component = (ComponentBean)i.next();
+      lines.add("component " + component.getComponentType() + " " +
+                component.getComponentClass() + " " +
+                component.getLastModified());
+    }
+    for (Iterator i = config.converters(); i.hasNext();)
+    {
+      ConverterBean converter = (ConverterBean)i.next();
+      lines.add("converter " + converter.getConverterId() + " " +
+                converter.getLastModified());
+    }
+    for (Iterator i = config.renderKits(); i.hasNext();)
+    {
+      RenderKitBean renderKit = (RenderKitBean)i.next();
+      lines.add("renderKit " + renderKit.getRenderKitId() + " " +
+                renderKit.getLastModified());
+      for (Iterator j = renderKit.renderers(); j.hasNext();)
+      {
+        RendererBean renderer = (RendererBean)j.next();
+        lines.add("  renderer " + renderer.getRendererType() + " " +
+                  renderer.getRendererClass() + " " +
+                  renderer.getLastModified());
+      }
+    }
+    return lines.toString();
+  }
+
+  private URL _write(
+    String name,
+    long   lastModified,
+    String content) throws IOException
+  {
+    File file = new File(_dir, name);
+    Writer out = new FileWriter(file);
+    try
+    {
+      out.write("<?xml version='1.0'?>\n");
+      out.write("<faces-config xmlns=\"http://java.sun.com/xml/ns/javaee\">\n");
+      out.write(content);
+      out.write("</faces-config>\n");
+    }
+    finally
+    {
+      out.close();
+    }
+    assertTrue(file.setLastModified(lastModified));
+    return file.toURI().toURL();
+  }
+
+  private String _renderKit(
+    String renderKitId,
+    String rendererType,
+    String rendererClass)
+  {
+    return "  <render-kit>\n" +
+           "    <render-kit-id>" + renderKitId + "</render-kit-id>\n" +
+           "    <renderer>\n" +
+           "      <component-family>Family</component-family>\n" +
+           "      <renderer-type>" + rendererType + "</renderer-type>\n" +
+           "      <renderer-class>" + rendererClass + "</renderer-class>\n" +
+           "    </renderer>\n" +
+           "  </render-kit>\n";
+  }
+
+  private String _component(
+    String componentType,
+    String componentClass)
+  {
+    return "  <component>\n" +
+           "    <component-type>" + componentType + "</component-type>\n" +
+           "    <component-class>" + componentClass + "</component-class>\n" +
+           "  </component>\n";
+  }
+
+  private String _converter(
+    String converterId)
+  {
+    return "  <converter>\n" +
+           "    <converter-id>" + converterId + "</converter-id>\n" +
+           "    <converter-class>" + converterId + "Converter</converter-class>\n" +
+           "  </converter>\n";
+  }
+
+  private File  _dir;
+  private URL[] _urls;
+}
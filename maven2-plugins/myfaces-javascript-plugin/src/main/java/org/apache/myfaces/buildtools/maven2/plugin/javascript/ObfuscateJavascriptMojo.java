@@ -63,6 +63,7 @@ public class ObfuscateJavascriptMojo
           new Obfuscator(obfuscate, stripComments, stripWhitespaces, 
                          stripNewlines, stripSpecialKeywords, 
                          replaceCharLiterals, obfuscatorConfig);
+      _obfuscator.setThreads(threads);
 
 //      File outputDirectory = new File(targetDirectory, targetPath);
 
@@ -140,5 +141,12 @@ public class ObfuscateJavascriptMojo
    * @required
    */
   private ObfuscatorConfig obfuscatorConfig;
+
+  /**
+   * Number of files obfuscated at the same time.
+   *
+   * @parameter expression="${myfaces.javascript.threads}" default-value="1"
+   */
+  private int threads = 1;
 }
 
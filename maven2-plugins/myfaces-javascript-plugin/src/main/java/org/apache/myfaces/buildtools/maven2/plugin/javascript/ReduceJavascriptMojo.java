@@ -90,7 +90,8 @@ public class ReduceJavascriptMojo extends AbstractMojo
           File sourceDirectory = new File(sourceRoot, sourcePath);
           if (sourceDirectory.exists())
           {
-            String[] args = { sourceDirectory.getCanonicalPath(),
+            String[] args = { "-threads", String.valueOf(threads),
+                              sourceDirectory.getCanonicalPath(),
                               outputDirectory.getCanonicalPath() };
             // TODO: incremental check
             Reducer.main(args);
@@ -162,4 +163,11 @@ public class ReduceJavascriptMojo extends AbstractMojo
    */
   private String optimizeTargetPath;
 
+  /**
+   * Number of files reduced at the same time.
+   *
+   * @parameter expression="${myfaces.javascript.threads}" default-value="1"
+   */
+  private int threads = 1;
+
 }
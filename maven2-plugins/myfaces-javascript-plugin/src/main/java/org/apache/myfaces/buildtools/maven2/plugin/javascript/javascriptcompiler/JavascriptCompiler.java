@@ -45,6 +45,17 @@ public class JavascriptCompiler extends FileProcessor
     fileTable = new HashMap<String,String>();
   }
 
+  /**
+   * Each thread gets a compiler with a parser of its own. The file table
+   * is only read while processing, so it is shared.
+   */
+  protected FileProcessor newWorker()
+  {
+    JavascriptCompiler worker = new JavascriptCompiler();
+    worker.fileTable = fileTable;
+    return worker;
+  }
+
   private void init(InputStream in)
   {
     // apply overrides
@@ -18,11 +18,8 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
-import java.io.PrintWriter;
+import java.security.CodeSource;
 import java.text.NumberFormat;
 import java.util.Collections;
 import java.util.HashMap;
@@ -40,14 +37,10 @@ import org.apache.maven.artifact.versioning.VersionRange;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
-import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.CompressionException;
 import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.IsolatedClassLoader;
-import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.JSCompressor;
-import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.JSCompressorProxy;
 import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.JSMinCompressor;
 import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.IOUtil;
 
 /**
  * Abstact mojo for compressing JavaScripts.
@@ -101,6 +94,9 @@ public abstract class AbstractCompressMojo
 
     private static final String HR = StringUtils.rightPad( "", 78, "-" );
 
+    private static final String SHRINKSAFE =
+        "org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.ShrinksafeCompressor";
+
     /**
      * The maven project we are working on.
      * 
@@ -111,11 +107,20 @@ public abstract class AbstractCompressMojo
     MavenProject project;
 
     /**
-     * The available compressors
+     * Version of this plugin, part of the version of the compressors in the
+     * cache digest.
+     * 
+     * @parameter expression="${plugin.version}"
+     * @readonly
+     */
+    private String pluginVersion;
+
+    /**
+     * The available compressor classes
      */
     private Map compressors = new HashMap();
     {
-        compressors.put( "jsmin", new JSMinCompressor() );
+        compressors.put( "jsmin", JSMinCompressor.class );
     }
 
     /**
@@ -171,6 +176,24 @@ public abstract class AbstractCompressMojo
      */
     private String strip;
 
+    /**
+     * Number of scripts compressed at the same time. Shrinksafe always
+     * compresses one script at a time.
+     * 
+     * @parameter expression="${myfaces.javascript.threads}" default-value="1"
+     */
+    private int threads = 1;
+
+    /**
+     * Directory compressed scripts are kept in, so that scripts are only
+     * compressed again when they, the compressor, its version or its settings
+     * change. The cache is always used; delete the directory, or run the
+     * clean phase, to compress every script again.
+     * 
+     * @parameter default-value="${project.build.directory}/javascript-compress-cache"
+     */
+    private File cacheDirectory;
+
     /**
      * {@inheritDoc}
      * 
@@ -203,61 +226,48 @@ public abstract class AbstractCompressMojo
         // throw new MojoExecutionException( "languageVersion is invalid" );
         // }
 
-        JSCompressor jscompressor = getCompressor();
+        Class compressorClass = getCompressorClass();
+        int compressorThreads = threads;
+        if ( compressorThreads > 1 && SHRINKSAFE.equals( compressorClass.getName() ) )
+        {
+            // Shrinksafe uses the static state of the rhino shell
+            getLog().info( "Shrinksafe compresses one script at a time" );
+            compressorThreads = 1;
+        }
+        CompressionEngine engine =
+            new CompressionEngine( compressorClass, getCompressorVersion( compressorClass ),
+                optimizationLevel, languageVersion, strip, cacheDirectory, compressorThreads );
 
+        long start = System.currentTimeMillis();
         logStats( HR );
         getOutputDirectory().mkdirs();
-        long saved = 0;
         for ( int i = 0; i < files.length; i++ )
         {
             String file = files[i];
-            saved = compress( jscompressor, file );
-        }
-        logStats( HR );
-        logStats( "compression saved " + INTEGER.format( saved ) + " bytes" );
-    }
-
-    private File stripDebugs( File file )
-        throws MojoExecutionException
-    {
-        if ( strip == null )
-        {
-            return file;
-        }
-        try
-        {
-
-            File stripped = File.createTempFile( "stripped", ".js" );
-
-            BufferedReader reader = new BufferedReader( new FileReader( file ) );
-            PrintWriter writer = new PrintWriter( stripped );
-            String line;
-            while ( ( line = reader.readLine() ) != null )
+            String name = file;
+            if ( getExtension() != null )
             {
-                if ( !line.trim().startsWith( strip ) )
-                {
-                    writer.println( line );
-                }
+                int ext = file.lastIndexOf( '.' );
+                name = file.substring( 0, ext ) + "-" + getExtension() + file.substring( ext );
             }
-            IOUtil.close( reader );
-            IOUtil.close( writer );
-
-            FileUtils.copyFile( stripped, file );
-            stripped.delete();
+            File compressed = new File( getOutputDirectory(), name );
+            compressed.getParentFile().mkdirs();
+            engine.add( new File( getSourceDirectory(), file ), compressed );
         }
-        catch ( IOException e )
-        {
-            throw new MojoExecutionException( "Failed to strip debug code in " + file, e );
-        }
-        return file;
+        engine.finish( getLog(), !skipStats );
+        logStats( HR );
+        logStats( "compression saved " + INTEGER.format( engine.getSaved() ) + " bytes" );
+        logStats( INTEGER.format( engine.getCompressedCount() ) + " scripts compressed, "
+            + INTEGER.format( engine.getCachedCount() ) + " reused from cache in "
+            + INTEGER.format( System.currentTimeMillis() - start ) + " ms" );
     }
 
-    private JSCompressor getCompressor()
+    private Class getCompressorClass()
         throws MojoExecutionException
     {
         if ( compressors.containsKey( compressor ) )
         {
-            return (JSCompressor) compressors.get( compressor );
+            return (Class) compressors.get( compressor );
         }
 
         // Inspired by the surefire plugin
@@ -309,100 +319,29 @@ public abstract class AbstractCompressMojo
                 + compressorClassName, e );
         }
 
-        JSCompressor jscompressor;
-        try
-        {
-            jscompressor = new JSCompressorProxy( compressorClass.newInstance() );
-        }
-        catch ( Exception e )
-        {
-            getLog().info(
-                "Failed to create a isolated-classloader proxy for " + compressorClassName );
-            throw new MojoExecutionException( "Failed to create a isolated-classloader proxy for "
-                + compressorClassName, e );
-        }
         getLog().info( "Compressing javascript using " + compressor );
 
-        compressors.put( compressor, jscompressor );
-        return jscompressor;
-    }
-
-    private long compress( JSCompressor jscompressor, String file )
-        throws MojoExecutionException
-    {
-        String name = file;
-        if ( getExtension() != null )
-        {
-            int ext = file.lastIndexOf( '.' );
-            name = file.substring( 0, ext ) + "-" + getExtension() + file.substring( ext );
-        }
-        File compressed = new File( getOutputDirectory(), name );
-        compressed.getParentFile().mkdirs();
-        File in = new File( getSourceDirectory(), file );
-        if ( in.equals( compressed ) )
-        {
-            try
-            {
-                File temp = File.createTempFile( "compress", ".js" );
-                long size = compress( in, temp, jscompressor );
-                FileUtils.copyFile( temp, compressed );
-                temp.delete();
-                return size;
-            }
-            catch ( IOException e )
-            {
-                throw new MojoExecutionException( "Error creating temp file for compression", e );
-            }
-        }
-        else
-        {
-            return compress( in, compressed, jscompressor );
-        }
+        compressors.put( compressor, compressorClass );
+        return compressorClass;
     }
 
-    private long compress( File in, File compressed, JSCompressor jscompressor )
-        throws MojoExecutionException
-    {
-        if ( in.length() > 0 )
-        {
-            File stripped = stripDebugs( in );
-            try
-            {
-                jscompressor.compress( stripped, compressed, optimizationLevel, languageVersion );
-            }
-            catch ( CompressionException e )
-            {
-                throw new MojoExecutionException( "Failed to compress Javascript file "
-                    + e.getScript(), e );
-            }
-            String describe = in.getName() + " (" + INTEGER.format( in.length() ) + " bytes) ";
-            String title = StringUtils.rightPad( describe, 60, "." );
-            logStats( title + " compressed at " + ratio( compressed, in ) + "%" );
-            return in.length() - compressed.length();
-        }
-        else
-        {
-            try
-            {
-                compressed.createNewFile();
-                getLog().info( in.getName() + " was zero length; not compressed." );
-                return 0;
-            }
-            catch ( IOException e )
-            {
-                throw new MojoExecutionException( "Error handling zero length file.", e );
-            }
-        }
-    }
-
-    private long ratio( File compressed, File in )
+    /**
+     * The version of a compressor: the version of this plugin, and the jar
+     * the compressor is loaded from, which also changes between two builds of
+     * a snapshot.
+     */
+    private String getCompressorVersion( Class compressorClass )
     {
-        long length = in.length();
-        if ( length == 0 )
+        StringBuffer version = new StringBuffer( String.valueOf( pluginVersion ) );
+        CodeSource source = compressorClass.getProtectionDomain().getCodeSource();
+        File location = source == null ? null : FileUtils.toFile( source.getLocation() );
+        if ( location != null )
         {
-            return 0;
+            version.append( ':' ).append( location.getName() );
+            version.append( ':' ).append( location.length() );
+            version.append( ':' ).append( location.lastModified() );
         }
-        return ( ( ( length - compressed.length() ) * 100 ) / length );
+        return version.toString();
     }
 
     private void logStats( String line )
@@ -19,14 +19,22 @@
 package org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt;
 
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -36,9 +44,7 @@ import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.assembler.Asse
 import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.assembler.AssemblerReader;
 import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.assembler.AssemblerReaderManager;
 import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.assembler.Script;
-import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.IOUtil;
 
 /**
  * Goal which assemble javascript sources into the packaging directory. An
@@ -55,6 +61,9 @@ public class CompileMojo
     /** default includes pattern */
     private static final String[] DEFAULT_INCLUDES = { "**/*.js" };
 
+    /** written after each merged file, as a PrintWriter would */
+    private static final byte[] LINE_SEPARATOR = System.getProperty( "line.separator" ).getBytes();
+
     /**
      * The maven project.
      * 
@@ -112,28 +121,30 @@ public class CompileMojo
      */
     private String descriptorFormat;
 
+    /**
+     * Number of merged scripts assembled at the same time.
+     * 
+     * @parameter expression="${myfaces.javascript.threads}" default-value="1"
+     */
+    private int threads = 1;
+
     public void execute()
         throws MojoExecutionException, MojoFailureException
     {
         outputDirectory.mkdirs();
 
-        Set merged = assemble();
+        SourceIndex index = new SourceIndex( sourceDirectory, excludes );
+
+        Set merged = assemble( index );
 
         if ( includes == null )
         {
             includes = DEFAULT_INCLUDES;
         }
-        DirectoryScanner scanner = new DirectoryScanner();
-        scanner.setBasedir( sourceDirectory );
-        scanner.setExcludes( excludes );
-        scanner.addDefaultExcludes();
-
-        scanner.setIncludes( includes );
-        scanner.scan();
 
         try
         {
-            String[] files = scanner.getIncludedFiles();
+            String[] files = index.getIncludedFiles( includes );
             for ( int i = 0; i < files.length; i++ )
             {
                 String file = files[i];
@@ -157,11 +168,12 @@ public class CompileMojo
     /**
      * Honor the assembly rules to build merged scripts from individual ones.
      * 
+     * @param index the files of the source directory
      * @return a set of all script merged, to be skiped from the target
      * directory.
      * @throws MojoExecutionException
      */
-    protected Set assemble()
+    protected Set assemble( SourceIndex index )
         throws MojoExecutionException
     {
         if ( descriptor == null )
@@ -200,57 +212,131 @@ public class CompileMojo
             throw new MojoExecutionException( "Failed to read the assembler descriptor "
                 + descriptor.getAbsolutePath(), e );
         }
-        return assemble( assembler );
+        return assemble( assembler, index );
     }
 
-    private Set assemble( Assembler assembler )
+    private Set assemble( Assembler assembler, final SourceIndex index )
         throws MojoExecutionException
     {
-        Set merged = new HashSet();
+        List scripts = assembler.getScripts();
 
-        DirectoryScanner scanner = new DirectoryScanner();
-        scanner.setBasedir( sourceDirectory );
-        scanner.setExcludes( excludes );
-        scanner.addDefaultExcludes();
+        // Scripts can only be merged at the same time if each has a target
+        // file of its own
+        Set fileNames = new HashSet();
+        for ( Iterator iterator = scripts.iterator(); iterator.hasNext(); )
+        {
+            fileNames.add( ( (Script) iterator.next() ).getFileName() );
+        }
+        ExecutorService executor = null;
+        if ( threads > 1 && scripts.size() > 1 && fileNames.size() == scripts.size() )
+        {
+            executor = Executors.newFixedThreadPool( Math.min( threads, scripts.size() ) );
+        }
 
-        for ( Iterator iterator = assembler.getScripts().iterator(); iterator.hasNext(); )
+        try
         {
-            Script script = (Script) iterator.next();
-            String fileName = script.getFileName();
-            PrintWriter writer = null;
-            try
+            List jobs = new ArrayList( scripts.size() );
+            List results = new ArrayList( scripts.size() );
+            for ( Iterator iterator = scripts.iterator(); iterator.hasNext(); )
             {
-                File target = new File( outputDirectory, fileName );
-                target.getParentFile().mkdirs();
-                writer = new PrintWriter( target );
-
-                List scriptOrderedIncludes = script.getIncludes();
-                for ( Iterator iter = scriptOrderedIncludes.iterator(); iter.hasNext(); )
+                final Script script = (Script) iterator.next();
+                Callable job = new Callable()
+                {
+                    public Object call()
+                        throws IOException
+                    {
+                        return assemble( script, index );
+                    }
+                };
+                jobs.add( job );
+                if ( executor != null )
                 {
-                    String scriptInclude = (String) iter.next();
-                    scanner.setIncludes( new String[] { scriptInclude } );
-                    scanner.scan();
+                    results.add( executor.submit( job ) );
+                }
+            }
 
-                    String[] files = scanner.getIncludedFiles();
-                    for ( int i = 0; i < files.length; i++ )
+            // Collect the merged files in order, so the first failing
+            // script is the one reported
+            Set merged = new HashSet();
+            for ( int i = 0; i < jobs.size(); i++ )
+            {
+                String fileName = ( (Script) scripts.get( i ) ).getFileName();
+                try
+                {
+                    if ( executor != null )
                     {
-                        String file = files[i];
-                        File source = new File( sourceDirectory.getAbsolutePath() + "/" + file );
-                        IOUtil.copy( new FileReader( source ), writer );
-                        writer.println();
-                        merged.add( file );
+                        merged.addAll( (List) ( (Future) results.get( i ) ).get() );
+                    }
+                    else
+                    {
+                        merged.addAll( (List) ( (Callable) jobs.get( i ) ).call() );
                     }
                 }
+                catch ( ExecutionException e )
+                {
+                    throw new MojoExecutionException( "Failed to write merged file " + fileName,
+                        e.getCause() );
+                }
+                catch ( Exception e )
+                {
+                    throw new MojoExecutionException( "Failed to write merged file " + fileName, e );
+                }
             }
-            catch ( IOException e )
+            return merged;
+        }
+        finally
+        {
+            if ( executor != null )
             {
-                throw new MojoExecutionException( "Failed to write merged file " + fileName, e );
+                executor.shutdownNow();
             }
-            finally
+        }
+    }
+
+    /**
+     * Concatenate the files of a script, each followed by a line separator.
+     * 
+     * @return the files merged
+     */
+    private List assemble( Script script, SourceIndex index )
+        throws IOException
+    {
+        List merged = new ArrayList();
+        File target = new File( outputDirectory, script.getFileName() );
+        target.getParentFile().mkdirs();
+        FileChannel out = new FileOutputStream( target ).getChannel();
+        try
+        {
+            for ( Iterator iter = script.getIncludes().iterator(); iter.hasNext(); )
             {
-                IOUtil.close( writer );
+                String scriptInclude = (String) iter.next();
+                String[] files = index.getIncludedFiles( new String[] { scriptInclude } );
+                for ( int i = 0; i < files.length; i++ )
+                {
+                    String file = files[i];
+                    File source = new File( sourceDirectory, file );
+                    FileChannel in = new FileInputStream( source ).getChannel();
+                    try
+                    {
+                        long size = in.size();
+                        for ( long position = 0; position < size; )
+                        {
+                            position += in.transferTo( position, size - position, out );
+                        }
+                    }
+                    finally
+                    {
+                        in.close();
+                    }
+                    out.write( ByteBuffer.wrap( LINE_SEPARATOR ) );
+                    merged.add( file );
+                }
             }
         }
+        finally
+        {
+            out.close();
+        }
         return merged;
     }
 
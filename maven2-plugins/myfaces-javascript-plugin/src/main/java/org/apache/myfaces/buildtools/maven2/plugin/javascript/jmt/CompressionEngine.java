@@ -0,0 +1,493 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.CompressionException;
+import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.JSCompressor;
+import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.JSCompressorProxy;
+import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.JSMinCompressor;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Compresses scripts, optionally on several threads, and reuses the scripts
+ * compressed by previous builds.
+ * <p>
+ * Scripts are queued with {@link #add}, which starts compressing them right
+ * away when more than one thread is used. {@link #finish} then reports them
+ * in the order they were queued, so the stats and the error reported are the
+ * same whatever the number of threads. Each thread compresses with a
+ * compressor instance of its own.
+ * </p>
+ * <p>
+ * Debug lines are stripped while the script is read, the source file is left
+ * untouched. JSMin compresses the script in memory, other compressors are
+ * given a temporary file of their thread when the script was stripped or is
+ * compressed in place.
+ * </p>
+ * <p>
+ * When a cache directory is set, each compressed script is kept there under a
+ * digest of the script, the compressor, its version and its settings, and
+ * copied from there instead of compressed again as long as none of them
+ * change.
+ * </p>
+ */
+class CompressionEngine
+{
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+
+    private final Class compressorClass;
+
+    private final String compressorVersion;
+
+    private final int level;
+
+    private final int language;
+
+    private final String strip;
+
+    private final File cacheDirectory;
+
+    private final ExecutorService executor;
+
+    private final List jobs = new ArrayList();
+
+    /**
+     * The compressor of each thread.
+     */
+    private final ThreadLocal compressors = new ThreadLocal();
+
+    /**
+     * The temporary file of each thread, for compressors that only read
+     * files.
+     */
+    private final ThreadLocal tempFiles = new ThreadLocal();
+
+    private final List createdTempFiles = Collections.synchronizedList( new ArrayList() );
+
+    private final NumberFormat integer = NumberFormat.getIntegerInstance();
+
+    private long saved;
+
+    private int compressedCount;
+
+    private int cachedCount;
+
+    /**
+     * @param compressorClass the compressor, instantiated once per thread
+     * @param compressorVersion the version of the compressor, so that scripts
+     *  compressed by another version are not taken from the cache
+     * @param strip lines starting with this token are removed, or null
+     * @param cacheDirectory where compressed scripts are kept, or null to
+     *  always compress them
+     * @param threads the number of scripts compressed at the same time
+     */
+    CompressionEngine( Class compressorClass, String compressorVersion, int level, int language,
+                       String strip, File cacheDirectory, int threads )
+    {
+        this.compressorClass = compressorClass;
+        this.compressorVersion = compressorVersion;
+        this.level = level;
+        this.language = language;
+        this.strip = strip;
+        this.cacheDirectory = cacheDirectory;
+        this.executor = threads > 1 ? Executors.newFixedThreadPool( threads ) : null;
+    }
+
+    /**
+     * Queue a script to compress.
+     *
+     * @param in the script
+     * @param compressed the compressed script, may be the script itself
+     */
+    void add( File in, File compressed )
+    {
+        Job job = new Job( in, compressed );
+        if ( executor != null )
+        {
+            job.result = executor.submit( job );
+        }
+        jobs.add( job );
+    }
+
+    /**
+     * Compress every queued script, and log them in the order they were
+     * queued. Stops at the first script that fails.
+     *
+     * @param stats true to log the compression ratio of each script
+     */
+    void finish( Log log, boolean stats )
+        throws MojoExecutionException
+    {
+        try
+        {
+            for ( Iterator it = jobs.iterator(); it.hasNext(); )
+            {
+                Job job = (Job) it.next();
+                it.remove();
+                Result result = job.getResult();
+                if ( result.length == 0 )
+                {
+                    log.info( job.in.getName() + " was zero length; not compressed." );
+                    continue;
+                }
+                if ( result.cached )
+                {
+                    cachedCount++;
+                }
+                else
+                {
+                    compressedCount++;
+                }
+                saved += result.length - result.compressedLength;
+                if ( stats )
+                {
+                    String describe =
+                        job.in.getName() + " (" + integer.format( result.length ) + " bytes) ";
+                    String title = StringUtils.rightPad( describe, 60, "." );
+                    log.info( title + " compressed at " + result.ratio() + "%" );
+                }
+            }
+        }
+        finally
+        {
+            jobs.clear();
+            if ( executor != null )
+            {
+                executor.shutdownNow();
+            }
+            for ( Iterator it = createdTempFiles.iterator(); it.hasNext(); )
+            {
+                ( (File) it.next() ).delete();
+            }
+        }
+    }
+
+    /**
+     * @return the bytes saved by compressing every script
+     */
+    long getSaved()
+    {
+        return saved;
+    }
+
+    /**
+     * @return the number of scripts compressed
+     */
+    int getCompressedCount()
+    {
+        return compressedCount;
+    }
+
+    /**
+     * @return the number of scripts copied from the cache
+     */
+    int getCachedCount()
+    {
+        return cachedCount;
+    }
+
+    private Result compress( File in, File compressed )
+        throws IOException, CompressionException, MojoExecutionException
+    {
+        byte[] source = read( in );
+        if ( source.length == 0 )
+        {
+            compressed.createNewFile();
+            return new Result( 0, 0, false );
+        }
+
+        byte[] script = stripDebugs( source );
+        File cached = null;
+        if ( cacheDirectory != null )
+        {
+            cached = new File( cacheDirectory, digest( script ) + ".js" );
+            if ( cached.isFile() )
+            {
+                FileUtils.copyFile( cached, compressed );
+                return new Result( source.length, compressed.length(), true );
+            }
+        }
+
+        JSCompressor compressor = getCompressor();
+        if ( compressor instanceof JSMinCompressor )
+        {
+            OutputStream out = new BufferedOutputStream( new FileOutputStream( compressed ) );
+            try
+            {
+                ( (JSMinCompressor) compressor ).compress( new ByteArrayInputStream( script ), out,
+                    in );
+            }
+            finally
+            {
+                IOUtil.close( out );
+            }
+        }
+        else
+        {
+            File input = in;
+            if ( script != source || in.equals( compressed ) )
+            {
+                input = getTempFile();
+                write( input, script );
+            }
+            compressor.compress( input, compressed, level, language );
+        }
+
+        if ( cached != null )
+        {
+            // Another thread may be caching the same script
+            cacheDirectory.mkdirs();
+            File temp = File.createTempFile( "compressed", ".tmp", cacheDirectory );
+            FileUtils.copyFile( compressed, temp );
+            if ( !temp.renameTo( cached ) )
+            {
+                temp.delete();
+            }
+        }
+        return new Result( source.length, compressed.length(), false );
+    }
+
+    private static byte[] read( File file )
+        throws IOException
+    {
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            return IOUtil.toByteArray( in );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    private static void write( File file, byte[] content )
+        throws IOException
+    {
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( content );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    private byte[] stripDebugs( byte[] source )
+        throws IOException
+    {
+        if ( strip == null )
+        {
+            return source;
+        }
+        BufferedReader reader =
+            new BufferedReader( new InputStreamReader( new ByteArrayInputStream( source ) ) );
+        ByteArrayOutputStream stripped = new ByteArrayOutputStream( source.length );
+        PrintWriter writer = new PrintWriter( new OutputStreamWriter( stripped ) );
+        String line;
+        while ( ( line = reader.readLine() ) != null )
+        {
+            if ( !line.trim().startsWith( strip ) )
+            {
+                writer.println( line );
+            }
+        }
+        writer.close();
+        return stripped.toByteArray();
+    }
+
+    private String digest( byte[] script )
+        throws MojoExecutionException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( DIGEST_ALGORITHM );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new MojoExecutionException( "No " + DIGEST_ALGORITHM + " digest available", e );
+        }
+        digest.update( ( compressorClass.getName() + ":" + compressorVersion + ":" + level + ":"
+            + language + ":" ).getBytes() );
+        digest.update( script );
+
+        byte[] bytes = digest.digest();
+        StringBuffer hex = new StringBuffer( bytes.length * 2 );
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            hex.append( Character.forDigit( ( bytes[i] >> 4 ) & 0xF, 16 ) );
+            hex.append( Character.forDigit( bytes[i] & 0xF, 16 ) );
+        }
+        return hex.toString();
+    }
+
+    private JSCompressor getCompressor()
+        throws MojoExecutionException
+    {
+        JSCompressor compressor = (JSCompressor) compressors.get();
+        if ( compressor == null )
+        {
+            try
+            {
+                Object instance = compressorClass.newInstance();
+                compressor =
+                    instance instanceof JSCompressor ? (JSCompressor) instance
+                                    : new JSCompressorProxy( instance );
+            }
+            catch ( Exception e )
+            {
+                throw new MojoExecutionException( "Failed to create a isolated-classloader proxy for "
+                    + compressorClass.getName(), e );
+            }
+            compressors.set( compressor );
+        }
+        return compressor;
+    }
+
+    private File getTempFile()
+        throws IOException
+    {
+        File temp = (File) tempFiles.get();
+        if ( temp == null )
+        {
+            temp = File.createTempFile( "compress", ".js" );
+            createdTempFiles.add( temp );
+            tempFiles.set( temp );
+        }
+        return temp;
+    }
+
+    private static class Result
+    {
+        private final long length;
+
+        private final long compressedLength;
+
+        private final boolean cached;
+
+        Result( long length, long compressedLength, boolean cached )
+        {
+            this.length = length;
+            this.compressedLength = compressedLength;
+            this.cached = cached;
+        }
+
+        long ratio()
+        {
+            return ( ( length - compressedLength ) * 100 ) / length;
+        }
+    }
+
+    private class Job
+        implements Callable
+    {
+        private final File in;
+
+        private final File compressed;
+
+        private Future result;
+
+        Job( File in, File compressed )
+        {
+            this.in = in;
+            this.compressed = compressed;
+        }
+
+        public Object call()
+            throws Exception
+        {
+            return compress( in, compressed );
+        }
+
+        Result getResult()
+            throws MojoExecutionException
+        {
+            try
+            {
+                if ( result == null )
+                {
+                    return (Result) call();
+                }
+                try
+                {
+                    return (Result) result.get();
+                }
+                catch ( ExecutionException e )
+                {
+                    Throwable cause = e.getCause();
+                    if ( cause instanceof Exception )
+                    {
+                        throw (Exception) cause;
+                    }
+                    throw (Error) cause;
+                }
+            }
+            catch ( MojoExecutionException e )
+            {
+                throw e;
+            }
+            catch ( CompressionException e )
+            {
+                throw new MojoExecutionException( "Failed to compress Javascript file "
+                    + e.getScript(), e );
+            }
+            catch ( InterruptedException e )
+            {
+                throw new MojoExecutionException( "Interrupted while compressing " + in, e );
+            }
+            catch ( Exception e )
+            {
+                throw new MojoExecutionException( "Failed to compress Javascript file " + in, e );
+            }
+        }
+    }
+}
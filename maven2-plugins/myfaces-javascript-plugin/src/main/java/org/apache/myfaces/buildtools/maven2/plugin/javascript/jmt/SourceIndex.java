@@ -0,0 +1,121 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * The files of a source directory, scanned once, to resolve include patterns
+ * in memory instead of scanning the directory again for each of them.
+ * <p>
+ * Patterns are matched the way a {@link DirectoryScanner} matches them, and
+ * files are returned in the order a scanner would find them.
+ * </p>
+ */
+class SourceIndex
+{
+    private static final String REGEX_PREFIX = "%regex[";
+
+    private final String[] files;
+
+    private final Set fileSet = new HashSet();
+
+    /**
+     * @param excludes the exclusion patterns, the default excludes are
+     *  always added
+     */
+    SourceIndex( File baseDirectory, String[] excludes )
+    {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir( baseDirectory );
+        scanner.setExcludes( excludes );
+        scanner.addDefaultExcludes();
+        scanner.scan();
+        files = scanner.getIncludedFiles();
+        for ( int i = 0; i < files.length; i++ )
+        {
+            fileSet.add( files[i] );
+        }
+    }
+
+    /**
+     * @return the files that match any of the patterns, relative to the
+     *  source directory
+     */
+    String[] getIncludedFiles( String[] includes )
+    {
+        if ( includes.length == 1 && isLiteral( includes[0] ) )
+        {
+            String path = normalize( includes[0] );
+            return fileSet.contains( path ) ? new String[] { path } : new String[0];
+        }
+
+        String[] patterns = new String[includes.length];
+        for ( int i = 0; i < includes.length; i++ )
+        {
+            patterns[i] = normalize( includes[i] );
+        }
+        List included = new ArrayList();
+        for ( int i = 0; i < files.length; i++ )
+        {
+            for ( int j = 0; j < patterns.length; j++ )
+            {
+                if ( SelectorUtils.matchPath( patterns[j], files[i], true ) )
+                {
+                    included.add( files[i] );
+                    break;
+                }
+            }
+        }
+        return (String[]) included.toArray( new String[included.size()] );
+    }
+
+    private static boolean isLiteral( String pattern )
+    {
+        return pattern.indexOf( '*' ) < 0 && pattern.indexOf( '?' ) < 0
+            && !pattern.trim().startsWith( "%" ) && !pattern.trim().endsWith( "/" )
+            && !pattern.trim().endsWith( "\\" );
+    }
+
+    /**
+     * Normalize a pattern as a scanner does: use the platform separator, and
+     * include the whole content of a pattern ending with a separator.
+     */
+    private static String normalize( String pattern )
+    {
+        pattern = pattern.trim();
+        if ( pattern.startsWith( REGEX_PREFIX ) )
+        {
+            return pattern;
+        }
+        pattern = pattern.replace( '/', File.separatorChar ).replace( '\\', File.separatorChar );
+        if ( pattern.endsWith( File.separator ) )
+        {
+            pattern += "**";
+        }
+        return pattern;
+    }
+}
@@ -27,6 +27,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PushbackInputStream;
 
+import org.codehaus.plexus.util.IOUtil;
+
 /**
  * Use the Java version of the JSMin algorithm to compress a set of JS files.
  * For simplicity, the JSMin code (one class) is included in the plugin.
@@ -47,14 +49,42 @@ public class JSMinCompressor
     public void compress( File input, File output, int level, int language )
         throws CompressionException
     {
+        InputStream in = null;
+        OutputStream out = null;
         try
         {
-            new JSMin( new FileInputStream( input ), new FileOutputStream( output ) ).jsmin();
+            in = new FileInputStream( input );
+            out = new FileOutputStream( output );
+            compress( in, out, input );
         }
-        catch ( Exception e )
+        catch ( FileNotFoundException e )
         {
             throw new CompressionException( "Failed to create compressed file", e, input );
         }
+        finally
+        {
+            IOUtil.close( in );
+            IOUtil.close( out );
+        }
+    }
+
+    /**
+     * Compress a script read from a stream, without going through files.
+     * The streams are left open.
+     * 
+     * @param script the file the script comes from, for error reporting
+     */
+    public void compress( InputStream input, OutputStream output, File script )
+        throws CompressionException
+    {
+        try
+        {
+            new JSMin( input, output ).jsmin();
+        }
+        catch ( Exception e )
+        {
+            throw new CompressionException( "Failed to create compressed file", e, script );
+        }
     }
 
     public static class JSMin {
@@ -93,8 +93,33 @@ public class Obfuscator
     _config = config;
   }
 
+  /**
+   * Creates an obfuscator with the same settings as another one, but with
+   * its own parser and filters.
+   */
+  private Obfuscator(Obfuscator prototype)
+  {
+    super("js", false);
+    _obfuscate = prototype._obfuscate;
+    _stripComments = prototype._stripComments;
+    _stripWhitespaces = prototype._stripWhitespaces;
+    _stripNewlines = prototype._stripNewlines;
+    _stripSpecialKeywords = prototype._stripSpecialKeywords;
+    _replaceCharLiterals = prototype._replaceCharLiterals;
+    _config = prototype._config;
+  }
+
   //~--- methods ------------------------------------------------------------
 
+  /**
+   * The parser and the filters are reused from file to file, so each
+   * thread gets an obfuscator of its own.
+   */
+  protected FileProcessor newWorker()
+  {
+    return new Obfuscator(this);
+  }
+
   private void init(InputSource in)
   {
 
@@ -70,7 +70,9 @@ public class Detokenizer
       case Token.QUOTED :
         {
           char ch = tok.ch;
-          _out.print(ch+tok.string+ch);
+          _out.print(ch);
+          _out.print(tok.string);
+          _out.print(ch);
         }
         break;
       case Token.CONTROL :
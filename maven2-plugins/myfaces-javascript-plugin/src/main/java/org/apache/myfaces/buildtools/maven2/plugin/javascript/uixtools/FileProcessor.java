@@ -20,6 +20,13 @@ package org.apache.myfaces.buildtools.maven2.plugin.javascript.uixtools;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * This utility class can be used to perform some processing on input files,
@@ -84,6 +91,22 @@ public abstract class FileProcessor
     this(getExtensionFilter(extension), verbosity);
   }
 
+  /**
+   * Sets the number of files processed at the same time. If this is more
+   * than one, each thread processes its files with a {@link #newWorker()
+   * worker} of its own. The output, including errors, is the same as when
+   * processing the files one at a time. When failing fast, files after the
+   * first error may already have been processed, but no more are started.
+   * @param threads the number of threads. The default is one, which
+   *  processes the files on the calling thread.
+   */
+  public void setThreads(int threads)
+  {
+    if (threads<=0)
+      throw new IllegalArgumentException("threads is nonpositive:"+threads);
+    _threads = threads;
+  }
+
   /**
    * @param in the input file or directory
    * @param out if the input is a directory, then this must be the output
@@ -91,6 +114,9 @@ public abstract class FileProcessor
    * @return true if there were no errors. false otherwise.  */
   public boolean process(File in, File out)
   {
+    if ((_threads > 1) && in.isDirectory())
+      return _processInParallel(in, out);
+
     if (isVerbose) System.out.println("Processing file:"+in+" to file:"+out);
 
     if (in.isDirectory())
@@ -108,28 +134,185 @@ public abstract class FileProcessor
     }
     else
     {
-      try
+      if (_isSkipped(out))
       {
-        if (_dontOverwrite && out.exists())
+        _printSkipped(in, out);
+        return true;
+      }
+      Exception e = _processFile(this, in, out);
+      if (e != null)
+      {
+        _printError(in, out, e);
+        return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Returns a FileProcessor that processes files on another thread, at the
+   * same time as this one. Processors that keep state between files, like a
+   * parser they reuse, must return a new processor with the same settings.
+   * @return this processor. This is right for processors that keep no state
+   *  between files.
+   * @see #setThreads(int)
+   */
+  protected FileProcessor newWorker()
+  {
+    return this;
+  }
+
+  /**
+   * Processes the files of a directory on several threads. The directory
+   * tree is walked first, then the files are handed to the threads, and
+   * their results are reported in the order the files were found.
+   */
+  private boolean _processInParallel(File in, File out)
+  {
+    List jobs = new ArrayList();
+    _collect(in, out, jobs);
+
+    final ThreadLocal workers = new ThreadLocal()
+      {
+        protected Object initialValue()
         {
-          if (isVerbose) System.out.println("Skipping file:"+in+
-                                          " as destination file:"+out+
-                                          " already exists.");
+          return newWorker();
+        }
+      };
+
+    ExecutorService executor = Executors.newFixedThreadPool(_threads);
+    try
+    {
+      List results = new ArrayList(jobs.size());
+      for(int i=0, sz=jobs.size(); i<sz; i++)
+      {
+        final File[] job = (File[]) jobs.get(i);
+        if (job[0].isDirectory() || _isSkipped(job[1]))
+        {
+          results.add(null);
         }
         else
         {
-          out.getParentFile().mkdirs();
-          processFile(in, out);
+          results.add(executor.submit(new Callable()
+            {
+              public Object call()
+              {
+                return _processFile((FileProcessor) workers.get(),
+                                    job[0], job[1]);
+              }
+            }));
         }
-        return true;
       }
-      catch (Exception e)
+
+      boolean success = true;
+      for(int i=0, sz=jobs.size(); i<sz; i++)
       {
-        System.out.println("Error processing file:"+in+" to file:"+out);
-        e.printStackTrace();
-        return false;
+        File[] job = (File[]) jobs.get(i);
+        Future result = (Future) results.get(i);
+        if (isVerbose) System.out.println("Processing file:"+job[0]+
+                                          " to file:"+job[1]);
+        if (result == null)
+        {
+          if (!job[0].isDirectory())
+            _printSkipped(job[0], job[1]);
+          continue;
+        }
+
+        Exception e = (Exception) _getResult(result);
+        if (e != null)
+        {
+          _printError(job[0], job[1], e);
+          success = false;
+          if (_failFast) return false;
+        }
       }
+      return success;
     }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Adds the input and output files of a directory tree to a list, in the
+   * order they would be processed on a single thread.
+   */
+  private void _collect(File in, File out, List jobs)
+  {
+    jobs.add(new File[] {in, out});
+    if (in.isDirectory())
+    {
+      String[] names = in.list(_filter);
+      for(int i=0, sz=names.length; i<sz; i++)
+      {
+        _collect(new File(in, names[i]), new File(out, names[i]), jobs);
+      }
+    }
+  }
+
+  private static Object _getResult(Future result)
+  {
+    try
+    {
+      boolean interrupted = false;
+      for(;;)
+      {
+        try
+        {
+          Object value = result.get();
+          if (interrupted) Thread.currentThread().interrupt();
+          return value;
+        }
+        catch (InterruptedException e)
+        {
+          interrupted = true;
+        }
+      }
+    }
+    catch (ExecutionException e)
+    {
+      // processFile exceptions are returned, so this is an Error
+      Throwable cause = e.getCause();
+      if (cause instanceof Error) throw (Error) cause;
+      throw (RuntimeException) cause;
+    }
+  }
+
+  private boolean _isSkipped(File out)
+  {
+    return _dontOverwrite && out.exists();
+  }
+
+  /**
+   * @return the exception thrown while processing the file, or null
+   */
+  private static Exception _processFile(FileProcessor processor,
+                                        File in, File out)
+  {
+    try
+    {
+      out.getParentFile().mkdirs();
+      processor.processFile(in, out);
+      return null;
+    }
+    catch (Exception e)
+    {
+      return e;
+    }
+  }
+
+  private void _printSkipped(File in, File out)
+  {
+    if (isVerbose) System.out.println("Skipping file:"+in+
+                                      " as destination file:"+out+
+                                      " already exists.");
+  }
+
+  private static void _printError(File in, File out, Exception e)
+  {
+    System.out.println("Error processing file:"+in+" to file:"+out);
+    e.printStackTrace();
   }
 
   /**
@@ -150,4 +333,5 @@ public abstract class FileProcessor
 
   private   final boolean _failFast, _dontOverwrite;
   private   final FilenameFilter _filter;
+  private   int _threads = 1;
 }
\ No newline at end of file
@@ -30,26 +30,52 @@ import java.util.HashMap;
 public class Filter2 implements TokenReader
 {
 
+  /**
+   * Renames on a thread of its own.
+   */
   public Filter2(TokenReader in)
+  {
+    this(in, true);
+  }
+
+  /**
+   * @param threaded if true, renames on a thread of its own and hands the
+   *  tokens over in batches. Otherwise renames on the thread that reads the
+   *  tokens, reading from <code>in</code> as needed.
+   */
+  public Filter2(TokenReader in, boolean threaded)
   {
     _in = in;
-    Runnable runner = new Runnable()
-      {
-        public void run()
+    if (threaded)
+    {
+      TokenRing ring = new TokenRing();
+      _buffer = ring;
+      _tokens = ring;
+      _list = null;
+      Runnable runner = new Runnable()
         {
-          try
-          {
-            //ystem.out.println("Compressor: start:"+Thread.currentThread());
-            _run();
-            //ystem.out.println("Comressor: end:"+Thread.currentThread());
-          }
-          catch (InterruptedException e)
+          public void run()
           {
-            e.printStackTrace();
+            try
+            {
+              //ystem.out.println("Compressor: start:"+Thread.currentThread());
+              _run();
+              //ystem.out.println("Comressor: end:"+Thread.currentThread());
+            }
+            catch (InterruptedException e)
+            {
+              e.printStackTrace();
+            }
           }
-        }
-      };
-    new Thread(runner).start();
+        };
+      new Thread(runner).start();
+    }
+    else
+    {
+      _list = new TokenList();
+      _buffer = _list;
+      _tokens = _list;
+    }
   }
 
   /**
@@ -57,30 +83,39 @@ public class Filter2 implements TokenReader
    */
   public Token read() throws IOException, InterruptedException
   {
-    return _buffer.read();
+    if (_list != null)
+    {
+      try
+      {
+        for(;_list.isEmpty() && !_list.isClosed();)
+        {
+          if (!_processNext())
+            _list.close();
+        }
+      }
+      catch (RuntimeException e)
+      {
+        e.printStackTrace();
+        IOException ioe = new IOException();
+        ioe.initCause(e);
+        throw ioe;
+      }
+    }
+    return _tokens.read();
   }
 
   private void _run() throws InterruptedException
   {
     try
     {
-      Token cur = _in.read();
-      for(;cur!=null;)
+      for(;_processNext();)
       {
-        _process(cur);
-        cur = _in.read();
       }
     }
     catch (IOException e)
     {
       _buffer.write(e);
     }
-    catch (TokenException e)
-    {
-      e.printStackTrace();
-      _buffer.write(new IOException("Error parsing line:"+
-                                    e.getToken().lineNumber));
-    }
     catch (RuntimeException e)
     {
       e.printStackTrace();
@@ -89,6 +124,29 @@ public class Filter2 implements TokenReader
     _buffer.close();
   }
 
+  /**
+   * Reads and processes the next token.
+   * @return false if there are no more tokens to read.
+   */
+  private boolean _processNext() throws IOException, InterruptedException
+  {
+    Token cur = _in.read();
+    if (cur==null)
+      return false;
+
+    try
+    {
+      _process(cur);
+    }
+    catch (TokenException e)
+    {
+      e.printStackTrace();
+      throw new IOException("Error parsing line:"+
+                            e.getToken().lineNumber);
+    }
+    return true;
+  }
+
   /**
    * renames local variable names to short names.
    * First pass. sets a flag if this function uses the JS eval method.
@@ -309,7 +367,10 @@ public class Filter2 implements TokenReader
   private final TokenReader _in;
   private final NameGen _nameGen = new NameGen();
   private final HashMap _localVarMap = new HashMap();
-  private final TokenBuffer _buffer = new TokenBuffer();
+  private final TokenWriter _buffer;
+  private final TokenReader _tokens;
+  // only when renaming on the reading thread
+  private final TokenList _list;
   private final Vector _function = new Vector();
 
   private static final int ROOT_MODE =           0;
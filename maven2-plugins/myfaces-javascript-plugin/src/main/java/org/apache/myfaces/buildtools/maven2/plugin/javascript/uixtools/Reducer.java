@@ -36,12 +36,26 @@ public class Reducer extends FileProcessor
    * creates a new Reducer.
    * @param whitespaceComments if true removes comments and extra whitespace
    * @param localVars if true renames local variable names to shorter ones.
+   * @param threaded if true tokenizes and renames on threads of their own,
+   *  otherwise reduces each file on a single thread.
    */
-  public Reducer(boolean whitespaceComments, boolean localVars)
+  public Reducer(boolean whitespaceComments, boolean localVars,
+                 boolean threaded)
   {
     super(".js", false);
     _STRIP_WHITESPACE_COMMENTS = whitespaceComments;
     _RENAME_LOCAL_VARIABLES = localVars;
+    _THREADED = threaded;
+  }
+
+  /**
+   * creates a new Reducer, that reduces each file on a single thread.
+   * @param whitespaceComments if true removes comments and extra whitespace
+   * @param localVars if true renames local variable names to shorter ones.
+   */
+  public Reducer(boolean whitespaceComments, boolean localVars)
+  {
+    this(whitespaceComments, localVars, false);
   }
 
   public Reducer()
@@ -57,9 +71,9 @@ public class Reducer extends FileProcessor
   public void process(BufferedReader in, PrintWriter out)
     throws IOException, InterruptedException
   {
-    TokenReader tr = new Tokenizer(in);
+    TokenReader tr = new Tokenizer(in, _THREADED);
     if (_STRIP_WHITESPACE_COMMENTS) tr = new Filter1(tr);
-    if (_RENAME_LOCAL_VARIABLES) tr = new Filter2(tr);
+    if (_RENAME_LOCAL_VARIABLES) tr = new Filter2(tr, _THREADED);
     Detokenizer detok = new Detokenizer(out);
     for(;;)
     {
@@ -88,12 +102,15 @@ public class Reducer extends FileProcessor
     s = "Reduces JavaScript source code\n" +
       "Usage:\n" +
       "java oracle.uix.tools.uix22.javascript.Reducer" +
-      " [-norename] [-whitespace] [-help] input output \n" +
+      " [-norename] [-whitespace] [-threaded] [-threads n] [-help]" +
+      " input output \n" +
       " input/output can be either files or directories.\n" +
       " Directories will be processed recursively.\n" +
       " Only files with names that end with .js will be processed.\n" +
       " -norename prevents renaming local variables to short ones\n" +
       " -whitespace prevents removing comments and extra whitespace\n" +
+      " -threaded tokenizes and renames on threads of their own\n" +
+      " -threads processes n files at the same time\n" +
       " -help prints this message.";
     System.out.println(s);
   }
@@ -102,6 +119,8 @@ public class Reducer extends FileProcessor
   {
     boolean rename = true;
     boolean space = true;
+    boolean threaded = false;
+    int threads = 1;
 
     final int sz = args.length-2;
 
@@ -117,6 +136,24 @@ public class Reducer extends FileProcessor
       if (s.equals("-help")) _help();
       else if (s.equals("-norename")) rename = false;
       else if (s.equals("-whitespace")) space = false;
+      else if (s.equals("-threaded")) threaded = true;
+      else if (s.equals("-threads") && (i+1<sz))
+      {
+        try
+        {
+          threads = Integer.parseInt(args[++i]);
+        }
+        catch (NumberFormatException e)
+        {
+          threads = 0;
+        }
+        if (threads<=0)
+        {
+          System.out.println("Invalid number of threads:"+args[i]);
+          _help();
+          return;
+        }
+      }
       else
       {
         System.out.println("Unknown option:"+s);
@@ -127,10 +164,12 @@ public class Reducer extends FileProcessor
 
     File in = new File(args[sz]);
     File out = new File(args[sz+1]);
-    Reducer reducer = new Reducer(space, rename);
+    Reducer reducer = new Reducer(space, rename, threaded);
+    reducer.setThreads(threads);
     reducer.process(in, out);
   }
 
   private final boolean _STRIP_WHITESPACE_COMMENTS;
   private final boolean _RENAME_LOCAL_VARIABLES;
+  private final boolean _THREADED;
 }
\ No newline at end of file
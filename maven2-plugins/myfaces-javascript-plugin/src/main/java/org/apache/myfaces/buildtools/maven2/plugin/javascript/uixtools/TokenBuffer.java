@@ -26,7 +26,7 @@ import java.io.IOException;
  * reading and a single thread is writing.
  * @version $Name:  $ ($Revision$) $Date$
  */
-public class TokenBuffer extends Queue implements TokenReader
+public class TokenBuffer extends Queue implements TokenReader, TokenWriter
 {
 
   /**
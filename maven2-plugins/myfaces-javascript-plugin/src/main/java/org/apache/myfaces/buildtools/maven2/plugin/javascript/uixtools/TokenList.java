@@ -0,0 +1,124 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.javascript.uixtools;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * An unsynchronized token buffer, for stages that produce their tokens on
+ * the thread that reads them. The reader refills the list whenever it is
+ * {@link #isEmpty() empty} and not closed yet.
+ * @version $Name:  $ ($Revision$) $Date$
+ */
+public class TokenList implements TokenReader, TokenWriter
+{
+
+  public TokenList()
+  {
+    _buf = new Token[64];
+  }
+
+  /**
+   * @return true if there are no tokens left to read.
+   */
+  public boolean isEmpty()
+  {
+    return _head == _tail;
+  }
+
+  /**
+   * @return true if this list has been closed.
+   */
+  public boolean isClosed()
+  {
+    return _closed;
+  }
+
+  /**
+   * Never blocks: the list grows as needed.
+   */
+  public void write(Token tok)
+  {
+    _checkIsOpen();
+
+    if (_head == _buf.length)
+    {
+      if (_tail >= _buf.length / 2)
+      {
+        // make room at the end by moving the unread tokens to the front
+        System.arraycopy(_buf, _tail, _buf, 0, _head - _tail);
+        Arrays.fill(_buf, _head - _tail, _head, null);
+      }
+      else
+      {
+        Token[] buf = new Token[_buf.length * 2];
+        System.arraycopy(_buf, _tail, buf, 0, _head - _tail);
+        _buf = buf;
+      }
+      _head -= _tail;
+      _tail = 0;
+    }
+    _buf[_head++] = tok;
+  }
+
+  public void write(IOException e)
+  {
+    _checkIsOpen();
+    _exception = e;
+    close();
+  }
+
+  public void close()
+  {
+    _closed = true;
+  }
+
+  /**
+   * Never blocks.
+   * @return null if there are no tokens left to read.
+   * @see TokenReader
+   */
+  public Token read() throws IOException
+  {
+    if (_head == _tail)
+    {
+      if (_exception != null)
+        throw _exception;
+      return null;
+    }
+
+    Token tok = _buf[_tail];
+    _buf[_tail++] = null;
+    if (_tail == _head)
+      _head = _tail = 0;
+    return tok;
+  }
+
+  private void _checkIsOpen()
+  {
+    if (_closed)
+      throw new IllegalStateException("TokenList has been closed");
+  }
+
+  private Token[] _buf;
+  private int _head = 0, _tail = 0;
+  private boolean _closed = false;
+  private IOException _exception = null;
+}
@@ -0,0 +1,232 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.javascript.uixtools;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands tokens over from one producer thread to one consumer thread in
+ * batches.
+ * <p>
+ * Unlike {@link TokenBuffer}, which takes a lock and wakes up every waiting
+ * thread for each token, the producer fills a whole batch of tokens before
+ * publishing it, and the consumer then reads the batch without any
+ * synchronization. The batches are the slots of a ring, so no memory is
+ * allocated once the ring is created. A thread only parks when the ring is
+ * full or empty, and is only unparked by the other thread when it is
+ * actually waiting.
+ * <p>
+ * Exactly one thread may write to a TokenRing, and exactly one thread may
+ * read from it.
+ * @version $Name:  $ ($Revision$) $Date$
+ */
+public class TokenRing implements TokenReader, TokenWriter
+{
+
+  /**
+   * @param batchSize the number of tokens in a batch
+   * @param batches the number of batches in the ring.
+   */
+  public TokenRing(int batchSize, int batches)
+  {
+    if (batchSize<=0)
+      throw new IllegalArgumentException("batchSize is nonpositive:"+batchSize);
+    if (batches<=0)
+      throw new IllegalArgumentException("batches is nonpositive:"+batches);
+    _slots = new Token[batches][batchSize];
+    _counts = new int[batches];
+  }
+
+  public TokenRing()
+  {
+    this(256, 16);
+  }
+
+  /**
+   * Adds a token to the current batch, which is published when it is full.
+   * This method blocks while every batch of the ring is waiting to be read.
+   * @param tok the token to write to this ring
+   */
+  public void write(Token tok) throws InterruptedException
+  {
+    if (_writeSlot == null)
+    {
+      _checkIsOpen();
+      // wait for the slot to be read, the previous time round the ring
+      for(int spins=0; _head - _tail == _slots.length; spins++)
+      {
+        _await(spins, true);
+      }
+      _writeSlot = _slots[(int) (_head % _slots.length)];
+      _writeCount = 0;
+    }
+
+    _writeSlot[_writeCount++] = tok;
+    if (_writeCount == _writeSlot.length)
+      _publish();
+  }
+
+  public void write(IOException e) throws InterruptedException
+  {
+    _checkIsOpen();
+    _exception = e;
+    close();
+  }
+
+  /**
+   * Publishes the current batch, if any, and closes this ring.
+   */
+  public void close()
+  {
+    if (_closed)
+      return;
+    if (_writeSlot != null)
+      _publish();
+    // written after the last batch is published, see read()
+    _closed = true;
+    LockSupport.unpark(_consumer);
+  }
+
+  /**
+   * reads a Token from this ring. This method blocks until a batch is
+   * available.
+   * @return null if there is no more data and this ring has been closed.
+   * @see TokenReader
+   */
+  public Token read() throws IOException, InterruptedException
+  {
+    if (_readIndex < _readCount)
+      return _readSlot[_readIndex++];
+
+    if (_readSlot != null)
+    {
+      // give the slot back to the producer
+      _readSlot = null;
+      _tail++;
+      LockSupport.unpark(_producer);
+    }
+
+    for(int spins=0; _tail == _head; spins++)
+    {
+      if (_closed)
+      {
+        // _closed is written after the last _head, so _head is final now
+        if (_tail == _head)
+        {
+          if (_exception != null)
+            throw _exception;
+          return null;
+        }
+        break;
+      }
+      _await(spins, false);
+    }
+
+    int index = (int) (_tail % _slots.length);
+    _readSlot = _slots[index];
+    _readCount = _counts[index];
+    _readIndex = 1;
+    return _readSlot[0];
+  }
+
+  private void _publish()
+  {
+    _counts[(int) (_head % _slots.length)] = _writeCount;
+    _writeSlot = null;
+    // the volatile write makes the batch and its count visible to the reader
+    _head++;
+    LockSupport.unpark(_consumer);
+  }
+
+  /**
+   * Waits for the other thread: spins for a little while, as the other
+   * thread usually only needs to finish a batch, then parks until it
+   * unparks this thread.
+   */
+  private void _await(int spins, boolean producer) throws InterruptedException
+  {
+    if (spins < _SPINS)
+    {
+      Thread.yield();
+      return;
+    }
+
+    Thread current = Thread.currentThread();
+    if (producer)
+      _producer = current;
+    else
+      _consumer = current;
+
+    // Check again once the other thread can see this one is waiting: it
+    // either made its change before this check, or it unparks this thread.
+    if (!_isReady(producer))
+      LockSupport.parkNanos(this, _PARK_NANOS);
+
+    if (producer)
+      _producer = null;
+    else
+      _consumer = null;
+
+    if (Thread.interrupted())
+      throw new InterruptedException();
+  }
+
+  /**
+   * @return true if the producer has a free slot to write to, or the
+   *  consumer has a batch to read or knows that there will be no more.
+   */
+  private boolean _isReady(boolean producer)
+  {
+    if (producer)
+      return _head - _tail < _slots.length;
+    else
+      return (_tail != _head) || _closed;
+  }
+
+  private void _checkIsOpen()
+  {
+    if (_closed)
+      throw new IllegalStateException("TokenRing has been closed");
+  }
+
+  private final Token[][] _slots;
+  private final int[] _counts;
+
+  // number of batches published by the producer, and read by the consumer
+  private volatile long _head = 0;
+  private volatile long _tail = 0;
+  private volatile boolean _closed = false;
+  private volatile Thread _producer = null;
+  private volatile Thread _consumer = null;
+
+  // only used by the producer
+  private Token[] _writeSlot = null;
+  private int _writeCount = 0;
+  // written by the producer before _closed
+  private IOException _exception = null;
+
+  // only used by the consumer
+  private Token[] _readSlot = null;
+  private int _readCount = 0;
+  private int _readIndex = 0;
+
+  private static final int _SPINS = 64;
+  private static final long _PARK_NANOS = 10000000L;
+}
@@ -0,0 +1,49 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.javascript.uixtools;
+
+import java.io.IOException;
+
+/**
+ * The writing end of a token transport, as used by the stages that produce
+ * tokens.
+ * @see TokenBuffer
+ * @see TokenRing
+ * @see TokenList
+ */
+public interface TokenWriter
+{
+
+  /**
+   * Writes a Token. This method may block until there is space available.
+   */
+  public void write(Token tok) throws InterruptedException;
+
+  /**
+   * Writes an exception, which is thrown to the reader once it has read the
+   * tokens written before it, and closes this writer.
+   */
+  public void write(IOException e) throws InterruptedException;
+
+  /**
+   * Closes this writer. Once the reader has read all the tokens, it reads
+   * null. This method may be called multiple times.
+   */
+  public void close();
+}
@@ -29,21 +29,46 @@ public class Tokenizer implements TokenReader
 {
 
   /**
+   * Tokenizes on a thread of its own.
    * @param in used to read data from the JS file
    */
   public Tokenizer(BufferedReader in)
+  {
+    this(in, true);
+  }
+
+  /**
+   * @param in used to read data from the JS file
+   * @param threaded if true, tokenizes on a thread of its own and hands the
+   *  tokens over in batches. Otherwise tokenizes a line at a time, on the
+   *  thread that reads the tokens.
+   */
+  public Tokenizer(BufferedReader in, boolean threaded)
   {
     _in = in;
-    Runnable runner = new Runnable()
-      {
-        public void run()
+    if (threaded)
+    {
+      TokenRing ring = new TokenRing();
+      _out = ring;
+      _tokens = ring;
+      _list = null;
+      Runnable runner = new Runnable()
         {
-          //ystem.out.println("Tokenizer: start:"+Thread.currentThread());
-          _run();
-          //ystem.out.println("Tokenizer: end:"+Thread.currentThread());
-        }
-      };
-    new Thread(runner).start();
+          public void run()
+          {
+            //ystem.out.println("Tokenizer: start:"+Thread.currentThread());
+            _run();
+            //ystem.out.println("Tokenizer: end:"+Thread.currentThread());
+          }
+        };
+      new Thread(runner).start();
+    }
+    else
+    {
+      _list = new TokenList();
+      _out = _list;
+      _tokens = _list;
+    }
   }
 
   /**
@@ -52,7 +77,39 @@ public class Tokenizer implements TokenReader
    */
   public Token read() throws IOException, InterruptedException
   {
-    return _out.read();
+    if (_list != null)
+    {
+      for(;_list.isEmpty() && !_list.isClosed();)
+      {
+        _readLine();
+      }
+    }
+    return _tokens.read();
+  }
+
+  /**
+   * Tokenizes the next line, or writes the EOF token at the end of the file.
+   */
+  private void _readLine() throws IOException, InterruptedException
+  {
+    try
+    {
+      if (_fillBuffer())
+      {
+        _processBuffer();
+      }
+      else
+      {
+        _out.write(new Token(Token.EOF, _lineNumber));
+        _out.close();
+      }
+    }
+    catch (RuntimeException e)
+    {
+      IOException ioe = new IOException("Exception parsing line:"+_lineNumber);
+      ioe.initCause(e);
+      throw ioe;
+    }
   }
 
   private void _run()
@@ -389,7 +446,10 @@ public class Tokenizer implements TokenReader
   private final StringBuffer _str = new StringBuffer();
 
   private final BufferedReader _in;
-  private final TokenBuffer _out = new TokenBuffer();
+  private final TokenWriter _out;
+  private final TokenReader _tokens;
+  // only when tokenizing on the reading thread
+  private final TokenList _list;
 
   /**
    * These are not all the reserved words in JS but are the only ones
@@ -0,0 +1,142 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.JSMinCompressor;
+import org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt.compress.YahooUICompressor;
+import org.codehaus.plexus.util.FileUtils;
+
+public class CompressionEngineTest
+    extends TestCase
+{
+    private File target;
+
+    private File[] scripts;
+
+    protected void setUp()
+        throws Exception
+    {
+        target = new File( "target/test-target/compression-engine" );
+        target.mkdirs();
+        FileUtils.cleanDirectory( target );
+        scripts = new File( "src/test/resources/scripts" ).listFiles();
+    }
+
+    public void testSameOutputWithThreads()
+        throws Exception
+    {
+        RecordingLog serialLog = new RecordingLog();
+        CompressionEngine serial =
+            compress( JSMinCompressor.class, "1.0", "serial", 1, null, serialLog );
+        RecordingLog parallelLog = new RecordingLog();
+        CompressionEngine parallel =
+            compress( JSMinCompressor.class, "1.0", "parallel", 4, null, parallelLog );
+
+        assertEquals( serialLog.messages, parallelLog.messages );
+        assertEquals( serial.getSaved(), parallel.getSaved() );
+        assertTrue( serial.getSaved() > 0 );
+        for ( int i = 0; i < scripts.length; i++ )
+        {
+            String name = scripts[i].getName();
+            assertEquals( FileUtils.fileRead( new File( target, "serial/" + name ) ),
+                FileUtils.fileRead( new File( target, "parallel/" + name ) ) );
+        }
+    }
+
+    public void testCache()
+        throws Exception
+    {
+        File cache = new File( target, "cache" );
+        CompressionEngine first =
+            compress( YahooUICompressor.class, "1.0", "first", 2, cache, new RecordingLog() );
+        assertEquals( scripts.length, first.getCompressedCount() );
+        assertEquals( 0, first.getCachedCount() );
+
+        CompressionEngine second =
+            compress( YahooUICompressor.class, "1.0", "second", 2, cache, new RecordingLog() );
+        assertEquals( 0, second.getCompressedCount() );
+        assertEquals( scripts.length, second.getCachedCount() );
+        assertEquals( first.getSaved(), second.getSaved() );
+
+        // Another compressor does not reuse the scripts
+        CompressionEngine other =
+            compress( JSMinCompressor.class, "1.0", "other", 2, cache, new RecordingLog() );
+        assertEquals( scripts.length, other.getCompressedCount() );
+
+        // Nor another version of the same compressor
+        CompressionEngine upgraded =
+            compress( YahooUICompressor.class, "1.1", "upgraded", 2, cache, new RecordingLog() );
+        assertEquals( scripts.length, upgraded.getCompressedCount() );
+        assertEquals( 0, upgraded.getCachedCount() );
+    }
+
+    public void testStripDebugs()
+        throws Exception
+    {
+        File script = new File( target, "debugs.js" );
+        FileUtils.copyFile( new File( "src/test/resources/with-debug/debugs.js" ), script );
+        String source = FileUtils.fileRead( script );
+        assertTrue( source.indexOf( "logger" ) >= 0 );
+
+        File compressed = new File( target, "debugs-min.js" );
+        CompressionEngine engine =
+            new CompressionEngine( JSMinCompressor.class, "1.0", 9, 130, ";;;", null, 1 );
+        engine.add( script, compressed );
+        engine.finish( new RecordingLog(), true );
+
+        assertTrue( FileUtils.fileRead( compressed ).indexOf( "logger" ) < 0 );
+        // The source is left untouched
+        assertEquals( source, FileUtils.fileRead( script ) );
+    }
+
+    private CompressionEngine compress( Class compressorClass, String version, String dir,
+                                        int threads, File cache, RecordingLog log )
+        throws MojoExecutionException
+    {
+        File output = new File( target, dir );
+        output.mkdirs();
+        CompressionEngine engine =
+            new CompressionEngine( compressorClass, version, 9, 130, null, cache, threads );
+        for ( int i = 0; i < scripts.length; i++ )
+        {
+            engine.add( scripts[i], new File( output, scripts[i].getName() ) );
+        }
+        engine.finish( log, true );
+        return engine;
+    }
+
+    private static class RecordingLog
+        extends SystemStreamLog
+    {
+        private final List messages = new ArrayList();
+
+        public void info( CharSequence content )
+        {
+            messages.add( content.toString() );
+        }
+    }
+}
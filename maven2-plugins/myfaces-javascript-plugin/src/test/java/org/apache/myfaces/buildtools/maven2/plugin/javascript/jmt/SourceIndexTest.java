@@ -0,0 +1,74 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.javascript.jmt;
+
+import java.io.File;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+
+/**
+ * Tests that the index resolves patterns the way a directory scanner does.
+ */
+public class SourceIndexTest
+    extends TestCase
+{
+    private static final File BASEDIR = new File( "src/test/resources" );
+
+    private static final String[] PATTERNS =
+        { "**/*.js", "*.js", "scripts/builder.js", "scripts\\slider.js", "scripts/", "**/*debug*",
+            "missing.js", "scripts/*.js" };
+
+    public void testSameFilesAsScanner()
+    {
+        assertSameFiles( null );
+        assertSameFiles( new String[] { "**/jsunit/**", "scripts/effects.js" } );
+    }
+
+    public void testSeveralPatterns()
+    {
+        String[] includes = { "scripts/slider.js", "test*.js" };
+        assertEquals( Arrays.asList( scan( includes, null ) ),
+            Arrays.asList( new SourceIndex( BASEDIR, null ).getIncludedFiles( includes ) ) );
+    }
+
+    private void assertSameFiles( String[] excludes )
+    {
+        SourceIndex index = new SourceIndex( BASEDIR, excludes );
+        for ( int i = 0; i < PATTERNS.length; i++ )
+        {
+            String[] includes = { PATTERNS[i] };
+            assertEquals( PATTERNS[i], Arrays.asList( scan( includes, excludes ) ),
+                Arrays.asList( index.getIncludedFiles( includes ) ) );
+        }
+    }
+
+    private String[] scan( String[] includes, String[] excludes )
+    {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir( BASEDIR );
+        scanner.setExcludes( excludes );
+        scanner.addDefaultExcludes();
+        scanner.setIncludes( includes );
+        scanner.scan();
+        return scanner.getIncludedFiles();
+    }
+}
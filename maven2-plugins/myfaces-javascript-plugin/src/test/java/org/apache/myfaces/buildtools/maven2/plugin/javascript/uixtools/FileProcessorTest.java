@@ -0,0 +1,173 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.javascript.uixtools;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that processing a directory on several threads gives the same
+ * files and errors as processing it on a single thread.
+ */
+public class FileProcessorTest extends TestCase
+{
+  protected void setUp() throws Exception
+  {
+    _baseDir = new File("target/file-processor");
+    _delete(_baseDir);
+    File in = new File(_baseDir, "in");
+    for (int i = 0; i < _FILES; i++)
+    {
+      File file = new File(in, "dir" + (i % 3) + "/file" + i + ".js");
+      file.getParentFile().mkdirs();
+      Writer writer = new FileWriter(file);
+      writer.write("function f" + i + "(first, second)\n{\n" +
+                   "  var sum = first + second; // comment\n" +
+                   "  return sum;\n}\n");
+      writer.close();
+    }
+  }
+
+  public void testSameOutputWithThreads() throws Exception
+  {
+    File in = new File(_baseDir, "in");
+    assertTrue(new Reducer(true, true).process(in, new File(_baseDir, "serial")));
+    Reducer reducer = new Reducer(true, true);
+    reducer.setThreads(4);
+    assertTrue(reducer.process(in, new File(_baseDir, "parallel")));
+
+    for (int i = 0; i < _FILES; i++)
+    {
+      String path = "dir" + (i % 3) + "/file" + i + ".js";
+      String serial = _read(new File(_baseDir, "serial/" + path));
+      assertTrue(serial.startsWith("function f" + i + "(a0,a1)"));
+      assertEquals(serial, _read(new File(_baseDir, "parallel/" + path)));
+    }
+  }
+
+  public void testWorkers() throws Exception
+  {
+    Recorder recorder = new Recorder(false, null);
+    recorder.setThreads(4);
+    assertTrue(recorder.process(new File(_baseDir, "in"),
+                                new File(_baseDir, "workers")));
+    assertEquals(_FILES, recorder.processed.size());
+    // each thread has a worker of its own, reused from file to file
+    assertTrue(recorder.workers.size() <= 4);
+  }
+
+  public void testErrors() throws Exception
+  {
+    Recorder recorder = new Recorder(false, "file10.js");
+    recorder.setThreads(4);
+    assertFalse(recorder.process(new File(_baseDir, "in"),
+                                 new File(_baseDir, "errors")));
+    assertEquals(_FILES, recorder.processed.size());
+
+    recorder = new Recorder(true, "file10.js");
+    recorder.setThreads(4);
+    assertFalse(recorder.process(new File(_baseDir, "in"),
+                                 new File(_baseDir, "failFast")));
+    assertTrue(recorder.processed.contains("file10.js"));
+  }
+
+  private static String _read(File file) throws IOException
+  {
+    StringBuffer sb = new StringBuffer();
+    Reader reader = new FileReader(file);
+    try
+    {
+      char[] buffer = new char[1024];
+      for (int read; (read = reader.read(buffer)) >= 0;)
+      {
+        sb.append(buffer, 0, read);
+      }
+    }
+    finally
+    {
+      reader.close();
+    }
+    return sb.toString();
+  }
+
+  private static void _delete(File file)
+  {
+    File[] children = file.listFiles();
+    if (children != null)
+    {
+      for (int i = 0; i < children.length; i++)
+      {
+        _delete(children[i]);
+      }
+    }
+    file.delete();
+  }
+
+  private static class Recorder extends FileProcessor
+  {
+    public Recorder(boolean failFast, String failing)
+    {
+      super(getExtensionFilter("js"), failFast, true, false);
+      _failing = failing;
+    }
+
+    protected FileProcessor newWorker()
+    {
+      Worker worker = new Worker();
+      workers.add(worker);
+      return worker;
+    }
+
+    protected void processFile(File in, File out) throws Exception
+    {
+      throw new AssertionError("only workers process files");
+    }
+
+    private class Worker extends FileProcessor
+    {
+      public Worker()
+      {
+        super("js", false);
+      }
+
+      protected void processFile(File in, File out) throws Exception
+      {
+        processed.add(in.getName());
+        if (in.getName().equals(_failing))
+          throw new IOException("failing file");
+      }
+    }
+
+    final List processed = Collections.synchronizedList(new ArrayList());
+    final List workers = Collections.synchronizedList(new ArrayList());
+    private final String _failing;
+  }
+
+  private File _baseDir;
+  private static final int _FILES = 60;
+}
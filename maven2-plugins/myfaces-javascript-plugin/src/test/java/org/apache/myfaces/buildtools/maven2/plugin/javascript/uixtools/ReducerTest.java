@@ -0,0 +1,165 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.javascript.uixtools;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that reducing on a single thread and on several threads give the
+ * same result.
+ */
+public class ReducerTest extends TestCase
+{
+  public void testReduce() throws Exception
+  {
+    String expected =
+      "var globalCounter=0;\n" +
+      "function addItems(a0,a1,a2)\n" +
+      "{\n" +
+      "var a3=a1.length;\n" +
+      "var a4=\"\";\n" +
+      "for(var a5=0;a5<a3;a5++)\n" +
+      "{\n" +
+      "a4=a4+a1[a5].name+a2;\n" +
+      "globalCounter=globalCounter/2;\n" +
+      "}\n" +
+      "a0.innerHTML=a4.replace(/\\s+$/g,'');\n" +
+      "return a3;\n" +
+      "}\n" +
+      "function usesEval(expression)\n" +
+      "{\n" +
+      "var result=eval(expression);\n" +
+      "return result;\n" +
+      "}\n";
+
+    assertEquals(expected, _reduce(_SAMPLE, false));
+    assertEquals(expected, _reduce(_SAMPLE, true));
+  }
+
+  public void testLargeInput() throws Exception
+  {
+    StringBuffer source = new StringBuffer();
+    for (int i = 0; source.length() < 4 * 1024 * 1024; i++)
+    {
+      source.append(_SAMPLE.replaceAll("addItems", "addItems" + i));
+    }
+
+    String fused = _reduce(source.toString(), false);
+    assertEquals(fused, _reduce(source.toString(), true));
+    assertTrue(fused.indexOf("function addItems100(a0,a1,a2)") >= 0);
+  }
+
+  public void testTokenRing() throws Exception
+  {
+    final TokenRing ring = new TokenRing(3, 2);
+    final int count = 100000;
+    Thread producer = new Thread()
+      {
+        public void run()
+        {
+          try
+          {
+            for (int i = 0; i < count; i++)
+            {
+              ring.write(new Token(Token.NUMBER, i));
+            }
+            ring.write(new IOException("end"));
+          }
+          catch (InterruptedException e)
+          {
+            // the test fails
+          }
+        }
+      };
+    producer.start();
+
+    for (int i = 0; i < count; i++)
+    {
+      assertEquals(i, ring.read().lineNumber);
+    }
+    try
+    {
+      ring.read();
+      fail();
+    }
+    catch (IOException e)
+    {
+      assertEquals("end", e.getMessage());
+    }
+    producer.join();
+  }
+
+  public void testTokenList() throws Exception
+  {
+    TokenList list = new TokenList();
+    int read = 0;
+    for (int i = 0; i < 1000; i++)
+    {
+      list.write(new Token(Token.NUMBER, i));
+      if (i % 3 == 0)
+        assertEquals(read++, list.read().lineNumber);
+    }
+    list.close();
+    for (; read < 1000; read++)
+    {
+      assertEquals(read, list.read().lineNumber);
+    }
+    assertNull(list.read());
+  }
+
+  private String _reduce(String source, boolean threaded)
+    throws IOException, InterruptedException
+  {
+    StringWriter out = new StringWriter();
+    new Reducer(true, true, threaded).process(
+      new BufferedReader(new StringReader(source)), new PrintWriter(out));
+    return out.toString().replaceAll(System.getProperty("line.separator"), "\n");
+  }
+
+  private static final String _SAMPLE =
+    "/* licence\n" +
+    " * header */\n" +
+    "var globalCounter = 0;\n" +
+    "\n" +
+    "// a line comment\n" +
+    "function addItems(listElement, items, separator)\n" +
+    "{\n" +
+    "  var count = items.length;\n" +
+    "  var text  = \"\";\n" +
+    "  for (var index = 0; index < count; index++)\n" +
+    "  {\n" +
+    "    text = text + items[index].name + separator;\n" +
+    "    globalCounter = globalCounter / 2;\n" +
+    "  }\n" +
+    "  listElement.innerHTML = text.replace(/\\s+$/g, '');\n" +
+    "  return count;\n" +
+    "}\n" +
+    "\n" +
+    "function usesEval(expression)\n" +
+    "{\n" +
+    "  var result = eval(expression);\n" +
+    "  return result;\n" +
+    "}\n";
+}
@@ -20,18 +20,15 @@ package org.apache.myfaces.buildtools.maven2.plugin.tagdoc;
 
 //import org.apache.maven.doxia.sink.Sink;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -39,6 +36,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.namespace.QName;
 import javax.xml.parsers.ParserConfigurationException;
@@ -52,6 +54,7 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.AbstractMavenMultiPageReport;
 import org.apache.maven.reporting.MavenReportException;
 import org.apache.maven.reporting.sink.SinkFactory;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.io.GeneratedFiles;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.ComponentBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.ConverterBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.EventBean;
@@ -61,6 +64,7 @@ import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.FacesConfigParser
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.FacetBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.PropertyBean;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.parse.ValidatorBean;
+import org.apache.myfaces.buildtools.maven2.plugin.faces.util.ArtifactIndex;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.ComponentFilter;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.ConverterFilter;
 import org.apache.myfaces.buildtools.maven2.plugin.faces.util.FilteredIterator;
@@ -113,19 +117,6 @@ public class TagdocReport extends AbstractMavenMultiPageReport
     }
 
 
-    Iterator components = facesConfig.components();
-    components = new FilteredIterator(components, new SkipFilter());
-    components = new FilteredIterator(components, new ComponentTagFilter());
-    components = new FilteredIterator(components, new ComponentNamespaceFilter());
-    
-    Iterator validators = facesConfig.validators();
-    validators = new FilteredIterator(validators, new ValidatorTagFilter());
-    validators = new FilteredIterator(validators, new ValidatorNamespaceFilter());
-    
-    Iterator converters = facesConfig.converters();
-    converters = new FilteredIterator(converters, new ConverterTagFilter());
-    converters = new FilteredIterator(converters, new ConverterNamespaceFilter());
-    
     // =-=AEW Note that only updating out-of-date components, etc. is
     // permanently tricky, even if we had proper detection in place,
     // because the index always has to have all docs
@@ -141,39 +132,51 @@ public class TagdocReport extends AbstractMavenMultiPageReport
     Set converterPages = new TreeSet();
     Set validatorPages = new TreeSet();
     
-    int count = 0;
-    while (components.hasNext())
+    // each namespace is documented once, however many short names it has
+    Set namespaces = new LinkedHashSet(taglibs.values());
+
+    // the pages are rendered on generatorThreads threads, and written in
+    // this order
+    List pages = new ArrayList();
+    List targetFiles = new ArrayList();
+    for (Iterator i = namespaces.iterator(); i.hasNext(); )
     {
-      String pageName = _generateComponentDoc((ComponentBean)components.next());
-      if (pageName != null)
+      String namespaceURI = (String)i.next();
+
+      Iterator components = facesConfig.components(namespaceURI);
+      components = new FilteredIterator(components, new SkipFilter());
+      components = new FilteredIterator(components, new ComponentTagFilter());
+      while (components.hasNext())
       {
-        componentPages.add(pageName);
-        count++;
+        ComponentBean component = (ComponentBean)components.next();
+        if (component.getTagName() != null)
+          componentPages.add(_addPage(pages, targetFiles, component.getTagName(), component));
       }
-    }
-    while (converters.hasNext())
-    {
-      String pageName = _generateConverterDoc((ConverterBean)converters.next());
-      if (pageName != null)
+
+      Iterator converters = facesConfig.converters(namespaceURI);
+      converters = new FilteredIterator(converters, new ConverterTagFilter());
+      while (converters.hasNext())
       {
-        converterPages.add(pageName);
-        count++;
+        ConverterBean converter = (ConverterBean)converters.next();
+        if (converter.getTagName() != null)
+          converterPages.add(_addPage(pages, targetFiles, converter.getTagName(), converter));
       }
-    }
-    while (validators.hasNext())
-    {
-      String pageName = _generateValidatorDoc((ValidatorBean)validators.next());
-      if (pageName != null)
+
+      Iterator validators = facesConfig.validators(namespaceURI);
+      validators = new FilteredIterator(validators, new ValidatorTagFilter());
+      while (validators.hasNext())
       {
-        validatorPages.add(pageName);
-        count++;
+        ValidatorBean validator = (ValidatorBean)validators.next();
+        if (validator.getTagName() != null)
+          validatorPages.add(_addPage(pages, targetFiles, validator.getTagName(), validator));
       }
     }
 
+    _writePages(pages, targetFiles);
 
     Set otherPages = _gatherOtherTags();
 
-    getLog().info("Generated " + count + " page(s)");
+    getLog().info("Generated " + pages.size() + " page(s)");
 
     Sink sink = getSink();
     sink.head();
@@ -379,166 +382,200 @@ public class TagdocReport extends AbstractMavenMultiPageReport
     return "unknown";
   }
 
-  private String _generateComponentDoc(ComponentBean component)
-    throws Exception
+  private void _generateComponentDoc(
+    Writer        out,
+    ComponentBean component) throws Exception
   {
-    if (component.getTagName() == null)
-    {
-      return null;
-    }
-    String pageName = _toPageName(component.getTagName());
-
-    File targetDir = new File(outputDirectory.getParentFile(), 
-                              _platformAgnosticPath("generated-site/xdoc/" + 
-                                                      _DOC_SUBDIRECTORY));
-    targetDir.mkdirs();
-    File targetFile = new File(targetDir, pageName + ".xml");
-
-    Writer out = new OutputStreamWriter(new FileOutputStream(targetFile),
-                                        "UTF-8");
-    try
+    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
+    out.write("<document>\n");
+    out.write(" <properties>\n");
+    out.write("  <title>&lt;" + _getQualifiedName(component.getTagName()) + "&gt;</title>\n");
+    out.write(" </properties>\n");
+    out.write(" <body>\n");
+
+    out.write(" <section name=\"Summary\">\n");
+    out.write(" <p>\n");
+    _writeComponentSummary(out, component);
+    out.write(" </p>\n");
+    out.write(" </section>\n");
+    
+    if (component.hasEvents(true))
     {
-      out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
-      out.write("<document>\n");
-      out.write(" <properties>\n");
-      out.write("  <title>&lt;" + _getQualifiedName(component.getTagName()) + "&gt;</title>\n");
-      out.write(" </properties>\n");
-      out.write(" <body>\n");
-
-      out.write(" <section name=\"Summary\">\n");
+      out.write(" <section name=\"Events\">\n");
       out.write(" <p>\n");
-      _writeComponentSummary(out, component);
+      _writeComponentEvents(out, component);
       out.write(" </p>\n");
       out.write(" </section>\n");
-      
-      if (component.hasEvents(true))
-      {
-        out.write(" <section name=\"Events\">\n");
-        out.write(" <p>\n");
-        _writeComponentEvents(out, component);
-        out.write(" </p>\n");
-        out.write(" </section>\n");
-      }
-      
-      if (component.hasFacets(true))
-      {
-        out.write(" <section name=\"Supported Facets\">\n");
-        out.write(" <p>\n");
-        _writeComponentFacets(out, component);
-        out.write(" </p>\n");
-        out.write(" </section>\n");
-      }
-      
-      out.write(" <section name=\"Attributes\">\n");
-      _writeComponentAttributes(out, component);
-      out.write(" </section>\n");
-
-      out.write(" </body>\n");
-      out.write("</document>\n");
     }
-    finally
+    
+    if (component.hasFacets(true))
     {
-      out.close();
+      out.write(" <section name=\"Supported Facets\">\n");
+      out.write(" <p>\n");
+      _writeComponentFacets(out, component);
+      out.write(" </p>\n");
+      out.write(" </section>\n");
     }
+    
+    out.write(" <section name=\"Attributes\">\n");
+    _writeComponentAttributes(out, component);
+    out.write(" </section>\n");
 
-    return pageName;
+    out.write(" </body>\n");
+    out.write("</document>\n");
   }
   
-  private String _generateConverterDoc(ConverterBean converter) throws IOException
+  private void _generateConverterDoc(
+    Writer        out,
+    ConverterBean converter) throws IOException
   {
-    if (converter.getTagName() == null)
-    {
-      return null;
-    }
+    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
+    out.write("<document>\n");
+    out.write(" <properties>\n");
+    out.write("  <title>&lt;" + _getQualifiedName(converter.getTagName()) + "&gt;</title>\n");
+    out.write(" </properties>\n");
+    out.write(" <body>\n");
+
+    out.write(" <section name=\"Summary\">\n");
+    out.write(" <p>\n");
+    _writeConverterSummary(out, converter);
+    out.write(" </p>\n");
+    out.write(" </section>\n");
+          
+    out.write(" <section name=\"Attributes\">\n");
+    _writeConverterAttributes(out, converter);
+    out.write(" </section>\n");
+
+    out.write(" </body>\n");
+    out.write("</document>\n");
+  }
 
-    String pageName = _toPageName(converter.getTagName());
+  private void _generateValidatorDoc(
+    Writer        out,
+    ValidatorBean validator) throws IOException
+  {
+    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
+    out.write("<document>\n");
+    out.write(" <properties>\n");
+    out.write("  <title>&lt;" + _getQualifiedName(validator.getTagName()) + "&gt;</title>\n");
+    out.write(" </properties>\n");
+    out.write(" <body>\n");
+
+    out.write(" <section name=\"Summary\">\n");
+    out.write(" <p>\n");
+    _writeValidatorSummary(out, validator);
+    out.write(" </p>\n");
+    out.write(" </section>\n");
+          
+    out.write(" <section name=\"Attributes\">\n");
+    _writeValidatorAttributes(out, validator);
+    out.write(" </section>\n");
+
+    out.write(" </body>\n");
+    out.write("</document>\n");
+  }
 
-    File targetDir = new File(outputDirectory.getParentFile(), 
-                              _platformAgnosticPath("generated-site/xdoc/" + 
-                                                     _DOC_SUBDIRECTORY));
-    targetDir.mkdirs();
-    File targetFile = new File(targetDir, pageName + ".xml");
 
-    Writer out = new OutputStreamWriter(new FileOutputStream(targetFile),
-                                        "UTF-8");
+  /**
+   * Queues the page of a tag, and returns its name.
+   */
+  private String _addPage(
+    List         pages,
+    List         targetFiles,
+    QName        tagName,
+    final Object bean)
+  {
+    String pageName = _toPageName(tagName);
+    File targetDir = new File(outputDirectory.getParentFile(),
+                              _platformAgnosticPath("generated-site/xdoc/" +
+                                                      _DOC_SUBDIRECTORY));
+    targetFiles.add(new File(targetDir, pageName + ".xml"));
+    pages.add(new Callable()
+    {
+      public Object call() throws Exception
+      {
+        return _renderPage(bean);
+      }
+    });
+    return pageName;
+  }
+
+  private String _renderPage(
+    Object bean) throws Exception
+  {
+    StringWriter out = new StringWriter();
+    if (bean instanceof ComponentBean)
+      _generateComponentDoc(out, (ComponentBean)bean);
+    else if (bean instanceof ConverterBean)
+      _generateConverterDoc(out, (ConverterBean)bean);
+    else
+      _generateValidatorDoc(out, (ValidatorBean)bean);
+    return out.toString();
+  }
+
+  /**
+   * Renders the pages, on generatorThreads threads if there are more than
+   * one, and writes the ones whose content changed. The renderers only
+   * read the flattened faces config.
+   */
+  private void _writePages(
+    List pages,
+    List targetFiles) throws Exception
+  {
+    GeneratedFiles generatedFiles = new GeneratedFiles();
+    ExecutorService executor = null;
+    if (generatorThreads > 1 && pages.size() > 1)
+      executor = Executors.newFixedThreadPool(Math.min(generatorThreads,
+                                                       pages.size()));
     try
     {
-      out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
-      out.write("<document>\n");
-      out.write(" <properties>\n");
-      out.write("  <title>&lt;" + _getQualifiedName(converter.getTagName()) + "&gt;</title>\n");
-      out.write(" </properties>\n");
-      out.write(" <body>\n");
-
-      out.write(" <section name=\"Summary\">\n");
-      out.write(" <p>\n");
-      _writeConverterSummary(out, converter);
-      out.write(" </p>\n");
-      out.write(" </section>\n");
-            
-      out.write(" <section name=\"Attributes\">\n");
-      _writeConverterAttributes(out, converter);
-      out.write(" </section>\n");
+      List rendered = new ArrayList(pages.size());
+      if (executor != null)
+      {
+        for (Iterator i = pages.iterator(); i.hasNext();)
+          rendered.add(executor.submit((Callable)i.next()));
+      }
 
-      out.write(" </body>\n");
-      out.write("</document>\n");
+      for (int i = 0; i < pages.size(); i++)
+      {
+        String content;
+        if (executor != null)
+          content = _get((Future)rendered.get(i));
+        else
+          content = (String)((Callable)pages.get(i)).call();
+        generatedFiles.write((File)targetFiles.get(i),
+                             content.getBytes("UTF-8"));
+      }
     }
     finally
     {
-      out.close();
+      if (executor != null)
+        executor.shutdownNow();
     }
-
-    return pageName;
+    generatedFiles.finish(getLog());
   }
 
-  private String _generateValidatorDoc(ValidatorBean validator) throws IOException
+  static private String _get(
+    Future rendered) throws Exception
   {
-    if (validator.getTagName() == null)
+    try
     {
-      return null;
+      return (String)rendered.get();
     }
-
-    String pageName = _toPageName(validator.getTagName());
-
-    File targetDir = new File(outputDirectory.getParentFile(), 
-                              _platformAgnosticPath("generated-site/xdoc/" + 
-                                                      _DOC_SUBDIRECTORY));
-    targetDir.mkdirs();
-    File targetFile = new File(targetDir, pageName + ".xml");
-
-    Writer out = new OutputStreamWriter(new FileOutputStream(targetFile),
-                                        "UTF-8");
-    try
+    catch (InterruptedException e)
     {
-      out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
-      out.write("<document>\n");
-      out.write(" <properties>\n");
-      out.write("  <title>&lt;" + _getQualifiedName(validator.getTagName()) + "&gt;</title>\n");
-      out.write(" </properties>\n");
-      out.write(" <body>\n");
-
-      out.write(" <section name=\"Summary\">\n");
-      out.write(" <p>\n");
-      _writeValidatorSummary(out, validator);
-      out.write(" </p>\n");
-      out.write(" </section>\n");
-            
-      out.write(" <section name=\"Attributes\">\n");
-      _writeValidatorAttributes(out, validator);
-      out.write(" </section>\n");
-
-      out.write(" </body>\n");
-      out.write("</document>\n");
+      Thread.currentThread().interrupt();
+      throw e;
     }
-    finally
+    catch (ExecutionException e)
     {
-      out.close();
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception)
+        throw (Exception)cause;
+      throw (Error)cause;
     }
-
-    return pageName;
   }
 
-
   private void _writeComponentSummary(Writer out, ComponentBean bean) throws IOException
   {
     out.write("   <b>Tag name:</b> &lt;" +
@@ -1109,23 +1146,17 @@ public class TagdocReport extends AbstractMavenMultiPageReport
     _facesConfig = new FacesConfigBean();
 
     URL[] index = readIndex(project);
-    for (int i=0; i < index.length; i++)
-    {
-      processIndexEntry(index[i]);
-    }
-  }
-
-  protected void processIndexEntry(
-    URL entry) throws MavenReportException
-  {
     try
     {
-      new FacesConfigParser().merge(_facesConfig, entry);
+      new FacesConfigParser().merge(_facesConfig, index, parserThreads);
     }
     catch (MojoExecutionException e)
     {
       throw new MavenReportException("Couldn't parse faces config",e);
     }
+
+    // resolve the component hierarchy once everything is merged
+    _facesConfig.flatten();
   }
 
   protected FacesConfigBean getFacesConfig()
@@ -1145,24 +1176,29 @@ public class TagdocReport extends AbstractMavenMultiPageReport
     MavenProject project,
     String       resourcePath) throws MavenReportException
   {
+    ArtifactIndex index = ArtifactIndex.getInstance();
+    File indexFile =
+      ArtifactIndex.getIndexFile(project.getBuild().getDirectory());
     try
     {
-      ClassLoader cl = createCompileClassLoader(project);
-      Enumeration e = cl.getResources(resourcePath);
-      List urls = new ArrayList();
-      while (e.hasMoreElements())
-      {
-        URL url = (URL)e.nextElement();
-        urls.add(url);
-      }
-      return Collections.unmodifiableList(urls);
+      index.load(indexFile);
+      List classpathElements = project.getCompileClasspathElements();
+      List urls = index.getResources(
+                    Thread.currentThread().getContextClassLoader(),
+                    classpathElements,
+                    resourcePath);
+      index.save(indexFile, classpathElements);
+      return urls;
+    }
+    catch (DependencyResolutionRequiredException e)
+    {
+      throw new MavenReportException("Error calculating scope classpath", e);
     }
     catch (IOException e)
     {
       throw new MavenReportException("Unable to get resources for path " +
                                        "\"" + resourcePath + "\"", e);
     }
-
   }
 
   protected URL[] readIndex(
@@ -1221,38 +1257,6 @@ public class TagdocReport extends AbstractMavenMultiPageReport
     }
   }
 
-  private ClassLoader createCompileClassLoader(
-    MavenProject project) throws MavenReportException
-  {
-    Thread current = Thread.currentThread();
-    ClassLoader cl = current.getContextClassLoader();
-
-    try
-    {
-      List classpathElements = project.getCompileClasspathElements();
-      if (!classpathElements.isEmpty())
-      {
-        String[] entries = (String[])classpathElements.toArray(new String[0]);
-        URL[] urls = new URL[entries.length];
-        for (int i=0; i < urls.length; i++)
-        {
-          urls[i] = new File(entries[i]).toURL();
-        }
-        cl = new URLClassLoader(urls, cl);
-      }
-    }
-    catch (DependencyResolutionRequiredException e)
-    {
-      throw new MavenReportException("Error calculating scope classpath", e);
-    }
-    catch (MalformedURLException e)
-    {
-      throw new MavenReportException("Error calculating scope classpath", e);
-    }
-
-    return cl;
-  }
-
   static public class URLCreationFactory extends AbstractObjectCreationFactory
   {
     public Object createObject(
@@ -1284,62 +1288,6 @@ public class TagdocReport extends AbstractMavenMultiPageReport
 
 
 
-  private class ComponentNamespaceFilter extends ComponentFilter
-  {
-    public ComponentNamespaceFilter()
-    {
-    }
-
-    protected boolean accept(
-      ComponentBean component)
-    {
-      if (component.getTagName() == null)
-      {
-        return false;
-      }
-
-      return taglibs.containsValue(component.getTagName().getNamespaceURI());
-    }
-  }
-
-  private class ValidatorNamespaceFilter extends ValidatorFilter
-  {
-    public ValidatorNamespaceFilter()
-    {
-    }
-
-    protected boolean accept(
-      ValidatorBean component)
-    {
-      if (component.getTagName() == null)
-      {
-        return false;
-      }
-
-      return taglibs.containsValue(component.getTagName().getNamespaceURI());
-    }
-  }
-
-  private class ConverterNamespaceFilter extends ConverterFilter
-  {
-    public ConverterNamespaceFilter()
-    {
-    }
-
-    protected boolean accept(
-      ConverterBean component)
-    {
-      if (component.getTagName() == null)
-      {
-        return false;
-      }
-
-      return taglibs.containsValue(component.getTagName().getNamespaceURI());
-    }
-  }
-
-
-
   static final protected class TagAttributeFilter extends PropertyFilter
   {
     protected boolean accept(
@@ -1420,6 +1368,22 @@ public class TagdocReport extends AbstractMavenMultiPageReport
    */
   private Map taglibs;
 
+  /**
+   * Number of threads parsing the faces config documents.  They are still
+   * merged in the order of the index.
+   *
+   * @parameter expression="${myfaces.faces.parserThreads}" default-value="1"
+   */
+  private int parserThreads;
+
+  /**
+   * Number of threads rendering the tag pages.  They are still written in
+   * order, and only when their content changed.
+   *
+   * @parameter expression="${myfaces.faces.generatorThreads}" default-value="1"
+   */
+  private int generatorThreads;
+
   /**
    * @parameter expression="META-INF/maven-faces-plugin/faces-config.xml"
    * @required
@@ -95,6 +95,11 @@ abstract public class AbstractGenerateSourcesMojo extends AbstractMojo
       {
         RTSWriter writer = getRTSWriter();
         Map params = new HashMap();
+        // ListRTSWriter and SortedRTSWriter only write bundles whose
+        // content changed
+        GeneratedFiles generatedFiles = new GeneratedFiles(stampFile);
+        boolean writesIfChanged = (writer instanceof ListRTSWriter);
+        params.put("generatedFiles", generatedFiles);
 
         List dirtyXRTS = new LinkedList(Arrays.asList(xrtsFiles));
         SAXParserFactory factory = SAXParserFactory.newInstance();
@@ -107,7 +112,7 @@ abstract public class AbstractGenerateSourcesMojo extends AbstractMojo
           if (targetFile.exists())
           {
             File sourceFile = getSourceFile(xrtsFile);
-            if (targetFile.lastModified() >= sourceFile.lastModified())
+            if (generatedFiles.lastGenerated(targetFile) >= sourceFile.lastModified())
             {
               i.remove();
             }
@@ -140,7 +145,7 @@ abstract public class AbstractGenerateSourcesMojo extends AbstractMojo
 
             try
             {
-              if (targetFile.exists())
+              if (!writesIfChanged && targetFile.exists())
               {
                 targetFile.delete();
               }
@@ -148,13 +153,17 @@ abstract public class AbstractGenerateSourcesMojo extends AbstractMojo
               SAXParser parser = factory.newSAXParser();
               targetFile.getParentFile().mkdirs();
               XRTSGenerator.generate(parser, source, writer, params);
-              targetFile.setReadOnly();
+              if (!writesIfChanged)
+              {
+                targetFile.setReadOnly();
+              }
             }
             catch (Throwable t)
             {
               throw new MojoExecutionException(t.getMessage());
             }
           }
+          generatedFiles.finish(getLog());
         }
       }
     }
@@ -175,6 +184,10 @@ abstract public class AbstractGenerateSourcesMojo extends AbstractMojo
       {
         return new ListRTSWriter();
       }
+      if ("sorted".equals(targetType))
+      {
+        return new SortedRTSWriter();
+      }
       throw new MojoExecutionException("Unknown bundle type: " + targetType);
     }
 
@@ -217,4 +230,12 @@ abstract public class AbstractGenerateSourcesMojo extends AbstractMojo
     String targetPath = basename + ".java";
     return new File(getTargetDirectory(), targetPath);
   }
+
+  /**
+   * Records when each bundle whose content did not change was last
+   * generated, so that it is not generated again on every build.
+   *
+   * @parameter default-value="${project.build.directory}/myfaces-xrts-plugin/generated-files.properties"
+   */
+  private File stampFile;
 }
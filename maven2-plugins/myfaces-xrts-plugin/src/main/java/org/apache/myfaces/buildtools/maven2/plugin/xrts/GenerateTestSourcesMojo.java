@@ -39,6 +39,10 @@ public class GenerateTestSourcesMojo extends AbstractGenerateSourcesMojo
   private MavenProject project;
 
   /**
+   * The kind of bundle to generate: "list" for a ListResourceBundle,
+   * "sorted" for a ResourceBundle that looks its keys up in a sorted
+   * table, or "class:" followed by the name of an RTSWriter.
+   *
    * @parameter expression="list"
    * @required
    */
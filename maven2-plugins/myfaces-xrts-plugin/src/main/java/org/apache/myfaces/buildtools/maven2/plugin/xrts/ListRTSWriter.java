@@ -18,10 +18,10 @@
  */
 package org.apache.myfaces.buildtools.maven2.plugin.xrts;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.Map;
 //import java.util.StringTokenizer;
 
@@ -30,6 +30,10 @@ import java.util.Map;
  * The <code>ListRTSWriter</code> class is an implementation of the
  * <code>RTSWriter</code> interface used to create a Sun
  * <code>ListResourceBundle</code> file.
+ * <p>
+ * The bundle is written when it is ended, and only if its content changed.
+ * The <code>GeneratedFiles</code> to write it with can be passed in the
+ * <code>generatedFiles</code> parameter.
  *
  * @version $Name:  $ ($Revision: 1.11 $) $Date: 2002/02/27 17:18:47 $
  * @since RTS 2.0
@@ -56,8 +60,30 @@ public class ListRTSWriter implements RTSWriter
   public void startBundle(Map parms, Map meta)
     throws Throwable
   {
-    File outFile = (File)parms.get("outFile");
     String outName = (String)parms.get("outName");
+    String packageName = startFile(parms, meta);
+
+    _pw.println("import java.util.ListResourceBundle;");
+
+    writeImports(parms, meta);
+
+    _pw.println("");
+    _pw.println("public class " + outName + " extends ListResourceBundle {");
+    _pw.println("  @Override");
+    _pw.println("  public Object[][] getContents() {");
+    _pw.println("    return new Object[][] {");
+
+    writeDefaultLocales(parms, packageName);
+  }
+
+  /**
+   * Starts the file of the bundle, and writes its header and package.
+   *
+   * @return the package of the bundle, or null for the default package
+   */
+  protected String startFile(Map parms, Map meta)
+  {
+    File outFile = (File)parms.get("outFile");
     String srcName = (String)parms.get("srcName");
 
     Boolean b = (Boolean)parms.get("quietMode");
@@ -67,7 +93,9 @@ public class ListRTSWriter implements RTSWriter
       System.out.println("  " + outFile);
     }
 
-    _pw = new PrintWriter(new BufferedWriter(new FileWriter(outFile)));
+    _outFile = outFile;
+    _sw = new StringWriter();
+    _pw = new PrintWriter(_sw);
 
     _pw.println("// Do not edit this file!");
     _pw.println("// This file has been automatically generated.");
@@ -82,7 +110,6 @@ public class ListRTSWriter implements RTSWriter
     _pw.println("// ");
 
     String packageName = (String)parms.get("pkgName");
-    boolean validPackage = false;
     if (packageName == null)
     {
       if (meta != null)
@@ -99,19 +126,22 @@ public class ListRTSWriter implements RTSWriter
     {
       _pw.println("package " + packageName + ";");
       _pw.println("");
-      validPackage = true;
+      return packageName;
     }
+    return null;
+  }
 
-    _pw.println("import java.util.ListResourceBundle;");
-
-    writeImports(parms, meta);
-
-    _pw.println("");
-    _pw.println("public class " + outName + " extends ListResourceBundle {");
-    _pw.println("  @Override");
-    _pw.println("  public Object[][] getContents() {");
-    _pw.println("    return new Object[][] {");
-
+  /**
+   * Writes the bundles of the default locales, which extend the base bundle
+   * without adding anything to it.
+   *
+   * @param packageName the package of the bundle, or null
+   */
+  protected void writeDefaultLocales(Map parms, String packageName)
+    throws IOException
+  {
+    File outFile = (File)parms.get("outFile");
+    String outName = (String)parms.get("outName");
     if (outName.indexOf('_') < 0)
     {
       // This is the base bundle. If any default locales are requested,
@@ -126,13 +156,13 @@ public class ListRTSWriter implements RTSWriter
           String cName = outName + '_' + locales[l];
           File locF = new File(targDir, cName + ".java");
           
-          PrintWriter locWri; 
-          locWri = new PrintWriter(new BufferedWriter(new FileWriter(locF)));
+          StringWriter locSw = new StringWriter();
+          PrintWriter locWri = new PrintWriter(locSw);
 
           locWri.println("// Do not edit this file!");
           locWri.println("// This file has been automatically generated.");
 
-          if (validPackage)
+          if (packageName != null)
           {
             locWri.println("package " + packageName + ";");
             locWri.println("");
@@ -141,6 +171,7 @@ public class ListRTSWriter implements RTSWriter
           locWri.println("{");
           locWri.println("}");
           locWri.close();
+          _getGeneratedFiles(parms).write(locF, locSw.toString());
         }
       }
     }
@@ -174,7 +205,16 @@ public class ListRTSWriter implements RTSWriter
     _pw.println("    };");
     _pw.println("  }");
     _pw.println("}");
+    endFile(parms);
+  }
+
+  /**
+   * Writes the file of the bundle, if its content changed.
+   */
+  protected void endFile(Map parms) throws IOException
+  {
     _pw.close();
+    _getGeneratedFiles(parms).write(_outFile, _sw.toString());
   }
 
   protected PrintWriter getOut()
@@ -182,5 +222,18 @@ public class ListRTSWriter implements RTSWriter
     return _pw;
   }
 
+  private GeneratedFiles _getGeneratedFiles(Map parms)
+  {
+    GeneratedFiles generatedFiles = (GeneratedFiles)parms.get("generatedFiles");
+    if (generatedFiles == null)
+    {
+      generatedFiles = new GeneratedFiles();
+      parms.put("generatedFiles", generatedFiles);
+    }
+    return generatedFiles;
+  }
+
+  private File _outFile;
+  private StringWriter _sw;
   private PrintWriter _pw;
 }
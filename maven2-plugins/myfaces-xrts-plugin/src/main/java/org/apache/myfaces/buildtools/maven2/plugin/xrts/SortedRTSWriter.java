@@ -0,0 +1,152 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.xrts;
+
+import java.io.PrintWriter;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * The <code>SortedRTSWriter</code> class is an implementation of the
+ * <code>RTSWriter</code> interface used to create a
+ * <code>ResourceBundle</code> that looks its keys up in a sorted table.
+ * <p>
+ * Unlike a <code>ListResourceBundle</code>, the generated bundle does not
+ * copy its contents into a <code>HashMap</code> when it is first used. The
+ * keys are kept in a static array shared by the bundles of every locale that
+ * extends it, <code>handleGetObject</code> finds them with a binary search,
+ * and returns the value from a switch, so the value strings are only
+ * resolved when they are asked for.
+ * <p>
+ * As with the <code>ListRTSWriter</code>, a key defined twice keeps its last
+ * value, and the bundle is only written if its content changed.
+ */
+public class SortedRTSWriter extends ListRTSWriter
+{
+
+  /**
+   * Empty constructor for the sorted <code>ResourceBundle</code>
+   * implementation
+   */
+  public SortedRTSWriter()
+  {
+  }
+
+  /**
+   * <code>RTSWriter</code> method implementation to write the header of the
+   * <code>ResourceBundle</code> file.
+   *
+   * @param parms a <code>Map</code> of command line parameters.
+   * @param meta a <code>Map</code> of parsed non-resource data
+   * (e.g., authors).
+   */
+  public void startBundle(Map parms, Map meta)
+    throws Throwable
+  {
+    String outName = (String)parms.get("outName");
+    String packageName = startFile(parms, meta);
+    PrintWriter pw = getOut();
+
+    pw.println("import java.util.Arrays;");
+    pw.println("import java.util.Collections;");
+    pw.println("import java.util.Enumeration;");
+    pw.println("import java.util.LinkedHashSet;");
+    pw.println("import java.util.ResourceBundle;");
+    pw.println("import java.util.Set;");
+
+    writeImports(parms, meta);
+
+    pw.println("");
+    pw.println("public class " + outName + " extends ResourceBundle {");
+
+    writeDefaultLocales(parms, packageName);
+    _contents = new TreeMap();
+  }
+
+  public void writeString(Map parms, Map meta, String key,
+    String value) throws Throwable
+  {
+    _contents.put(key, value);
+  }
+
+  /**
+   * <code>RTSWriter</code> method implementation to write the key table and
+   * the lookup methods of the <code>ResourceBundle</code>, and close the
+   * file.
+   *
+   * @param meta a <code>Map</code> of parsed non-resource data
+   * (e.g., authors).
+   */
+  public void endBundle(Map parms, Map meta) throws Throwable
+  {
+    PrintWriter pw = getOut();
+
+    pw.println("  // Sorted for the binary search of handleGetObject");
+    pw.println("  private static final String[] _KEYS = {");
+    for (Iterator i = _contents.keySet().iterator(); i.hasNext();)
+    {
+      pw.println("    \"" + UnicodeEscapes.convert((String)i.next()) + "\",");
+    }
+    pw.println("  };");
+    pw.println("");
+
+    pw.println("  @Override");
+    pw.println("  protected Object handleGetObject(String key) {");
+    pw.println("    int index = Arrays.binarySearch(_KEYS, key);");
+    pw.println("    return (index < 0) ? null : _getValue(index);");
+    pw.println("  }");
+    pw.println("");
+
+    pw.println("  @Override");
+    pw.println("  public Enumeration<String> getKeys() {");
+    pw.println("    Set<String> keys = new LinkedHashSet<String>(handleKeySet());");
+    pw.println("    if (parent != null) {");
+    pw.println("      keys.addAll(Collections.list(parent.getKeys()));");
+    pw.println("    }");
+    pw.println("    return Collections.enumeration(keys);");
+    pw.println("  }");
+    pw.println("");
+
+    pw.println("  @Override");
+    pw.println("  protected Set<String> handleKeySet() {");
+    pw.println("    return new LinkedHashSet<String>(Arrays.asList(_KEYS));");
+    pw.println("  }");
+    pw.println("");
+
+    pw.println("  private static String _getValue(int index) {");
+    pw.println("    switch (index) {");
+    int index = 0;
+    for (Iterator i = _contents.values().iterator(); i.hasNext(); index++)
+    {
+      pw.println("      case " + index + ": return \"" +
+                 UnicodeEscapes.convert((String)i.next()) + "\";");
+    }
+    pw.println("      default: return null;");
+    pw.println("    }");
+    pw.println("  }");
+    pw.println("}");
+
+    _contents = null;
+    endFile(parms);
+  }
+
+  private Map _contents;
+}
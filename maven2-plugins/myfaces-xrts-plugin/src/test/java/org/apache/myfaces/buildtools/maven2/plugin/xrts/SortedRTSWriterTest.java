@@ -0,0 +1,214 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.myfaces.buildtools.maven2.plugin.xrts;
+
+import java.io.File;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import javax.xml.parsers.SAXParserFactory;
+
+import junit.framework.TestCase;
+
+import org.xml.sax.InputSource;
+
+/**
+ * Tests that a bundle written by the SortedRTSWriter has the same keys and
+ * values as the ListResourceBundle the ListRTSWriter writes from the same
+ * XRTS file.
+ */
+public class SortedRTSWriterTest extends TestCase
+{
+  /**
+   * Creates a new SortedRTSWriterTest.
+   *
+   * @param testName  the test to execute
+   */
+  public SortedRTSWriterTest(
+    String testName)
+  {
+    super(testName);
+  }
+
+  public void setUp()
+  {
+    _dir = new File("target/sorted-rts-writer");
+    _delete(_dir);
+    _dir.mkdirs();
+  }
+
+  public void testSameContentsAsList() throws Throwable
+  {
+    String xrts = _createXRTS();
+    _generate(new ListRTSWriter(), "ListBundle", xrts);
+    _generate(new SortedRTSWriter(), "SortedBundle", xrts);
+    ClassLoader loader = _compile();
+
+    Class listClass = loader.loadClass("xrtstest.ListBundle");
+    Object[][] contents = (Object[][])
+      listClass.getMethod("getContents", new Class[0]).invoke(
+        listClass.newInstance(), new Object[0]);
+    Map expected = new HashMap();
+    for (int i = 0; i < contents.length; i++)
+    {
+      expected.put(contents[i][0], contents[i][1]);
+    }
+    assertEquals("dup 2", expected.get("dup"));
+
+    ResourceBundle sorted =
+      (ResourceBundle)loader.loadClass("xrtstest.SortedBundle").newInstance();
+    assertEquals(expected.keySet(),
+                 new HashSet(Collections.list(sorted.getKeys())));
+    for (Iterator i = expected.entrySet().iterator(); i.hasNext();)
+    {
+      Map.Entry entry = (Map.Entry)i.next();
+      assertEquals((String)entry.getKey(),
+                   entry.getValue(), sorted.getObject((String)entry.getKey()));
+    }
+
+    String[] missing = { "", "a", "key.0000", "key.9999", "\uffff" };
+    for (int i = 0; i < missing.length; i++)
+    {
+      try
+      {
+        sorted.getObject(missing[i]);
+        fail("Found " + missing[i]);
+      }
+      catch (MissingResourceException e)
+      {
+        // expected
+      }
+    }
+  }
+
+  /**
+   * Keys in no particular order, one of them defined twice, and keys and
+   * values that need escaping in java sources.
+   */
+  private String _createXRTS()
+  {
+    StringBuffer xrts = new StringBuffer();
+    xrts.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    xrts.append("<resources package=\"xrtstest\">\n");
+    for (int i = 0; i < _KEY_COUNT; i++)
+    {
+      int key = (i * 7919) % _KEY_COUNT + 1;
+      xrts.append("  <resource key=\"key.").append(key).append("\">value ");
+      xrts.append(key).append("</resource>\n");
+    }
+    xrts.append("  <resource key=\"dup\">dup 1</resource>\n");
+    xrts.append("  <resource key=\"Upper\">upper case</resource>\n");
+    xrts.append("  <resource key=\"quote&quot;key\">a &quot;quoted&quot; value</resource>\n");
+    xrts.append("  <resource key=\"back\\slash\">c:\\dir\\file</resource>\n");
+    xrts.append("  <resource key=\"caf\u00e9\">\u00e9t\u00e9 \u4e2d\u6587</resource>\n");
+    xrts.append("  <resource key=\"empty\"></resource>\n");
+    xrts.append("  <resource key=\"dup\">dup 2</resource>\n");
+    xrts.append("</resources>\n");
+    return xrts.toString();
+  }
+
+  private void _generate(RTSWriter writer, String name, String xrts)
+    throws Throwable
+  {
+    File outFile = new File(_dir, "src/xrtstest/" + name + ".java");
+    outFile.getParentFile().mkdirs();
+
+    Map params = new HashMap();
+    params.put("outFile", outFile);
+    params.put("outName", name);
+    params.put("srcName", name);
+    params.put("quietMode", Boolean.TRUE);
+
+    SAXParserFactory factory = SAXParserFactory.newInstance();
+    factory.setValidating(false);
+    XRTSGenerator.generate(factory.newSAXParser(),
+                           new InputSource(new StringReader(xrts)),
+                           writer, params);
+  }
+
+  private ClassLoader _compile() throws Exception
+  {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assertNotNull("The tests must run on a JDK", compiler);
+
+    File classes = new File(_dir, "classes");
+    classes.mkdirs();
+    File[] sources = new File(_dir, "src/xrtstest").listFiles();
+
+    DiagnosticCollector<JavaFileObject> diagnostics =
+      new DiagnosticCollector<JavaFileObject>();
+    StandardJavaFileManager fileManager =
+      compiler.getStandardFileManager(diagnostics, null, null);
+    try
+    {
+      Iterable<? extends JavaFileObject> units =
+        fileManager.getJavaFileObjectsFromFiles(Arrays.asList(sources));
+      Iterable<String> options =
+        Arrays.asList(new String[] { "-nowarn", "-encoding", "UTF-8",
+                                     "-d", classes.getPath() });
+      if (!compiler.getTask(null, fileManager, diagnostics, options,
+                            null, units).call().booleanValue())
+      {
+        StringBuffer message = new StringBuffer("Bundles do not compile:");
+        for (Diagnostic diagnostic : diagnostics.getDiagnostics())
+        {
+          message.append('\n').append(diagnostic);
+        }
+        fail(message.toString());
+      }
+    }
+    finally
+    {
+      fileManager.close();
+    }
+    return new URLClassLoader(new URL[] { classes.toURI().toURL() }, null);
+  }
+
+  private static void _delete(File file)
+  {
+    File[] children = file.listFiles();
+    if (children != null)
+    {
+      for (int i = 0; i < children.length; i++)
+      {
+        _delete(children[i]);
+      }
+    }
+    file.delete();
+  }
+
+  private static final int _KEY_COUNT = 500;
+
+  private File _dir;
+}